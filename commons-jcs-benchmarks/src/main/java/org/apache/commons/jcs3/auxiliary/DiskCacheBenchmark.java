@@ -0,0 +1,157 @@
+package org.apache.commons.jcs3.auxiliary;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.auxiliary.disk.block.BlockDiskCache;
+import org.apache.commons.jcs3.auxiliary.disk.block.BlockDiskCacheAttributes;
+import org.apache.commons.jcs3.auxiliary.disk.indexed.IndexedDiskCache;
+import org.apache.commons.jcs3.auxiliary.disk.indexed.IndexedDiskCacheAttributes;
+import org.apache.commons.jcs3.benchmarks.Workload;
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes of the disk caches.
+ * <p>
+ * The benchmark calls processGet and processUpdate, which is why it lives in this package: the
+ * public update only queues the element for the background writer.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class DiskCacheBenchmark
+{
+    /** The disk cache */
+    @Param( { "indexed", "block" } )
+    public String diskCache;
+
+    /** The size of the values */
+    @Param( { "1024" } )
+    public int valueSize;
+
+    /** The folder of the disk cache */
+    private File directory;
+
+    /** The disk cache */
+    private AbstractAuxiliaryCacheEventLogging<String, byte[]> cache;
+
+    /** The value written */
+    private byte[] value;
+
+    /**
+     * Creates the disk cache and writes all the keys.
+     * <p>
+     * @param workload the keys
+     * @throws IOException
+     */
+    @Setup
+    public void setUp( final Workload workload )
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "jcs-benchmark" ).toFile();
+        value = new byte[valueSize];
+
+        if ( "indexed".equals( diskCache ) )
+        {
+            final IndexedDiskCacheAttributes cattr = new IndexedDiskCacheAttributes();
+            cattr.setCacheName( "benchmark" );
+            cattr.setDiskPath( directory );
+            cattr.setMaxKeySize( workload.keyCount );
+            cache = new IndexedDiskCache<>( cattr );
+        }
+        else
+        {
+            final BlockDiskCacheAttributes cattr = new BlockDiskCacheAttributes();
+            cattr.setCacheName( "benchmark" );
+            cattr.setDiskPath( directory );
+            cattr.setMaxKeySize( workload.keyCount );
+            cache = new BlockDiskCache<>( cattr );
+        }
+
+        for ( final String key : workload.keys )
+        {
+            cache.processUpdate( new CacheElement<>( "benchmark", key, value ) );
+        }
+    }
+
+    /**
+     * Disposes of the disk cache and deletes its files.
+     * <p>
+     * @throws IOException
+     */
+    @TearDown
+    public void tearDown()
+        throws IOException
+    {
+        cache.processDispose();
+        final File[] files = directory.listFiles();
+        if ( files != null )
+        {
+            for ( final File file : files )
+            {
+                Files.delete( file.toPath() );
+            }
+        }
+        Files.delete( directory.toPath() );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @return the element
+     * @throws IOException
+     */
+    @Benchmark
+    public ICacheElement<String, byte[]> read( final Workload.Draws draws )
+        throws IOException
+    {
+        return cache.processGet( draws.nextKey() );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @throws IOException
+     */
+    @Benchmark
+    public void write( final Workload.Draws draws )
+        throws IOException
+    {
+        cache.processUpdate( new CacheElement<>( "benchmark", draws.nextKey(), value ) );
+    }
+}
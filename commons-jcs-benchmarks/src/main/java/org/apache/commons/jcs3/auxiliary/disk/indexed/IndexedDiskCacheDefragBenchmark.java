@@ -0,0 +1,123 @@
+package org.apache.commons.jcs3.auxiliary.disk.indexed;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Defragmentation of an indexed disk cache where every other element was removed. Replaces the
+ * IndexedDiskCacheDefragPerformanceTest timings.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class IndexedDiskCacheDefragBenchmark
+{
+    /** The number of elements written */
+    @Param( { "10000" } )
+    public int elementCount;
+
+    /** The size of the values */
+    @Param( { "1024" } )
+    public int valueSize;
+
+    /** The folder of the disk cache */
+    private File directory;
+
+    /** The disk cache */
+    private IndexedDiskCache<String, byte[]> cache;
+
+    /**
+     * Writes the elements then removes every other one.
+     * <p>
+     * @throws IOException
+     */
+    @Setup( Level.Invocation )
+    public void setUp()
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "jcs-benchmark" ).toFile();
+        final IndexedDiskCacheAttributes cattr = new IndexedDiskCacheAttributes();
+        cattr.setCacheName( "defrag" );
+        cattr.setDiskPath( directory );
+        cattr.setMaxKeySize( elementCount );
+        cattr.setOptimizeAtRemoveCount( -1 );
+        cache = new IndexedDiskCache<>( cattr );
+
+        final byte[] value = new byte[valueSize];
+        for ( int i = 0; i < elementCount; i++ )
+        {
+            cache.processUpdate( new CacheElement<>( "defrag", "key" + i, value ) );
+        }
+        for ( int i = 0; i < elementCount; i += 2 )
+        {
+            cache.processRemove( "key" + i );
+        }
+    }
+
+    /**
+     * Disposes of the disk cache and deletes its files.
+     * <p>
+     * @throws IOException
+     */
+    @TearDown( Level.Invocation )
+    public void tearDown()
+        throws IOException
+    {
+        cache.processDispose();
+        final File[] files = directory.listFiles();
+        if ( files != null )
+        {
+            for ( final File file : files )
+            {
+                Files.delete( file.toPath() );
+            }
+        }
+        Files.delete( directory.toPath() );
+    }
+
+    /** Compacts the data file */
+    @Benchmark
+    public void defrag()
+    {
+        cache.optimizeFile();
+    }
+}
@@ -0,0 +1,171 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.CompositeCacheAttributes;
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICompositeCacheAttributes;
+import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.utils.timing.CoarseClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Get and put on a region without auxiliaries, for each memory cache.
+ * <p>
+ * With the defaults every get is a memory hit, run with <code>-prof gc</code> to check that a hit
+ * allocates nothing. Lower maxObjects below keyCount to add misses and evictions.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CompositeCacheBenchmark
+{
+    /** The memory cache, relative to org.apache.commons.jcs3.engine.memory */
+    @Param( { "lru.LRUMemoryCache", "lru.LHMLRUMemoryCache", "mru.MRUMemoryCache", "fifo.FIFOMemoryCache",
+        "soft.SoftReferenceMemoryCache" } )
+    public String memoryCache;
+
+    /** The maximum number of elements in memory */
+    @Param( { "10000" } )
+    public int maxObjects;
+
+    /** The region */
+    private CompositeCache<String, String> cache;
+
+    /**
+     * Starts the coarse clock, as the cache manager does, then creates the region and puts all
+     * the keys. Without the clock the hits would read the system clock.
+     * <p>
+     * @param workload the keys
+     * @throws IOException
+     */
+    @Setup
+    public void setUp( final Workload workload )
+        throws IOException
+    {
+        CoarseClock.start();
+
+        final ICompositeCacheAttributes cattr = new CompositeCacheAttributes();
+        cattr.setCacheName( "benchmark" );
+        cattr.setMaxObjects( maxObjects );
+        cattr.setMemoryCacheName( "org.apache.commons.jcs3.engine.memory." + memoryCache );
+        final IElementAttributes attr = new ElementAttributes();
+        attr.setIsEternal( false );
+        attr.setMaxLife( 3600 );
+        cache = new CompositeCache<>( cattr, attr );
+
+        for ( final String key : workload.keys )
+        {
+            put( key );
+        }
+    }
+
+    /** Disposes of the region and stops the clock */
+    @TearDown
+    public void tearDown()
+    {
+        cache.dispose();
+        CoarseClock.stop();
+    }
+
+    /**
+     * Puts a value the way CacheAccess does.
+     * <p>
+     * @param key the key
+     * @throws IOException
+     */
+    private void put( final String key )
+        throws IOException
+    {
+        cache.update( new CacheElement<>( "benchmark", key, key, cache.getElementAttributes() ) );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @return the element
+     */
+    @Benchmark
+    public ICacheElement<String, String> get( final Workload.Draws draws )
+    {
+        return cache.get( draws.nextKey() );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @throws IOException
+     */
+    @Benchmark
+    public void put( final Workload.Draws draws )
+        throws IOException
+    {
+        put( draws.nextKey() );
+    }
+
+    /**
+     * The get side of a read mostly load.
+     * <p>
+     * @param draws the keys of this thread
+     * @return the element
+     */
+    @Benchmark
+    @Group( "readMostly" )
+    @GroupThreads( 3 )
+    public ICacheElement<String, String> readMostlyGet( final Workload.Draws draws )
+    {
+        return cache.get( draws.nextKey() );
+    }
+
+    /**
+     * The put side of a read mostly load.
+     * <p>
+     * @param draws the keys of this thread
+     * @throws IOException
+     */
+    @Benchmark
+    @Group( "readMostly" )
+    @GroupThreads( 1 )
+    public void readMostlyPut( final Workload.Draws draws )
+        throws IOException
+    {
+        put( draws.nextKey() );
+    }
+}
@@ -0,0 +1,195 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.spi.CachingProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Get and put through the JCache API, storing by value (a copy on each get and put) or by
+ * reference.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class JCacheBenchmark
+{
+    /** Whether the cache copies the values */
+    @Param( { "true", "false" } )
+    public boolean storeByValue;
+
+    /** The number of longs in a value */
+    @Param( { "16" } )
+    public int valueLength;
+
+    /** The provider */
+    private CachingProvider provider;
+
+    /** The cache */
+    private Cache<String, Payload> cache;
+
+    /** The value put */
+    private Payload value;
+
+    /**
+     * Creates the cache and puts all the keys.
+     * <p>
+     * @param workload the keys
+     */
+    @Setup
+    public void setUp( final Workload workload )
+    {
+        provider = Caching.getCachingProvider( "org.apache.commons.jcs3.jcache.JCSCachingProvider" );
+        final Properties props = new Properties();
+        props.setProperty( "jcs.default.cacheattributes.MaxObjects", String.valueOf( workload.keyCount ) );
+        final CacheManager manager = provider.getCacheManager( provider.getDefaultURI(),
+                provider.getDefaultClassLoader(), props );
+        cache = manager.createCache( "benchmark", new MutableConfiguration<String, Payload>()
+                .setTypes( String.class, Payload.class )
+                .setStoreByValue( storeByValue ) );
+
+        final long[] values = new long[valueLength];
+        Arrays.fill( values, 42 );
+        value = new Payload( "benchmark", values );
+        for ( final String key : workload.keys )
+        {
+            cache.put( key, value );
+        }
+    }
+
+    /** Closes the provider and its caches */
+    @TearDown
+    public void tearDown()
+    {
+        provider.close();
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @return the value
+     */
+    @Benchmark
+    public Payload get( final Workload.Draws draws )
+    {
+        return cache.get( draws.nextKey() );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     */
+    @Benchmark
+    public void put( final Workload.Draws draws )
+    {
+        cache.put( draws.nextKey(), value );
+    }
+
+    /**
+     * The get side of a read mostly load.
+     * <p>
+     * @param draws the keys of this thread
+     * @return the value
+     */
+    @Benchmark
+    @Group( "readMostly" )
+    @GroupThreads( 3 )
+    public Payload readMostlyGet( final Workload.Draws draws )
+    {
+        return cache.get( draws.nextKey() );
+    }
+
+    /**
+     * The put side of a read mostly load.
+     * <p>
+     * @param draws the keys of this thread
+     */
+    @Benchmark
+    @Group( "readMostly" )
+    @GroupThreads( 1 )
+    public void readMostlyPut( final Workload.Draws draws )
+    {
+        cache.put( draws.nextKey(), value );
+    }
+
+    /** A mutable value, so that storing by value has to copy it */
+    public static class Payload
+        implements Serializable
+    {
+        /** Don't change */
+        private static final long serialVersionUID = 1L;
+
+        /** A name */
+        private final String name;
+
+        /** Some numbers */
+        private final long[] values;
+
+        /**
+         * @param name a name
+         * @param values some numbers
+         */
+        public Payload( final String name, final long[] values )
+        {
+            this.name = name;
+            this.values = values;
+        }
+
+        /**
+         * @return the name
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @return the numbers
+         */
+        public long[] getValues()
+        {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.auxiliary.lateral.socket.tcp.LateralTCPListener;
+import org.apache.commons.jcs3.auxiliary.lateral.socket.tcp.LateralTCPService;
+import org.apache.commons.jcs3.auxiliary.lateral.socket.tcp.TCPLateralCacheAttributes;
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lateral TCP over the loopback: a get is a round trip to the listener, a put is one way.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( { Mode.Throughput, Mode.SampleTime } )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class LateralTcpBenchmark
+{
+    /** The port of the listener */
+    @Param( { "1120" } )
+    public int port;
+
+    /** The manager of the listening side */
+    private CompositeCacheManager manager;
+
+    /** The listener */
+    private LateralTCPListener<String, String> listener;
+
+    /** The sending side */
+    private LateralTCPService<String, String> service;
+
+    /**
+     * Starts the listener on a region holding all the keys and connects to it.
+     * <p>
+     * @param workload the keys
+     * @throws IOException
+     */
+    @Setup
+    public void setUp( final Workload workload )
+        throws IOException
+    {
+        final Properties props = new Properties();
+        props.setProperty( "jcs.default", "" );
+        props.setProperty( "jcs.default.cacheattributes.MaxObjects", String.valueOf( workload.keyCount ) );
+        manager = CompositeCacheManager.getUnconfiguredInstance();
+        manager.configure( props );
+        final CompositeCache<String, String> region = manager.getCache( "benchmark" );
+        for ( final String key : workload.keys )
+        {
+            region.localUpdate( new CacheElement<>( "benchmark", key, key ) );
+        }
+
+        final TCPLateralCacheAttributes listenerAttributes = new TCPLateralCacheAttributes();
+        listenerAttributes.setTcpListenerPort( port );
+        listener = LateralTCPListener.getInstance( listenerAttributes, manager );
+        // both sides run in this VM, the listener would ignore requests carrying its own id
+        listener.setListenerId( 1 );
+
+        final TCPLateralCacheAttributes serviceAttributes = new TCPLateralCacheAttributes();
+        serviceAttributes.setTcpServer( "localhost:" + port );
+        service = new LateralTCPService<>( serviceAttributes );
+    }
+
+    /**
+     * Closes the connections and shuts down the manager.
+     * <p>
+     * @throws IOException
+     */
+    @TearDown
+    public void tearDown()
+        throws IOException
+    {
+        service.dispose( "benchmark" );
+        listener.shutdown();
+        manager.shutDown();
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @return the element read from the listener
+     * @throws IOException
+     */
+    @Benchmark
+    public ICacheElement<String, String> get( final Workload.Draws draws )
+        throws IOException
+    {
+        return service.get( "benchmark", draws.nextKey() );
+    }
+
+    /**
+     * @param draws the keys of this thread
+     * @throws IOException
+     */
+    @Benchmark
+    public void put( final Workload.Draws draws )
+        throws IOException
+    {
+        final String key = draws.nextKey();
+        service.update( new CacheElement<>( "benchmark", key, key ) );
+    }
+}
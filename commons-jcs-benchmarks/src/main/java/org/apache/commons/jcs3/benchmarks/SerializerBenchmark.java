@@ -0,0 +1,115 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.utils.serialization.CompressingSerializer;
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the element serializers used by the disk, lateral and remote caches.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SerializerBenchmark
+{
+    /** The serializer */
+    @Param( { "standard", "compressing" } )
+    public String serializer;
+
+    /** The length of the value */
+    @Param( { "100", "10000" } )
+    public int valueLength;
+
+    /** The serializer */
+    private IElementSerializer elementSerializer;
+
+    /** The element serialized */
+    private ICacheElement<String, String> element;
+
+    /** The element deserialized */
+    private byte[] bytes;
+
+    /**
+     * Creates a value of words drawn at random, so that it compresses like text.
+     * <p>
+     * @throws IOException
+     */
+    @Setup
+    public void setUp()
+        throws IOException
+    {
+        elementSerializer = "compressing".equals( serializer ) ? new CompressingSerializer() : new StandardSerializer();
+
+        final String[] words = { "cache", "region", "element", "memory", "disk", "lateral", "remote", "key" };
+        final Random random = new Random( 42 );
+        final StringBuilder value = new StringBuilder( valueLength + 10 );
+        while ( value.length() < valueLength )
+        {
+            value.append( words[random.nextInt( words.length )] ).append( ' ' );
+        }
+        element = new CacheElement<>( "benchmark", "key", value.substring( 0, valueLength ) );
+        bytes = elementSerializer.serialize( element );
+    }
+
+    /**
+     * @return the serialized element
+     * @throws IOException
+     */
+    @Benchmark
+    public byte[] serialize()
+        throws IOException
+    {
+        return elementSerializer.serialize( element );
+    }
+
+    /**
+     * @return the deserialized element
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    @Benchmark
+    public ICacheElement<String, String> deserialize()
+        throws IOException, ClassNotFoundException
+    {
+        return elementSerializer.deSerialize( bytes, null );
+    }
+}
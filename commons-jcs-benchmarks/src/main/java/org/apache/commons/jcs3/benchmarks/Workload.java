@@ -0,0 +1,85 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The keys shared by the threads of a benchmark. Each thread draws them from its own
+ * {@link Draws}.
+ */
+@State( Scope.Benchmark )
+public class Workload
+{
+    /** The number of distinct keys */
+    @Param( { "10000" } )
+    public int keyCount;
+
+    /** The skew of the key popularity, 0 for uniform */
+    @Param( { "0.99" } )
+    public double skew;
+
+    /** The keys */
+    public String[] keys;
+
+    /** Gives each thread its own draws */
+    private final AtomicInteger seeds = new AtomicInteger();
+
+    /** Creates the keys */
+    @Setup
+    public void setUp()
+    {
+        keys = ZipfianKeys.createKeys( keyCount );
+    }
+
+    /** The draws of one thread */
+    @State( Scope.Thread )
+    public static class Draws
+    {
+        /** The keys */
+        private String[] keys;
+
+        /** The draws */
+        private ZipfianKeys zipf;
+
+        /**
+         * @param workload the keys to draw from
+         */
+        @Setup
+        public void setUp( final Workload workload )
+        {
+            keys = workload.keys;
+            zipf = new ZipfianKeys( workload.keyCount, workload.skew, workload.seeds.incrementAndGet() );
+        }
+
+        /**
+         * @return the next key
+         */
+        public String nextKey()
+        {
+            return keys[zipf.next()];
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.apache.commons.jcs3.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A precomputed sequence of key indexes following a Zipfian distribution, so that drawing a key
+ * costs an array read and does not show in the measurements.
+ * <p>
+ * Index 0 is the most popular. A skew of 0 gives a uniform distribution, 0.99 is the usual skew of
+ * cache workloads.
+ */
+public class ZipfianKeys
+{
+    /** The number of precomputed draws, a power of two */
+    private static final int DRAWS = 1 << 16;
+
+    /** The precomputed draws */
+    private final int[] indexes = new int[DRAWS];
+
+    /** The next draw */
+    private int next;
+
+    /**
+     * Constructor for the ZipfianKeys object
+     * <p>
+     * @param keyCount the number of distinct keys
+     * @param skew the exponent of the distribution
+     * @param seed seeds the draws, give each thread its own
+     */
+    public ZipfianKeys( final int keyCount, final double skew, final long seed )
+    {
+        // cumulative distribution of p(i) = 1 / (i + 1)^skew
+        final double[] cdf = new double[keyCount];
+        double sum = 0;
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            sum += 1 / Math.pow( i + 1, skew );
+            cdf[i] = sum;
+        }
+
+        final Random random = new Random( seed );
+        for ( int i = 0; i < DRAWS; i++ )
+        {
+            final int found = Arrays.binarySearch( cdf, random.nextDouble() * sum );
+            indexes[i] = Math.min( found >= 0 ? found : -found - 1, keyCount - 1 );
+        }
+    }
+
+    /**
+     * @return the index of the next key
+     */
+    public int next()
+    {
+        return indexes[next++ & DRAWS - 1];
+    }
+
+    /**
+     * Creates the keys of the benchmarks.
+     * <p>
+     * @param keyCount the number of keys
+     * @return key0 to key(keyCount - 1)
+     */
+    public static String[] createKeys( final int keyCount )
+    {
+        final String[] keys = new String[keyCount];
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            keys[i] = "key" + i;
+        }
+        return keys;
+    }
+}
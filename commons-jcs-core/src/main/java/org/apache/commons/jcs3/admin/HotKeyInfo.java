@@ -0,0 +1,91 @@
+package org.apache.commons.jcs3.admin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Stores info on a hot key of a region for the template
+ */
+public class HotKeyInfo
+{
+    /** element key */
+    private final String key;
+
+    /** estimated gets and puts */
+    private final long count;
+
+    /** by how much the count may exceed the real number */
+    private final long error;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param key element key
+     * @param count estimated gets and puts
+     * @param error by how much the count may exceed the real number
+     */
+    @ConstructorProperties({"key", "count", "error"})
+    public HotKeyInfo(final String key, final long count, final long error)
+    {
+        this.key = key;
+        this.count = count;
+        this.error = error;
+    }
+
+    /**
+     * @return a string representation of the key
+     */
+    public String getKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * @return the estimated number of gets and puts of the key
+     */
+    public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @return by how much the count may exceed the real number of gets and puts
+     */
+    public long getError()
+    {
+        return this.error;
+    }
+
+    /**
+     * @return string info on the key
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder buf = new StringBuilder();
+        buf.append( "\nHotKeyInfo " );
+        buf.append( "\n Key [" ).append( getKey() ).append( "]" );
+        buf.append( "\n Count [" ).append( getCount() ).append( "]" );
+        buf.append( "\n Error [" ).append( getError() ).append( "]" );
+
+        return buf.toString();
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
 import org.apache.commons.jcs3.engine.control.CompositeCache;
 import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
 import org.apache.commons.jcs3.engine.memory.behavior.IMemoryCache;
+import org.apache.commons.jcs3.engine.stats.HotKeyTracker;
 
 /**
  * A servlet which provides HTTP access to JCS. Allows a summary of regions to be viewed, and
@@ -156,6 +157,54 @@ public class JCSAdminBean implements JCSJMXBean
         return cacheInfo;
     }
 
+    /**
+     * Builds up info about the keys taking most of the gets and puts of a region. The region
+     * must set HotKeyTrackerSize.
+     * <p>
+     * @param cacheName
+     * @return List of HotKeyInfo objects, the hottest first, empty if the region does not track them
+     */
+    @Override
+    public List<HotKeyInfo> buildHotKeyInfo( final String cacheName )
+    {
+        final HotKeyTracker<?, ?> tracker = cacheHub.getCache( cacheName ).getHotKeyTracker();
+
+        final LinkedList<HotKeyInfo> records = new LinkedList<>();
+        if ( tracker != null )
+        {
+            for ( final HotKeyTracker.HotKey<?> hotKey : tracker.getHotKeys() )
+            {
+                records.add( new HotKeyInfo( String.valueOf( hotKey.getKey() ), hotKey.getCount(), hotKey.getError() ) );
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Builds up info about the largest values put in a region. The region must set
+     * HotKeyTrackerSize.
+     * <p>
+     * @param cacheName
+     * @return List of LargeValueInfo objects, the largest first, empty if the region does not track them
+     */
+    @Override
+    public List<LargeValueInfo> buildLargestValueInfo( final String cacheName )
+    {
+        final HotKeyTracker<?, ?> tracker = cacheHub.getCache( cacheName ).getHotKeyTracker();
+
+        final LinkedList<LargeValueInfo> records = new LinkedList<>();
+        if ( tracker != null )
+        {
+            for ( final HotKeyTracker.LargeValue<?> value : tracker.getLargestValues() )
+            {
+                records.add( new LargeValueInfo( String.valueOf( value.getKey() ), value.getSize() ) );
+            }
+        }
+
+        return records;
+    }
+
 
 	/**
      * Tries to estimate how much data is in a region. This is expensive. If there are any non serializable objects in
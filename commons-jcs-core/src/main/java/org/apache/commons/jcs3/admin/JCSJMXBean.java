@@ -48,6 +48,24 @@ public interface JCSJMXBean
      */
     List<CacheRegionInfo> buildCacheInfo();
 
+    /**
+     * Builds up info about the keys taking most of the gets and puts of a region. The region
+     * must set HotKeyTrackerSize.
+     * <p>
+     * @param cacheName
+     * @return List of HotKeyInfo objects, the hottest first, empty if the region does not track them
+     */
+    List<HotKeyInfo> buildHotKeyInfo( String cacheName );
+
+    /**
+     * Builds up info about the largest values put in a region. The region must set
+     * HotKeyTrackerSize.
+     * <p>
+     * @param cacheName
+     * @return List of LargeValueInfo objects, the largest first, empty if the region does not track them
+     */
+    List<LargeValueInfo> buildLargestValueInfo( String cacheName );
+
     /**
      * Tries to estimate how much data is in a region. This is expensive. If there are any non serializable objects in
      * the region or an error occurs, suppresses exceptions and returns 0.
@@ -0,0 +1,77 @@
+package org.apache.commons.jcs3.admin;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Stores info on one of the largest values of a region for the template
+ */
+public class LargeValueInfo
+{
+    /** element key */
+    private final String key;
+
+    /** estimated size of the value */
+    private final long sizeBytes;
+
+    /**
+     * Parameterized constructor
+     *
+     * @param key element key
+     * @param sizeBytes estimated size of the value
+     */
+    @ConstructorProperties({"key", "sizeBytes"})
+    public LargeValueInfo(final String key, final long sizeBytes)
+    {
+        this.key = key;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * @return a string representation of the key
+     */
+    public String getKey()
+    {
+        return this.key;
+    }
+
+    /**
+     * @return the estimated size of the value in bytes, when it was last put
+     */
+    public long getSizeBytes()
+    {
+        return this.sizeBytes;
+    }
+
+    /**
+     * @return string info on the value
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder buf = new StringBuilder();
+        buf.append( "\nLargeValueInfo " );
+        buf.append( "\n Key [" ).append( getKey() ).append( "]" );
+        buf.append( "\n SizeBytes [" ).append( getSizeBytes() ).append( "]" );
+
+        return buf.toString();
+    }
+}
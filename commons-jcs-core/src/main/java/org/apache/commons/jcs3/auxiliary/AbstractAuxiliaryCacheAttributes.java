@@ -42,6 +42,12 @@ public abstract class AbstractAuxiliaryCacheAttributes
     /** Named when pooled */
     private String eventQueuePoolName;
 
+    /** Maximum number of events when bounded */
+    private int eventQueueCapacity = ICacheEventQueue.DEFAULT_CAPACITY;
+
+    /** What to do when a bounded queue is full */
+    private ICacheEventQueue.OverflowPolicy eventQueueOverflowPolicy = ICacheEventQueue.OverflowPolicy.BLOCK;
+
     /**
      * @param name
      */
@@ -128,6 +134,46 @@ public abstract class AbstractAuxiliaryCacheAttributes
         return eventQueuePoolName;
     }
 
+    /**
+     * The maximum number of events a BOUNDED event queue will hold.
+     * <p>
+     * @param capacity the maximum number of events
+     */
+    @Override
+    public void setEventQueueCapacity( final int capacity )
+    {
+        this.eventQueueCapacity = capacity;
+    }
+
+    /**
+     * @return the maximum number of events a BOUNDED event queue will hold
+     */
+    @Override
+    public int getEventQueueCapacity()
+    {
+        return eventQueueCapacity;
+    }
+
+    /**
+     * What a BOUNDED event queue does when it is full. BLOCK is the default.
+     * <p>
+     * @param policy BLOCK, DROP_OLDEST, COALESCE or ZOMBIE
+     */
+    @Override
+    public void setEventQueueOverflowPolicy( final ICacheEventQueue.OverflowPolicy policy )
+    {
+        this.eventQueueOverflowPolicy = policy;
+    }
+
+    /**
+     * @return BLOCK, DROP_OLDEST, COALESCE or ZOMBIE
+     */
+    @Override
+    public ICacheEventQueue.OverflowPolicy getEventQueueOverflowPolicy()
+    {
+        return eventQueueOverflowPolicy;
+    }
+
     /**
      * @see java.lang.Object#clone()
      */
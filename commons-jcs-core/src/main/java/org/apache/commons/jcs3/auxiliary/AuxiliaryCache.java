@@ -52,6 +52,16 @@ public interface AuxiliaryCache<K, V>
      */
     IStats getStatistics();
 
+    /**
+     * Gets the number of events waiting to be processed by this auxiliary.
+     * <p>
+     * @return the depth of the event queue, 0 if the auxiliary does not queue events
+     */
+    default int getEventQueueSize()
+    {
+        return 0;
+    }
+
     /**
      * This returns the generic attributes for an auxiliary cache. Most implementations will cast
      * this to a more specific type.
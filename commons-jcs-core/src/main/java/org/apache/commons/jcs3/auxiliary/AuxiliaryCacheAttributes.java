@@ -59,9 +59,10 @@ public interface AuxiliaryCacheAttributes
     String getName();
 
     /**
-     * SINGLE is the default. If you choose POOLED, the value of EventQueuePoolName will be used
+     * SINGLE is the default. If you choose POOLED, the value of EventQueuePoolName will be used.
+     * If you choose BOUNDED, EventQueueCapacity and EventQueueOverflowPolicy will be used.
      * <p>
-     * @param s SINGLE or POOLED
+     * @param s SINGLE, POOLED or BOUNDED
      */
     void setEventQueueType( ICacheEventQueue.QueueType s );
 
@@ -86,6 +87,31 @@ public interface AuxiliaryCacheAttributes
      */
     String getEventQueuePoolName();
 
+    /**
+     * The maximum number of events a BOUNDED event queue will hold. This is ignored for the
+     * other queue types.
+     * <p>
+     * @param capacity the maximum number of events
+     */
+    void setEventQueueCapacity( int capacity );
+
+    /**
+     * @return the maximum number of events a BOUNDED event queue will hold
+     */
+    int getEventQueueCapacity();
+
+    /**
+     * What a BOUNDED event queue does when it is full. This is ignored for the other queue types.
+     * <p>
+     * @param policy BLOCK, DROP_OLDEST, COALESCE or ZOMBIE
+     */
+    void setEventQueueOverflowPolicy( ICacheEventQueue.OverflowPolicy policy );
+
+    /**
+     * @return BLOCK, DROP_OLDEST, COALESCE or ZOMBIE
+     */
+    ICacheEventQueue.OverflowPolicy getEventQueueOverflowPolicy();
+
     /**
      * Clone object
      */
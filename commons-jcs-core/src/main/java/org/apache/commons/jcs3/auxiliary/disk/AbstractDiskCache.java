@@ -37,6 +37,7 @@ import org.apache.commons.jcs3.engine.behavior.ICache;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
 import org.apache.commons.jcs3.engine.behavior.ICacheListener;
+import org.apache.commons.jcs3.engine.stats.StatCounter;
 import org.apache.commons.jcs3.engine.stats.StatElement;
 import org.apache.commons.jcs3.engine.stats.Stats;
 import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
@@ -92,7 +93,7 @@ public abstract class AbstractDiskCache<K, V>
     private final String cacheName;
 
     /** DEBUG: Keeps a count of the number of purgatory hits for debug messages */
-    private int purgHits;
+    private final StatCounter purgHits = new StatCounter();
 
     /**
      * We lock here, so that we cannot get an update after a remove all. an individual removal locks
@@ -117,7 +118,9 @@ public abstract class AbstractDiskCache<K, V>
         final CacheEventQueueFactory<K, V> fact = new CacheEventQueueFactory<>();
         this.cacheEventQueue = fact.createCacheEventQueue( new MyCacheListener(), CacheInfo.listenerId, cacheName,
                                                            diskCacheAttributes.getEventQueuePoolName(),
-                                                           diskCacheAttributes.getEventQueueType() );
+                                                           diskCacheAttributes.getEventQueueType(),
+                                                           diskCacheAttributes.getEventQueueCapacity(),
+                                                           diskCacheAttributes.getEventQueueOverflowPolicy() );
 
         // create purgatory
         initPurgatory();
@@ -248,9 +251,9 @@ public abstract class AbstractDiskCache<K, V>
         // If the element was found in purgatory
         if ( pe != null )
         {
-            purgHits++;
+            purgHits.increment();
 
-            if ( purgHits % 100 == 0 )
+            if ( log.isDebugEnabled() && purgHits.get() % 100 == 0 )
             {
                 log.debug( "Purgatory hits = {0}", purgHits );
             }
@@ -490,6 +493,15 @@ public abstract class AbstractDiskCache<K, V>
         return getStatistics().toString();
     }
 
+    /**
+     * @return the number of updates and removals waiting to be written to disk
+     */
+    @Override
+    public int getEventQueueSize()
+    {
+        return this.cacheEventQueue.size();
+    }
+
     /**
      * Returns semi-structured data.
      *
@@ -503,7 +515,7 @@ public abstract class AbstractDiskCache<K, V>
 
         final ArrayList<IStatElement<?>> elems = new ArrayList<>();
 
-        elems.add(new StatElement<>( "Purgatory Hits", Integer.valueOf(purgHits) ) );
+        elems.add(new StatElement<>( "Purgatory Hits", Long.valueOf(purgHits.get()) ) );
         elems.add(new StatElement<>( "Purgatory Size", Integer.valueOf(purgatory.size()) ) );
 
         // get the stats from the event queue too
@@ -58,6 +58,18 @@ public abstract class AbstractDiskCacheAttributes extends AbstractAuxiliaryCache
     /** Type of disk limit: SIZE or COUNT */
     private DiskLimitType diskLimitType = DiskLimitType.COUNT;
 
+    /** Default interval of the expiry sweep, disabled */
+    private static final int DEFAULT_EXPIRY_SWEEP_INTERVAL_SECONDS = -1;
+
+    /** Default number of elements removed per lock by the expiry sweep */
+    private static final int DEFAULT_EXPIRY_SWEEP_BATCH_SIZE = 100;
+
+    /** How often expired elements are removed in the background, disabled below 1 */
+    private int expirySweepIntervalSeconds = DEFAULT_EXPIRY_SWEEP_INTERVAL_SECONDS;
+
+    /** How many expired elements are removed per lock */
+    private int expirySweepBatchSize = DEFAULT_EXPIRY_SWEEP_BATCH_SIZE;
+
     /**
      * Sets the diskPath attribute of the DiskCacheAttributes object
      * <p>
@@ -180,6 +192,42 @@ public abstract class AbstractDiskCacheAttributes extends AbstractAuxiliaryCache
         return allowRemoveAll;
     }
 
+    /**
+     * @return the interval of the expiry sweep in seconds
+     */
+    @Override
+    public int getExpirySweepIntervalSeconds()
+    {
+        return expirySweepIntervalSeconds;
+    }
+
+    /**
+     * @param expirySweepIntervalSeconds the interval in seconds, below 1 to disable the sweep
+     */
+    @Override
+    public void setExpirySweepIntervalSeconds(final int expirySweepIntervalSeconds)
+    {
+        this.expirySweepIntervalSeconds = expirySweepIntervalSeconds;
+    }
+
+    /**
+     * @return the number of expired elements removed per lock
+     */
+    @Override
+    public int getExpirySweepBatchSize()
+    {
+        return expirySweepBatchSize;
+    }
+
+    /**
+     * @param expirySweepBatchSize the number of expired elements removed per lock
+     */
+    @Override
+    public void setExpirySweepBatchSize(final int expirySweepBatchSize)
+    {
+        this.expirySweepBatchSize = expirySweepBatchSize;
+    }
+
     /**
      * Includes the common attributes for a debug message.
      * <p>
@@ -195,6 +243,7 @@ public abstract class AbstractDiskCacheAttributes extends AbstractAuxiliaryCache
         str.append("\n maxPurgatorySize   = " + getMaxPurgatorySize());
         str.append("\n allowRemoveAll   = " + isAllowRemoveAll());
         str.append("\n ShutdownSpoolTimeLimit   = " + getShutdownSpoolTimeLimit());
+        str.append("\n ExpirySweepIntervalSeconds   = " + getExpirySweepIntervalSeconds());
         return str.toString();
     }
 
@@ -0,0 +1,275 @@
+package org.apache.commons.jcs3.auxiliary.disk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
+import org.apache.commons.jcs3.io.ObjectInputStreamClassLoaderAware;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * Keys of a disk cache ordered by the time their element expires, so that a background sweep can
+ * delete the expired records without reading the data file. Eternal elements and elements without
+ * max life or idle time are not indexed.
+ * <p>
+ * The deadlines are computed from the attributes of the element as written to disk. Reads from
+ * disk don't update the stored attributes, so this is the expiration CompositeCache would find on
+ * a get.
+ * <p>
+ * The index is persisted next to the key file, in a file of its own, so that the key file format
+ * doesn't change.
+ */
+public class DiskExpiryIndex<K>
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( DiskExpiryIndex.class );
+
+    /** The file the index is persisted to */
+    private final File file;
+
+    /** The keys by deadline */
+    private final TreeMap<Long, Set<K>> byDeadline = new TreeMap<>();
+
+    /** The deadline of each key */
+    private final Map<K, Long> deadlines = new HashMap<>();
+
+    /**
+     * Constructor for the DiskExpiryIndex object
+     * <p>
+     * @param file where the index is persisted
+     */
+    public DiskExpiryIndex( final File file )
+    {
+        this.file = file;
+    }
+
+    /**
+     * Indexes the key of an element written to disk, replacing its previous deadline.
+     * <p>
+     * @param key the key
+     * @param attributes the attributes of the element written
+     */
+    public synchronized void put( final K key, final IElementAttributes attributes )
+    {
+        remove( key );
+        final long deadline = getDeadline( attributes );
+        if ( deadline != -1 )
+        {
+            add( key, Long.valueOf( deadline ) );
+        }
+    }
+
+    /**
+     * Forgets the key of an element removed from disk.
+     * <p>
+     * @param key the key
+     */
+    public synchronized void remove( final K key )
+    {
+        final Long deadline = deadlines.remove( key );
+        if ( deadline != null )
+        {
+            final Set<K> keys = byDeadline.get( deadline );
+            if ( keys != null && keys.remove( key ) && keys.isEmpty() )
+            {
+                byDeadline.remove( deadline );
+            }
+        }
+    }
+
+    /**
+     * @param key the key
+     * @return whether the key is indexed
+     */
+    public synchronized boolean contains( final K key )
+    {
+        return deadlines.containsKey( key );
+    }
+
+    /**
+     * Removes and returns up to max keys expired at the given time, the earliest first.
+     * <p>
+     * @param now the current time
+     * @param max the maximum number of keys to return
+     * @return the expired keys
+     */
+    public synchronized List<K> pollExpired( final long now, final int max )
+    {
+        final List<K> expired = new ArrayList<>();
+        final Iterator<Map.Entry<Long, Set<K>>> buckets =
+            byDeadline.headMap( Long.valueOf( now ), true ).entrySet().iterator();
+        while ( buckets.hasNext() && expired.size() < max )
+        {
+            final Iterator<K> keys = buckets.next().getValue().iterator();
+            while ( keys.hasNext() && expired.size() < max )
+            {
+                final K key = keys.next();
+                keys.remove();
+                deadlines.remove( key );
+                expired.add( key );
+            }
+            if ( !keys.hasNext() )
+            {
+                buckets.remove();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Forgets all the keys.
+     */
+    public synchronized void clear()
+    {
+        byDeadline.clear();
+        deadlines.clear();
+    }
+
+    /**
+     * @return the number of indexed keys
+     */
+    public synchronized int size()
+    {
+        return deadlines.size();
+    }
+
+    /**
+     * Saves the index to its file.
+     */
+    public void save()
+    {
+        final HashMap<K, Long> snapshot;
+        synchronized ( this )
+        {
+            snapshot = new HashMap<>( deadlines );
+        }
+
+        try ( ObjectOutputStream oos = new ObjectOutputStream(
+                new BufferedOutputStream( new FileOutputStream( file ), 65536 ) ) )
+        {
+            oos.writeObject( snapshot );
+        }
+        catch ( final IOException e )
+        {
+            log.error( "Problem storing expiry index to {0}", file, e );
+        }
+
+        log.debug( "Saved {0} deadlines to {1}", snapshot.size(), file );
+    }
+
+    /**
+     * Loads the index from its file, if there is one.
+     * <p>
+     * @param present tells which keys are still in the key store, the others are dropped
+     */
+    public void load( final Predicate<K> present )
+    {
+        if ( !file.exists() || file.length() == 0 )
+        {
+            return;
+        }
+
+        try ( ObjectInputStream ois = new ObjectInputStreamClassLoaderAware(
+                new BufferedInputStream( new FileInputStream( file ), 65536 ), null ) )
+        {
+            @SuppressWarnings("unchecked") // Need to cast from Object
+            final Map<K, Long> loaded = (Map<K, Long>) ois.readObject();
+
+            synchronized ( this )
+            {
+                clear();
+                loaded.forEach( ( key, deadline ) -> {
+                    if ( present.test( key ) )
+                    {
+                        add( key, deadline );
+                    }
+                } );
+            }
+
+            log.debug( "Loaded {0} deadlines from {1}", size(), file );
+        }
+        catch ( final IOException | ClassNotFoundException | ClassCastException e )
+        {
+            log.error( "Problem loading expiry index from {0}, expired keys will only be removed on get",
+                    file, e );
+        }
+    }
+
+    /**
+     * Gets the time after which the element is expired, following CompositeCache.isExpired.
+     * <p>
+     * @param attributes the element attributes
+     * @return the deadline in milliseconds or -1 if the element doesn't expire
+     */
+    public static long getDeadline( final IElementAttributes attributes )
+    {
+        if ( attributes == null || attributes.getIsEternal() )
+        {
+            return -1;
+        }
+
+        long deadline = Long.MAX_VALUE;
+        final long timeFactorForMilliseconds = attributes.getTimeFactorForMilliseconds();
+
+        final long maxLifeSeconds = attributes.getMaxLife();
+        if ( maxLifeSeconds != -1 )
+        {
+            deadline = Math.min( deadline, attributes.getCreateTime() + maxLifeSeconds * timeFactorForMilliseconds + 1 );
+        }
+
+        final long idleTime = attributes.getIdleTime();
+        if ( idleTime != -1 )
+        {
+            deadline = Math.min( deadline, attributes.getLastAccessTime() + idleTime * timeFactorForMilliseconds + 1 );
+        }
+
+        return deadline == Long.MAX_VALUE ? -1 : deadline;
+    }
+
+    /**
+     * Adds a key not indexed yet.
+     * <p>
+     * @param key the key
+     * @param deadline its deadline
+     */
+    private void add( final K key, final Long deadline )
+    {
+        deadlines.put( key, deadline );
+        byDeadline.computeIfAbsent( deadline, d -> new LinkedHashSet<>() ).add( key );
+    }
+}
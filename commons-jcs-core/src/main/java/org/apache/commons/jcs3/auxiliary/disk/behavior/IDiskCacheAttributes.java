@@ -109,6 +109,31 @@ public interface IDiskCacheAttributes
      */
     void setAllowRemoveAll( boolean allowRemoveAll );
 
+    /**
+     * How often the indexed and block disk caches remove the expired elements in the background.
+     * A value below 1 disables the sweep and the expiry index.
+     * <p>
+     * @return the interval in seconds
+     */
+    int getExpirySweepIntervalSeconds();
+
+    /**
+     * @param expirySweepIntervalSeconds the interval in seconds, below 1 to disable the sweep
+     */
+    void setExpirySweepIntervalSeconds( int expirySweepIntervalSeconds );
+
+    /**
+     * How many expired elements the sweep removes while holding the storage lock.
+     * <p>
+     * @return the batch size
+     */
+    int getExpirySweepBatchSize();
+
+    /**
+     * @param expirySweepBatchSize the number of elements removed per lock
+     */
+    void setExpirySweepBatchSize( int expirySweepBatchSize );
+
     /**
      * set the type of the limit of the cache size
      * @param diskLimitType COUNT - limit by count of the elements, SIZE, limit by sum of element's size
@@ -36,6 +36,7 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheAttributes;
 import org.apache.commons.jcs3.auxiliary.disk.AbstractDiskCache;
+import org.apache.commons.jcs3.auxiliary.disk.DiskExpiryIndex;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
 import org.apache.commons.jcs3.engine.behavior.IRequireScheduler;
@@ -86,6 +87,9 @@ public class BlockDiskCache<K, V>
 
     private ScheduledFuture<?> future;
 
+    /** The background removal of expired elements */
+    private ScheduledFuture<?> expiryFuture;
+
     /**
      * Constructs the BlockDisk after setting up the root directory.
      * <p>
@@ -167,6 +171,62 @@ public class BlockDiskCache<K, V>
                     this.blockDiskCacheAttributes.getKeyPersistenceIntervalSeconds(),
                     TimeUnit.SECONDS);
         }
+
+        if ( this.blockDiskCacheAttributes.getExpirySweepIntervalSeconds() > 0 )
+        {
+            expiryFuture = scheduledExecutor.scheduleAtFixedRate(this::removeExpired,
+                    this.blockDiskCacheAttributes.getExpirySweepIntervalSeconds(),
+                    this.blockDiskCacheAttributes.getExpirySweepIntervalSeconds(),
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Removes the expired elements found in the expiry index, in batches of ExpirySweepBatchSize
+     * elements per write lock. The freed blocks go back to the empty block list.
+     * <p>
+     * @return the number of elements removed
+     */
+    protected int removeExpired()
+    {
+        final DiskExpiryIndex<K> expiryIndex = keyStore.getExpiryIndex();
+        if ( !isAlive() || expiryIndex == null )
+        {
+            return 0;
+        }
+
+        final int batchSize = Math.max( 1, this.blockDiskCacheAttributes.getExpirySweepBatchSize() );
+        int removed = 0;
+        List<K> expired;
+        do
+        {
+            expired = expiryIndex.pollExpired( System.currentTimeMillis(), batchSize );
+            if ( expired.isEmpty() )
+            {
+                break;
+            }
+
+            storageLock.writeLock().lock();
+            try
+            {
+                for ( final K key : expired )
+                {
+                    // an update since the poll indexed the key again
+                    if ( !expiryIndex.contains( key ) && performSingleKeyRemoval( key ) )
+                    {
+                        removed++;
+                    }
+                }
+            }
+            finally
+            {
+                storageLock.writeLock().unlock();
+            }
+        }
+        while ( expired.size() == batchSize && isAlive() );
+
+        log.debug("{0}: Removed {1} expired elements", logCacheName, removed );
+        return removed;
     }
 
     /**
@@ -378,6 +438,12 @@ public class BlockDiskCache<K, V>
 
             this.keyStore.put( element.getKey(), blocks );
 
+            final DiskExpiryIndex<K> expiryIndex = this.keyStore.getExpiryIndex();
+            if ( expiryIndex != null )
+            {
+                expiryIndex.put( element.getKey(), element.getElementAttributes() );
+            }
+
             log.debug("{0}: Put to file [{1}] key [{2}]", () -> logCacheName,
                     () -> fileName, () -> element.getKey());
         }
@@ -575,6 +641,10 @@ public class BlockDiskCache<K, V>
             {
                 future.cancel(true);
             }
+            if (expiryFuture != null)
+            {
+                expiryFuture.cancel(true);
+            }
 
             try
             {
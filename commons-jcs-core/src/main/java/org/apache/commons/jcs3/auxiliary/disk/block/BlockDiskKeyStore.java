@@ -36,6 +36,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.jcs3.auxiliary.disk.DiskExpiryIndex;
 import org.apache.commons.jcs3.auxiliary.disk.behavior.IDiskCacheAttributes.DiskLimitType;
 import org.apache.commons.jcs3.io.ObjectInputStreamClassLoaderAware;
 import org.apache.commons.jcs3.log.Log;
@@ -81,6 +82,7 @@ public class BlockDiskKeyStore<K>
         protected void processRemovedLRU(final K key, final int[] value)
         {
             blockDiskCache.freeBlocks(value);
+            removeExpiry(key);
             if (log.isDebugEnabled())
             {
                 log.debug("{0}: Removing key: [{1}] from key store.", logCacheName, key);
@@ -141,6 +143,7 @@ public class BlockDiskKeyStore<K>
         protected void processRemovedLRU(final K key, final int[] value)
         {
             blockDiskCache.freeBlocks(value);
+            removeExpiry(key);
             if (log.isDebugEnabled())
             {
                 log.debug("{0}: Removing key: [{1}] from key store.", logCacheName, key);
@@ -240,6 +243,9 @@ public class BlockDiskKeyStore<K>
 
     private final int blockSize;
 
+    /** Keys by expiration, null if the expiry sweep is disabled */
+    private final DiskExpiryIndex<K> expiryIndex;
+
     /**
      * Set the configuration options.
      * <p>
@@ -266,6 +272,15 @@ public class BlockDiskKeyStore<K>
 
         log.info("{0}: Key File [{1}]", logCacheName, this.keyFile.getAbsolutePath());
 
+        if (cacheAttributes.getExpirySweepIntervalSeconds() > 0)
+        {
+            this.expiryIndex = new DiskExpiryIndex<>(new File(rootDirectory, fileName + ".exp"));
+        }
+        else
+        {
+            this.expiryIndex = null;
+        }
+
         if (keyFile.length() > 0)
         {
             loadKeys();
@@ -275,6 +290,10 @@ public class BlockDiskKeyStore<K>
                 initKeyMap();
                 reset();
             }
+            else if (expiryIndex != null)
+            {
+                expiryIndex.load(keyHash::containsKey);
+            }
         }
         else
         {
@@ -289,6 +308,10 @@ public class BlockDiskKeyStore<K>
     protected void clearMemoryMap()
     {
         this.keyHash.clear();
+        if (expiryIndex != null)
+        {
+            expiryIndex.clear();
+        }
     }
 
     /**
@@ -441,9 +464,35 @@ public class BlockDiskKeyStore<K>
      */
     public int[] remove(final K key)
     {
+        removeExpiry(key);
         return this.keyHash.remove(key);
     }
 
+    /**
+     * Gets the index of the keys by expiration, persisted with the keys.
+     * <p>
+     *
+     * @return the index or null if the expiry sweep is disabled
+     */
+    public DiskExpiryIndex<K> getExpiryIndex()
+    {
+        return expiryIndex;
+    }
+
+    /**
+     * Forgets the expiration of a key leaving the store.
+     * <p>
+     *
+     * @param key
+     */
+    private void removeExpiry(final K key)
+    {
+        if (expiryIndex != null)
+        {
+            expiryIndex.remove(key);
+        }
+    }
+
     /**
      * Resets the file and creates a new key map.
      */
@@ -493,6 +542,11 @@ public class BlockDiskKeyStore<K>
                 }
             }
 
+            if (expiryIndex != null)
+            {
+                expiryIndex.save();
+            }
+
             log.info("{0}: Finished saving keys. It took {1} to store {2} keys. Key file length [{3}]",
                     () -> logCacheName, () -> timer.getElapsedTimeString(), () -> numKeys,
                     () -> keyFile.length());
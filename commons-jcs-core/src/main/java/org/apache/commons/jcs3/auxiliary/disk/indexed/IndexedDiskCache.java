@@ -33,19 +33,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheAttributes;
 import org.apache.commons.jcs3.auxiliary.disk.AbstractDiskCache;
+import org.apache.commons.jcs3.auxiliary.disk.DiskExpiryIndex;
 import org.apache.commons.jcs3.auxiliary.disk.behavior.IDiskCacheAttributes.DiskLimitType;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.engine.behavior.IRequireScheduler;
 import org.apache.commons.jcs3.engine.control.group.GroupAttrName;
 import org.apache.commons.jcs3.engine.control.group.GroupId;
 import org.apache.commons.jcs3.engine.logging.behavior.ICacheEvent;
 import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
+import org.apache.commons.jcs3.engine.stats.StatCounter;
 import org.apache.commons.jcs3.engine.stats.StatElement;
 import org.apache.commons.jcs3.engine.stats.Stats;
 import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
@@ -62,6 +68,7 @@ import org.apache.commons.jcs3.utils.timing.ElapsedTimer;
  * expansion.
  */
 public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
+    implements IRequireScheduler
 {
     /** The logger */
     private static final Log log = LogManager.getLog(IndexedDiskCache.class);
@@ -133,13 +140,19 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
     private DiskLimitType diskLimitType = DiskLimitType.COUNT;
 
     /** simple stat */
-    private final AtomicInteger hitCount = new AtomicInteger(0);
+    private final StatCounter hitCount = new StatCounter();
 
     /**
      * Use this lock to synchronize reads and writes to the underlying storage mechanism.
      */
     protected ReentrantReadWriteLock storageLock = new ReentrantReadWriteLock();
 
+    /** Keys by expiration, null if the expiry sweep is disabled */
+    private final DiskExpiryIndex<K> expiryIndex;
+
+    /** The background removal of expired elements */
+    private ScheduledFuture<?> expiryFuture;
+
     /**
      * Constructor for the DiskCache object.
      * <p>
@@ -173,6 +186,14 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
         this.diskLimitType = cattr.getDiskLimitType();
         // Make a clean file name
         this.fileName = getCacheName().replaceAll("[^a-zA-Z0-9-_\\.]", "_");
+        if (cattr.getExpirySweepIntervalSeconds() > 0)
+        {
+            this.expiryIndex = new DiskExpiryIndex<>(new File(cattr.getDiskPath(), fileName + ".exp"));
+        }
+        else
+        {
+            this.expiryIndex = null;
+        }
         this.keyHash = createInitialKeyMap();
         this.queuedPutList = new ConcurrentSkipListSet<>(new PositionComparator());
         this.recycle = new ConcurrentSkipListSet<>();
@@ -200,6 +221,90 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
         }
     }
 
+    /**
+     * @see org.apache.commons.jcs3.engine.behavior.IRequireScheduler#setScheduledExecutorService(java.util.concurrent.ScheduledExecutorService)
+     */
+    @Override
+    public void setScheduledExecutorService(final ScheduledExecutorService scheduledExecutor)
+    {
+        if (cattr.getExpirySweepIntervalSeconds() > 0)
+        {
+            expiryFuture = scheduledExecutor.scheduleAtFixedRate(this::removeExpired,
+                    cattr.getExpirySweepIntervalSeconds(), cattr.getExpirySweepIntervalSeconds(),
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Removes the expired elements found in the expiry index, in batches of ExpirySweepBatchSize
+     * elements per write lock. The freed slots go to the recycle bin and count for the real time
+     * optimization like any other removal.
+     * <p>
+     *
+     * @return the number of elements removed
+     */
+    protected int removeExpired()
+    {
+        if (!isAlive() || expiryIndex == null)
+        {
+            return 0;
+        }
+
+        final int batchSize = Math.max(1, cattr.getExpirySweepBatchSize());
+        int removed = 0;
+        List<K> expired;
+        do
+        {
+            expired = expiryIndex.pollExpired(System.currentTimeMillis(), batchSize);
+            if (expired.isEmpty())
+            {
+                break;
+            }
+
+            int batchRemoved = 0;
+            storageLock.writeLock().lock();
+            try
+            {
+                for (final K key : expired)
+                {
+                    // an update since the poll indexed the key again
+                    if (!expiryIndex.contains(key) && performSingleKeyRemoval(key))
+                    {
+                        batchRemoved++;
+                    }
+                }
+            }
+            finally
+            {
+                storageLock.writeLock().unlock();
+            }
+
+            for (int i = 0; i < batchRemoved; i++)
+            {
+                doOptimizeRealTime();
+            }
+            removed += batchRemoved;
+        }
+        while (expired.size() == batchSize && isAlive());
+
+        log.debug("{0}: Removed {1} expired elements", logCacheName, removed);
+        return removed;
+    }
+
+    /**
+     * Forgets the expiration of a key leaving the cache.
+     * <p>
+     *
+     * @param key
+     */
+    private void removeExpiry(final K key)
+    {
+        if (expiryIndex != null)
+        {
+            expiryIndex.remove(key);
+        }
+    }
+
     /**
      * Tries to create the root directory if it does not already exist.
      * <p>
@@ -255,6 +360,10 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
     private void initializeEmptyStore() throws IOException
     {
         this.keyHash.clear();
+        if (expiryIndex != null)
+        {
+            expiryIndex.clear();
+        }
 
         if (!dataFile.isEmpty())
         {
@@ -293,6 +402,10 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
                 {
                     startupSize = keyHash.size();
                 }
+                if (expiryIndex != null)
+                {
+                    expiryIndex.load(keyHash::containsKey);
+                }
             }
         }
     }
@@ -442,6 +555,10 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
             {
                 keyFile.writeObject(keys, 0);
             }
+            if (expiryIndex != null)
+            {
+                expiryIndex.save();
+            }
 
             log.info("{0}: Finished saving keys.", logCacheName);
         }
@@ -535,6 +652,11 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
                 }
 
                 dataFile.write(ded, data);
+
+                if (expiryIndex != null)
+                {
+                    expiryIndex.put(ce.getKey(), ce.getElementAttributes());
+                }
             }
             finally
             {
@@ -586,7 +708,7 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
 
             if (object != null)
             {
-                hitCount.incrementAndGet();
+                hitCount.increment();
             }
         }
         catch (final IOException ioe)
@@ -851,6 +973,7 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
         final IndexedDiskElementDescriptor ded = keyHash.remove(key);
         removed = ded != null;
         addToRecycleBin(ded);
+        removeExpiry(key);
 
         log.debug("{0}: Disk removal: Removed from key hash, key [{1}] removed = {2}",
                 logCacheName, key, removed);
@@ -908,6 +1031,10 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
 
             this.recycle.clear();
             this.keyHash.clear();
+            if (expiryIndex != null)
+            {
+                expiryIndex.clear();
+            }
         }
         catch (final IOException e)
         {
@@ -997,6 +1124,11 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
         // Prevents any interaction with the cache while we're shutting down.
         setAlive(false);
 
+        if (expiryFuture != null)
+        {
+            expiryFuture.cancel(false);
+        }
+
         final Thread optimizationThread = currentOptimizationThread;
         if (isRealTimeOptimizationEnabled && optimizationThread != null)
         {
@@ -1448,7 +1580,7 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
             log.error(e);
         }
         elems.add(new StatElement<>("Max Key Size", this.maxKeySize));
-        elems.add(new StatElement<>("Hit Count", this.hitCount));
+        elems.add(new StatElement<>("Hit Count", Long.valueOf(this.hitCount.get())));
         elems.add(new StatElement<>("Bytes Free", this.bytesFree));
         elems.add(new StatElement<>("Optimize Operation Count", Integer.valueOf(this.removeCount)));
         elems.add(new StatElement<>("Times Optimized", Integer.valueOf(this.timesOptimized)));
@@ -1626,6 +1758,7 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
             }
 
             addToRecycleBin(value);
+            removeExpiry(key);
 
             log.debug("{0}: Removing key: [{1}] from key store.", logCacheName, key);
             log.debug("{0}: Key store size: [{1}].", logCacheName, this.size());
@@ -1665,6 +1798,7 @@ public class IndexedDiskCache<K, V> extends AbstractDiskCache<K, V>
         protected void processRemovedLRU(final K key, final IndexedDiskElementDescriptor value)
         {
             addToRecycleBin(value);
+            removeExpiry(key);
             log.debug("{0}: Removing key: [{1}] from key store.", logCacheName, key);
             log.debug("{0}: Key store size: [{1}].", logCacheName, this.size());
 
@@ -68,6 +68,12 @@ public class LateralCacheAttributes
     /** If the primary fails, we will queue items before reconnect.  This limits the number of items that can be queued. */
     private int zombieQueueMaxSize = DEFAULT_ZOMBIE_QUEUE_MAX_SIZE;
 
+    /** ask all laterals at once on get */
+    private boolean parallelGet;
+
+    /** The thread pool used for parallel gets */
+    private String threadPoolName = DEFAULT_THREAD_POOL_NAME;
+
     /**
      * Sets the httpServer attribute of the LateralCacheAttributes object
      * <P>
@@ -274,6 +280,42 @@ public class LateralCacheAttributes
         return zombieQueueMaxSize;
     }
 
+    /**
+     * @param parallelGet The parallelGet to set.
+     */
+    @Override
+    public void setParallelGet( final boolean parallelGet )
+    {
+        this.parallelGet = parallelGet;
+    }
+
+    /**
+     * @return Returns the parallelGet.
+     */
+    @Override
+    public boolean isParallelGet()
+    {
+        return parallelGet;
+    }
+
+    /**
+     * @param name The threadPoolName to set.
+     */
+    @Override
+    public void setThreadPoolName( final String name )
+    {
+        this.threadPoolName = name;
+    }
+
+    /**
+     * @return Returns the threadPoolName.
+     */
+    @Override
+    public String getThreadPoolName()
+    {
+        return threadPoolName;
+    }
+
     /**
      * @return debug string.
      */
@@ -85,7 +85,8 @@ public class LateralCacheNoWait<K, V>
         final CacheEventQueueFactory<K, V> fact = new CacheEventQueueFactory<>();
         this.eventQueue = fact.createCacheEventQueue( new CacheAdaptor<>( cache ), CacheInfo.listenerId, cache
             .getCacheName(), cache.getAuxiliaryCacheAttributes().getEventQueuePoolName(), cache
-            .getAuxiliaryCacheAttributes().getEventQueueType() );
+            .getAuxiliaryCacheAttributes().getEventQueueType(), cache.getAuxiliaryCacheAttributes()
+            .getEventQueueCapacity(), cache.getAuxiliaryCacheAttributes().getEventQueueOverflowPolicy() );
 
         // need each no wait to handle each of its real updates and removes,
         // since there may
@@ -361,7 +362,8 @@ public class LateralCacheNoWait<K, V>
         final CacheEventQueueFactory<K, V> fact = new CacheEventQueueFactory<>();
         this.eventQueue = fact.createCacheEventQueue( new CacheAdaptor<>( cache ), CacheInfo.listenerId, cache
             .getCacheName(), cache.getAuxiliaryCacheAttributes().getEventQueuePoolName(), cache
-            .getAuxiliaryCacheAttributes().getEventQueueType() );
+            .getAuxiliaryCacheAttributes().getEventQueueType(), cache.getAuxiliaryCacheAttributes()
+            .getEventQueueCapacity(), cache.getAuxiliaryCacheAttributes().getEventQueueOverflowPolicy() );
     }
 
     /**
@@ -394,6 +396,15 @@ public class LateralCacheNoWait<K, V>
         return "Lateral Cache No Wait";
     }
 
+    /**
+     * @return the number of events waiting to be sent to the lateral
+     */
+    @Override
+    public int getEventQueueSize()
+    {
+        return eventQueue.size();
+    }
+
     /**
      * @return statistics about this communication
      */
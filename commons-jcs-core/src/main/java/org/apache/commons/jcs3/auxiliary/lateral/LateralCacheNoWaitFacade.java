@@ -29,6 +29,11 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.jcs3.auxiliary.AbstractAuxiliaryCache;
@@ -43,6 +48,7 @@ import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
 import org.apache.commons.jcs3.engine.stats.behavior.IStats;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.threadpool.ThreadPoolManager;
 
 /**
  * Used to provide access to multiple services under nowait protection. Composite factory should
@@ -71,6 +77,9 @@ public class LateralCacheNoWaitFacade<K, V>
     /** Disposed state of this facade */
     private boolean disposed;
 
+    /** Used for parallel gets, created on first use */
+    private ExecutorService pool;
+
     /**
      * Constructs with the given lateral cache, and fires events to any listeners.
      * <p>
@@ -204,7 +213,13 @@ public class LateralCacheNoWaitFacade<K, V>
     @Override
     public ICacheElement<K, V> get( final K key )
     {
-        final Optional<ICacheElement<K, V>> optional = Arrays.stream(noWaits)
+        final LateralCacheNoWait<K, V>[] current = noWaits;
+        if ( lateralCacheAttributes.isParallelGet() && current.length > 1 )
+        {
+            return getInParallel( key, current );
+        }
+
+        final Optional<ICacheElement<K, V>> optional = Arrays.stream(current)
             .map(nw -> nw.get( key ))
             .filter(obj -> obj != null)
             .findFirst();
@@ -217,6 +232,70 @@ public class LateralCacheNoWaitFacade<K, V>
         return null;
     }
 
+    /**
+     * Asks all laterals at the same time and returns the first element found. The requests still
+     * pending at that point are cancelled. Requests already on the wire are allowed to complete so
+     * that their connection can be reused.
+     * <p>
+     * @param key
+     * @param current the laterals to ask
+     * @return ICacheElement or null if no lateral has the element
+     */
+    private ICacheElement<K, V> getInParallel( final K key, final LateralCacheNoWait<K, V>[] current )
+    {
+        final CompletionService<ICacheElement<K, V>> completionService =
+                new ExecutorCompletionService<>( getPool() );
+        final List<Future<ICacheElement<K, V>>> futures = new ArrayList<>( current.length );
+
+        try
+        {
+            for ( final LateralCacheNoWait<K, V> nw : current )
+            {
+                futures.add( completionService.submit( () -> nw.get( key ) ) );
+            }
+
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                try
+                {
+                    final ICacheElement<K, V> element = completionService.take().get();
+                    if ( element != null )
+                    {
+                        return element;
+                    }
+                }
+                catch ( final ExecutionException e )
+                {
+                    log.error( "Failed to get [{0}] from lateral", key, e.getCause() );
+                }
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            log.warn( "Interrupted while getting [{0}] from laterals", key );
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            futures.forEach( future -> future.cancel( false ) );
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the thread pool used for parallel gets
+     */
+    private synchronized ExecutorService getPool()
+    {
+        if ( pool == null )
+        {
+            pool = ThreadPoolManager.getInstance().getExecutorService(
+                    lateralCacheAttributes.getThreadPoolName() );
+        }
+        return pool;
+    }
+
     /**
      * Gets multiple items from the cache based on the given set of keys.
      * <p>
@@ -437,6 +516,15 @@ public class LateralCacheNoWaitFacade<K, V>
         return getStatistics().toString();
     }
 
+    /**
+     * @return the number of events waiting to be sent to all the laterals
+     */
+    @Override
+    public int getEventQueueSize()
+    {
+        return Arrays.stream( noWaits ).mapToInt( LateralCacheNoWait::getEventQueueSize ).sum();
+    }
+
     /**
      * @return IStats
      */
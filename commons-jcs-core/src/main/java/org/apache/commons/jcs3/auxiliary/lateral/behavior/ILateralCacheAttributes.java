@@ -51,6 +51,9 @@ public interface ILateralCacheAttributes
      */
     int DEFAULT_ZOMBIE_QUEUE_MAX_SIZE = 1000;
 
+    /** The name of the thread pool used for parallel gets by default. */
+    String DEFAULT_THREAD_POOL_NAME = "lateral_cache_client";
+
     /**
      * Sets the httpServer attribute of the ILateralCacheAttributes object
      * <p>
@@ -197,4 +200,30 @@ public interface ILateralCacheAttributes
      * @return Returns the zombieQueueMaxSize.
      */
     int getZombieQueueMaxSize();
+
+    /**
+     * Should a get be sent to all laterals at once? If true, the first non-null answer is
+     * returned and the remaining requests are cancelled. Otherwise the laterals are asked one
+     * after the other.
+     * <p>
+     * @param parallelGet The parallelGet to set.
+     */
+    void setParallelGet( boolean parallelGet );
+
+    /**
+     * @return Returns the parallelGet.
+     */
+    boolean isParallelGet();
+
+    /**
+     * The name of the thread pool (see ThreadPoolManager) used for parallel gets.
+     * <p>
+     * @param name The threadPoolName to set.
+     */
+    void setThreadPoolName( String name );
+
+    /**
+     * @return Returns the threadPoolName.
+     */
+    String getThreadPoolName();
 }
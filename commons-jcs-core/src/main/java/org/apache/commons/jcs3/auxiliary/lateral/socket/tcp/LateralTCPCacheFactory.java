@@ -43,7 +43,7 @@ import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
 import org.apache.commons.jcs3.utils.discovery.UDPDiscoveryManager;
-import org.apache.commons.jcs3.utils.discovery.UDPDiscoveryService;
+import org.apache.commons.jcs3.utils.discovery.behavior.IDiscoveryService;
 
 /**
  * Constructs a LateralCacheNoWaitFacade for the given configuration. Each lateral service / local
@@ -271,7 +271,8 @@ public class LateralTCPCacheFactory
      */
     private LateralTCPDiscoveryListener getDiscoveryListener(final ITCPLateralCacheAttributes ilca, final ICompositeCacheManager cacheManager)
     {
-        final String key = ilca.getUdpDiscoveryAddr() + ":" + ilca.getUdpDiscoveryPort();
+        final String key = ilca.getGossipPort() > 0 ? "gossip:" + ilca.getGossipPort()
+            : ilca.getUdpDiscoveryAddr() + ":" + ilca.getUdpDiscoveryPort();
 
         final LateralTCPDiscoveryListener ins = lTCPDLInstances.computeIfAbsent(key, key1 -> {
             log.info("Created new discovery listener for cacheName {0} for request {1}",
@@ -361,7 +362,8 @@ public class LateralTCPCacheFactory
     }
 
     /**
-     * Creates the discovery service. Only creates this for tcp laterals right now.
+     * Creates the discovery service. Only creates this for tcp laterals right now. If a gossip
+     * port is configured, the gossip discovery is used instead of the multicast UDP discovery.
      * <p>
      * @param lac ITCPLateralCacheAttributes
      * @param lcnwf
@@ -370,14 +372,14 @@ public class LateralTCPCacheFactory
      * @param elementSerializer
      * @return null if none is created.
      */
-    private synchronized <K, V> UDPDiscoveryService createDiscoveryService(
+    private synchronized <K, V> IDiscoveryService createDiscoveryService(
             final ITCPLateralCacheAttributes lac,
             final LateralCacheNoWaitFacade<K, V> lcnwf,
             final ICompositeCacheManager cacheMgr,
             final ICacheEventLogger cacheEventLogger,
             final IElementSerializer elementSerializer )
     {
-        UDPDiscoveryService discovery = null;
+        IDiscoveryService discovery = null;
 
         // create the UDP discovery for the TCP lateral
         if ( lac.isUdpDiscoveryEnabled() )
@@ -388,14 +390,23 @@ public class LateralTCPCacheFactory
 
             // need a factory for this so it doesn't
             // get dereferenced, also we don't want one for every region.
-            discovery = UDPDiscoveryManager.getInstance().getService( lac.getUdpDiscoveryAddr(),
-                                                                      lac.getUdpDiscoveryPort(),
-                                                                      lac.getTcpListenerPort(), cacheMgr);
+            if ( lac.getGossipPort() > 0 )
+            {
+                discovery = UDPDiscoveryManager.getInstance().getGossipService( lac.getGossipPort(),
+                                                                                lac.getGossipSeeds(),
+                                                                                lac.getTcpListenerPort(), cacheMgr );
+            }
+            else
+            {
+                discovery = UDPDiscoveryManager.getInstance().getService( lac.getUdpDiscoveryAddr(),
+                                                                          lac.getUdpDiscoveryPort(),
+                                                                          lac.getTcpListenerPort(), cacheMgr);
+            }
 
             discovery.addParticipatingCacheName( lac.getCacheName() );
             discovery.addDiscoveryListener( discoveryListener );
 
-            log.info( "Registered TCP lateral cache [{0}] with UDPDiscoveryService.",
+            log.info( "Registered TCP lateral cache [{0}] with discovery service.",
                     () -> lac.getCacheName() );
         }
         return discovery;
@@ -592,6 +592,7 @@ public class LateralTCPListener<K, V>
         final String cacheName = led.ce.getCacheName();
         final K key = led.ce.getKey();
         Serializable obj = null;
+        boolean respond = false;
 
         switch (led.command)
         {
@@ -634,20 +635,25 @@ public class LateralTCPListener<K, V>
 
             case GET:
                 obj = handleGet( cacheName, key );
+                respond = true;
                 break;
 
             case GET_MATCHING:
                 obj = (Serializable) handleGetMatching( cacheName, (String) key );
+                respond = true;
                 break;
 
             case GET_KEYSET:
                 obj = (Serializable) handleGetKeySet(cacheName);
+                respond = true;
                 break;
 
             default: break;
         }
 
-        if (obj != null)
+        // always answer a request, even if nothing was found. Otherwise the
+        // sender would block until its socket times out.
+        if (respond)
         {
             final ObjectOutputStream oos = new ObjectOutputStream( socket.getOutputStream() );
             oos.writeObject( obj );
@@ -24,6 +24,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.jcs3.auxiliary.lateral.LateralElementDescriptor;
 import org.apache.commons.jcs3.auxiliary.lateral.socket.tcp.behavior.ITCPLateralCacheAttributes;
@@ -53,8 +54,11 @@ public class LateralTCPSender
     /** how many messages sent */
     private int sendCnt;
 
-    /** Use to synchronize multiple threads that may be trying to get. */
-    private final Object getLock = new int[0];
+    /**
+     * Use to synchronize multiple threads that may be trying to get. This is a lock rather than a
+     * monitor so that virtual threads blocked on the socket don't pin their carrier thread.
+     */
+    private final ReentrantLock getLock = new ReentrantLock();
 
     /**
      * Constructor for the LateralTCPSender object.
@@ -117,10 +121,15 @@ public class LateralTCPSender
             }
 
             socket.setSoTimeout( socketSoTimeOut );
-            synchronized ( this )
+            getLock.lock();
+            try
             {
                 oos = new ObjectOutputStream( socket.getOutputStream() );
             }
+            finally
+            {
+                getLock.unlock();
+            }
         }
         catch ( final java.net.ConnectException e )
         {
@@ -161,11 +170,16 @@ public class LateralTCPSender
             throw new IOException( "No remote connection is available for LateralTCPSender." );
         }
 
-        synchronized ( this.getLock )
+        getLock.lock();
+        try
         {
             oos.writeUnshared( led );
             oos.flush();
         }
+        finally
+        {
+            getLock.unlock();
+        }
     }
 
     /**
@@ -199,7 +213,8 @@ public class LateralTCPSender
         // This is a big block of code. May need to re-think this strategy.
         // This may not be necessary.
         // Normal puts, etc to laterals do not have to be synchronized.
-        synchronized ( this.getLock )
+        getLock.lock();
+        try
         {
             try
             {
@@ -219,9 +234,13 @@ public class LateralTCPSender
             oos.writeUnshared( led );
             oos.flush();
 
-            try (ObjectInputStream ois = new ObjectInputStreamClassLoaderAware( socket.getInputStream(), null ))
+            try
             {
+                // Each response is written with a fresh stream header. Don't close the
+                // stream afterwards, this would close the socket as well.
                 socket.setSoTimeout( socketSoTimeOut );
+                final ObjectInputStream ois =
+                        new ObjectInputStreamClassLoaderAware( socket.getInputStream(), null );
                 response = ois.readObject();
             }
             catch ( final IOException ioe )
@@ -237,6 +256,10 @@ public class LateralTCPSender
                 log.error( e );
             }
         }
+        finally
+        {
+            getLock.unlock();
+        }
 
         return response;
     }
@@ -22,11 +22,16 @@ package org.apache.commons.jcs3.auxiliary.lateral.socket.tcp;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.jcs3.auxiliary.lateral.LateralCommand;
 import org.apache.commons.jcs3.auxiliary.lateral.LateralElementDescriptor;
@@ -56,6 +61,18 @@ public class LateralTCPService<K, V>
     /** Sends to another lateral. */
     private final LateralTCPSender sender;
 
+    /** Configuration used to open additional connections for gets */
+    private final ITCPLateralCacheAttributes tcpLateralCacheAttributes;
+
+    /** Idle connections reserved for gets */
+    private final BlockingQueue<LateralTCPSender> getSenders;
+
+    /** Number of connections for gets opened so far */
+    private final AtomicInteger getSenderCount = new AtomicInteger();
+
+    /** Set on dispose, connections for gets returned afterwards are closed */
+    private volatile boolean disposed;
+
     /** use the vmid by default */
     private long listenerId = CacheInfo.listenerId;
 
@@ -71,6 +88,8 @@ public class LateralTCPService<K, V>
         this.allowGet = lca.isAllowGet();
         this.allowPut = lca.isAllowPut();
         this.issueRemoveOnPut = lca.isIssueRemoveOnPut();
+        this.tcpLateralCacheAttributes = lca;
+        this.getSenders = new LinkedBlockingQueue<>();
 
         try
         {
@@ -193,6 +212,15 @@ public class LateralTCPService<K, V>
     public void dispose( final String cacheName )
         throws IOException
     {
+        // connections in use are closed when they are returned
+        disposed = true;
+        LateralTCPSender getSender;
+        while ( ( getSender = getSenders.poll() ) != null )
+        {
+            getSenderCount.decrementAndGet();
+            disposeQuietly( getSender );
+        }
+
         sender.dispose();
     }
 
@@ -231,7 +259,7 @@ public class LateralTCPService<K, V>
             led.command = LateralCommand.GET;
             @SuppressWarnings("unchecked") // Need to cast from Object
             final
-            ICacheElement<K, V> response = (ICacheElement<K, V>)sender.sendAndReceive( led );
+            ICacheElement<K, V> response = (ICacheElement<K, V>)sendAndReceive( led );
             return response;
         }
         else
@@ -280,7 +308,7 @@ public class LateralTCPService<K, V>
             // led.requesterId = requesterId; // later
             led.command = LateralCommand.GET_MATCHING;
 
-            final Object response = sender.sendAndReceive( led );
+            final Object response = sendAndReceive( led );
             if ( response != null )
             {
                 return (Map<K, ICacheElement<K, V>>) response;
@@ -357,7 +385,7 @@ public class LateralTCPService<K, V>
         final LateralElementDescriptor<String, String> led = new LateralElementDescriptor<>(ce);
         // led.requesterId = requesterId; // later
         led.command = LateralCommand.GET_KEYSET;
-        final Object response = sender.sendAndReceive(led);
+        final Object response = sendAndReceive(led);
         if (response != null)
         {
             return (Set<K>) response;
@@ -393,6 +421,137 @@ public class LateralTCPService<K, V>
         sender.send( led );
     }
 
+    /**
+     * Sends a request and waits for the answer. If a connection pool is configured, the request
+     * goes over a connection of its own, so that it does not have to wait for other requests to
+     * the same server. Connections are opened on demand up to the configured pool size.
+     * <p>
+     * @param led the request
+     * @return the response of the server
+     * @throws IOException
+     */
+    private Object sendAndReceive( final LateralElementDescriptor<?, ?> led )
+        throws IOException
+    {
+        final int poolSize = tcpLateralCacheAttributes.getConnectionPoolSize();
+        if ( poolSize <= 0 )
+        {
+            return sender.sendAndReceive( led );
+        }
+
+        final LateralTCPSender getSender = borrowSender( poolSize );
+        boolean reusable = false;
+        try
+        {
+            final Object response = getSender.sendAndReceive( led );
+            reusable = true;
+            return response;
+        }
+        finally
+        {
+            if ( reusable )
+            {
+                returnSender( getSender );
+            }
+            else
+            {
+                // the connection is in an unknown state, don't reuse it
+                getSenderCount.decrementAndGet();
+                disposeQuietly( getSender );
+            }
+        }
+    }
+
+    /**
+     * Puts a connection back in the pool, or closes it if the service was disposed meanwhile.
+     * <p>
+     * @param getSender the connection, in a known state
+     */
+    private void returnSender( final LateralTCPSender getSender )
+    {
+        getSenders.offer( getSender );
+        // offered before the check, so either dispose drains it or we see the flag
+        if ( disposed && getSenders.remove( getSender ) )
+        {
+            getSenderCount.decrementAndGet();
+            disposeQuietly( getSender );
+        }
+    }
+
+    /**
+     * Takes an idle connection from the pool, opens a new one if the pool is not full yet, or
+     * waits for one to be returned.
+     * <p>
+     * @param poolSize the maximum number of connections
+     * @return a connection for exclusive use
+     * @throws IOException if no connection could be opened or none became available in time
+     */
+    private LateralTCPSender borrowSender( final int poolSize )
+        throws IOException
+    {
+        if ( disposed )
+        {
+            throw new IOException( "Service to [" + tcpLateralCacheAttributes.getTcpServer() + "] is disposed" );
+        }
+
+        final LateralTCPSender idle = getSenders.poll();
+        if ( idle != null )
+        {
+            return idle;
+        }
+
+        if ( getSenderCount.incrementAndGet() <= poolSize )
+        {
+            try
+            {
+                log.debug( "Opening get connection {0} to [{1}]",
+                        getSenderCount, tcpLateralCacheAttributes.getTcpServer() );
+                return new LateralTCPSender( tcpLateralCacheAttributes );
+            }
+            catch ( final IOException e )
+            {
+                getSenderCount.decrementAndGet();
+                throw e;
+            }
+        }
+        getSenderCount.decrementAndGet();
+
+        try
+        {
+            final LateralTCPSender returned = getSenders.poll(
+                    tcpLateralCacheAttributes.getSocketTimeOut(), TimeUnit.MILLISECONDS );
+            if ( returned == null )
+            {
+                throw new IOException( "No connection to [" + tcpLateralCacheAttributes.getTcpServer()
+                    + "] became available within " + tcpLateralCacheAttributes.getSocketTimeOut() + " ms" );
+            }
+            return returned;
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a connection to ["
+                + tcpLateralCacheAttributes.getTcpServer() + "]" );
+        }
+    }
+
+    /**
+     * Closes a connection, logging any failure.
+     * <p>
+     * @param getSender the connection to close
+     */
+    private static void disposeQuietly( final LateralTCPSender getSender )
+    {
+        try
+        {
+            getSender.dispose();
+        }
+        catch ( final IOException e )
+        {
+            log.info( "Failed to close get connection", e );
+        }
+    }
+
     /**
      * @param args
      */
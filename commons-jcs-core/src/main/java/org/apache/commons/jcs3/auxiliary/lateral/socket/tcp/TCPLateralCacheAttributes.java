@@ -60,6 +60,9 @@ public class TCPLateralCacheAttributes
     /** default - Only block for 2 seconds before timing out on startup.*/
     private static final int DEFAULT_OPEN_TIMEOUT = 2000;
 
+    /** default - gets share the connection used for puts.*/
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = 0;
+
     /** TCP -------------------------------------------- */
     private String tcpServers = "";
 
@@ -99,6 +102,15 @@ public class TCPLateralCacheAttributes
     /** Only block for openTimeOut seconds before timing out on startup. */
     private int openTimeOut = DEFAULT_OPEN_TIMEOUT;
 
+    /** How many connections to the server may be opened for gets. */
+    private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+    /** gossip discovery port, 0 to use the udp discovery */
+    private int gossipPort;
+
+    /** host:port list of gossip members to join through */
+    private String gossipSeeds = "";
+
     /**
      * Sets the tcpServer attribute of the ILateralCacheAttributes object
      * <p>
@@ -393,6 +405,60 @@ public class TCPLateralCacheAttributes
         return openTimeOut;
     }
 
+    /**
+     * @param connectionPoolSize the connectionPoolSize to set
+     */
+    @Override
+    public void setConnectionPoolSize( final int connectionPoolSize )
+    {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+
+    /**
+     * @return the connectionPoolSize
+     */
+    @Override
+    public int getConnectionPoolSize()
+    {
+        return connectionPoolSize;
+    }
+
+    /**
+     * @param gossipPort the gossipPort to set
+     */
+    @Override
+    public void setGossipPort( final int gossipPort )
+    {
+        this.gossipPort = gossipPort;
+    }
+
+    /**
+     * @return the gossipPort
+     */
+    @Override
+    public int getGossipPort()
+    {
+        return gossipPort;
+    }
+
+    /**
+     * @param gossipSeeds the gossipSeeds to set
+     */
+    @Override
+    public void setGossipSeeds( final String gossipSeeds )
+    {
+        this.gossipSeeds = gossipSeeds;
+    }
+
+    /**
+     * @return the gossipSeeds
+     */
+    @Override
+    public String getGossipSeeds()
+    {
+        return gossipSeeds;
+    }
+
     /**
      * Used to key the instance TODO create another method for this and use toString for debugging
      * only.
@@ -230,4 +230,42 @@ public interface ITCPLateralCacheAttributes
      * @return the openTimeOut
      */
     int getOpenTimeOut();
+
+    /**
+     * The number of additional connections each lateral service may open to its peer for get
+     * requests. If 0, gets share the connection used for puts and removes.
+     * <p>
+     * @param connectionPoolSize the connectionPoolSize to set
+     */
+    void setConnectionPoolSize( int connectionPoolSize );
+
+    /**
+     * @return the connectionPoolSize
+     */
+    int getConnectionPoolSize();
+
+    /**
+     * The udp port of the gossip discovery. If greater than 0, the laterals find each other by
+     * gossiping with unicast udp instead of the multicast UDP discovery.
+     * <p>
+     * @param gossipPort the gossipPort to set
+     */
+    void setGossipPort( int gossipPort );
+
+    /**
+     * @return the gossipPort
+     */
+    int getGossipPort();
+
+    /**
+     * Comma separated host:port list of gossip members to join the cluster through.
+     * <p>
+     * @param gossipSeeds the gossipSeeds to set
+     */
+    void setGossipSeeds( String gossipSeeds );
+
+    /**
+     * @return the gossipSeeds
+     */
+    String getGossipSeeds();
 }
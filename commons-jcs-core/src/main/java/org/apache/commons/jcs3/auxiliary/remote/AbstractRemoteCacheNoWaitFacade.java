@@ -393,6 +393,15 @@ public abstract class AbstractRemoteCacheNoWaitFacade<K, V>
         return getStatistics().toString();
     }
 
+    /**
+     * @return the number of events waiting to be sent to all the remote servers
+     */
+    @Override
+    public int getEventQueueSize()
+    {
+        return noWaits.stream().mapToInt( RemoteCacheNoWait::getEventQueueSize ).sum();
+    }
+
     /**
      * @return statistics about the cache region
      */
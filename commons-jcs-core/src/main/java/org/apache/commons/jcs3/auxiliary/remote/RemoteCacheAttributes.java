@@ -64,6 +64,15 @@ public class RemoteCacheAttributes
     /** If the primary fails, we will queue items before reconnect.  This limits the number of items that can be queued. */
     private int zombieQueueMaxSize = DEFAULT_ZOMBIE_QUEUE_MAX_SIZE;
 
+    /** Servers the keys are partitioned over. */
+    private String shardServers = "";
+
+    /** Number of points per shard server on the hash ring. */
+    private int shardVirtualNodes = DEFAULT_SHARD_VIRTUAL_NODES;
+
+    /** Number of buckets for the resync after a reconnect, 0 is off. */
+    private int resyncBuckets = 0;
+
     /** Default constructor for the RemoteCacheAttributes object */
     public RemoteCacheAttributes()
     {
@@ -245,6 +254,64 @@ public class RemoteCacheAttributes
         return zombieQueueMaxSize;
     }
 
+    /**
+     * Gets the shardServers attribute of the RemoteCacheAttributes object.
+     * <p>
+     * @return The shardServers value
+     */
+    @Override
+    public String getShardServers()
+    {
+        return this.shardServers;
+    }
+
+    /**
+     * Sets the shardServers attribute of the RemoteCacheAttributes object.
+     * <p>
+     * @param s The new shardServers value
+     */
+    @Override
+    public void setShardServers( final String s )
+    {
+        this.shardServers = s;
+    }
+
+    /**
+     * @return Returns the shardVirtualNodes.
+     */
+    @Override
+    public int getShardVirtualNodes()
+    {
+        return shardVirtualNodes;
+    }
+
+    /**
+     * @param shardVirtualNodes The shardVirtualNodes to set.
+     */
+    @Override
+    public void setShardVirtualNodes( final int shardVirtualNodes )
+    {
+        this.shardVirtualNodes = shardVirtualNodes;
+    }
+
+    /**
+     * @return Returns the resyncBuckets.
+     */
+    @Override
+    public int getResyncBuckets()
+    {
+        return resyncBuckets;
+    }
+
+    /**
+     * @param resyncBuckets The resyncBuckets to set.
+     */
+    @Override
+    public void setResyncBuckets( final int resyncBuckets )
+    {
+        this.resyncBuckets = resyncBuckets;
+    }
+
     /**
      * @return String, all the important values that can be configured
      */
@@ -257,6 +324,9 @@ public class RemoteCacheAttributes
         buf.append( "\n threadPoolName = [" + getThreadPoolName() + "]" );
         buf.append( "\n localClusterConsistency = [" + isLocalClusterConsistency() + "]" );
         buf.append( "\n zombieQueueMaxSize = [" + getZombieQueueMaxSize() + "]" );
+        buf.append( "\n shardServers = [" + getShardServers() + "]" );
+        buf.append( "\n shardVirtualNodes = [" + getShardVirtualNodes() + "]" );
+        buf.append( "\n resyncBuckets = [" + getResyncBuckets() + "]" );
         return buf.toString();
     }
 }
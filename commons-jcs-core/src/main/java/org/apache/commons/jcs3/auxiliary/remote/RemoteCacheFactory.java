@@ -74,6 +74,12 @@ public class RemoteCacheFactory
     {
         final RemoteCacheAttributes rca = (RemoteCacheAttributes) iaca;
 
+        if ( rca.getRemoteType() == RemoteType.LOCAL
+            && rca.getShardServers() != null && !rca.getShardServers().trim().isEmpty() )
+        {
+            return createShardedCache( rca, cacheMgr, cacheEventLogger, elementSerializer );
+        }
+
         final ArrayList<RemoteCacheNoWait<K,V>> noWaits = new ArrayList<>();
 
         switch (rca.getRemoteType())
@@ -159,6 +165,41 @@ public class RemoteCacheFactory
 
     // end createCache
 
+    /**
+     * Creates a facade that partitions the keys over the shard servers. Every shard server gets
+     * its own copy of the attributes, so that each client knows its location.
+     * <p>
+     * @param rca
+     * @param cacheMgr
+     * @param cacheEventLogger
+     * @param elementSerializer
+     * @return AuxiliaryCache
+     */
+    protected <K, V> AuxiliaryCache<K, V> createShardedCache(
+            final RemoteCacheAttributes rca, final ICompositeCacheManager cacheMgr,
+            final ICacheEventLogger cacheEventLogger, final IElementSerializer elementSerializer )
+    {
+        final ArrayList<RemoteCacheNoWait<K,V>> noWaits = new ArrayList<>();
+
+        final StringTokenizer it = new StringTokenizer( rca.getShardServers(), "," );
+        while ( it.hasMoreElements() )
+        {
+            final String server = (String) it.nextElement();
+            final RemoteLocation location = RemoteLocation.parseServerAndPort(server);
+
+            if (location != null)
+            {
+                final RemoteCacheAttributes shardAttributes = (RemoteCacheAttributes) rca.clone();
+                shardAttributes.setRemoteLocation( location );
+                final RemoteCacheManager rcm = getManager( shardAttributes, cacheMgr, cacheEventLogger, elementSerializer );
+                final RemoteCacheNoWait<K,V> ic = rcm.getCache( shardAttributes );
+                noWaits.add( ic );
+            }
+        }
+
+        return new ShardedRemoteCacheNoWaitFacade<>( noWaits, rca, cacheEventLogger, elementSerializer );
+    }
+
     /**
      * Returns an instance of RemoteCacheManager for the given connection parameters.
      * <p>
@@ -195,6 +195,7 @@ public class RemoteCacheFailoverRunner<K, V> extends AbstractAuxiliaryCacheMonit
                             log.debug( "resetting no wait" );
                             facade.restorePrimaryServer((RemoteCacheNoWait<K, V>) ic);
                             rca0.setFailoverIndex( i.nextIndex() );
+                            rcm.resync( (RemoteCacheNoWait<K, V>) ic );
 
                             log.debug( "setting ALLRIGHT to true" );
                             if ( i.hasPrevious() )
@@ -361,6 +362,7 @@ public class RemoteCacheFailoverRunner<K, V> extends AbstractAuxiliaryCacheMonit
                 // swap in a new one
                 facade.restorePrimaryServer((RemoteCacheNoWait<K, V>) ic);
                 rca0.setFailoverIndex( 0 );
+                rcm.resync( (RemoteCacheNoWait<K, V>) ic );
 
                 final String message = "Successfully reconnected to PRIMARY "
                         + "remote server. Substituted primary for "
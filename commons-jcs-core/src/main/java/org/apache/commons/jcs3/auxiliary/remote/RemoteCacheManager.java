@@ -21,6 +21,7 @@ package org.apache.commons.jcs3.auxiliary.remote;
 
 import java.io.IOException;
 import java.rmi.Naming;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -29,12 +30,14 @@ import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheClient;
 import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheListener;
 import org.apache.commons.jcs3.engine.CacheStatus;
 import org.apache.commons.jcs3.engine.CacheWatchRepairable;
+import org.apache.commons.jcs3.engine.RegionDigest;
 import org.apache.commons.jcs3.engine.ZombieCacheServiceNonLocal;
 import org.apache.commons.jcs3.engine.ZombieCacheWatch;
 import org.apache.commons.jcs3.engine.behavior.ICacheObserver;
 import org.apache.commons.jcs3.engine.behavior.ICacheServiceNonLocal;
 import org.apache.commons.jcs3.engine.behavior.ICompositeCacheManager;
 import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
 import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
@@ -309,6 +312,7 @@ public class RemoteCacheManager
             if (c.getStatus() == CacheStatus.ERROR)
             {
                 c.fixCache( remoteService );
+                resync( c );
             }
         }
 
@@ -323,6 +327,84 @@ public class RemoteCacheManager
         }
     }
 
+    /**
+     * Compares the local region of a reconnected cache with the server, and removes the local
+     * elements that changed on the server while the connection was down. Does nothing unless
+     * resyncBuckets is configured.
+     * <p>
+     * @param nw the reconnected cache
+     */
+    public <K, V> void resync( final RemoteCacheNoWait<K, V> nw )
+    {
+        final IRemoteCacheAttributes rca = (IRemoteCacheAttributes) nw.getAuxiliaryCacheAttributes();
+        if ( rca.getResyncBuckets() <= 0 || cacheMgr == null )
+        {
+            return;
+        }
+
+        @SuppressWarnings("unchecked") // Need to cast because of common map for all caches
+        final ICacheServiceNonLocal<K, V> remote = (ICacheServiceNonLocal<K, V>) remoteService;
+        final CompositeCache<K, V> local = cacheMgr.getCache( nw.getCacheName() );
+
+        try
+        {
+            final int removed = resync( local, remote, rca.getResyncBuckets() );
+            log.info( "Resync of [{0}] with {1} removed [{2}] local elements", nw.getCacheName(),
+                    registry, removed );
+        }
+        catch ( final IOException e )
+        {
+            log.error( "Problem resyncing [{0}] with {1}", nw.getCacheName(), registry, e );
+        }
+    }
+
+    /**
+     * Compares the bucket hashes of the local and the remote region, then the fingerprints of the
+     * keys in the buckets that differ. Local elements that are missing or different on the server
+     * are removed locally and will be fetched again when needed. Both sides digest the elements
+     * in memory and on their local disk caches.
+     * <p>
+     * @param local the local region
+     * @param remote the server
+     * @param buckets the number of buckets
+     * @return the number of local elements removed, -1 if the server does not support digests
+     * @throws IOException
+     */
+    protected static <K, V> int resync( final CompositeCache<K, V> local, final ICacheServiceNonLocal<K, V> remote,
+                                        final int buckets )
+        throws IOException
+    {
+        final String cacheName = local.getCacheName();
+        final RegionDigest<K> remoteDigest = remote.getRegionDigest( cacheName, buckets, null, 0 );
+        if ( remoteDigest == null || remoteDigest.getBucketCount() != buckets )
+        {
+            return -1;
+        }
+
+        final RegionDigest<K> localDigest = RegionDigest.create( local, buckets, null );
+        final int[] different = localDigest.getDifferentBuckets( remoteDigest );
+        log.debug( "Resync of [{0}]: [{1}] of [{2}] buckets differ", cacheName, different.length, buckets );
+        if ( different.length == 0 )
+        {
+            return 0;
+        }
+
+        final Map<K, Long> remoteKeys = remote.getRegionDigest( cacheName, buckets, different, 0 ).getFingerprints();
+        final Map<K, Long> localKeys = RegionDigest.create( local, buckets, different ).getFingerprints();
+
+        int removed = 0;
+        for ( final Map.Entry<K, Long> entry : localKeys.entrySet() )
+        {
+            if ( !entry.getValue().equals( remoteKeys.get( entry.getKey() ) ) )
+            {
+                local.localRemove( entry.getKey() );
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
     /**
      * Returns true if the connection to the remote host can be
      * successfully re-established.
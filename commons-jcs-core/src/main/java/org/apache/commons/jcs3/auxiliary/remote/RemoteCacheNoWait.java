@@ -119,7 +119,9 @@ public class RemoteCacheNoWait<K, V>
             client.getListenerId(),
             client.getCacheName(),
             client.getAuxiliaryCacheAttributes().getEventQueuePoolName(),
-            client.getAuxiliaryCacheAttributes().getEventQueueType() );
+            client.getAuxiliaryCacheAttributes().getEventQueueType(),
+            client.getAuxiliaryCacheAttributes().getEventQueueCapacity(),
+            client.getAuxiliaryCacheAttributes().getEventQueueOverflowPolicy() );
         return ceq;
     }
 
@@ -469,6 +471,15 @@ public class RemoteCacheNoWait<K, V>
         return getStatistics().toString();
     }
 
+    /**
+     * @return the number of events waiting to be sent to the remote server
+     */
+    @Override
+    public int getEventQueueSize()
+    {
+        return cacheEventQueue.size();
+    }
+
     /**
      * @return statistics about this communication
      */
@@ -0,0 +1,428 @@
+package org.apache.commons.jcs3.auxiliary.remote;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheAttributes;
+import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheAttributes;
+import org.apache.commons.jcs3.engine.CacheStatus;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
+import org.apache.commons.jcs3.engine.stats.StatElement;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+import org.apache.commons.jcs3.engine.stats.behavior.IStats;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.struct.ConsistentHashRing;
+
+/**
+ * Partitions the keys of a region over several remote servers. Each key is routed to one server
+ * using a consistent hash ring with virtual nodes.
+ * <p>
+ * If a server goes zombie, its keys are routed to the next live server on the ring until the
+ * remote cache monitor restores the connection. Keys of the other servers do not move. Clients
+ * that share the same list of shard servers route every key to the same server.
+ * <p>
+ * The keys put or removed on another server while their owner was in error are remembered. When
+ * the owner is seen alive again, they are removed from the owner and from the server that took
+ * them, so the owner does not serve the value it had before the error.
+ */
+public class ShardedRemoteCacheNoWaitFacade<K, V>
+    extends AbstractRemoteCacheNoWaitFacade<K, V>
+{
+    /** log instance */
+    private static final Log log = LogManager.getLog( ShardedRemoteCacheNoWaitFacade.class );
+
+    /** Maps the keys to the no waits */
+    private final ConsistentHashRing<RemoteCacheNoWait<K, V>> ring;
+
+    /** The keys written to another shard while their owner was in error, by owner */
+    private final ConcurrentMap<RemoteCacheNoWait<K, V>, Map<K, RemoteCacheNoWait<K, V>>> rerouted =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Constructs with the given remote caches, one per shard server.
+     * <p>
+     * @param noWaits
+     * @param rca
+     * @param cacheEventLogger
+     * @param elementSerializer
+     */
+    public ShardedRemoteCacheNoWaitFacade( final List<RemoteCacheNoWait<K,V>> noWaits,
+                                           final IRemoteCacheAttributes rca,
+                                           final ICacheEventLogger cacheEventLogger,
+                                           final IElementSerializer elementSerializer )
+    {
+        super( noWaits, rca, cacheEventLogger, elementSerializer );
+        this.ring = new ConsistentHashRing<>( this.noWaits, rca.getShardVirtualNodes(),
+                ShardedRemoteCacheNoWaitFacade::getShardName );
+    }
+
+    /**
+     * The name of a shard on the ring is its remote location.
+     * <p>
+     * @param nw the no wait
+     * @return the name
+     */
+    private static String getShardName( final RemoteCacheNoWait<?, ?> nw )
+    {
+        final AuxiliaryCacheAttributes attributes = nw.getAuxiliaryCacheAttributes();
+        if ( attributes instanceof IRemoteCacheAttributes
+            && ( (IRemoteCacheAttributes) attributes ).getRemoteLocation() != null )
+        {
+            return ( (IRemoteCacheAttributes) attributes ).getRemoteLocation().toString();
+        }
+        return nw.toString();
+    }
+
+    /**
+     * Gets the shard for the key. This is the owner of the key on the ring, or the next live
+     * shard if the owner is in error. If the owner is alive, the keys rerouted while it was in
+     * error are reconciled first.
+     * <p>
+     * @param key
+     * @return the no wait, or null if there are no shards
+     */
+    public RemoteCacheNoWait<K, V> getShard( final K key )
+    {
+        final RemoteCacheNoWait<K, V> owner = ring.get( key );
+        if ( owner == null || owner.getStatus() == CacheStatus.ALIVE )
+        {
+            reconcile( owner );
+            return owner;
+        }
+
+        final RemoteCacheNoWait<K, V> shard = ring.get( key, nw -> nw.getStatus() == CacheStatus.ALIVE );
+
+        // if all are down, the owner queues the events until it is restored
+        return shard != null ? shard : owner;
+    }
+
+    /**
+     * Gets the shard to write the key to, remembering the key if it is not the owner.
+     * <p>
+     * @param key
+     * @return the no wait, or null if there are no shards
+     */
+    private RemoteCacheNoWait<K, V> getShardForWrite( final K key )
+    {
+        final RemoteCacheNoWait<K, V> shard = getShard( key );
+        final RemoteCacheNoWait<K, V> owner = ring.get( key );
+        if ( shard != owner )
+        {
+            final Map<K, RemoteCacheNoWait<K, V>> keys =
+                rerouted.computeIfAbsent( owner, nw -> new HashMap<>() );
+            synchronized ( keys )
+            {
+                keys.put( key, shard );
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * Removes the keys written elsewhere while the owner was in error from the owner and from the
+     * shard that took them. The owner is cleared synchronously, so the next read of the key does
+     * not return the value it held before the error. The other shard is cleared through its queue,
+     * after the writes it still has pending.
+     * <p>
+     * Callers wait while the owner is reconciled, so no write reaches it before its stale keys are
+     * gone.
+     * <p>
+     * @param owner the shard that is alive again
+     */
+    private void reconcile( final RemoteCacheNoWait<K, V> owner )
+    {
+        final Map<K, RemoteCacheNoWait<K, V>> keys = owner == null ? null : rerouted.get( owner );
+        if ( keys == null )
+        {
+            return;
+        }
+
+        synchronized ( keys )
+        {
+            if ( keys.isEmpty() )
+            {
+                return;
+            }
+
+            log.info( "Shard restored, removing {0} keys written to other shards: {1}",
+                    Integer.valueOf( keys.size() ), owner );
+            for ( final Iterator<Map.Entry<K, RemoteCacheNoWait<K, V>>> it = keys.entrySet().iterator(); it.hasNext(); )
+            {
+                final Map.Entry<K, RemoteCacheNoWait<K, V>> entry = it.next();
+                try
+                {
+                    owner.getRemoteCache().remove( entry.getKey() );
+                    entry.getValue().remove( entry.getKey() );
+                }
+                catch ( final IOException ex )
+                {
+                    log.error( "Problem reconciling key " + entry.getKey() + " with shard " + owner, ex );
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Put an element on the shard of its key.
+     * <p>
+     * @param ce
+     * @throws IOException
+     */
+    @Override
+    public void update( final ICacheElement<K, V> ce )
+        throws IOException
+    {
+        final RemoteCacheNoWait<K, V> nw = getShardForWrite( ce.getKey() );
+        if ( nw == null )
+        {
+            return;
+        }
+
+        try
+        {
+            nw.update( ce );
+        }
+        catch ( final IOException ex )
+        {
+            final String message = "Problem updating shard " + nw;
+            log.error( message, ex );
+
+            if ( getCacheEventLogger() != null )
+            {
+                getCacheEventLogger().logError( "ShardedRemoteCacheNoWaitFacade",
+                                                ICacheEventLogger.UPDATE_EVENT,
+                                                message + ":" + ex.getMessage() + " REGION: " + ce.getCacheName()
+                                                    + " ELEMENT: " + ce );
+            }
+
+            failover( nw );
+        }
+    }
+
+    /**
+     * Synchronously reads from the shard of the key. If the shard fails, it is put in error and
+     * the key is read from the next live shard, which holds it until the shard is restored.
+     * <p>
+     * @param key
+     * @return Either an ICacheElement&lt;K, V&gt; or null if it is not found.
+     */
+    @Override
+    public ICacheElement<K, V> get( final K key )
+    {
+        final Set<RemoteCacheNoWait<K, V>> tried = new HashSet<>();
+        RemoteCacheNoWait<K, V> nw = getShard( key );
+        while ( nw != null && tried.add( nw ) )
+        {
+            try
+            {
+                return nw.get( key );
+            }
+            catch ( final IOException ex )
+            {
+                final String message = "Problem getting from shard " + nw;
+                log.warn( message, ex );
+
+                if ( getCacheEventLogger() != null )
+                {
+                    getCacheEventLogger().logError( "ShardedRemoteCacheNoWaitFacade",
+                                                    ICacheEventLogger.GET_EVENT,
+                                                    message + ":" + ex.getMessage() + " REGION: " + getCacheName()
+                                                        + " KEY: " + key );
+                }
+
+                failover( nw );
+            }
+            nw = getShard( key );
+        }
+        return null;
+    }
+
+    /**
+     * Reads from every shard, since matching keys may live anywhere.
+     * <p>
+     * @param pattern
+     * @return map
+     * @throws IOException
+     */
+    @Override
+    public Map<K, ICacheElement<K, V>> getMatching( final String pattern )
+        throws IOException
+    {
+        final Map<K, ICacheElement<K, V>> result = new HashMap<>();
+        for (final RemoteCacheNoWait<K, V> nw : noWaits)
+        {
+            try
+            {
+                result.putAll( nw.getMatching( pattern ) );
+            }
+            catch ( final IOException ex )
+            {
+                log.debug( "Failed to getMatching from shard {0}", nw );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets multiple items, asking each shard only for its own keys.
+     * <p>
+     * @param keys
+     * @return a map of K key to ICacheElement&lt;K, V&gt; element, or an empty map if there is no
+     *         data in cache for any of these keys
+     */
+    @Override
+    public Map<K, ICacheElement<K, V>> getMultiple( final Set<K> keys )
+    {
+        if ( keys == null || keys.isEmpty() )
+        {
+            return Collections.emptyMap();
+        }
+
+        final Map<RemoteCacheNoWait<K, V>, Set<K>> keysByShard = new HashMap<>();
+        for (final K key : keys)
+        {
+            final RemoteCacheNoWait<K, V> nw = getShard( key );
+            if ( nw != null )
+            {
+                keysByShard.computeIfAbsent( nw, k -> new HashSet<>() ).add( key );
+            }
+        }
+
+        final Map<K, ICacheElement<K, V>> result = new HashMap<>();
+        for (final Map.Entry<RemoteCacheNoWait<K, V>, Set<K>> entry : keysByShard.entrySet())
+        {
+            try
+            {
+                result.putAll( entry.getKey().getMultiple( entry.getValue() ) );
+            }
+            catch ( final IOException ex )
+            {
+                log.debug( "Failed to getMultiple from shard {0}", entry.getKey() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the key from its shard.
+     * <p>
+     * @param key
+     * @return whether or not it was removed, right now it return false.
+     */
+    @Override
+    public boolean remove( final K key )
+    {
+        final RemoteCacheNoWait<K, V> nw = getShardForWrite( key );
+        if ( nw != null )
+        {
+            try
+            {
+                nw.remove( key );
+            }
+            catch ( final IOException ex )
+            {
+                log.error( ex );
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shards do not fail over. A shard in error is skipped by the ring until the remote cache
+     * monitor restores it.
+     * <p>
+     * @param rcnw The no wait in error.
+     */
+    @Override
+    protected void failover( final RemoteCacheNoWait<K, V> rcnw )
+    {
+        log.info( "Shard in error, routing its keys to the next live shard: {0}", rcnw );
+
+        if ( getCacheEventLogger() != null )
+        {
+            getCacheEventLogger().logApplicationEvent( "ShardedRemoteCacheNoWaitFacade", "ShardError",
+                                                       rcnw + " was in error." );
+        }
+    }
+
+    /**
+     * @return statistics about the cache region
+     */
+    @Override
+    public IStats getStatistics()
+    {
+        final IStats stats = super.getStatistics();
+        stats.setTypeName( "Sharded Remote Cache No Wait Facade" );
+
+        int alive = 0;
+        for (final RemoteCacheNoWait<K, V> nw : noWaits)
+        {
+            if ( nw.getStatus() == CacheStatus.ALIVE )
+            {
+                alive++;
+            }
+        }
+
+        final List<IStatElement<?>> elems = new ArrayList<>( stats.getStatElements() );
+        elems.add( 0, new StatElement<>( "Live Shards", Integer.valueOf( alive ) ) );
+        elems.add( 1, new StatElement<>( "Virtual Nodes per Shard",
+                Integer.valueOf( getAuxiliaryCacheAttributes().getShardVirtualNodes() ) ) );
+        stats.setStatElements( elems );
+
+        return stats;
+    }
+
+    /**
+     * String form of some of the configuration information for the remote cache.
+     * <p>
+     * @return Some info for logging.
+     */
+    @Override
+    public String toString()
+    {
+        return "ShardedRemoteCacheNoWaitFacade: " + getCacheName() + ", rca = " + getAuxiliaryCacheAttributes();
+    }
+
+    /**
+     * This typically returns end point info .
+     * <p>
+     * @return the name
+     */
+    @Override
+    public String getEventLoggingExtraInfo()
+    {
+        return "Sharded Remote Cache No Wait Facade";
+    }
+}
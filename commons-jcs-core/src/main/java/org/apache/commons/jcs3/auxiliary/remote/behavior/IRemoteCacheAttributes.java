@@ -45,6 +45,9 @@ public interface IRemoteCacheAttributes
      */
     int DEFAULT_ZOMBIE_QUEUE_MAX_SIZE = 1000;
 
+    /** The number of points each shard server gets on the consistent hash ring. */
+    int DEFAULT_SHARD_VIRTUAL_NODES = 100;
+
     /**
      * Gets the failoverIndex attribute of the IRemoteCacheAttributes object.
      * <p>
@@ -179,4 +182,52 @@ public interface IRemoteCacheAttributes
      * @return Returns the zombieQueueMaxSize.
      */
     int getZombieQueueMaxSize();
+
+    /**
+     * Gets the shardServers attribute of the IRemoteCacheAttributes object.
+     * <p>
+     * If set, the keys are partitioned over these servers instead of using a primary with
+     * failovers.
+     * <p>
+     * @return The comma separated list of host:port entries
+     */
+    String getShardServers();
+
+    /**
+     * Sets the shardServers attribute of the IRemoteCacheAttributes object.
+     * <p>
+     * @param s The comma separated list of host:port entries
+     */
+    void setShardServers( String s );
+
+    /**
+     * The number of virtual nodes each shard server gets on the consistent hash ring. More nodes
+     * give a more even distribution of the keys.
+     * <p>
+     * @return Returns the shardVirtualNodes.
+     */
+    int getShardVirtualNodes();
+
+    /**
+     * The number of virtual nodes each shard server gets on the consistent hash ring.
+     * <p>
+     * @param shardVirtualNodes The shardVirtualNodes to set.
+     */
+    void setShardVirtualNodes( int shardVirtualNodes );
+
+    /**
+     * The number of buckets used to compare the local region with the server after a reconnect.
+     * Only the local elements in buckets that differ are checked, and those that changed on the
+     * server are removed locally. 0 turns the resync off.
+     * <p>
+     * @return Returns the resyncBuckets.
+     */
+    int getResyncBuckets();
+
+    /**
+     * The number of buckets used to compare the local region with the server after a reconnect.
+     * <p>
+     * @param resyncBuckets The resyncBuckets to set.
+     */
+    void setResyncBuckets( int resyncBuckets );
 }
@@ -20,6 +20,7 @@ package org.apache.commons.jcs3.auxiliary.remote.behavior;
  */
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
@@ -43,4 +44,28 @@ public interface IRemoteCacheDispatcher
     <K, V, T>
         RemoteCacheResponse<T> dispatchRequest( RemoteCacheRequest<K, V> remoteCacheRequest )
             throws IOException;
+
+    /**
+     * Sends the request without waiting for the response. Implementations may combine concurrent
+     * requests into one remote call.
+     * <p>
+     * The default implementation sends the request in the calling thread.
+     * <p>
+     * @param remoteCacheRequest
+     * @return a future for the RemoteCacheResponse
+     */
+    default <K, V, T>
+        CompletableFuture<RemoteCacheResponse<T>> dispatchRequestAsync( final RemoteCacheRequest<K, V> remoteCacheRequest )
+    {
+        final CompletableFuture<RemoteCacheResponse<T>> future = new CompletableFuture<>();
+        try
+        {
+            future.complete( dispatchRequest( remoteCacheRequest ) );
+        }
+        catch ( final IOException e )
+        {
+            future.completeExceptionally( e );
+        }
+        return future;
+    }
 }
@@ -28,4 +28,10 @@ public interface IRemoteHttpCacheConstants
     /** All of the RemoteHttpCacheServiceAttributes can be configured this way. */
     String HTTP_CACHE_SERVER_ATTRIBUTES_PROPERTY_PREFIX = HTTP_CACHE_SERVER_PREFIX
         + ".serverattributes";
+
+    /** The content type of streamed responses. */
+    String STREAM_CONTENT_TYPE = "application/x-jcs-stream";
+
+    /** The content type parameter that names the serializer of a streamed response. */
+    String SERIALIZER_PARAMETER = "serializer";
 }
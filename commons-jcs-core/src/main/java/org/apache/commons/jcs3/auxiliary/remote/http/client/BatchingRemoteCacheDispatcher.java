@@ -0,0 +1,359 @@
+package org.apache.commons.jcs3.auxiliary.remote.http.client;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheDispatcher;
+import org.apache.commons.jcs3.auxiliary.remote.util.RemoteCacheRequestFactory;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.threadpool.ThreadPoolManager;
+
+/**
+ * Combines concurrent get, update and remove requests into batch requests, so that a busy region
+ * needs far fewer remote calls.
+ * <p>
+ * A request waits at most <code>batchWindowMillis</code> for others to join. A batch is sent as
+ * soon as it holds <code>batchSize</code> requests. The batches are assembled under a lock, but
+ * sent outside of it, so that several batches may be on the wire at the same time. A request that
+ * cannot be batched takes the pending batches and sends them before itself. As for requests
+ * made without batching, requests sent at the same time by different threads may reach the
+ * server in any order.
+ * <p>
+ * The server has to understand the BATCH request type.
+ */
+public class BatchingRemoteCacheDispatcher
+    implements IRemoteCacheDispatcher
+{
+    /** The Logger. */
+    private static final Log log = LogManager.getLog( BatchingRemoteCacheDispatcher.class );
+
+    /** A request waiting for its batch. */
+    private static class PendingRequest
+    {
+        /** The request */
+        final RemoteCacheRequest<?, ?> request;
+
+        /** Completed with the response */
+        final CompletableFuture<RemoteCacheResponse<Object>> future = new CompletableFuture<>();
+
+        /**
+         * @param request
+         */
+        PendingRequest( final RemoteCacheRequest<?, ?> request )
+        {
+            this.request = request;
+        }
+    }
+
+    /** Sends the requests */
+    private final IRemoteCacheDispatcher delegate;
+
+    /** The maximum number of requests per batch */
+    private final int batchSize;
+
+    /** How long a request may wait for others */
+    private final long batchWindowMillis;
+
+    /** Sends full batches */
+    private final ExecutorService pool;
+
+    /** Sends batches when the window closes */
+    private final ScheduledExecutorService scheduler;
+
+    /** The requests waiting for a batch */
+    private final Queue<PendingRequest> pending = new ConcurrentLinkedQueue<>();
+
+    /** The number of waiting requests */
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    /** Whether a send is scheduled for the end of the window */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /** Held while the pending requests are split into batches, not while they are sent */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * @param delegate sends the requests
+     * @param attributes the batch settings and the thread pool name
+     */
+    public BatchingRemoteCacheDispatcher( final IRemoteCacheDispatcher delegate, final RemoteHttpCacheAttributes attributes )
+    {
+        this.delegate = delegate;
+        this.batchSize = Math.max( 1, attributes.getBatchSize() );
+        this.batchWindowMillis = Math.max( 0, attributes.getBatchWindowMillis() );
+        this.pool = ThreadPoolManager.getInstance().getExecutorService( attributes.getThreadPoolName() );
+        this.scheduler = ThreadPoolManager.getInstance().getSchedulerPool( attributes.getThreadPoolName() );
+    }
+
+    /**
+     * Waits for the response of the request. Gets, updates and removes are batched with those of
+     * other threads.
+     * <p>
+     * @param remoteCacheRequest
+     * @return RemoteCacheResponse
+     * @throws IOException
+     */
+    @Override
+    public <K, V, T> RemoteCacheResponse<T> dispatchRequest( final RemoteCacheRequest<K, V> remoteCacheRequest )
+        throws IOException
+    {
+        if ( !isBatchable( remoteCacheRequest ) )
+        {
+            return sendInOrder( remoteCacheRequest );
+        }
+
+        try
+        {
+            return this.<K, V, T>dispatchRequestAsync( remoteCacheRequest ).get();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for the response.", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            if ( e.getCause() instanceof IOException )
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( "Problem dispatching request.", e.getCause() );
+        }
+    }
+
+    /**
+     * Queues the request for the next batch.
+     * <p>
+     * @param remoteCacheRequest
+     * @return a future for the RemoteCacheResponse
+     */
+    @Override
+    @SuppressWarnings("unchecked") // The response type is determined by the request
+    public <K, V, T> CompletableFuture<RemoteCacheResponse<T>> dispatchRequestAsync( final RemoteCacheRequest<K, V> remoteCacheRequest )
+    {
+        if ( !isBatchable( remoteCacheRequest ) )
+        {
+            final CompletableFuture<RemoteCacheResponse<T>> future = new CompletableFuture<>();
+            pool.execute( () -> {
+                try
+                {
+                    future.complete( sendInOrder( remoteCacheRequest ) );
+                }
+                catch ( final IOException | RuntimeException e )
+                {
+                    future.completeExceptionally( e );
+                }
+            } );
+            return future;
+        }
+
+        final PendingRequest request = new PendingRequest( remoteCacheRequest );
+        pending.add( request );
+
+        if ( pendingCount.incrementAndGet() >= batchSize )
+        {
+            pool.execute( this::flush );
+        }
+        else if ( flushScheduled.compareAndSet( false, true ) )
+        {
+            scheduler.schedule( () -> {
+                flushScheduled.set( false );
+                flush();
+            }, batchWindowMillis, TimeUnit.MILLISECONDS );
+        }
+
+        return (CompletableFuture<RemoteCacheResponse<T>>) (Object) request.future;
+    }
+
+    /**
+     * Sends the pending batches and then the request.
+     * <p>
+     * @param remoteCacheRequest
+     * @return RemoteCacheResponse
+     * @throws IOException
+     */
+    private <K, V, T> RemoteCacheResponse<T> sendInOrder( final RemoteCacheRequest<K, V> remoteCacheRequest )
+        throws IOException
+    {
+        flush();
+        return delegate.dispatchRequest( remoteCacheRequest );
+    }
+
+    /**
+     * Sends all pending requests. They are split into batches under the lock and sent after
+     * releasing it.
+     */
+    protected void flush()
+    {
+        final List<List<PendingRequest>> batches = new ArrayList<>();
+        drainLock.lock();
+        try
+        {
+            List<PendingRequest> batch = drain();
+            while ( !batch.isEmpty() )
+            {
+                batches.add( batch );
+                batch = drain();
+            }
+        }
+        finally
+        {
+            drainLock.unlock();
+        }
+
+        for ( final List<PendingRequest> batch : batches )
+        {
+            send( batch );
+        }
+    }
+
+    /**
+     * Takes the next batch off the queue. The drain lock must be held.
+     * <p>
+     * @return up to batchSize pending requests
+     */
+    private List<PendingRequest> drain()
+    {
+        final List<PendingRequest> batch = new ArrayList<>();
+        PendingRequest request;
+        while ( batch.size() < batchSize && ( request = pending.poll() ) != null )
+        {
+            pendingCount.decrementAndGet();
+            batch.add( request );
+        }
+        return batch;
+    }
+
+    /**
+     * Sends one batch and completes the futures of its requests.
+     * <p>
+     * @param batch
+     */
+    @SuppressWarnings("unchecked") // The requests of a batch are sent as raw requests
+    private void send( final List<PendingRequest> batch )
+    {
+        try
+        {
+            if ( batch.size() == 1 )
+            {
+                final PendingRequest request = batch.get( 0 );
+                request.future.complete( delegate.dispatchRequest( request.request ) );
+                return;
+            }
+
+            final List<RemoteCacheRequest<Object, Object>> requests = new ArrayList<>( batch.size() );
+            for ( final PendingRequest request : batch )
+            {
+                requests.add( (RemoteCacheRequest<Object, Object>) request.request );
+            }
+
+            final RemoteCacheResponse<List<RemoteCacheResponse<Object>>> response =
+                delegate.dispatchRequest( RemoteCacheRequestFactory.createBatchRequest( requests, 0 ) );
+            log.debug( "Sent batch of {0} requests", batch.size() );
+
+            if ( response == null || !response.isSuccess() || response.getPayload() == null
+                || response.getPayload().size() != batch.size() )
+            {
+                final String message = "Invalid batch response: "
+                    + ( response != null ? response.getErrorMessage() : "null" );
+                fail( batch, new IOException( message ) );
+                return;
+            }
+
+            for ( int i = 0; i < batch.size(); i++ )
+            {
+                batch.get( i ).future.complete( response.getPayload().get( i ) );
+            }
+        }
+        catch ( final IOException | RuntimeException e )
+        {
+            log.error( "Problem sending batch of {0} requests", batch.size(), e );
+            fail( batch, e );
+        }
+    }
+
+    /**
+     * Completes the requests of a batch with an error.
+     * <p>
+     * @param batch
+     * @param e
+     */
+    private void fail( final List<PendingRequest> batch, final Exception e )
+    {
+        for ( final PendingRequest request : batch )
+        {
+            request.future.completeExceptionally( e );
+        }
+    }
+
+    /**
+     * Gets, updates and removes are batched. Other requests work on the whole region or the
+     * connection and are sent on their own.
+     * <p>
+     * @param request
+     * @return true if the request can be part of a batch
+     */
+    protected boolean isBatchable( final RemoteCacheRequest<?, ?> request )
+    {
+        switch ( request.getRequestType() )
+        {
+            case GET:
+            case UPDATE:
+            case REMOVE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the dispatcher that sends the requests
+     */
+    public IRemoteCacheDispatcher getDelegate()
+    {
+        return delegate;
+    }
+
+    /**
+     * @return some info for logging
+     */
+    @Override
+    public String toString()
+    {
+        return "BatchingRemoteCacheDispatcher batchSize = [" + batchSize + "] batchWindowMillis = ["
+            + batchWindowMillis + "] delegate = [" + delegate + "]";
+    }
+}
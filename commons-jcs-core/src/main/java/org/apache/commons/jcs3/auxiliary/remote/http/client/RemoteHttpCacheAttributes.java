@@ -61,6 +61,21 @@ public class RemoteHttpCacheAttributes
     /** This allows users to inject their own client implementation. */
     private String remoteHttpClientClassName = DEFAULT_REMOTE_HTTP_CLIENT_CLASS_NAME;
 
+    /** The maximum number of requests sent in one call. 0 or 1 turns batching off. */
+    private int batchSize = 0;
+
+    /** How long a request may wait for others to join its batch. */
+    private int batchWindowMillis = 2;
+
+    /** The serializer for streamed responses. Empty turns streaming off. */
+    private String streamSerializerClassName = "";
+
+    /** The default largest key or value read from a streamed response, 64 MB. */
+    public static final int DEFAULT_MAX_STREAM_FRAME_BYTES = 64 * 1024 * 1024;
+
+    /** The largest key or value read from a streamed response. */
+    private int maxStreamFrameBytes = DEFAULT_MAX_STREAM_FRAME_BYTES;
+
     /**
      * @param maxConnectionsPerHost the maxConnectionsPerHost to set
      */
@@ -205,6 +220,72 @@ public class RemoteHttpCacheAttributes
         return remoteHttpClientClassName;
     }
 
+    /**
+     * @param batchSize the maximum number of requests sent in one call
+     */
+    public void setBatchSize( final int batchSize )
+    {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the maximum number of requests sent in one call
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * @param batchWindowMillis how long a request may wait for others to join its batch
+     */
+    public void setBatchWindowMillis( final int batchWindowMillis )
+    {
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    /**
+     * @return how long a request may wait for others to join its batch
+     */
+    public int getBatchWindowMillis()
+    {
+        return batchWindowMillis;
+    }
+
+    /**
+     * @param streamSerializerClassName the IElementSerializer used to stream responses, the server
+     *            has to use the same one
+     */
+    public void setStreamSerializerClassName( final String streamSerializerClassName )
+    {
+        this.streamSerializerClassName = streamSerializerClassName;
+    }
+
+    /**
+     * @return the IElementSerializer used to stream responses, empty if responses are not streamed
+     */
+    public String getStreamSerializerClassName()
+    {
+        return streamSerializerClassName;
+    }
+
+    /**
+     * @param maxStreamFrameBytes the largest serialized key or value read from a streamed response,
+     *            larger ones fail the request
+     */
+    public void setMaxStreamFrameBytes( final int maxStreamFrameBytes )
+    {
+        this.maxStreamFrameBytes = maxStreamFrameBytes;
+    }
+
+    /**
+     * @return the largest serialized key or value read from a streamed response
+     */
+    public int getMaxStreamFrameBytes()
+    {
+        return maxStreamFrameBytes;
+    }
+
     /**
      * @return String details
      */
@@ -222,6 +303,10 @@ public class RemoteHttpCacheAttributes
         buf.append( "\n includeRequestTypeasAsParameter = [" + isIncludeRequestTypeasAsParameter() + "]" );
         buf.append( "\n url = [" + getUrl() + "]" );
         buf.append( "\n remoteHttpClientClassName = [" + getRemoteHttpClientClassName() + "]" );
+        buf.append( "\n batchSize = [" + getBatchSize() + "]" );
+        buf.append( "\n batchWindowMillis = [" + getBatchWindowMillis() + "]" );
+        buf.append( "\n streamSerializerClassName = [" + getStreamSerializerClassName() + "]" );
+        buf.append( "\n maxStreamFrameBytes = [" + getMaxStreamFrameBytes() + "]" );
         buf.append( super.toString() );
         return buf.toString();
     }
@@ -76,7 +76,15 @@ public class RemoteHttpCacheClient<K, V>
     @Override
     public void initialize( final RemoteHttpCacheAttributes attributes )
     {
-        setRemoteDispatcher( new RemoteHttpCacheDispatcher( attributes ) );
+        final IRemoteCacheDispatcher dispatcher = new RemoteHttpCacheDispatcher( attributes );
+        if ( attributes.getBatchSize() > 1 )
+        {
+            setRemoteDispatcher( new BatchingRemoteCacheDispatcher( dispatcher, attributes ) );
+        }
+        else
+        {
+            setRemoteDispatcher( dispatcher );
+        }
 
         log.info( "Created remote Dispatcher. {0}", () -> getRemoteDispatcher() );
         setInitialized( true );
@@ -20,16 +20,26 @@ package org.apache.commons.jcs3.auxiliary.remote.http.client;
  */
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheDispatcher;
+import org.apache.commons.jcs3.auxiliary.remote.http.behavior.IRemoteHttpCacheConstants;
+import org.apache.commons.jcs3.auxiliary.remote.util.RemoteCacheResponseStreamer;
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+import org.apache.commons.jcs3.io.ObjectInputStreamClassLoaderAware;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.config.OptionConverter;
 import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
@@ -59,12 +69,30 @@ public class RemoteHttpCacheDispatcher
     /** This needs to be standard, since the other side is standard */
     private final StandardSerializer serializer = new StandardSerializer();
 
+    /** Reads streamed responses, null if responses are not streamed */
+    private final IElementSerializer streamSerializer;
+
     /**
      * @param remoteHttpCacheAttributes
      */
     public RemoteHttpCacheDispatcher( final RemoteHttpCacheAttributes remoteHttpCacheAttributes )
     {
         super( remoteHttpCacheAttributes );
+
+        final String className = remoteHttpCacheAttributes.getStreamSerializerClassName();
+        if ( className != null && !className.trim().isEmpty() )
+        {
+            this.streamSerializer = OptionConverter.instantiateByClassName( className.trim(), null );
+            if ( this.streamSerializer == null )
+            {
+                log.warn( "Could not create stream serializer [{0}], responses will not be streamed",
+                        className );
+            }
+        }
+        else
+        {
+            this.streamSerializer = null;
+        }
     }
 
     /**
@@ -85,6 +113,12 @@ public class RemoteHttpCacheDispatcher
         {
             final byte[] requestAsByteArray = serializer.serialize( remoteCacheRequest );
 
+            if ( streamSerializer != null )
+            {
+                return processStreamingRequest( requestAsByteArray, remoteCacheRequest,
+                        getRemoteHttpCacheAttributes().getUrl() );
+            }
+
             final byte[] responseAsByteArray = processRequest( requestAsByteArray,
                     remoteCacheRequest,
                     getRemoteHttpCacheAttributes().getUrl());
@@ -106,6 +140,50 @@ public class RemoteHttpCacheDispatcher
         }
     }
 
+    /**
+     * Process a single request, asking the server to stream the response. The response is read
+     * from the connection as it arrives. Servers that do not stream send the usual response.
+     *
+     * @param requestAsByteArray request body
+     * @param remoteCacheRequest the cache request
+     * @param url target url
+     *
+     * @return the response
+     *
+     * @throws IOException
+     * @throws ClassNotFoundException
+     */
+    protected <K, V, T> RemoteCacheResponse<T> processStreamingRequest( final byte[] requestAsByteArray,
+            final RemoteCacheRequest<K, V> remoteCacheRequest, final String url )
+        throws IOException, ClassNotFoundException
+    {
+        final RequestBuilder builder = createRequestBuilder( requestAsByteArray, remoteCacheRequest, url );
+        builder.addHeader( HttpHeaders.ACCEPT, IRemoteHttpCacheConstants.STREAM_CONTENT_TYPE + "; "
+            + IRemoteHttpCacheConstants.SERIALIZER_PARAMETER + "=" + streamSerializer.getClass().getName() );
+
+        final HttpResponse httpResponse = doWebserviceCall( builder );
+        final HttpEntity entity = httpResponse.getEntity();
+        final Header contentType = entity.getContentType();
+
+        try (InputStream in = entity.getContent())
+        {
+            if ( contentType != null
+                && contentType.getValue().startsWith( IRemoteHttpCacheConstants.STREAM_CONTENT_TYPE ) )
+            {
+                return RemoteCacheResponseStreamer.readResponse( in, streamSerializer, null,
+                        getRemoteHttpCacheAttributes().getMaxStreamFrameBytes() );
+            }
+
+            // the server does not stream, read the standard serialized response
+            try (ObjectInputStream ois = new ObjectInputStreamClassLoaderAware( in, null ))
+            {
+                @SuppressWarnings("unchecked") // Need to cast from Object
+                final RemoteCacheResponse<T> response = (RemoteCacheResponse<T>) ois.readObject();
+                return response;
+            }
+        }
+    }
+
     /**
      * Process single request
      *
@@ -121,6 +199,24 @@ public class RemoteHttpCacheDispatcher
     protected <K, V> byte[] processRequest( final byte[] requestAsByteArray,
             final RemoteCacheRequest<K, V> remoteCacheRequest, final String url )
         throws IOException, HttpException
+    {
+        final RequestBuilder builder = createRequestBuilder( requestAsByteArray, remoteCacheRequest, url );
+        final HttpResponse httpResponse = doWebserviceCall( builder );
+        final byte[] response = EntityUtils.toByteArray( httpResponse.getEntity() );
+        return response;
+    }
+
+    /**
+     * Creates the post request, adding the parameters configured in the attributes.
+     *
+     * @param requestAsByteArray request body
+     * @param remoteCacheRequest the cache request
+     * @param url target url
+     *
+     * @return the request builder
+     */
+    protected <K, V> RequestBuilder createRequestBuilder( final byte[] requestAsByteArray,
+            final RemoteCacheRequest<K, V> remoteCacheRequest, final String url )
     {
         final RequestBuilder builder = RequestBuilder.post( url ).setCharset( DEFAULT_ENCODING );
 
@@ -160,9 +256,7 @@ public class RemoteHttpCacheDispatcher
         }
 
         builder.setEntity(new ByteArrayEntity( requestAsByteArray ));
-        final HttpResponse httpResponse = doWebserviceCall( builder );
-        final byte[] response = EntityUtils.toByteArray( httpResponse.getEntity() );
-        return response;
+        return builder;
     }
 
     /**
@@ -19,12 +19,16 @@ package org.apache.commons.jcs3.auxiliary.remote.http.server;
  * under the License.
  */
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -38,22 +42,27 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.jcs3.access.exception.CacheException;
 import org.apache.commons.jcs3.auxiliary.AuxiliaryCacheConfigurator;
 import org.apache.commons.jcs3.auxiliary.remote.http.behavior.IRemoteHttpCacheConstants;
+import org.apache.commons.jcs3.auxiliary.remote.util.RemoteCacheResponseStreamer;
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.ICacheServiceNonLocal;
 import org.apache.commons.jcs3.engine.behavior.ICompositeCacheManager;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
 import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
 import org.apache.commons.jcs3.engine.logging.behavior.ICacheEventLogger;
 import org.apache.commons.jcs3.io.ObjectInputStreamClassLoaderAware;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
 import org.apache.commons.jcs3.utils.config.PropertySetter;
-import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
 
 /**
  * This servlet simply reads and writes objects. The requests are packaged in a general wrapper. The
  * processor works on the wrapper object and returns a response wrapper.
+ * <p>
+ * Responses are written straight to the output stream. Clients that accept the stream content type
+ * with the serializer configured as jcs.remotehttpcache.serializer get map payloads one entry at a
+ * time, see RemoteCacheResponseStreamer.
  */
 public class RemoteHttpCacheServlet
     extends HttpServlet
@@ -70,8 +79,8 @@ public class RemoteHttpCacheServlet
     /** The service that does the work. */
     private static ICacheServiceNonLocal<Serializable, Serializable> remoteCacheService;
 
-    /** This needs to be standard, since the other side is standard */
-    private final StandardSerializer serializer = new StandardSerializer();
+    /** Serializes streamed responses, negotiated with the client by content type */
+    private IElementSerializer streamSerializer;
 
     /** Number of service calls. */
     private int serviceCalls;
@@ -101,6 +110,8 @@ public class RemoteHttpCacheServlet
         }
 
         remoteCacheService = createRemoteHttpCacheService( cacheMgr );
+        streamSerializer = AuxiliaryCacheConfigurator.parseElementSerializer( cacheMgr.getConfigurationProperties(),
+                IRemoteHttpCacheConstants.HTTP_CACHE_SERVER_PREFIX );
 
         super.init( config );
     }
@@ -123,7 +134,41 @@ public class RemoteHttpCacheServlet
         final RemoteCacheRequest<Serializable, Serializable> remoteRequest = readRequest( request );
         final RemoteCacheResponse<Object> cacheResponse = processRequest( remoteRequest );
 
-        writeResponse( response, cacheResponse );
+        if ( acceptsStream( request ) )
+        {
+            writeStreamingResponse( response, cacheResponse );
+        }
+        else
+        {
+            writeResponse( response, cacheResponse );
+        }
+    }
+
+    /**
+     * Checks whether the client accepts a streamed response written with our serializer.
+     * <p>
+     * @param request
+     * @return true if the response can be streamed
+     */
+    protected boolean acceptsStream( final HttpServletRequest request )
+    {
+        final String accept = request.getHeader( "Accept" );
+        if ( accept == null || streamSerializer == null
+            || !accept.startsWith( IRemoteHttpCacheConstants.STREAM_CONTENT_TYPE ) )
+        {
+            return false;
+        }
+
+        for ( final String parameter : accept.split( ";" ) )
+        {
+            final String[] nameAndValue = parameter.trim().split( "=", 2 );
+            if ( nameAndValue.length == 2
+                && IRemoteHttpCacheConstants.SERIALIZER_PARAMETER.equals( nameAndValue[0].trim() ) )
+            {
+                return streamSerializer.getClass().getName().equals( nameAndValue[1].trim() );
+            }
+        }
+        return false;
     }
 
     /**
@@ -182,16 +227,12 @@ public class RemoteHttpCacheServlet
         {
             response.setContentType( "application/octet-stream" );
 
-            final byte[] responseAsByteAray = serializer.serialize( cacheResponse );
-            response.setContentLength( responseAsByteAray.length );
-
+            // WRITE, without buffering the whole response
             final OutputStream outputStream = response.getOutputStream();
-            log.debug( "Opened output stream.  Response size: {0}",
-                    () -> responseAsByteAray.length );
-            // WRITE
-            outputStream.write( responseAsByteAray );
-            outputStream.flush();
-            outputStream.close();
+            try (ObjectOutputStream oos = new ObjectOutputStream( new BufferedOutputStream( outputStream ) ))
+            {
+                oos.writeObject( cacheResponse );
+            }
         }
         catch ( final IOException e )
         {
@@ -199,6 +240,30 @@ public class RemoteHttpCacheServlet
         }
     }
 
+    /**
+     * Write the response to the output stream one entry at a time.
+     * <p>
+     * @param response
+     * @param cacheResponse
+     */
+    protected void writeStreamingResponse( final HttpServletResponse response, final RemoteCacheResponse<Object> cacheResponse )
+    {
+        try
+        {
+            response.setContentType( IRemoteHttpCacheConstants.STREAM_CONTENT_TYPE + "; "
+                + IRemoteHttpCacheConstants.SERIALIZER_PARAMETER + "=" + streamSerializer.getClass().getName() );
+
+            try (OutputStream outputStream = response.getOutputStream())
+            {
+                RemoteCacheResponseStreamer.writeResponse( cacheResponse, outputStream, streamSerializer );
+            }
+        }
+        catch ( final IOException e )
+        {
+            log.error( "Problem streaming response. {0}", cacheResponse, e );
+        }
+    }
+
     /**
      * Processes the request. It will call the appropriate method on the service
      * <p>
@@ -261,6 +326,17 @@ public class RemoteHttpCacheServlet
                         final Set<Serializable> keys = remoteCacheService.getKeySet( request.getCacheName() );
                         response.setPayload( keys );
                         break;
+                    case BATCH:
+                        final List<RemoteCacheResponse<Object>> responses = new ArrayList<>();
+                        if ( request.getRequests() != null )
+                        {
+                            for ( final RemoteCacheRequest<Serializable, Serializable> part : request.getRequests() )
+                            {
+                                responses.add( processRequest( part ) );
+                            }
+                        }
+                        response.setPayload( responses );
+                        break;
                     default:
                         final String message = "Unknown event type.  Cannot process " + request;
                         log.warn( message );
@@ -0,0 +1,684 @@
+package org.apache.commons.jcs3.auxiliary.remote.server;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.jcs3.engine.behavior.ICache;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
+import org.apache.commons.jcs3.engine.behavior.ICacheListener;
+import org.apache.commons.jcs3.engine.control.group.GroupAttrName;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * Keeps the last put, remove and remove all events of a region, numbered in the order they were
+ * sent to the listeners.
+ * <p>
+ * Sequence numbers: {@link #append(JournalEntry)} gives each event the next number, starting at 1
+ * with no gaps. The caller appends the event and takes the list of event queues to notify while
+ * synchronized on the journal, so that a queue registering at the same time is either in that list
+ * or registers after the event was appended. The caller then releases the lock and hands the event
+ * to the queues with {@link #deliver(JournalEntry, List)}.
+ * <p>
+ * Order: the keys are spread over stripes. A delivery waits only for the earlier events of its
+ * stripe, so every queue gets the events of a key in sequence order, while events of other keys
+ * are handed out in parallel. A remove all, or a remove of a hierarchical key or of a group, is
+ * part of every stripe. A queue that blocks does not hold the journal lock, and so does not hold
+ * up the writers of other keys or the registrations.
+ * <p>
+ * Replay: for each listener the journal tracks the events queued but not yet delivered. When a
+ * listener registers again under the same id, for example after its event queue was dropped
+ * because the client could not be reached, the caller tracks it while synchronized on the
+ * journal, which copies the events it missed. This includes the events appended but not yet
+ * handed out, since the new queue is not in their lists. A new listener misses only those. After
+ * releasing the lock the caller replays the copy to the new queue; events delivered to the queue
+ * in the meantime are held back until the replay is done. If the journal no longer holds all of
+ * the missed events, the listener gets a remove all instead. The requester of an event does not
+ * get it on replay, as it does not get it live.
+ * <p>
+ * The events have to be delivered in the order they were queued, so the journal does not work
+ * with pooled event queues.
+ */
+public class RemoteCacheEventJournal<K, V>
+{
+    /** The logger. */
+    private static final Log log = LogManager.getLog( RemoteCacheEventJournal.class );
+
+    /** The kind of event */
+    public enum EventType
+    {
+        /** An element was put */
+        PUT,
+
+        /** A key was removed */
+        REMOVE,
+
+        /** The region was cleared */
+        REMOVE_ALL
+    }
+
+    /** An event in the journal. */
+    public static class JournalEntry<K, V>
+    {
+        /** The kind of event */
+        final EventType type;
+
+        /** The listener that caused the event, it does not get the event */
+        final long requesterId;
+
+        /** The element of a put */
+        final ICacheElement<K, V> element;
+
+        /** The key of a remove */
+        final K key;
+
+        /** Set when the event is appended */
+        long sequence;
+
+        /** The stripe of the key, or -1 if the event is part of every stripe */
+        int stripe;
+
+        /** Sequence number of the previous event of each stripe of the event, set when it is appended */
+        long[] previous;
+
+        /**
+         * @param type the kind of event
+         * @param requesterId the listener that caused the event
+         * @param element the element of a put, else null
+         * @param key the key of a remove, else null
+         */
+        public JournalEntry( final EventType type, final long requesterId, final ICacheElement<K, V> element, final K key )
+        {
+            this.type = type;
+            this.requesterId = requesterId;
+            this.element = element;
+            this.key = key;
+        }
+
+        /**
+         * Adds the event to the queue.
+         * <p>
+         * @param q the event queue
+         * @throws IOException
+         */
+        void addTo( final ICacheEventQueue<K, V> q )
+            throws IOException
+        {
+            switch ( type )
+            {
+                case PUT:
+                    q.addPutEvent( element );
+                    break;
+                case REMOVE:
+                    q.addRemoveEvent( key );
+                    break;
+                default:
+                    q.addRemoveAllEvent();
+                    break;
+            }
+        }
+    }
+
+    /** What was delivered to one listener. */
+    static class ListenerCursor
+    {
+        /** Sequence number of the last event appended when the listener registered */
+        final long registered;
+
+        /** Sequence numbers of the events queued but not yet delivered, in queue order */
+        final Queue<Long> pending = new ConcurrentLinkedQueue<>();
+
+        /** Highest sequence number queued, or the last delivered one when registering */
+        volatile long queued;
+
+        /** The events to replay, then those held back until the replay, null once replayed */
+        volatile Queue<JournalEntry<?, ?>> held;
+
+        /** Number of events to replay */
+        int missed;
+
+        /**
+         * @param delivered sequence number of the last delivered event
+         * @param registered sequence number of the last appended event
+         */
+        ListenerCursor( final long delivered, final long registered )
+        {
+            this.queued = delivered;
+            this.registered = registered;
+        }
+
+        /**
+         * Adds the event to the queue of the listener. Called while synchronized on the cursor, so
+         * the pending sequence numbers are in queue order.
+         * <p>
+         * @param entry an appended event
+         * @param q the event queue
+         * @throws IOException
+         */
+        @SuppressWarnings("unchecked") // the journal only holds events of its region
+        <K, V> void queue( final JournalEntry<?, ?> entry, final ICacheEventQueue<K, V> q )
+            throws IOException
+        {
+            pending.add( Long.valueOf( entry.sequence ) );
+            queued = Math.max( queued, entry.sequence );
+            ( (JournalEntry<K, V>) entry ).addTo( q );
+        }
+
+        /** An event was delivered. */
+        void acknowledge()
+        {
+            pending.poll();
+        }
+
+        /**
+         * Events of other keys may be queued out of sequence order, so this is the number before
+         * the oldest event not yet delivered.
+         * <p>
+         * @param handedOut sequence number up to which all events were handed to the queues
+         * @return sequence number up to which all events for the listener were delivered
+         */
+        long getDelivered( final long handedOut )
+        {
+            long delivered = Math.min( handedOut, queued );
+
+            // held first, a replayed event is pending before it leaves held
+            final Queue<JournalEntry<?, ?>> replay = held;
+            if ( replay != null )
+            {
+                for ( final JournalEntry<?, ?> entry : replay )
+                {
+                    delivered = Math.min( delivered, entry.sequence - 1 );
+                }
+            }
+            for ( final Long sequence : pending )
+            {
+                delivered = Math.min( delivered, sequence.longValue() - 1 );
+            }
+            return delivered;
+        }
+    }
+
+    /** Wraps a listener to record the delivered events. */
+    private static class TrackingListener<K, V>
+        implements ICacheListener<K, V>
+    {
+        /** The real listener */
+        private final ICacheListener<K, V> listener;
+
+        /** Records the deliveries */
+        private final ListenerCursor cursor;
+
+        /**
+         * @param listener the real listener
+         * @param cursor records the deliveries
+         */
+        TrackingListener( final ICacheListener<K, V> listener, final ListenerCursor cursor )
+        {
+            this.listener = listener;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void handlePut( final ICacheElement<K, V> item )
+            throws IOException
+        {
+            listener.handlePut( item );
+            cursor.acknowledge();
+        }
+
+        @Override
+        public void handleRemove( final String cacheName, final K key )
+            throws IOException
+        {
+            listener.handleRemove( cacheName, key );
+            cursor.acknowledge();
+        }
+
+        @Override
+        public void handleRemoveAll( final String cacheName )
+            throws IOException
+        {
+            listener.handleRemoveAll( cacheName );
+            cursor.acknowledge();
+        }
+
+        @Override
+        public void handleDispose( final String cacheName )
+            throws IOException
+        {
+            // dispose events are not journaled
+            listener.handleDispose( cacheName );
+        }
+
+        @Override
+        public long getListenerId()
+            throws IOException
+        {
+            return listener.getListenerId();
+        }
+
+        @Override
+        public void setListenerId( final long id )
+            throws IOException
+        {
+            listener.setListenerId( id );
+        }
+
+        @Override
+        public String toString()
+        {
+            return "TrackingListener " + listener;
+        }
+    }
+
+    /** The name of the region */
+    private final String cacheName;
+
+    /** The ring buffer of JournalEntry instances */
+    private final Object[] entries;
+
+    /** Slot of the oldest entry */
+    private int head;
+
+    /** Number of entries */
+    private int count;
+
+    /** Sequence number of the newest entry, 0 if there is none */
+    private long lastSequence;
+
+    /** Number of stripes the keys are spread over, a power of two */
+    private static final int STRIPES = 16;
+
+    /** Sequence number of the last entry of each stripe */
+    private final long[] stripeLast = new long[STRIPES];
+
+    /** Sequence number of the last entry of each stripe handed to the queues */
+    private final AtomicLongArray stripeHandedOut = new AtomicLongArray( STRIPES );
+
+    /** Deliveries wait on the lock of their stripe for their turn */
+    private final Object[] stripeLocks = new Object[STRIPES];
+
+    /** The cursors by listener id */
+    private final Map<Long, ListenerCursor> cursors = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheName the name of the region
+     * @param size the number of events to keep
+     */
+    public RemoteCacheEventJournal( final String cacheName, final int size )
+    {
+        this.cacheName = cacheName;
+        this.entries = new Object[Math.max( 1, size )];
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * A remove of a hierarchical key or of a group removes keys of other stripes.
+     * <p>
+     * @param entry the event
+     * @return the stripe of the key of the event, or -1 if it is part of every stripe
+     */
+    private static int getStripe( final JournalEntry<?, ?> entry )
+    {
+        final Object key;
+        switch ( entry.type )
+        {
+            case PUT:
+                key = entry.element.getKey();
+                break;
+            case REMOVE:
+                key = entry.key;
+                if ( key instanceof String && ( (String) key ).endsWith( ICache.NAME_COMPONENT_DELIMITER )
+                    || key instanceof GroupAttrName && ( (GroupAttrName<?>) key ).attrName == null )
+                {
+                    return -1;
+                }
+                break;
+            default:
+                return -1;
+        }
+
+        final int h = key == null ? 0 : key.hashCode();
+        return ( h ^ h >>> 16 ) & ( STRIPES - 1 );
+    }
+
+    /**
+     * Appends the event and gives it the next sequence number.
+     * <p>
+     * @param entry the event
+     * @return the sequence number
+     */
+    public synchronized long append( final JournalEntry<K, V> entry )
+    {
+        entry.sequence = ++lastSequence;
+        entry.stripe = getStripe( entry );
+        if ( entry.stripe == -1 )
+        {
+            entry.previous = stripeLast.clone();
+            Arrays.fill( stripeLast, entry.sequence );
+        }
+        else
+        {
+            entry.previous = new long[] { stripeLast[entry.stripe] };
+            stripeLast[entry.stripe] = entry.sequence;
+        }
+
+        if ( count == entries.length )
+        {
+            entries[head] = entry;
+            head = ( head + 1 ) % entries.length;
+        }
+        else
+        {
+            entries[( head + count ) % entries.length] = entry;
+            count++;
+        }
+        return entry.sequence;
+    }
+
+    /**
+     * Hands an appended event to the queues that were registered when it was appended. Waits until
+     * the earlier events of its stripe were handed out, so must not be called while synchronized on
+     * the journal. Every appended event has to be delivered, even to no queues, or later deliveries
+     * of its stripe would wait forever.
+     * <p>
+     * @param entry an appended event
+     * @param queues the queues to add it to
+     * @throws IOException if a queue fails, the event is still handed to the others
+     */
+    public void deliver( final JournalEntry<K, V> entry, final List<? extends ICacheEventQueue<K, V>> queues )
+        throws IOException
+    {
+        awaitTurn( entry );
+
+        IOException failure = null;
+        try
+        {
+            for ( final ICacheEventQueue<K, V> q : queues )
+            {
+                try
+                {
+                    addTo( entry, q );
+                }
+                catch ( final IOException e )
+                {
+                    failure = e;
+                }
+            }
+        }
+        finally
+        {
+            for ( int i = 0; i < entry.previous.length; i++ )
+            {
+                final int stripe = entry.stripe == -1 ? i : entry.stripe;
+                synchronized ( stripeLocks[stripe] )
+                {
+                    stripeHandedOut.set( stripe, entry.sequence );
+                    stripeLocks[stripe].notifyAll();
+                }
+            }
+        }
+
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Waits until the previous event of each stripe of the given one was handed out. Interrupts are
+     * kept for later, since skipping the turn would stall all later events of the stripe.
+     * <p>
+     * @param entry the event to hand out
+     */
+    private void awaitTurn( final JournalEntry<K, V> entry )
+    {
+        boolean interrupted = false;
+        for ( int i = 0; i < entry.previous.length; i++ )
+        {
+            final int stripe = entry.stripe == -1 ? i : entry.stripe;
+            synchronized ( stripeLocks[stripe] )
+            {
+                while ( stripeHandedOut.get( stripe ) < entry.previous[i] )
+                {
+                    try
+                    {
+                        stripeLocks[stripe].wait();
+                    }
+                    catch ( final InterruptedException e )
+                    {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return sequence number up to which all events were handed to the queues
+     */
+    private synchronized long getHandedOut()
+    {
+        long handedOut = lastSequence;
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            final long stripeHanded = stripeHandedOut.get( i );
+            if ( stripeHanded < stripeLast[i] )
+            {
+                handedOut = Math.min( handedOut, stripeHanded );
+            }
+        }
+        return handedOut;
+    }
+
+    /**
+     * Adds the event to the queue, and records it for the listener of the queue. If the listener
+     * registered again, an event appended before that was for its old queue, and is replayed to
+     * the new one. Until the replay is done, the event is held back.
+     * <p>
+     * @param entry an appended event
+     * @param q the event queue
+     * @throws IOException
+     */
+    void addTo( final JournalEntry<K, V> entry, final ICacheEventQueue<K, V> q )
+        throws IOException
+    {
+        final ListenerCursor cursor = cursors.get( Long.valueOf( q.getListenerId() ) );
+        if ( cursor == null || entry.sequence <= cursor.registered )
+        {
+            entry.addTo( q );
+            return;
+        }
+
+        synchronized ( cursor )
+        {
+            if ( cursor.held != null )
+            {
+                cursor.held.add( entry );
+            }
+            else
+            {
+                cursor.queue( entry, q );
+            }
+        }
+    }
+
+    /**
+     * Starts tracking the deliveries to a listener, and copies the events it missed. If the
+     * listener was tracked before, the returned listener continues from the last event it
+     * received. The caller has to call {@link #replay(long, ICacheEventQueue)} once the queue is
+     * registered.
+     * <p>
+     * @param listenerId the id of the listener
+     * @param listener the listener
+     * @return the listener to give to the event queue
+     */
+    public synchronized ICacheListener<K, V> track( final long listenerId, final ICacheListener<K, V> listener )
+    {
+        final ListenerCursor previous = cursors.get( Long.valueOf( listenerId ) );
+        final long handedOut = getHandedOut();
+        final long delivered = previous != null ? previous.getDelivered( handedOut ) : handedOut;
+        final ListenerCursor cursor = new ListenerCursor( delivered, lastSequence );
+
+        if ( delivered < lastSequence )
+        {
+            final Queue<JournalEntry<?, ?>> held = new ConcurrentLinkedQueue<>();
+            final List<JournalEntry<K, V>> missed = getEntriesSince( delivered );
+            if ( missed == null )
+            {
+                log.info( "Journal of [{0}] no longer holds event [{1}], sending remove all to listener [{2}]",
+                        cacheName, delivered + 1, listenerId );
+                final JournalEntry<K, V> flush = new JournalEntry<>( EventType.REMOVE_ALL, 0, null, null );
+                flush.sequence = lastSequence;
+                held.add( flush );
+            }
+            else
+            {
+                for ( final JournalEntry<K, V> entry : missed )
+                {
+                    if ( entry.requesterId != listenerId )
+                    {
+                        held.add( entry );
+                    }
+                }
+            }
+
+            if ( !held.isEmpty() )
+            {
+                cursor.missed = held.size();
+                cursor.held = held;
+            }
+        }
+
+        cursors.put( Long.valueOf( listenerId ), cursor );
+        return new TrackingListener<>( listener, cursor );
+    }
+
+    /**
+     * Adds the events the listener missed to its new queue, then those delivered to the queue
+     * since it registered. Must not be called while synchronized on the journal, since the queue
+     * may block.
+     * <p>
+     * @param listenerId the id of the listener
+     * @param q the new event queue of the listener
+     * @return the number of missed events added
+     * @throws IOException
+     */
+    public int replay( final long listenerId, final ICacheEventQueue<K, V> q )
+        throws IOException
+    {
+        final ListenerCursor cursor = cursors.get( Long.valueOf( listenerId ) );
+        if ( cursor == null )
+        {
+            return 0;
+        }
+
+        synchronized ( cursor )
+        {
+            final Queue<JournalEntry<?, ?>> held = cursor.held;
+            if ( held == null )
+            {
+                return 0;
+            }
+
+            try
+            {
+                for ( JournalEntry<?, ?> entry = held.peek(); entry != null; entry = held.peek() )
+                {
+                    cursor.queue( entry, q );
+                    held.poll();
+                }
+            }
+            finally
+            {
+                cursor.held = null;
+            }
+        }
+
+        log.info( "Replayed [{0}] events of [{1}] to listener [{2}]", cursor.missed, cacheName, listenerId );
+        return cursor.missed;
+    }
+
+    /**
+     * @param sequence a sequence number
+     * @return the entries after it, or null if the journal no longer holds all of them
+     */
+    @SuppressWarnings("unchecked") // entries only holds JournalEntry instances
+    synchronized List<JournalEntry<K, V>> getEntriesSince( final long sequence )
+    {
+        final long oldest = lastSequence - count + 1;
+        if ( sequence + 1 < oldest )
+        {
+            return null;
+        }
+
+        final List<JournalEntry<K, V>> result = new ArrayList<>();
+        for ( long s = Math.max( sequence + 1, oldest ); s <= lastSequence; s++ )
+        {
+            result.add( (JournalEntry<K, V>) entries[(int) ( ( head + s - oldest ) % entries.length )] );
+        }
+        return result;
+    }
+
+    /**
+     * Stops tracking a listener that deregistered.
+     * <p>
+     * @param listenerId the id of the listener
+     */
+    public void forget( final long listenerId )
+    {
+        cursors.remove( Long.valueOf( listenerId ) );
+    }
+
+    /**
+     * @return the sequence number of the newest event
+     */
+    public synchronized long getLastSequence()
+    {
+        return lastSequence;
+    }
+
+    /**
+     * @param listenerId the id of the listener
+     * @return the sequence number of the last event delivered to the listener, -1 if it is not tracked
+     */
+    public long getDeliveredSequence( final long listenerId )
+    {
+        final ListenerCursor cursor = cursors.get( Long.valueOf( listenerId ) );
+        return cursor == null ? -1 : cursor.getDelivered( getHandedOut() );
+    }
+}
@@ -26,20 +26,25 @@ import java.rmi.registry.Registry;
 import java.rmi.server.RMISocketFactory;
 import java.rmi.server.UnicastRemoteObject;
 import java.rmi.server.Unreferenced;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.commons.jcs3.access.exception.CacheException;
 import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheListener;
+import org.apache.commons.jcs3.auxiliary.remote.server.RemoteCacheEventJournal.EventType;
 import org.apache.commons.jcs3.auxiliary.remote.server.behavior.IRemoteCacheServer;
 import org.apache.commons.jcs3.auxiliary.remote.server.behavior.IRemoteCacheServerAttributes;
 import org.apache.commons.jcs3.auxiliary.remote.server.behavior.RemoteType;
 import org.apache.commons.jcs3.engine.CacheEventQueueFactory;
 import org.apache.commons.jcs3.engine.CacheListeners;
+import org.apache.commons.jcs3.engine.RegionDigest;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
 import org.apache.commons.jcs3.engine.behavior.ICacheListener;
@@ -79,6 +84,16 @@ public class RemoteCacheServer<K, V>
     /** log instance */
     private static final Log log = LogManager.getLog( RemoteCacheServer.class );
 
+    /** A change to a region or the notification of its listeners. */
+    @FunctionalInterface
+    private interface RegionAction
+    {
+        /**
+         * @throws IOException
+         */
+        void run() throws IOException;
+    }
+
     /** Number of puts into the cache. */
     private int puts;
 
@@ -90,6 +105,10 @@ public class RemoteCacheServer<K, V>
     private final transient ConcurrentMap<String, CacheListeners<K, V>> clusterListenersMap =
         new ConcurrentHashMap<>();
 
+    /** Maps cache name to the journal of events sent to the listeners of the region. */
+    private final transient ConcurrentMap<String, RemoteCacheEventJournal<K, V>> eventJournalMap =
+        new ConcurrentHashMap<>();
+
     /** The central hub */
     private transient CompositeCacheManager cacheManager;
 
@@ -271,9 +290,8 @@ public class RemoteCacheServer<K, V>
 
             log.debug( "In update, requesterId = [{0}] fromCluster = {1}", requesterId, fromCluster );
 
-            // ordered cache item update and notification.
-            synchronized ( cacheDesc )
-            {
+            // ordered per key cache item update and notification.
+            orderedKeyChange( cacheDesc, item.getKey(), () -> {
                 try
                 {
                     final CompositeCache<K, V> c = (CompositeCache<K, V>) cacheDesc.cache;
@@ -311,18 +329,15 @@ public class RemoteCacheServer<K, V>
                     log.info( "Exception caught updating item. requesterId [{0}]: {1}",
                             requesterId, ce.getMessage() );
                 }
-
+            }, () -> {
                 // UPDATE LOCALS IF A REQUEST COMES FROM A CLUSTER
                 // IF LOCAL CLUSTER CONSISTENCY IS CONFIGURED
                 if (!fromCluster || fromCluster && remoteCacheServerAttributes.isLocalClusterConsistency())
                 {
-                    final ICacheEventQueue<K, V>[] qlist = getEventQList( cacheDesc, requesterId );
-                    log.debug( "qlist.length = {0}", qlist.length );
-                    for (final ICacheEventQueue<K, V> element : qlist) {
-                        element.addPutEvent( item );
-                    }
+                    notifyListeners( cacheDesc, item.getCacheName(), requesterId,
+                            new RemoteCacheEventJournal.JournalEntry<>( EventType.PUT, requesterId, item, null ) );
                 }
-            }
+            } );
         }
         catch ( final IOException e )
         {
@@ -339,6 +354,58 @@ public class RemoteCacheServer<K, V>
         log.debug( "put took {0} ms.", () -> timer.getElapsedTime());
     }
 
+    /**
+     * Changes the cache for a key and then notifies the listeners.
+     * <p>
+     * Changes to different keys of a region run in parallel. Changes to the same key stay ordered,
+     * in the cache and in the event queues, but the next change may start while the listeners of
+     * the previous one are still being notified. Changes to the whole region wait for both.
+     * <p>
+     * @param cacheDesc the region
+     * @param key the key
+     * @param change changes the cache
+     * @param notification notifies the listeners
+     * @throws IOException if the change or the notification fails
+     */
+    private void orderedKeyChange( final CacheListeners<K, V> cacheDesc, final K key,
+                                   final RegionAction change, final RegionAction notification )
+        throws IOException
+    {
+        final Lock regionLock = cacheDesc.regionLock.readLock();
+        final Lock updateLock = cacheDesc.getUpdateLock( key );
+        final Lock notifyLock = cacheDesc.getNotifyLock( key );
+
+        regionLock.lock();
+        try
+        {
+            updateLock.lock();
+            try
+            {
+                change.run();
+
+                // hand over to the notification before the next change of this key can start
+                notifyLock.lock();
+            }
+            finally
+            {
+                updateLock.unlock();
+            }
+
+            try
+            {
+                notification.run();
+            }
+            finally
+            {
+                notifyLock.unlock();
+            }
+        }
+        finally
+        {
+            regionLock.unlock();
+        }
+    }
+
     /**
      * Log some details.
      * <p>
@@ -759,6 +826,44 @@ public class RemoteCacheServer<K, V>
         return c.getKeySet();
     }
 
+    /**
+     * Gets a digest of the region, so that a client that reconnects can find the keys that changed
+     * while it was away.
+     * <p>
+     * @param cacheName the name of the cache region
+     * @param buckets the number of buckets to spread the keys over
+     * @param listBuckets the buckets to list the key fingerprints for, may be null
+     * @param requesterId
+     * @return the digest of the elements in memory and on the local disk caches of the region
+     * @throws IOException
+     */
+    @Override
+    public RegionDigest<K> getRegionDigest( final String cacheName, final int buckets, final int[] listBuckets,
+                                            final long requesterId )
+        throws IOException
+    {
+        if ( buckets <= 0 )
+        {
+            throw new IllegalArgumentException( "The number of buckets must be positive: " + buckets );
+        }
+        if ( listBuckets != null )
+        {
+            for ( final int bucket : listBuckets )
+            {
+                if ( bucket < 0 || bucket >= buckets )
+                {
+                    throw new IllegalArgumentException( "Bucket out of range: " + bucket );
+                }
+            }
+        }
+
+        final CacheListeners<K, V> cacheDesc = getCacheListeners( cacheName );
+        final CompositeCache<K, V> c = (CompositeCache<K, V>) cacheDesc.cache;
+        final RegionDigest<K> digest = RegionDigest.create( c, buckets, listBuckets );
+        log.debug( "Digest for [{0}] requested by [{1}]: {2}", cacheName, requesterId, digest );
+        return digest;
+    }
+
     /**
      * Removes the given key from the specified remote cache. Defaults the listener id to 0.
      * <p>
@@ -817,10 +922,8 @@ public class RemoteCacheServer<K, V>
 
         if ( cacheDesc != null )
         {
-            // best attempt to achieve ordered cache item removal and
-            // notification.
-            synchronized ( cacheDesc )
-            {
+            // ordered per key cache item removal and notification.
+            orderedKeyChange( cacheDesc, key, () -> {
                 boolean removeSuccess = false;
 
                 // No need to notify if it was not cached.
@@ -839,18 +942,15 @@ public class RemoteCacheServer<K, V>
 
                 log.debug( "remove [{0}] from cache [{1}] success (was it found) = {2}",
                         key, cacheName, removeSuccess );
-
+            }, () -> {
                 // UPDATE LOCALS IF A REQUEST COMES FROM A CLUSTER
                 // IF LOCAL CLUSTER CONSISTENCY IS CONFIGURED
                 if (!fromCluster || fromCluster && remoteCacheServerAttributes.isLocalClusterConsistency())
                 {
-                    final ICacheEventQueue<K, V>[] qlist = getEventQList( cacheDesc, requesterId );
-
-                    for (final ICacheEventQueue<K, V> element : qlist) {
-                        element.addRemoveEvent( key );
-                    }
+                    notifyListeners( cacheDesc, cacheName, requesterId,
+                            new RemoteCacheEventJournal.JournalEntry<>( EventType.REMOVE, requesterId, null, key ) );
                 }
-            }
+            } );
         }
     }
 
@@ -907,9 +1007,11 @@ public class RemoteCacheServer<K, V>
 
         if ( cacheDesc != null )
         {
-            // best attempt to achieve ordered cache item removal and
-            // notification.
-            synchronized ( cacheDesc )
+            // ordered cache removal and notification. This waits for all
+            // keyed changes of the region.
+            final Lock regionLock = cacheDesc.regionLock.writeLock();
+            regionLock.lock();
+            try
             {
                 // No need to broadcast, or notify if it was not cached.
                 final CompositeCache<K, V> c = (CompositeCache<K, V>) cacheDesc.cache;
@@ -928,14 +1030,14 @@ public class RemoteCacheServer<K, V>
                 // update registered listeners
                 if (!fromCluster || fromCluster && remoteCacheServerAttributes.isLocalClusterConsistency())
                 {
-                    final ICacheEventQueue<K, V>[] qlist = getEventQList( cacheDesc, requesterId );
-
-                    for (final ICacheEventQueue<K, V> q : qlist)
-                    {
-                        q.addRemoveAllEvent();
-                    }
+                    notifyListeners( cacheDesc, cacheName, requesterId,
+                            new RemoteCacheEventJournal.JournalEntry<>( EventType.REMOVE_ALL, requesterId, null, null ) );
                 }
             }
+            finally
+            {
+                regionLock.unlock();
+            }
         }
     }
 
@@ -999,8 +1101,10 @@ public class RemoteCacheServer<K, V>
         // this is dangerous
         if ( cacheDesc != null )
         {
-            // best attempt to achieve ordered free-cache-op and notification.
-            synchronized ( cacheDesc )
+            // ordered free-cache-op and notification.
+            final Lock regionLock = cacheDesc.regionLock.writeLock();
+            regionLock.lock();
+            try
             {
                 final ICacheEventQueue<K, V>[] qlist = getEventQList( cacheDesc, requesterId );
 
@@ -1009,6 +1113,10 @@ public class RemoteCacheServer<K, V>
                 }
                 cacheManager.freeCache( cacheName );
             }
+            finally
+            {
+                regionLock.unlock();
+            }
         }
     }
 
@@ -1114,6 +1222,59 @@ public class RemoteCacheServer<K, V>
         return qq;
     }
 
+    /**
+     * Adds the event to the queues of the listeners, other than the requester. If the region keeps
+     * an event journal, the event is appended to it first, and handed to the queues after the
+     * journal lock is released.
+     * <p>
+     * @param cacheListeners the normal listeners of the region
+     * @param cacheName the name of the region
+     * @param requesterId the listener that caused the event
+     * @param entry the event
+     * @throws IOException
+     */
+    private void notifyListeners( final CacheListeners<K, V> cacheListeners, final String cacheName,
+                                  final long requesterId, final RemoteCacheEventJournal.JournalEntry<K, V> entry )
+        throws IOException
+    {
+        final RemoteCacheEventJournal<K, V> journal = getEventJournal( cacheName );
+        if ( journal == null )
+        {
+            for ( final ICacheEventQueue<K, V> q : getEventQList( cacheListeners, requesterId ) )
+            {
+                entry.addTo( q );
+            }
+            return;
+        }
+
+        // queues registering at the same time either get the event here or replay it
+        final List<ICacheEventQueue<K, V>> queues;
+        synchronized ( journal )
+        {
+            queues = Arrays.asList( getEventQList( cacheListeners, requesterId ) );
+            journal.append( entry );
+        }
+
+        // a queue that blocks must not hold up the registrations
+        journal.deliver( entry, queues );
+    }
+
+    /**
+     * Gets the event journal of the region, creating it if needed.
+     * <p>
+     * @param cacheName the name of the region
+     * @return the journal, or null if the event journal is turned off
+     */
+    protected RemoteCacheEventJournal<K, V> getEventJournal( final String cacheName )
+    {
+        final int size = remoteCacheServerAttributes.getEventJournalSize();
+        if ( size <= 0 )
+        {
+            return null;
+        }
+        return eventJournalMap.computeIfAbsent( cacheName, name -> new RemoteCacheEventJournal<>( name, size ) );
+    }
+
     /**
      * Removes dead event queues. Should clean out deregistered listeners.
      * <p>
@@ -1221,10 +1382,41 @@ public class RemoteCacheServer<K, V>
             }
 
             final CacheEventQueueFactory<KK, VV> fact = new CacheEventQueueFactory<>();
-            final ICacheEventQueue<KK, VV> q = fact.createCacheEventQueue( listener, id, cacheName, remoteCacheServerAttributes
-                .getEventQueuePoolName(), remoteCacheServerAttributes.getEventQueueType() );
 
-            eventQMap.put(Long.valueOf(listener.getListenerId()), q);
+            // The journal needs the events delivered in order, which pooled queues don't do
+            final RemoteCacheEventJournal<KK, VV> journal = remoteType == RemoteType.CLUSTER
+                || remoteCacheServerAttributes.getEventQueueType() == ICacheEventQueue.QueueType.POOLED
+                ? null : (RemoteCacheEventJournal<KK, VV>) getEventJournal( cacheName );
+            if ( journal == null )
+            {
+                final ICacheEventQueue<KK, VV> q = fact.createCacheEventQueue( listener, id, cacheName, remoteCacheServerAttributes
+                    .getEventQueuePoolName(), remoteCacheServerAttributes.getEventQueueType(),
+                    remoteCacheServerAttributes.getEventQueueCapacity(),
+                    remoteCacheServerAttributes.getEventQueueOverflowPolicy() );
+
+                eventQMap.put(Long.valueOf(listener.getListenerId()), q);
+            }
+            else
+            {
+                final ICacheEventQueue<KK, VV> q;
+                final ICacheEventQueue<KK, VV> previous;
+                synchronized ( journal )
+                {
+                    q = fact.createCacheEventQueue( journal.track( id, listener ), id,
+                        cacheName, remoteCacheServerAttributes.getEventQueuePoolName(),
+                        remoteCacheServerAttributes.getEventQueueType(),
+                        remoteCacheServerAttributes.getEventQueueCapacity(),
+                        remoteCacheServerAttributes.getEventQueueOverflowPolicy() );
+                    previous = eventQMap.put( Long.valueOf( id ), q );
+                }
+                if ( previous != null )
+                {
+                    previous.destroy();
+                }
+
+                // the new queue may block, the events delivered to it meanwhile wait for the replay
+                journal.replay( id, q );
+            }
 
             log.info( cacheListeners );
         }
@@ -1305,6 +1497,15 @@ public class RemoteCacheServer<K, V>
                     cacheName, listenerId );
         }
 
+        if ( !isClusterListener )
+        {
+            final RemoteCacheEventJournal<K, V> journal = eventJournalMap.get( cacheName );
+            if ( journal != null )
+            {
+                journal.forget( listenerId );
+            }
+        }
+
         // cleanup
         idTypeMap.remove( Long.valueOf( listenerId ) );
         idIPMap.remove( Long.valueOf( listenerId ) );
@@ -56,6 +56,9 @@ public class RemoteCacheServerAttributes
     /** The delay between runs */
     private long registryKeepAliveDelayMillis = 15 * 1000;
 
+    /** The number of events kept per region for reconnecting listeners, 0 is off */
+    private int eventJournalSize = 0;
+
     /** Default constructor for the RemoteCacheAttributes object */
     public RemoteCacheServerAttributes()
     {
@@ -193,6 +196,24 @@ public class RemoteCacheServerAttributes
         return registryKeepAliveDelayMillis;
     }
 
+    /**
+     * @param eventJournalSize the eventJournalSize to set
+     */
+    @Override
+    public void setEventJournalSize( final int eventJournalSize )
+    {
+        this.eventJournalSize = eventJournalSize;
+    }
+
+    /**
+     * @return the eventJournalSize
+     */
+    @Override
+    public int getEventJournalSize()
+    {
+        return eventJournalSize;
+    }
+
     /**
      * @return String details
      */
@@ -208,6 +229,7 @@ public class RemoteCacheServerAttributes
         buf.append( "\n registryKeepAliveDelayMillis = [" + this.getRegistryKeepAliveDelayMillis() + "]" );
         buf.append( "\n eventQueueType = [" + this.getEventQueueType() + "]" );
         buf.append( "\n eventQueuePoolName = [" + this.getEventQueuePoolName() + "]" );
+        buf.append( "\n eventJournalSize = [" + this.getEventJournalSize() + "]" );
         return buf.toString();
     }
 }
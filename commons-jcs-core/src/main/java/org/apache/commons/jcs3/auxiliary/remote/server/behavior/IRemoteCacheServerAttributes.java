@@ -119,4 +119,17 @@ public interface IRemoteCacheServerAttributes
      * @return the registryKeepAliveDelayMillis
      */
     long getRegistryKeepAliveDelayMillis();
+
+    /**
+     * The number of put and remove events the server keeps per region, so that a listener that
+     * reconnects can catch up on the events it missed. 0 turns the journal off.
+     * <p>
+     * @param eventJournalSize the eventJournalSize to set
+     */
+    void setEventJournalSize( int eventJournalSize );
+
+    /**
+     * @return the eventJournalSize
+     */
+    int getEventJournalSize();
 }
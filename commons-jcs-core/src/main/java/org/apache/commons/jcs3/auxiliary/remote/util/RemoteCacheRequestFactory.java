@@ -19,6 +19,7 @@ package org.apache.commons.jcs3.auxiliary.remote.util;
  * under the License.
  */
 
+import java.util.List;
 import java.util.Set;
 
 import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
@@ -198,4 +199,20 @@ public class RemoteCacheRequestFactory
 
         return request;
     }
+
+    /**
+     * Creates a batch Request. The server processes the requests in order and answers with a list
+     * of responses.
+     * <p>
+     * @param requests
+     * @param requesterId
+     * @return RemoteHttpCacheRequest
+     */
+    public static <K, V> RemoteCacheRequest<K, V> createBatchRequest( final List<RemoteCacheRequest<K, V>> requests, final long requesterId )
+    {
+        final RemoteCacheRequest<K, V> request = createRequest(null, RemoteRequestType.BATCH, requesterId);
+        request.setRequests( requests );
+
+        return request;
+    }
 }
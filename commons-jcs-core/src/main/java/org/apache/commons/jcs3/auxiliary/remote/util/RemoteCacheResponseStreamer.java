@@ -0,0 +1,172 @@
+package org.apache.commons.jcs3.auxiliary.remote.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+
+/**
+ * Writes and reads remote cache responses as a stream of frames, so that large responses never
+ * have to be held in one buffer.
+ * <p>
+ * Each frame is the length of the serialized object followed by its bytes. The first frame holds
+ * the response. If the payload is a map, the response is sent without it, and each entry follows
+ * as a key frame and a value frame. A length of -1 ends the entries.
+ * <p>
+ * The reader refuses frames longer than a maximum before allocating them, so that a corrupt or
+ * hostile stream cannot make it allocate huge buffers. The entries are still collected into one
+ * map, as the callers expect the whole payload.
+ */
+public final class RemoteCacheResponseStreamer
+{
+    /** Marks the end of the entries */
+    private static final int END_OF_ENTRIES = -1;
+
+    /** Size of the stream buffers */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** No instances. */
+    private RemoteCacheResponseStreamer()
+    {
+        // static methods only
+    }
+
+    /**
+     * Writes the response to the stream, one entry at a time. The stream is flushed, not closed.
+     * <p>
+     * @param response the response
+     * @param out the stream
+     * @param serializer serializes the response and each key and value
+     * @throws IOException
+     */
+    public static void writeResponse( final RemoteCacheResponse<Object> response, final OutputStream out,
+                                      final IElementSerializer serializer )
+        throws IOException
+    {
+        final DataOutputStream dos = new DataOutputStream( new BufferedOutputStream( out, BUFFER_SIZE ) );
+
+        final Object payload = response.getPayload();
+        if ( payload instanceof Map )
+        {
+            final RemoteCacheResponse<Object> header = new RemoteCacheResponse<>();
+            header.setSuccess( response.isSuccess() );
+            header.setErrorMessage( response.getErrorMessage() );
+            writeFrame( dos, serializer.serialize( header ) );
+            dos.writeBoolean( true );
+
+            for ( final Map.Entry<?, ?> entry : ( (Map<?, ?>) payload ).entrySet() )
+            {
+                writeFrame( dos, serializer.serialize( entry.getKey() ) );
+                writeFrame( dos, serializer.serialize( entry.getValue() ) );
+            }
+            dos.writeInt( END_OF_ENTRIES );
+        }
+        else
+        {
+            writeFrame( dos, serializer.serialize( response ) );
+            dos.writeBoolean( false );
+        }
+
+        dos.flush();
+    }
+
+    /**
+     * Reads a response written by writeResponse. The stream is not closed.
+     * <p>
+     * @param in the stream
+     * @param serializer deserializes the response and each key and value
+     * @param loader class loader to use
+     * @param maxFrameLength the longest frame accepted, in bytes
+     * @return the response
+     * @throws IOException if the stream fails or holds a frame longer than maxFrameLength
+     * @throws ClassNotFoundException
+     */
+    public static <T> RemoteCacheResponse<T> readResponse( final InputStream in, final IElementSerializer serializer,
+                                                           final ClassLoader loader, final int maxFrameLength )
+        throws IOException, ClassNotFoundException
+    {
+        final DataInputStream dis = new DataInputStream( new BufferedInputStream( in, BUFFER_SIZE ) );
+
+        final RemoteCacheResponse<Object> response =
+            serializer.deSerialize( readFrame( dis, dis.readInt(), maxFrameLength ), loader );
+        if ( dis.readBoolean() )
+        {
+            final Map<Object, Object> payload = new HashMap<>();
+            int length = dis.readInt();
+            while ( length != END_OF_ENTRIES )
+            {
+                final Object key = serializer.deSerialize( readFrame( dis, length, maxFrameLength ), loader );
+                final Object value = serializer.deSerialize( readFrame( dis, dis.readInt(), maxFrameLength ), loader );
+                payload.put( key, value );
+                length = dis.readInt();
+            }
+            response.setPayload( payload );
+        }
+
+        @SuppressWarnings("unchecked") // The payload type is determined by the request
+        final RemoteCacheResponse<T> result = (RemoteCacheResponse<T>) response;
+        return result;
+    }
+
+    /**
+     * @param dos the stream
+     * @param bytes the serialized object
+     * @throws IOException
+     */
+    private static void writeFrame( final DataOutputStream dos, final byte[] bytes )
+        throws IOException
+    {
+        dos.writeInt( bytes.length );
+        dos.write( bytes );
+    }
+
+    /**
+     * @param dis the stream
+     * @param length the length of the frame
+     * @param maxFrameLength the longest frame accepted
+     * @return the serialized object
+     * @throws IOException if the length is negative or over the maximum
+     */
+    private static byte[] readFrame( final DataInputStream dis, final int length, final int maxFrameLength )
+        throws IOException
+    {
+        if ( length < 0 )
+        {
+            throw new IOException( "Invalid frame length " + length );
+        }
+        if ( length > maxFrameLength )
+        {
+            throw new IOException( "Frame length " + length + " exceeds the maximum of " + maxFrameLength );
+        }
+        final byte[] bytes = new byte[length];
+        dis.readFully( bytes );
+        return bytes;
+    }
+}
@@ -50,4 +50,7 @@ public enum RemoteRequestType
 
     /** Dispose request type. */
     DISPOSE,
+
+    /** Several requests in one, answered by a list of responses in the same order. */
+    BATCH,
 }
@@ -20,6 +20,7 @@ package org.apache.commons.jcs3.engine;
  */
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
@@ -27,6 +28,9 @@ import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
 import org.apache.commons.jcs3.engine.behavior.ICacheListener;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration;
+import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration.WhenBlockedPolicy;
+import org.apache.commons.jcs3.utils.threadpool.ThreadPoolManager;
 
 /**
  * An abstract base class to the different implementations
@@ -40,6 +44,9 @@ public abstract class AbstractCacheEventQueue<K, V>
     /** default */
     protected static final int DEFAULT_WAIT_TO_DIE_MILLIS = 10000;
 
+    /** The worker pools of the queues are configured under thread_pool.cache_event_queue */
+    protected static final String EVENT_QUEUE_POOL_NAME = "cache_event_queue";
+
     /**
      * time to wait for an event before snuffing the background thread if the queue is empty. make
      * configurable later
@@ -70,6 +77,27 @@ public abstract class AbstractCacheEventQueue<K, V>
      */
     private final AtomicBoolean working = new AtomicBoolean(true);
 
+    /**
+     * Creates the pool running the worker of the queue. The settings under
+     * thread_pool.cache_event_queue are read, so that for instance useVirtualThreads may be set,
+     * but the pool always has one unbounded worker so that the events are processed in order.
+     * <p>
+     * @param threadNamePrefix prefix for the thread names
+     * @return the pool
+     */
+    protected ExecutorService createWorkerPool( final String threadNamePrefix )
+    {
+        final PoolConfiguration config = ThreadPoolManager.getInstance().getPoolConfiguration(
+                EVENT_QUEUE_POOL_NAME,
+                new PoolConfiguration( false, 0, 1, 0, getWaitToDieMillis(), WhenBlockedPolicy.RUN, 0 ) );
+        config.setUseBoundary( false );
+        config.setMaximumPoolSize( 1 );
+        config.setMinimumPoolSize( 0 );
+        config.setStartUpSize( 0 );
+
+        return ThreadPoolManager.getInstance().createPool( config, threadNamePrefix );
+    }
+
     /**
      * Returns the time to wait for events before killing the background thread.
      * <p>
@@ -246,6 +274,14 @@ public abstract class AbstractCacheEventQueue<K, V>
          */
         protected abstract void doRun()
             throws IOException;
+
+        /**
+         * @return the key this event is about, or null if it affects the whole region
+         */
+        protected K getKey()
+        {
+            return null;
+        }
     }
 
     /**
@@ -281,6 +317,15 @@ public abstract class AbstractCacheEventQueue<K, V>
             listener.handlePut( ice );
         }
 
+        /**
+         * @return the key of the element
+         */
+        @Override
+        protected K getKey()
+        {
+            return ice.getKey();
+        }
+
         /**
          * For debugging.
          * <p>
@@ -331,6 +376,15 @@ public abstract class AbstractCacheEventQueue<K, V>
             listener.handleRemove( cacheName, key );
         }
 
+        /**
+         * @return the key to remove
+         */
+        @Override
+        protected K getKey()
+        {
+            return key;
+        }
+
         /**
          * For debugging.
          * <p>
@@ -0,0 +1,500 @@
+package org.apache.commons.jcs3.engine;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheListener;
+import org.apache.commons.jcs3.engine.stats.StatElement;
+import org.apache.commons.jcs3.engine.stats.Stats;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+import org.apache.commons.jcs3.engine.stats.behavior.IStats;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * An event queue is used to propagate ordered cache events to one and only one target listener.
+ * <p>
+ * Unlike the other queues, this one holds at most a fixed number of events in a ring buffer. What
+ * happens when the buffer is full is decided by the overflow policy. This keeps a slow or
+ * unreachable listener from filling up the heap. With the COALESCE policy, events for the same key
+ * are only merged once the buffer is full; until then every event is delivered.
+ * <p>
+ * Events are processed in order by a single worker thread, which is only running while there are
+ * events in the queue.
+ */
+public class BoundedCacheEventQueue<K, V>
+    extends AbstractCacheEventQueue<K, V>
+{
+    /** The logger. */
+    private static final Log log = LogManager.getLog( BoundedCacheEventQueue.class );
+
+    /** The type of queue */
+    private static final QueueType queueType = QueueType.BOUNDED;
+
+    /** What to do if the queue is full */
+    private final OverflowPolicy overflowPolicy;
+
+    /** The ring buffer, holds AbstractCacheEvent instances */
+    private final Object[] events;
+
+    /** The time each event in the ring buffer was added */
+    private final long[] enqueueTimes;
+
+    /** Slot of the pending event for each key. Only used when coalescing. */
+    private final Map<K, Integer> pendingKeys;
+
+    /** Guards the ring buffer */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when an event was taken from the queue */
+    private final Condition notFull = lock.newCondition();
+
+    /** Slot of the oldest event */
+    private int head;
+
+    /** Number of events in the queue */
+    private int count;
+
+    /** Is a worker draining the queue? */
+    private boolean draining;
+
+    /** Runs the worker */
+    private final ExecutorService pool;
+
+    /** Number of events dropped because the queue was full */
+    private final AtomicLong dropCount = new AtomicLong();
+
+    /** Number of events that replaced a pending event for the same key */
+    private final AtomicLong coalesceCount = new AtomicLong();
+
+    /** Number of times a caller had to wait for room in the queue */
+    private final AtomicLong blockCount = new AtomicLong();
+
+    /** Time the last processed event spent in the queue */
+    private volatile long lastLagMillis;
+
+    /** Longest time an event spent in the queue */
+    private volatile long maxLagMillis;
+
+    /**
+     * Constructs with the specified listener and the cache name.
+     * <p>
+     * @param listener
+     * @param listenerId
+     * @param cacheName
+     * @param capacity maximum number of events in the queue
+     * @param overflowPolicy what to do if the queue is full
+     */
+    public BoundedCacheEventQueue( final ICacheListener<K, V> listener, final long listenerId, final String cacheName,
+                                   final int capacity, final OverflowPolicy overflowPolicy )
+    {
+        this( listener, listenerId, cacheName, 10, 500, capacity, overflowPolicy );
+    }
+
+    /**
+     * Constructor for the BoundedCacheEventQueue object
+     * <p>
+     * @param listener
+     * @param listenerId
+     * @param cacheName
+     * @param maxFailure
+     * @param waitBeforeRetry
+     * @param capacity maximum number of events in the queue
+     * @param overflowPolicy what to do if the queue is full, defaults to BLOCK
+     */
+    public BoundedCacheEventQueue( final ICacheListener<K, V> listener, final long listenerId, final String cacheName,
+                                   final int maxFailure, final int waitBeforeRetry, final int capacity,
+                                   final OverflowPolicy overflowPolicy )
+    {
+        initialize( listener, listenerId, cacheName, maxFailure, waitBeforeRetry );
+
+        final int size = capacity <= 0 ? DEFAULT_CAPACITY : capacity;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+        this.events = new Object[size];
+        this.enqueueTimes = new long[size];
+        this.pendingKeys = this.overflowPolicy == OverflowPolicy.COALESCE ? new HashMap<>() : null;
+
+        // one worker thread which goes away when the queue is idle
+        this.pool = createWorkerPool( "BoundedCacheEventQueue.QProcessor-" + getCacheName() );
+    }
+
+    /**
+     * What type of queue is this.
+     * <p>
+     * @return queueType
+     */
+    @Override
+    public QueueType getQueueType()
+    {
+        return queueType;
+    }
+
+    /**
+     * @return the overflow policy of this queue
+     */
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return the maximum number of events in the queue
+     */
+    public int getCapacity()
+    {
+        return events.length;
+    }
+
+    /**
+     * @return the number of events dropped so far
+     */
+    public long getDropCount()
+    {
+        return dropCount.get();
+    }
+
+    /**
+     * @return the number of events merged with a pending event for the same key so far
+     */
+    public long getCoalesceCount()
+    {
+        return coalesceCount.get();
+    }
+
+    /**
+     * Adds an event to the queue. If the queue is full, the overflow policy applies.
+     * <p>
+     * @param event
+     */
+    @Override
+    protected void put( final AbstractCacheEvent event )
+    {
+        boolean startWorker = false;
+        boolean zombie = false;
+
+        lock.lock();
+        try
+        {
+            if ( !isWorking() )
+            {
+                log.debug( "Queue is not working, dropping {0}", event );
+                return;
+            }
+
+            final K key = event.getKey();
+            if ( pendingKeys != null && key == null )
+            {
+                // don't merge events across a region wide event
+                pendingKeys.clear();
+            }
+
+            if ( count == events.length )
+            {
+                switch ( overflowPolicy )
+                {
+                    case COALESCE:
+                        // only merge under pressure, the listener sees every event otherwise
+                        final Integer pending = key == null ? null : pendingKeys.get( key );
+                        if ( pending != null )
+                        {
+                            events[pending.intValue()] = event;
+                            coalesceCount.incrementAndGet();
+                            return;
+                        }
+                        dropOldest();
+                        break;
+
+                    case BLOCK:
+                        if ( !awaitRoom() )
+                        {
+                            log.debug( "Dropping {0}, queue stopped while waiting", event );
+                            return;
+                        }
+                        break;
+
+                    case ZOMBIE:
+                        zombie = true;
+                        break;
+
+                    default:
+                        dropOldest();
+                        break;
+                }
+            }
+
+            if ( !zombie )
+            {
+                final int slot = ( head + count ) % events.length;
+                events[slot] = event;
+                enqueueTimes[slot] = System.currentTimeMillis();
+                count++;
+
+                if ( pendingKeys != null && key != null )
+                {
+                    pendingKeys.put( key, Integer.valueOf( slot ) );
+                }
+
+                if ( !draining )
+                {
+                    draining = true;
+                    startWorker = true;
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if ( zombie )
+        {
+            dropCount.incrementAndGet();
+            log.warn( "Queue {0} is full, dropping {1} and marking the queue as non-functional.", this, event );
+            destroy();
+        }
+        else if ( startWorker )
+        {
+            try
+            {
+                pool.execute( this::drain );
+            }
+            catch ( final RejectedExecutionException e )
+            {
+                log.debug( "Queue {0} was destroyed", this );
+            }
+        }
+    }
+
+    /**
+     * Waits until there is room in the queue. Must be called holding the lock.
+     * <p>
+     * @return false if the queue stopped working or the thread was interrupted
+     */
+    private boolean awaitRoom()
+    {
+        blockCount.incrementAndGet();
+        try
+        {
+            while ( count == events.length && isWorking() )
+            {
+                notFull.await();
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            log.warn( "Interrupted while waiting for room in queue {0}", this );
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        return isWorking();
+    }
+
+    /**
+     * Drops the oldest event. Must be called holding the lock.
+     */
+    private void dropOldest()
+    {
+        final AbstractCacheEvent dropped = take();
+        dropCount.incrementAndGet();
+        log.debug( "Queue {0} is full, dropped {1}", this, dropped );
+    }
+
+    /**
+     * Removes the oldest event from the ring buffer. Must be called holding the lock and with a
+     * non empty queue.
+     * <p>
+     * @return the oldest event
+     */
+    private AbstractCacheEvent take()
+    {
+        @SuppressWarnings("unchecked") // Only events are stored
+        final AbstractCacheEvent event = (AbstractCacheEvent) events[head];
+        events[head] = null;
+
+        if ( pendingKeys != null )
+        {
+            final K key = event.getKey();
+            if ( key != null )
+            {
+                pendingKeys.remove( key, Integer.valueOf( head ) );
+            }
+        }
+
+        head = ( head + 1 ) % events.length;
+        count--;
+        notFull.signal();
+
+        return event;
+    }
+
+    /**
+     * Processes events until the queue is empty.
+     */
+    private void drain()
+    {
+        while ( true )
+        {
+            final AbstractCacheEvent event;
+            final long enqueueTime;
+
+            lock.lock();
+            try
+            {
+                if ( count == 0 || !isWorking() )
+                {
+                    draining = false;
+                    return;
+                }
+
+                enqueueTime = enqueueTimes[head];
+                event = take();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+
+            final long lag = System.currentTimeMillis() - enqueueTime;
+            lastLagMillis = lag;
+            if ( lag > maxLagMillis )
+            {
+                maxLagMillis = lag;
+            }
+
+            event.run();
+        }
+    }
+
+    /**
+     * Destroy the queue. Pending events are discarded and waiting callers are released.
+     */
+    @Override
+    public void destroy()
+    {
+        lock.lock();
+        try
+        {
+            if ( !isWorking() )
+            {
+                return;
+            }
+
+            setWorking( false );
+            for ( int i = 0; i < events.length; i++ )
+            {
+                events[i] = null;
+            }
+            count = 0;
+            head = 0;
+            draining = false;
+            if ( pendingKeys != null )
+            {
+                pendingKeys.clear();
+            }
+            notFull.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        pool.shutdownNow();
+        log.info( "Cache event queue destroyed: {0}", this );
+    }
+
+    /**
+     * @return IStats
+     */
+    @Override
+    public IStats getStatistics()
+    {
+        final IStats stats = new Stats();
+        stats.setTypeName( "Bounded Cache Event Queue" );
+
+        final ArrayList<IStatElement<?>> elems = new ArrayList<>();
+
+        final int size;
+        final long oldest;
+        lock.lock();
+        try
+        {
+            size = count;
+            oldest = count > 0 ? enqueueTimes[head] : 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        elems.add(new StatElement<>( "Working", Boolean.valueOf(isWorking()) ) );
+        elems.add(new StatElement<>( "Empty", Boolean.valueOf(size == 0) ) );
+        elems.add(new StatElement<>( "Queue Size", Integer.valueOf(size) ) );
+        elems.add(new StatElement<>( "Queue Capacity", Integer.valueOf(events.length) ) );
+        elems.add(new StatElement<>( "Overflow Policy", overflowPolicy ) );
+        elems.add(new StatElement<>( "Oldest Event Age (ms)",
+                Long.valueOf(oldest == 0 ? 0 : System.currentTimeMillis() - oldest) ) );
+        elems.add(new StatElement<>( "Last Lag (ms)", Long.valueOf(lastLagMillis) ) );
+        elems.add(new StatElement<>( "Max Lag (ms)", Long.valueOf(maxLagMillis) ) );
+        elems.add(new StatElement<>( "Dropped Events", Long.valueOf(dropCount.get()) ) );
+        elems.add(new StatElement<>( "Coalesced Events", Long.valueOf(coalesceCount.get()) ) );
+        elems.add(new StatElement<>( "Blocked Puts", Long.valueOf(blockCount.get()) ) );
+
+        stats.setStatElements( elems );
+
+        return stats;
+    }
+
+    /**
+     * @return whether or not there are items in the queue
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     * <p>
+     * @return number of items in the queue.
+     */
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            return count;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+}
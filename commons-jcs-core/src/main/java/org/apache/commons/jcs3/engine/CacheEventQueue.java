@@ -20,9 +20,6 @@ package org.apache.commons.jcs3.engine;
  */
 
 import org.apache.commons.jcs3.engine.behavior.ICacheListener;
-import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration;
-import org.apache.commons.jcs3.utils.threadpool.ThreadPoolManager;
-import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration.WhenBlockedPolicy;
 
 /**
  * An event queue is used to propagate ordered cache events to one and only one target listener.
@@ -76,10 +73,8 @@ public class CacheEventQueue<K, V>
     {
         super.initialize(listener, listenerId, cacheName, maxFailure, waitBeforeRetry);
 
-        // create a default pool with one worker thread to mimic the SINGLE queue behavior
-        pool = ThreadPoolManager.getInstance().createPool(
-        		new PoolConfiguration(false, 0, 1, 0, getWaitToDieMillis(), WhenBlockedPolicy.RUN, 0),
-        		"CacheEventQueue.QProcessor-" + getCacheName());
+        // create a pool with one worker thread to mimic the SINGLE queue behavior
+        pool = createWorkerPool( "CacheEventQueue.QProcessor-" + getCacheName() );
     }
 
     /**
@@ -51,6 +51,31 @@ public class CacheEventQueueFactory<K, V>
         return createCacheEventQueue( listener, listenerId, cacheName, 10, 500, threadPoolName, poolType );
     }
 
+    /**
+     * The most commonly used factory method, including the settings for bounded queues.
+     * <p>
+     * @param listener
+     * @param listenerId
+     * @param cacheName
+     * @param threadPoolName
+     * @param poolType - SINGLE, POOLED, BOUNDED
+     * @param capacity maximum number of events, only used by BOUNDED
+     * @param overflowPolicy what to do if the queue is full, only used by BOUNDED
+     * @return ICacheEventQueue
+     */
+    public ICacheEventQueue<K, V> createCacheEventQueue( final ICacheListener<K, V> listener, final long listenerId, final String cacheName,
+                                                   final String threadPoolName, final ICacheEventQueue.QueueType poolType,
+                                                   final int capacity, final ICacheEventQueue.OverflowPolicy overflowPolicy )
+    {
+        if ( ICacheEventQueue.QueueType.BOUNDED == poolType )
+        {
+            log.debug( "capacity = [{0}] overflowPolicy = {1}", capacity, overflowPolicy );
+            return new BoundedCacheEventQueue<>( listener, listenerId, cacheName, 10, 500, capacity, overflowPolicy );
+        }
+
+        return createCacheEventQueue( listener, listenerId, cacheName, 10, 500, threadPoolName, poolType );
+    }
+
     /**
      * Fully configured event queue.
      * <p>
@@ -60,7 +85,7 @@ public class CacheEventQueueFactory<K, V>
      * @param maxFailure
      * @param waitBeforeRetry
      * @param threadPoolName null is OK, if not a pooled event queue this is ignored
-     * @param poolType single or pooled
+     * @param poolType single, pooled or bounded
      * @return ICacheEventQueue
      */
     public ICacheEventQueue<K, V> createCacheEventQueue( final ICacheListener<K, V> listener, final long listenerId, final String cacheName,
@@ -79,6 +104,11 @@ public class CacheEventQueueFactory<K, V>
             eventQueue = new PooledCacheEventQueue<>( listener, listenerId, cacheName, maxFailure, waitBeforeRetry,
                                                     threadPoolName );
         }
+        else if ( ICacheEventQueue.QueueType.BOUNDED == poolType )
+        {
+            eventQueue = new BoundedCacheEventQueue<>( listener, listenerId, cacheName, maxFailure, waitBeforeRetry,
+                                                    ICacheEventQueue.DEFAULT_CAPACITY, null );
+        }
 
         return eventQueue;
     }
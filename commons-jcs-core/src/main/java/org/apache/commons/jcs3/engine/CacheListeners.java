@@ -21,6 +21,10 @@ package org.apache.commons.jcs3.engine;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.jcs3.engine.behavior.ICache;
 import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
@@ -28,9 +32,16 @@ import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
 /**
  * Used to associates a set of [cache listener to cache event queue] for a
  * cache.
+ * <p>
+ * It also holds the locks that order the changes to the cache. Keyed changes hold the read lock of
+ * the region and the locks of the stripe of their key, so changes to different keys run in
+ * parallel. Changes to the whole region hold the write lock.
  */
 public class CacheListeners<K, V>
 {
+    /** The number of lock stripes per region */
+    public static final int LOCK_STRIPES = 64;
+
     /** The cache using the queue. */
     public final ICache<K, V> cache;
 
@@ -38,6 +49,15 @@ public class CacheListeners<K, V>
     public final ConcurrentMap<Long, ICacheEventQueue<K, V>> eventQMap =
         new ConcurrentHashMap<>();
 
+    /** Held shared by keyed changes and exclusively by changes to the whole region */
+    public final ReadWriteLock regionLock = new ReentrantReadWriteLock();
+
+    /** Orders the cache changes per key stripe */
+    private final Lock[] updateLocks = new Lock[LOCK_STRIPES];
+
+    /** Orders the listener notifications per key stripe */
+    private final Lock[] notifyLocks = new Lock[LOCK_STRIPES];
+
     /**
      * Constructs with the given cache.
      * <p>
@@ -50,6 +70,46 @@ public class CacheListeners<K, V>
             throw new IllegalArgumentException( "cache must not be null" );
         }
         this.cache = cache;
+
+        for ( int i = 0; i < LOCK_STRIPES; i++ )
+        {
+            updateLocks[i] = new ReentrantLock();
+            notifyLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Gets the lock that orders the cache changes for the key.
+     * <p>
+     * @param key
+     * @return the lock of the stripe of the key
+     */
+    public Lock getUpdateLock( final K key )
+    {
+        return updateLocks[stripe( key )];
+    }
+
+    /**
+     * Gets the lock that orders the listener notifications for the key. It is taken before the
+     * update lock is released, so the events of a key reach the listeners in the order of the
+     * changes, while the next change of the stripe can already start.
+     * <p>
+     * @param key
+     * @return the lock of the stripe of the key
+     */
+    public Lock getNotifyLock( final K key )
+    {
+        return notifyLocks[stripe( key )];
+    }
+
+    /**
+     * @param key
+     * @return the stripe of the key
+     */
+    private static int stripe( final Object key )
+    {
+        final int h = key == null ? 0 : key.hashCode();
+        return ( h ^ h >>> 16 ) & ( LOCK_STRIPES - 1 );
     }
 
     /** @return info on the listeners */
@@ -64,6 +64,9 @@ public class CompositeCacheAttributes
     /** Default number to send to disk at a time when memory fills. */
     private static final int DEFAULT_CHUNK_SIZE = 2;
 
+    /** Track one in this number of gets and puts by default */
+    private static final int DEFAULT_HOT_KEY_SAMPLE_RATE = 16;
+
     /** allow lateral caches */
     private boolean useLateral = DEFAULT_USE_LATERAL;
 
@@ -100,6 +103,21 @@ public class CompositeCacheAttributes
     /** How many to spool to disk at a time. */
     private int spoolChunkSize = DEFAULT_CHUNK_SIZE;
 
+    /** The maximum total weight of the memory cache in MB, -1 to bound by count only. */
+    private int maxMemorySizeMB = -1;
+
+    /** The weigher used when the size is bounded, null for the default. */
+    private String weigherClassName;
+
+    /** How many hot keys and large values to track, 0 to track none. */
+    private int hotKeyTrackerSize;
+
+    /** Track one in this number of gets and puts. */
+    private int hotKeySampleRate = DEFAULT_HOT_KEY_SAMPLE_RATE;
+
+    /** Whether the hot keys stay in memory */
+    private boolean pinHotKeys;
+
     /**
      * Constructor for the CompositeCacheAttributes object
      */
@@ -392,6 +410,96 @@ public class CompositeCacheAttributes
         this.spoolChunkSize = spoolChunkSize;
     }
 
+    /**
+     * @return the maximum total weight of the memory cache in MB
+     */
+    @Override
+    public int getMaxMemorySizeMB()
+    {
+        return maxMemorySizeMB;
+    }
+
+    /**
+     * @param maxMemorySizeMB the maximum total weight in MB, below 1 to bound by count only
+     */
+    @Override
+    public void setMaxMemorySizeMB( final int maxMemorySizeMB )
+    {
+        this.maxMemorySizeMB = maxMemorySizeMB;
+    }
+
+    /**
+     * @return the class name of the weigher, null for the default
+     */
+    @Override
+    public String getWeigherClassName()
+    {
+        return weigherClassName;
+    }
+
+    /**
+     * @param weigherClassName the class name of the weigher, null for the default
+     */
+    @Override
+    public void setWeigherClassName( final String weigherClassName )
+    {
+        this.weigherClassName = weigherClassName;
+    }
+
+    /**
+     * @return the number of hot keys and large values tracked, 0 if none are
+     */
+    @Override
+    public int getHotKeyTrackerSize()
+    {
+        return hotKeyTrackerSize;
+    }
+
+    /**
+     * @param hotKeyTrackerSize the number of hot keys and large values to track, 0 to track none
+     */
+    @Override
+    public void setHotKeyTrackerSize( final int hotKeyTrackerSize )
+    {
+        this.hotKeyTrackerSize = hotKeyTrackerSize;
+    }
+
+    /**
+     * @return the hot key tracker tracks one in this number of gets and puts
+     */
+    @Override
+    public int getHotKeySampleRate()
+    {
+        return hotKeySampleRate;
+    }
+
+    /**
+     * @param hotKeySampleRate track one in this number of gets and puts, 1 to track all of them
+     */
+    @Override
+    public void setHotKeySampleRate( final int hotKeySampleRate )
+    {
+        this.hotKeySampleRate = hotKeySampleRate;
+    }
+
+    /**
+     * @return whether the hot keys are kept in memory
+     */
+    @Override
+    public boolean isPinHotKeys()
+    {
+        return pinHotKeys;
+    }
+
+    /**
+     * @param pinHotKeys whether to keep the hot keys in memory
+     */
+    @Override
+    public void setPinHotKeys( final boolean pinHotKeys )
+    {
+        this.pinHotKeys = pinHotKeys;
+    }
+
     /**
      * @return Returns the diskUsagePattern.
      */
@@ -416,9 +524,12 @@ public class CompositeCacheAttributes
         dump.append( ", useRemote = " ).append( useRemote );
         dump.append( ", useDisk = " ).append( useDisk );
         dump.append( ", maxObjs = " ).append( maxObjs );
+        dump.append( ", maxMemorySizeMB = " ).append( maxMemorySizeMB );
         dump.append( ", maxSpoolPerRun = " ).append( maxSpoolPerRun );
         dump.append( ", diskUsagePattern = " ).append( diskUsagePattern );
         dump.append( ", spoolChunkSize = " ).append( spoolChunkSize );
+        dump.append( ", hotKeyTrackerSize = " ).append( hotKeyTrackerSize );
+        dump.append( ", pinHotKeys = " ).append( pinHotKeys );
         dump.append( " ]" );
 
         return dump.toString();
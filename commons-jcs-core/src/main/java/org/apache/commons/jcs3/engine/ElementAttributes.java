@@ -24,6 +24,7 @@ import java.util.List;
 
 import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
 import org.apache.commons.jcs3.engine.control.event.behavior.IElementEventHandler;
+import org.apache.commons.jcs3.utils.timing.CoarseClock;
 
 /**
  * This it the element attribute descriptor class. Each element in the cache has an ElementAttribute
@@ -80,6 +81,8 @@ public class ElementAttributes
      * The list of Event handlers to use. This is transient, since the event handlers cannot usually
      * be serialized. This means that you cannot attach a post serialization event to an item.
      * <p>
+     * The list is shared by the clones and never changed, adding a handler replaces it.
+     * <p>
      * TODO we need to check that when an item is passed to a non-local cache that if the local
      * cache had a copy with event handlers, that those handlers are used.
      */
@@ -242,12 +245,13 @@ public class ElementAttributes
     }
 
     /**
-     * Sets the LastAccessTime as now of the IElementAttributes object
+     * Sets the LastAccessTime as now of the IElementAttributes object. This is called on every
+     * get, so the time is read from the {@link CoarseClock}.
      */
     @Override
     public void setLastAccessTimeNow()
     {
-        this.lastAccessTime = System.currentTimeMillis();
+        this.lastAccessTime = CoarseClock.currentTimeMillis();
     }
 
     /**
@@ -362,12 +366,11 @@ public class ElementAttributes
     @Override
     public void addElementEventHandler( final IElementEventHandler eventHandler )
     {
-        // lazy here, no concurrency problems expected
-        if ( this.eventHandlers == null )
-        {
-            this.eventHandlers = new ArrayList<>();
-        }
-        this.eventHandlers.add( eventHandler );
+        // copy on write, the clones of these attributes share the list
+        final ArrayList<IElementEventHandler> handlers = this.eventHandlers == null
+            ? new ArrayList<>() : new ArrayList<>( this.eventHandlers );
+        handlers.add( eventHandler );
+        this.eventHandlers = handlers;
     }
 
     /**
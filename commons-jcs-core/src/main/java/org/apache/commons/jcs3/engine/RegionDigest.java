@@ -0,0 +1,266 @@
+package org.apache.commons.jcs3.engine;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCache;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.engine.memory.behavior.IMemoryCache;
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+
+/**
+ * A digest of the elements of a region, used to find out where two copies of a region differ
+ * without sending all the keys.
+ * <p>
+ * The keys are spread over a number of buckets. Each element has a fingerprint made from its key
+ * and its create time, and the hash of a bucket is the sum of the fingerprints in it. Two copies
+ * can first compare the bucket hashes, and then the fingerprints of the keys in the buckets that
+ * differ.
+ * <p>
+ * The digest covers the elements in memory and on the local disk caches of the region, the keys
+ * of <code>getKeySet( true )</code>. Elements only on disk are read from it to get their create
+ * time, without being moved to memory.
+ * <p>
+ * The copies run in different JVMs, so the keys are hashed in a form that does not depend on the
+ * JVM: enums by their class and constant name, keys overriding hashCode by their hashCode, which
+ * is then assumed to depend on their value only, and other keys by their serialized form.
+ * <p>
+ * @param <K> the type of the keys
+ */
+public class RegionDigest<K>
+    implements Serializable
+{
+    /** Don't change */
+    private static final long serialVersionUID = 3419537629460471842L;
+
+    /** Serializes the keys without a value based hashCode */
+    private static final StandardSerializer SERIALIZER = new StandardSerializer();
+
+    /** Whether the hashCode of a class is its own, rather than the identity hash of Object */
+    private static final ClassValue<Boolean> VALUE_HASHED = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue( final Class<?> type )
+        {
+            try
+            {
+                return Boolean.valueOf( type.getMethod( "hashCode" ).getDeclaringClass() != Object.class );
+            }
+            catch ( final NoSuchMethodException e )
+            {
+                return Boolean.FALSE;
+            }
+        }
+    };
+
+    /** The hash of each bucket */
+    private final long[] bucketHashes;
+
+    /** The fingerprint of each key in the listed buckets, null if no buckets were listed */
+    private final HashMap<K, Long> fingerprints;
+
+    /**
+     * @param bucketHashes the hash of each bucket
+     * @param fingerprints the fingerprints of the keys in the listed buckets, or null
+     */
+    public RegionDigest( final long[] bucketHashes, final HashMap<K, Long> fingerprints )
+    {
+        this.bucketHashes = bucketHashes;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Creates the digest of the elements of a region in memory and on its local disk caches.
+     * <p>
+     * @param cache the region
+     * @param buckets the number of buckets
+     * @param listBuckets the buckets to list the fingerprints for, may be null
+     * @return the digest
+     * @throws IOException
+     */
+    public static <K, V> RegionDigest<K> create( final CompositeCache<K, V> cache, final int buckets,
+                                                 final int[] listBuckets )
+        throws IOException
+    {
+        final IMemoryCache<K, V> memoryCache = cache.getMemoryCache();
+        final List<AuxiliaryCache<K, V>> diskCaches = new ArrayList<>();
+        for ( final AuxiliaryCache<K, V> aux : cache.getAuxCaches() )
+        {
+            if ( aux != null && aux.getCacheType() == CacheType.DISK_CACHE )
+            {
+                diskCaches.add( aux );
+            }
+        }
+
+        final long[] bucketHashes = new long[buckets];
+        boolean[] listed = null;
+        HashMap<K, Long> fingerprints = null;
+        if ( listBuckets != null )
+        {
+            listed = new boolean[buckets];
+            for ( final int bucket : listBuckets )
+            {
+                listed[bucket] = true;
+            }
+            fingerprints = new HashMap<>();
+        }
+
+        for ( final K key : cache.getKeySet( true ) )
+        {
+            ICacheElement<K, V> element = memoryCache.getQuiet( key );
+            for ( int i = 0; element == null && i < diskCaches.size(); i++ )
+            {
+                element = diskCaches.get( i ).get( key );
+            }
+            if ( element == null )
+            {
+                continue;
+            }
+
+            final int bucket = getBucket( key, buckets );
+            final long fingerprint = getFingerprint( element );
+            bucketHashes[bucket] += fingerprint;
+            if ( listed != null && listed[bucket] )
+            {
+                fingerprints.put( key, Long.valueOf( fingerprint ) );
+            }
+        }
+
+        return new RegionDigest<>( bucketHashes, fingerprints );
+    }
+
+    /**
+     * @param key the key
+     * @param buckets the number of buckets
+     * @return the bucket of the key
+     */
+    public static int getBucket( final Object key, final int buckets )
+    {
+        final int h = getKeyHash( key );
+        return ( ( h ^ h >>> 16 ) & Integer.MAX_VALUE ) % buckets;
+    }
+
+    /**
+     * The fingerprint changes when the element is put again, since the create time of its
+     * attributes is set on each put.
+     * <p>
+     * @param element the element
+     * @return the fingerprint of the element
+     */
+    public static long getFingerprint( final ICacheElement<?, ?> element )
+    {
+        final long createTime = element.getElementAttributes() == null ? 0
+            : element.getElementAttributes().getCreateTime();
+
+        // MurmurHash3 fmix64
+        long x = getKeyHash( element.getKey() ) * 0x9E3779B97F4A7C15L ^ createTime;
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * Hashes a key the same way in every JVM. The hashCode of an enum is the identity hash, so an
+     * enum is hashed by its class and name, a key with the hashCode of Object by its serialized form.
+     * <p>
+     * @param key the key
+     * @return the hash of the key
+     */
+    public static int getKeyHash( final Object key )
+    {
+        if ( key instanceof Enum )
+        {
+            final Enum<?> constant = (Enum<?>) key;
+            return constant.getDeclaringClass().getName().hashCode() * 31 + constant.name().hashCode();
+        }
+        if ( VALUE_HASHED.get( key.getClass() ).booleanValue() )
+        {
+            return key.hashCode();
+        }
+        try
+        {
+            return Arrays.hashCode( SERIALIZER.serialize( key ) );
+        }
+        catch ( final IOException e )
+        {
+            // not serializable, the key could not reach the other copy anyway
+            return key.hashCode();
+        }
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public int getBucketCount()
+    {
+        return bucketHashes.length;
+    }
+
+    /**
+     * @return the hash of each bucket
+     */
+    public long[] getBucketHashes()
+    {
+        return bucketHashes;
+    }
+
+    /**
+     * @return the fingerprints of the keys in the listed buckets, or null if none were listed
+     */
+    public Map<K, Long> getFingerprints()
+    {
+        return fingerprints;
+    }
+
+    /**
+     * @param other the digest of the other copy, with the same number of buckets
+     * @return the buckets whose hashes differ
+     */
+    public int[] getDifferentBuckets( final RegionDigest<?> other )
+    {
+        return IntStream.range( 0, bucketHashes.length )
+            .filter( i -> bucketHashes[i] != other.bucketHashes[i] )
+            .toArray();
+    }
+
+    /**
+     * @return some info for logging
+     */
+    @Override
+    public String toString()
+    {
+        return "RegionDigest buckets = [" + bucketHashes.length + "] fingerprints = ["
+            + ( fingerprints == null ? "none" : String.valueOf( fingerprints.size() ) ) + "] hash = ["
+            + Arrays.hashCode( bucketHashes ) + "]";
+    }
+}
@@ -35,9 +35,36 @@ public interface ICacheEventQueue<K, V>
         SINGLE,
 
         /** Uses a thread pool. */
-        POOLED
+        POOLED,
+
+        /** Uses a fixed size buffer with a configurable overflow policy. */
+        BOUNDED
+    }
+
+    /**
+     * What a bounded queue does when an event is added while the queue is full.
+     */
+    enum OverflowPolicy
+    {
+        /** Wait until there is room in the queue. */
+        BLOCK,
+
+        /** Drop the oldest event in the queue. */
+        DROP_OLDEST,
+
+        /**
+         * When the queue is full, replace the latest pending event for the same key. If there is
+         * none, drop the oldest event in the queue. Events are not merged while there is room.
+         */
+        COALESCE,
+
+        /** Drop the event and mark the queue as non-functional. */
+        ZOMBIE
     }
 
+    /** Default capacity of a bounded queue */
+    int DEFAULT_CAPACITY = 10000;
+
     /**
      * Return the type of event queue we are using, either single or pooled.
      * <p>
@@ -24,6 +24,8 @@ import java.rmi.Remote;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.jcs3.engine.RegionDigest;
+
 /**
  * Used to retrieve and update non local caches, such as the remote and lateral caches. Unlike
  * ICacheService, the methods here have a requester id. This allows us to avoid propagating events
@@ -115,4 +117,22 @@ public interface ICacheServiceNonLocal<K, V>
      *       region.
      */
     Set<K> getKeySet( String cacheName ) throws IOException;
+
+    /**
+     * Gets a digest of the region, so that a client that reconnects can find the keys that changed
+     * while it was away. See RegionDigest.
+     * <p>
+     * @param cacheName the name of the cache
+     * @param buckets the number of buckets to spread the keys over
+     * @param listBuckets the buckets to list the key fingerprints for, may be null
+     * @param requesterId
+     * @return the digest, or null if the service does not support digests
+     * @throws IOException
+     */
+    default RegionDigest<K> getRegionDigest( final String cacheName, final int buckets, final int[] listBuckets,
+                                             final long requesterId )
+        throws IOException
+    {
+        return null;
+    }
 }
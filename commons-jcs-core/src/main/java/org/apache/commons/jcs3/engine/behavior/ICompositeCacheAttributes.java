@@ -237,6 +237,105 @@ public interface ICompositeCacheAttributes
      */
     void setSpoolChunkSize( int spoolChunkSize );
 
+    /**
+     * The maximum total weight of the elements in memory, in megabytes. Below 1 only MaxObjects
+     * bounds the memory cache.
+     * <p>
+     * @return the maximum size in MB, 0 unless overridden
+     */
+    default int getMaxMemorySizeMB()
+    {
+        return 0;
+    }
+
+    /**
+     * Ignored unless overridden.
+     * <p>
+     * @param maxMemorySizeMB the maximum size in MB, below 1 to bound by count only
+     */
+    default void setMaxMemorySizeMB( final int maxMemorySizeMB )
+    {
+    }
+
+    /**
+     * The class of the IWeigher used to size the elements when MaxMemorySizeMB is set.
+     * <p>
+     * @return the class name or null for the default weigher, null unless overridden
+     */
+    default String getWeigherClassName()
+    {
+        return null;
+    }
+
+    /**
+     * Ignored unless overridden.
+     * <p>
+     * @param weigherClassName the class of the IWeigher, null for the default
+     */
+    default void setWeigherClassName( final String weigherClassName )
+    {
+    }
+
+    /**
+     * The number of hot keys, and of largest values, the region reports. Above 0 the region
+     * samples its gets and puts to find the keys taking most of the traffic.
+     * <p>
+     * @return the number of keys reported, 0 if the region does not track them, 0 unless overridden
+     */
+    default int getHotKeyTrackerSize()
+    {
+        return 0;
+    }
+
+    /**
+     * Ignored unless overridden.
+     * <p>
+     * @param hotKeyTrackerSize the number of keys reported, 0 to turn the tracking off
+     */
+    default void setHotKeyTrackerSize( final int hotKeyTrackerSize )
+    {
+    }
+
+    /**
+     * The hot key tracker looks at one in this number of gets and puts.
+     * <p>
+     * @return the sample rate, 1 unless overridden
+     */
+    default int getHotKeySampleRate()
+    {
+        return 1;
+    }
+
+    /**
+     * Ignored unless overridden.
+     * <p>
+     * @param hotKeySampleRate the sample rate, 1 to look at every get and put
+     */
+    default void setHotKeySampleRate( final int hotKeySampleRate )
+    {
+    }
+
+    /**
+     * Whether the hot keys found by the tracker are pinned in memory: they are not spooled when
+     * the memory cache is full, nor when they have been idle for MaxMemoryIdleTimeSeconds. They are
+     * still removed, and still expire. Needs HotKeyTrackerSize, which is the number of keys pinned.
+     * <p>
+     * @return true if the hot keys stay in memory, false unless overridden
+     */
+    default boolean isPinHotKeys()
+    {
+        return false;
+    }
+
+    /**
+     * Ignored unless overridden.
+     * <p>
+     * @param pinHotKeys whether to keep the hot keys in memory
+     */
+    default void setPinHotKeys( final boolean pinHotKeys )
+    {
+    }
+
     /**
      * Clone object
      */
@@ -30,7 +30,6 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -49,19 +48,28 @@ import org.apache.commons.jcs3.engine.control.event.behavior.ElementEventType;
 import org.apache.commons.jcs3.engine.control.event.behavior.IElementEvent;
 import org.apache.commons.jcs3.engine.control.event.behavior.IElementEventHandler;
 import org.apache.commons.jcs3.engine.control.event.behavior.IElementEventQueue;
+import org.apache.commons.jcs3.engine.control.group.GroupAttrName;
 import org.apache.commons.jcs3.engine.control.group.GroupId;
 import org.apache.commons.jcs3.engine.match.KeyMatcherPatternImpl;
 import org.apache.commons.jcs3.engine.match.behavior.IKeyMatcher;
 import org.apache.commons.jcs3.engine.memory.behavior.IMemoryCache;
 import org.apache.commons.jcs3.engine.memory.lru.LRUMemoryCache;
+import org.apache.commons.jcs3.engine.memory.shrinking.ExpirationQueue;
 import org.apache.commons.jcs3.engine.memory.shrinking.ShrinkerThread;
+import org.apache.commons.jcs3.engine.memory.util.SerializedSizeWeigher;
+import org.apache.commons.jcs3.engine.metrics.behavior.CacheOperation;
+import org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics;
 import org.apache.commons.jcs3.engine.stats.CacheStats;
+import org.apache.commons.jcs3.engine.stats.HotKeyTracker;
+import org.apache.commons.jcs3.engine.stats.StatCounter;
 import org.apache.commons.jcs3.engine.stats.StatElement;
 import org.apache.commons.jcs3.engine.stats.behavior.ICacheStats;
 import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
 import org.apache.commons.jcs3.engine.stats.behavior.IStats;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.config.OptionConverter;
+import org.apache.commons.jcs3.utils.timing.CoarseClock;
 
 /**
  * This is the primary hub for a single cache/region. It controls the flow of items through the
@@ -95,22 +103,22 @@ public class CompositeCache<K, V>
     private ICompositeCacheAttributes cacheAttr;
 
     /** How many times update was called. */
-    private final AtomicLong updateCount;
+    private final StatCounter updateCount;
 
     /** How many times remove was called. */
-    private final AtomicLong removeCount;
+    private final StatCounter removeCount;
 
     /** Memory cache hit count */
-    private final AtomicLong hitCountRam;
+    private final StatCounter hitCountRam;
 
     /** Auxiliary cache hit count (number of times found in ANY auxiliary) */
-    private final AtomicLong hitCountAux;
+    private final StatCounter hitCountAux;
 
     /** Count of misses where element was not found. */
-    private final AtomicLong missCountNotFound;
+    private final StatCounter missCountNotFound;
 
     /** Count of misses where element was expired. */
-    private final AtomicLong missCountExpired;
+    private final StatCounter missCountExpired;
 
     /** Cache manager. */
     private CompositeCacheManager cacheManager;
@@ -124,8 +132,20 @@ public class CompositeCache<K, V>
     /** Key matcher used by the getMatching API */
     private IKeyMatcher<K> keyMatcher = new KeyMatcherPatternImpl<>();
 
+    /** Keys ordered by expiration for the shrinker, null if there is no shrinker */
+    private ExpirationQueue<K, V> expirationQueue;
+
     private ScheduledFuture<?> future;
 
+    /** Receives the latencies, evictions and queue depths, null if there are no metrics */
+    private ICacheMetrics cacheMetrics;
+
+    /** Finds the hot keys and the largest values, null if the region does not track them */
+    private HotKeyTracker<K, V> hotKeyTracker;
+
+    /** Whether the hot keys stay in memory */
+    private boolean pinHotKeys;
+
     /**
      * Constructor for the Cache object
      * <p>
@@ -137,15 +157,34 @@ public class CompositeCache<K, V>
         this.attr = attr;
         this.cacheAttr = cattr;
         this.alive = new AtomicBoolean(true);
-        this.updateCount = new AtomicLong(0);
-        this.removeCount = new AtomicLong(0);
-        this.hitCountRam = new AtomicLong(0);
-        this.hitCountAux = new AtomicLong(0);
-        this.missCountNotFound = new AtomicLong(0);
-        this.missCountExpired = new AtomicLong(0);
+        this.updateCount = new StatCounter();
+        this.removeCount = new StatCounter();
+        this.hitCountRam = new StatCounter();
+        this.hitCountAux = new StatCounter();
+        this.missCountNotFound = new StatCounter();
+        this.missCountExpired = new StatCounter();
 
         createMemoryCache(cattr);
 
+        if (cattr.isUseMemoryShrinker())
+        {
+            final long maxMemoryIdleTimeSeconds = cattr.getMaxMemoryIdleTimeSeconds();
+            this.expirationQueue = new ExpirationQueue<>(ExpirationQueue.DEFAULT_TICK_MILLIS,
+                    maxMemoryIdleTimeSeconds < 0 ? -1 : maxMemoryIdleTimeSeconds * 1000);
+        }
+
+        if (cattr.getHotKeyTrackerSize() > 0)
+        {
+            this.hotKeyTracker = new HotKeyTracker<>(cattr.getHotKeyTrackerSize(), cattr.getHotKeySampleRate(),
+                    OptionConverter.instantiateByClassName(cattr.getWeigherClassName(),
+                            new SerializedSizeWeigher<>()));
+            this.pinHotKeys = cattr.isPinHotKeys();
+        }
+        else if (cattr.isPinHotKeys())
+        {
+            log.warn("{0}: PinHotKeys needs HotKeyTrackerSize, no key will be pinned", cattr.getCacheName());
+        }
+
         log.info("Constructed cache with name [{0}] and cache attributes {1}",
                 cacheAttr.getCacheName(), cattr);
     }
@@ -204,6 +243,48 @@ public class CompositeCache<K, V>
         return this.auxCaches;
     }
 
+    /**
+     * Sets the metrics of this region and registers the sizes of its queues with them. Call it
+     * after the auxiliaries are set.
+     * <p>
+     * @param cacheMetrics the metrics, null to turn them off
+     */
+    public void setCacheMetrics(final ICacheMetrics cacheMetrics)
+    {
+        this.cacheMetrics = cacheMetrics;
+        if (cacheMetrics == null)
+        {
+            return;
+        }
+
+        final String cacheName = getCacheName();
+        cacheMetrics.registerGauge(cacheName, "Memory Size", () -> memCache.getSize());
+        if (expirationQueue != null)
+        {
+            cacheMetrics.registerGauge(cacheName, "Expiration Queue Size", () -> expirationQueue.size());
+        }
+
+        for (final AuxiliaryCache<K, V> aux : auxCaches)
+        {
+            if (aux != null)
+            {
+                final String auxName = aux.getAuxiliaryCacheAttributes() != null
+                        ? aux.getAuxiliaryCacheAttributes().getName() : aux.getCacheType().name();
+                cacheMetrics.registerGauge(cacheName, "Event Queue Size " + auxName, aux::getEventQueueSize);
+            }
+        }
+    }
+
+    /**
+     * Get the metrics of this region
+     *
+     * @return the metrics, null if there are none
+     */
+    public ICacheMetrics getCacheMetrics()
+    {
+        return cacheMetrics;
+    }
+
     /**
      * Standard update method.
      * <p>
@@ -252,13 +333,26 @@ public class CompositeCache<K, V>
             throw new IllegalArgumentException("key cannot be a GroupId " + " for a put operation");
         }
 
-        log.debug("Updating memory cache {0}", () -> cacheElement.getKey());
+        if (log.isDebugEnabled())
+        {
+            log.debug("Updating memory cache {0}", cacheElement.getKey());
+        }
+
+        final ICacheMetrics metrics = cacheMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
 
-        updateCount.incrementAndGet();
+        updateCount.increment();
+        if (hotKeyTracker != null)
+        {
+            hotKeyTracker.recordUpdate(cacheElement);
+        }
         memCache.update(cacheElement);
         updateAuxiliaries(cacheElement, localOnly);
 
         cacheElement.getElementAttributes().setLastAccessTimeNow();
+        scheduleExpiration(cacheElement);
+
+        recordLatency(metrics, CacheType.CACHE_HUB, CacheOperation.PUT, start);
     }
 
     /**
@@ -317,7 +411,7 @@ public class CompositeCache<K, V>
                         {
                             // need to make sure the group cache understands that
                             // the key is a group attribute on update
-                            aux.update(cacheElement);
+                            updateAuxiliary(aux, cacheElement);
                             log.debug("Updated remote store for {0} {1}",
                                     cacheElement.getKey(), cacheElement);
                         }
@@ -338,7 +432,7 @@ public class CompositeCache<K, V>
                         // DISTRIBUTE LATERALLY
                         // Currently always multicast even if the value is
                         // unchanged, to cause the cache item to move to the front.
-                        aux.update(cacheElement);
+                        updateAuxiliary(aux, cacheElement);
                         log.debug("updated lateral cache for {0}", () -> cacheElement.getKey());
                     }
                     break;
@@ -350,7 +444,7 @@ public class CompositeCache<K, V>
                         && cacheAttr.getDiskUsagePattern() == DiskUsagePattern.UPDATE
                         && cacheElement.getElementAttributes().getIsSpool())
                     {
-                        aux.update(cacheElement);
+                        updateAuxiliary(aux, cacheElement);
                         log.debug("updated disk cache for {0}", () -> cacheElement.getKey());
                     }
                     break;
@@ -361,6 +455,39 @@ public class CompositeCache<K, V>
         }
     }
 
+    /**
+     * Updates an auxiliary, measuring how long it takes.
+     * <p>
+     * @param aux the auxiliary
+     * @param cacheElement the element
+     * @throws IOException
+     */
+    private void updateAuxiliary(final ICache<K, V> aux, final ICacheElement<K, V> cacheElement)
+        throws IOException
+    {
+        final ICacheMetrics metrics = cacheMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+        aux.update(cacheElement);
+        recordLatency(metrics, aux.getCacheType(), CacheOperation.PUT, start);
+    }
+
+    /**
+     * Records the latency of an operation started at the given time, if there are metrics.
+     * <p>
+     * @param metrics the metrics, may be null
+     * @param tier the type of the cache that served the operation
+     * @param operation the operation
+     * @param start the System.nanoTime() at the start of the operation
+     */
+    private void recordLatency(final ICacheMetrics metrics, final CacheType tier, final CacheOperation operation,
+            final long start)
+    {
+        if (metrics != null)
+        {
+            metrics.recordLatency(getCacheName(), tier, operation, System.nanoTime() - start);
+        }
+    }
+
     /**
      * Writes the specified element to any disk auxiliaries. Might want to rename this "overflow" in
      * case the hub wants to do something else.
@@ -372,6 +499,15 @@ public class CompositeCache<K, V>
      */
     public void spoolToDisk(final ICacheElement<K, V> ce)
     {
+        if (cacheMetrics != null)
+        {
+            cacheMetrics.recordEvictions(getCacheName(), 1);
+        }
+        if (expirationQueue != null)
+        {
+            expirationQueue.remove(ce.getKey());
+        }
+
         // if the item is not spoolable, return
         if (!ce.getElementAttributes().getIsSpool())
         {
@@ -395,7 +531,7 @@ public class CompositeCache<K, V>
                     try
                     {
                         handleElementEvent(ce, ElementEventType.SPOOLED_DISK_AVAILABLE);
-                        aux.update(ce);
+                        updateAuxiliary(aux, ce);
                     }
                     catch (final IOException ex)
                     {
@@ -462,7 +598,19 @@ public class CompositeCache<K, V>
 
         boolean found = false;
 
-        log.debug("get: key = {0}, localOnly = {1}", key, localOnly);
+        final ICacheMetrics metrics = cacheMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+
+        // no logging closures on the way to a memory hit, they would be allocated on each get
+        if (log.isDebugEnabled())
+        {
+            log.debug("get: key = {0}, localOnly = {1}", key, localOnly);
+        }
+
+        if (hotKeyTracker != null)
+        {
+            hotKeyTracker.recordGet(key);
+        }
 
         try
         {
@@ -482,10 +630,13 @@ public class CompositeCache<K, V>
                 }
                 else
                 {
-                    log.debug("{0} - Memory cache hit", () -> cacheAttr.getCacheName());
+                    if (log.isDebugEnabled())
+                    {
+                        log.debug("{0} - Memory cache hit", cacheAttr.getCacheName());
+                    }
 
                     // Update counters
-                    hitCountRam.incrementAndGet();
+                    hitCountRam.increment();
                 }
 
                 found = true;
@@ -507,7 +658,9 @@ public class CompositeCache<K, V>
 
                             try
                             {
+                                final long auxStart = metrics != null ? System.nanoTime() : 0;
                                 element = aux.get(key);
+                                recordLatency(metrics, cacheType, CacheOperation.GET, auxStart);
                             }
                             catch (final IOException e)
                             {
@@ -538,7 +691,7 @@ public class CompositeCache<K, V>
                                         () -> cacheAttr.getCacheName(), () -> aux.getCacheName());
 
                                 // Update counters
-                                hitCountAux.incrementAndGet();
+                                hitCountAux.increment();
                                 copyAuxiliaryRetrievedItemToMemory(element);
                             }
 
@@ -557,7 +710,7 @@ public class CompositeCache<K, V>
 
         if (!found)
         {
-            missCountNotFound.incrementAndGet();
+            missCountNotFound.increment();
 
             log.debug("{0} - Miss", () -> cacheAttr.getCacheName());
         }
@@ -567,12 +720,14 @@ public class CompositeCache<K, V>
             element.getElementAttributes().setLastAccessTimeNow();
         }
 
+        recordLatency(metrics, CacheType.CACHE_HUB, CacheOperation.GET, start);
+
         return element;
     }
 
     protected void doExpires(final ICacheElement<K, V> element)
     {
-        missCountExpired.incrementAndGet();
+        missCountExpired.increment();
         remove(element.getKey());
     }
 
@@ -620,6 +775,11 @@ public class CompositeCache<K, V>
 
         log.debug("get: key = {0}, localOnly = {1}", keys, localOnly);
 
+        if (hotKeyTracker != null)
+        {
+            keys.forEach(hotKeyTracker::recordGet);
+        }
+
         try
         {
             // First look in memory cache
@@ -640,7 +800,7 @@ public class CompositeCache<K, V>
         // if we didn't find all the elements, increment the miss count by the number of elements not found
         if (elements.size() != keys.size())
         {
-            missCountNotFound.addAndGet(keys.size() - elements.size());
+            missCountNotFound.add(keys.size() - elements.size());
 
             log.debug("{0} - {1} Misses", () -> cacheAttr.getCacheName(),
                     () -> keys.size() - elements.size());
@@ -675,7 +835,7 @@ public class CompositeCache<K, V>
                 log.debug("{0} - Memory cache hit", () -> cacheAttr.getCacheName());
 
                 // Update counters
-                hitCountRam.incrementAndGet();
+                hitCountRam.increment();
                 return false;
             }
         });
@@ -910,7 +1070,7 @@ public class CompositeCache<K, V>
                             () -> cacheAttr.getCacheName(), () -> aux.getCacheName());
 
                     // Update counters
-                    hitCountAux.incrementAndGet();
+                    hitCountAux.increment();
                     try
                     {
                         copyAuxiliaryRetrievedItemToMemory(element);
@@ -940,6 +1100,7 @@ public class CompositeCache<K, V>
         if (memCache.getCacheAttributes().getMaxObjects() > 0)
         {
             memCache.update(element);
+            scheduleExpiration(element);
         }
         else
         {
@@ -1047,7 +1208,14 @@ public class CompositeCache<K, V>
      */
     protected boolean remove(final K key, final boolean localOnly)
     {
-        removeCount.incrementAndGet();
+        final ICacheMetrics metrics = cacheMetrics;
+        final long start = metrics != null ? System.nanoTime() : 0;
+
+        removeCount.increment();
+        if (hotKeyTracker != null)
+        {
+            hotKeyTracker.recordRemove(key);
+        }
 
         boolean removed = false;
 
@@ -1059,6 +1227,10 @@ public class CompositeCache<K, V>
         {
             log.error(e);
         }
+        if (expirationQueue != null)
+        {
+            unschedule(key);
+        }
 
         // Removes from all auxiliary caches.
         for (final ICache<K, V> aux : auxCaches)
@@ -1079,7 +1251,9 @@ public class CompositeCache<K, V>
             {
                 log.debug("Removing {0} from cacheType {1}", key, cacheType);
 
+                final long auxStart = metrics != null ? System.nanoTime() : 0;
                 final boolean b = aux.remove(key);
+                recordLatency(metrics, cacheType, CacheOperation.REMOVE, auxStart);
 
                 // Don't take the remote removal into account.
                 if (!removed && cacheType != CacheType.REMOTE_CACHE)
@@ -1093,6 +1267,8 @@ public class CompositeCache<K, V>
             }
         }
 
+        recordLatency(metrics, CacheType.CACHE_HUB, CacheOperation.REMOVE, start);
+
         return removed;
     }
 
@@ -1130,6 +1306,11 @@ public class CompositeCache<K, V>
     protected void removeAll(final boolean localOnly)
         throws IOException
     {
+        if (hotKeyTracker != null)
+        {
+            hotKeyTracker.recordRemoveAll();
+        }
+
         try
         {
             memCache.removeAll();
@@ -1140,6 +1321,10 @@ public class CompositeCache<K, V>
         {
             log.error("Trouble updating memory cache.", ex);
         }
+        if (expirationQueue != null)
+        {
+            expirationQueue.clear();
+        }
 
         // Removes from all auxiliary disk caches.
         for (final ICache<K, V> aux : auxCaches)
@@ -1265,6 +1450,15 @@ public class CompositeCache<K, V>
         {
             log.error("Failure disposing of memCache", ex);
         }
+        if (expirationQueue != null)
+        {
+            expirationQueue.clear();
+        }
+
+        if (cacheMetrics != null)
+        {
+            cacheMetrics.unregister(getCacheName());
+        }
     }
 
     /**
@@ -1366,6 +1560,17 @@ public class CompositeCache<K, V>
         elems.add(new StatElement<>("HitCountRam", Long.valueOf(getHitCountRam())));
         elems.add(new StatElement<>("HitCountAux", Long.valueOf(getHitCountAux())));
 
+        if (cacheMetrics != null)
+        {
+            elems.addAll(cacheMetrics.getStatElements(getCacheName()));
+        }
+
+        if (hotKeyTracker != null)
+        {
+            elems.add(new StatElement<>("Hot Keys", hotKeyTracker.getHotKeys()));
+            elems.add(new StatElement<>("Largest Values", hotKeyTracker.getLargestValues()));
+        }
+
         stats.setStatElements(elems);
 
         // memory + aux, memory is not considered an auxiliary internally
@@ -1471,7 +1676,7 @@ public class CompositeCache<K, V>
      */
     public boolean isExpired(final ICacheElement<K, V> element)
     {
-        return isExpired(element, System.currentTimeMillis(),
+        return isExpired(element, CoarseClock.currentTimeMillis(),
                 ElementEventType.EXCEEDED_MAXLIFE_ONREQUEST,
                 ElementEventType.EXCEEDED_IDLETIME_ONREQUEST);
     }
@@ -1602,6 +1807,75 @@ public class CompositeCache<K, V>
         }
     }
 
+    /**
+     * Queues the element for the shrinker, if any.
+     * <p>
+     * @param element the element just put in memory
+     */
+    private void scheduleExpiration(final ICacheElement<K, V> element)
+    {
+        if (expirationQueue != null)
+        {
+            expirationQueue.schedule(element);
+        }
+    }
+
+    /**
+     * Takes the removed key out of the queue of the shrinker, with the whole hierarchy or group
+     * for a partial key, as the memory cache does.
+     * <p>
+     * @param key the key removed
+     */
+    private void unschedule(final K key)
+    {
+        if (key instanceof String && ((String) key).endsWith(ICache.NAME_COMPONENT_DELIMITER))
+        {
+            final String prefix = (String) key;
+            expirationQueue.removeIf(k -> k instanceof String && ((String) k).startsWith(prefix));
+        }
+        else if (key instanceof GroupAttrName && ((GroupAttrName<?>) key).attrName == null)
+        {
+            final GroupId groupId = ((GroupAttrName<?>) key).groupId;
+            expirationQueue.removeIf(k -> k instanceof GroupAttrName && ((GroupAttrName<?>) k).groupId.equals(groupId));
+        }
+        else
+        {
+            expirationQueue.remove(key);
+        }
+    }
+
+    /**
+     * Access to the keys ordered by expiration, maintained when the memory shrinker is used.
+     * <p>
+     * @return the queue or null if the region doesn't use the memory shrinker
+     */
+    public ExpirationQueue<K, V> getExpirationQueue()
+    {
+        return expirationQueue;
+    }
+
+    /**
+     * Access to the hot keys and largest values, tracked when HotKeyTrackerSize is set.
+     * <p>
+     * @return the tracker or null if the region doesn't track them
+     */
+    public HotKeyTracker<K, V> getHotKeyTracker()
+    {
+        return hotKeyTracker;
+    }
+
+    /**
+     * Checks whether a key is pinned in memory. The memory cache and the shrinker do not spool
+     * the pinned keys, but they are still removed and still expire.
+     * <p>
+     * @param key the key
+     * @return true if the region pins its hot keys and this key is one of them
+     */
+    public boolean isPinned(final K key)
+    {
+        return pinHotKeys && hotKeyTracker.isHot(key);
+    }
+
     /**
      * Access to the memory cache for instrumentation.
      * <p>
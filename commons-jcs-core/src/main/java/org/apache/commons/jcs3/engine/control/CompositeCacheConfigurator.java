@@ -273,6 +273,9 @@ public class CompositeCacheConfigurator
             cache.setAuxCaches( auxArray );
         }
 
+        // Register with the metrics once the auxiliaries are known
+        cache.setCacheMetrics( ccm.getCacheMetrics() );
+
         // Return the new cache
         return cache;
     }
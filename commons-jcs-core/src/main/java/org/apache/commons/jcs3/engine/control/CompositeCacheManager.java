@@ -55,13 +55,16 @@ import org.apache.commons.jcs3.engine.behavior.IShutdownObserver;
 import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
 import org.apache.commons.jcs3.engine.control.event.ElementEventQueue;
 import org.apache.commons.jcs3.engine.control.event.behavior.IElementEventQueue;
+import org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics;
 import org.apache.commons.jcs3.engine.stats.CacheStats;
 import org.apache.commons.jcs3.engine.stats.behavior.ICacheStats;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
 import org.apache.commons.jcs3.utils.config.OptionConverter;
+import org.apache.commons.jcs3.utils.config.PropertySetter;
 import org.apache.commons.jcs3.utils.threadpool.DaemonThreadFactory;
 import org.apache.commons.jcs3.utils.threadpool.ThreadPoolManager;
+import org.apache.commons.jcs3.utils.timing.CoarseClock;
 import org.apache.commons.jcs3.utils.timing.ElapsedTimer;
 
 /**
@@ -87,6 +90,9 @@ public class CompositeCacheManager
     /** default region prefix */
     private static final String DEFAULT_REGION = "jcs.default";
 
+    /** The key of the metrics class, its properties follow it */
+    public static final String METRICS_PREFIX = "jcs.metrics";
+
     /** Should we use system property substitutions. */
     private static final boolean DEFAULT_USE_SYSTEM_PROPERTIES = true;
 
@@ -135,6 +141,12 @@ public class CompositeCacheManager
     /** The central event queue. */
     private IElementEventQueue elementEventQueue;
 
+    /** Frees memory across the regions under heap pressure, null if not configured. */
+    private MemoryGovernor memoryGovernor;
+
+    /** Receives the metrics of the regions, null if not configured. */
+    private ICacheMetrics cacheMetrics;
+
     /** Shutdown hook thread instance */
     private Thread shutdownHook;
 
@@ -258,6 +270,7 @@ public class CompositeCacheManager
 
             this.scheduledExecutor = Executors.newScheduledThreadPool(4,
                     new DaemonThreadFactory("JCS-Scheduler-", Thread.MIN_PRIORITY));
+            CoarseClock.start();
 
             // Register JMX bean
             if (!isJMXRegistered && jmxName != null)
@@ -449,6 +462,9 @@ public class CompositeCacheManager
 
         log.info( "setting defaultElementAttributes to {0}", this.defaultElementAttr );
 
+        // the regions register with the metrics when they are created
+        configureCacheMetrics( properties );
+
         // set up system caches to be used by non system caches
         // need to make sure there is no circularity of reference
         configurator.parseSystemRegions( properties, this );
@@ -456,11 +472,81 @@ public class CompositeCacheManager
         // setup preconfigured caches
         configurator.parseRegions( properties, this );
 
+        configureMemoryGovernor( properties );
+
         log.info( "Finished configuration in {0} ms.", () -> timer.getElapsedTime());
 
         isConfigured = true;
     }
 
+    /**
+     * Starts the memory governor if a heap usage threshold is configured.
+     * <p>
+     * @param properties assumed not null
+     */
+    private void configureMemoryGovernor( final Properties properties )
+    {
+        if ( this.memoryGovernor != null )
+        {
+            this.memoryGovernor.dispose();
+            this.memoryGovernor = null;
+        }
+
+        final int thresholdPercent = OptionConverter.toInt(
+                OptionConverter.findAndSubst( MemoryGovernor.HEAP_USAGE_THRESHOLD_PERCENT, properties ), -1 );
+        if ( thresholdPercent <= 0 )
+        {
+            return;
+        }
+
+        final int freePercent = OptionConverter.toInt(
+                OptionConverter.findAndSubst( MemoryGovernor.FREE_PERCENT, properties ),
+                MemoryGovernor.DEFAULT_FREE_PERCENT );
+        final MemoryGovernor governor = new MemoryGovernor( () -> caches.values().stream()
+                .filter( CompositeCache.class::isInstance )
+                .map( cache -> (CompositeCache<?, ?>) cache )
+                .collect( Collectors.toList() ), scheduledExecutor, freePercent );
+        if ( governor.start( thresholdPercent ) )
+        {
+            this.memoryGovernor = governor;
+        }
+    }
+
+    /**
+     * Creates the metrics if a metrics class is configured.
+     * <p>
+     * @param properties assumed not null
+     */
+    private void configureCacheMetrics( final Properties properties )
+    {
+        this.cacheMetrics = OptionConverter.instantiateByKey( properties, METRICS_PREFIX, null );
+        if ( this.cacheMetrics != null )
+        {
+            PropertySetter.setProperties( this.cacheMetrics, properties, METRICS_PREFIX + "." );
+            log.info( "Using cache metrics {0}", this.cacheMetrics );
+        }
+    }
+
+    /**
+     * Get the metrics of the regions
+     *
+     * @return the metrics, null if no metrics class is configured
+     */
+    public ICacheMetrics getCacheMetrics()
+    {
+        return cacheMetrics;
+    }
+
+    /**
+     * Get the memory governor
+     *
+     * @return the memory governor, null if no heap usage threshold is configured
+     */
+    public MemoryGovernor getMemoryGovernor()
+    {
+        return memoryGovernor;
+    }
+
     /**
      * Gets the defaultCacheAttributes attribute of the CacheHub object
      * <p>
@@ -598,8 +684,19 @@ public class CompositeCacheManager
                 this.elementEventQueue.dispose();
             }
 
+            // stop watching the heap
+            if (this.memoryGovernor != null)
+            {
+                this.memoryGovernor.dispose();
+                this.memoryGovernor = null;
+            }
+
             // shutdown all scheduled jobs
             this.scheduledExecutor.shutdownNow();
+            if (isInitialized)
+            {
+                CoarseClock.stop();
+            }
 
             // shutdown all thread pools
             ThreadPoolManager.dispose();
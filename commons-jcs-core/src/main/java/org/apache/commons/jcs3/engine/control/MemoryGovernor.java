@@ -0,0 +1,304 @@
+package org.apache.commons.jcs3.engine.control;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * Frees memory across all the regions of a cache manager when the heap gets full.
+ * <p>
+ * The governor sets a usage threshold on the tenured heap pools and listens to the threshold
+ * notifications of the memory MXBean. When one arrives, it asks the memory caches of the regions to
+ * free a share of the elements they hold, which spools them to disk if the region has a disk
+ * auxiliary. The share of a region is proportional to its size, and halved for a region whose gets
+ * are all served from memory, so that cold regions give up more than hot ones.
+ * <p>
+ * The governor is configured in the cache.ccf:
+ * <pre>
+ * jcs.governor.HeapUsageThresholdPercent=80
+ * jcs.governor.FreePercent=10
+ * </pre>
+ */
+public class MemoryGovernor
+    implements NotificationListener
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( MemoryGovernor.class );
+
+    /** The prefix of the properties of the governor */
+    public static final String GOVERNOR_PREFIX = "jcs.governor.";
+
+    /** The heap usage threshold, off if not positive */
+    public static final String HEAP_USAGE_THRESHOLD_PERCENT = GOVERNOR_PREFIX + "HeapUsageThresholdPercent";
+
+    /** The percentage of the elements in memory to free when the threshold is exceeded */
+    public static final String FREE_PERCENT = GOVERNOR_PREFIX + "FreePercent";
+
+    /** The default percentage of the elements to free */
+    public static final int DEFAULT_FREE_PERCENT = 10;
+
+    /** Gives the regions to relieve */
+    private final Supplier<? extends Iterable<CompositeCache<?, ?>>> regions;
+
+    /** Runs the relief out of the notification thread */
+    private final Executor executor;
+
+    /** The percentage of the elements to free */
+    private final int freePercent;
+
+    /** The pools we set a threshold on, with the threshold they had before */
+    private final Map<MemoryPoolMXBean, Long> pools = new LinkedHashMap<>();
+
+    /** Whether a relief is pending or running */
+    private final AtomicBoolean relieving = new AtomicBoolean();
+
+    /** How many times the threshold was exceeded */
+    private final AtomicLong thresholdCount = new AtomicLong();
+
+    /** How many elements were freed in total */
+    private final AtomicLong freedCount = new AtomicLong();
+
+    /**
+     * Constructor for the MemoryGovernor object. Call {@link #start(int)} to listen to the heap.
+     * <p>
+     * @param regions gives the regions to relieve
+     * @param executor runs the relief
+     * @param freePercent the percentage of the elements to free when the threshold is exceeded
+     */
+    public MemoryGovernor( final Supplier<? extends Iterable<CompositeCache<?, ?>>> regions,
+            final Executor executor, final int freePercent )
+    {
+        this.regions = regions;
+        this.executor = executor;
+        this.freePercent = freePercent;
+    }
+
+    /**
+     * Sets the threshold on the heap pools that support it and starts listening.
+     * <p>
+     * @param thresholdPercent percentage of the maximum size of each pool
+     * @return whether a threshold could be set on any pool
+     */
+    public synchronized boolean start( final int thresholdPercent )
+    {
+        for ( final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+        {
+            final long max = pool.getUsage().getMax();
+            if ( pool.getType() != MemoryType.HEAP || max <= 0 )
+            {
+                continue;
+            }
+
+            final long threshold = max / 100 * thresholdPercent;
+            // prefer the usage after a collection, the raw usage also counts garbage
+            if ( pool.isCollectionUsageThresholdSupported() )
+            {
+                pools.putIfAbsent( pool, Long.valueOf( pool.getCollectionUsageThreshold() ) );
+                pool.setCollectionUsageThreshold( threshold );
+            }
+            else if ( pool.isUsageThresholdSupported() )
+            {
+                pools.putIfAbsent( pool, Long.valueOf( pool.getUsageThreshold() ) );
+                pool.setUsageThreshold( threshold );
+            }
+            else
+            {
+                continue;
+            }
+
+            log.info( "Watching heap pool [{0}], threshold {1} bytes", pool.getName(), threshold );
+        }
+
+        if ( pools.isEmpty() )
+        {
+            log.warn( "No heap pool supports a usage threshold, the memory governor is off" );
+            return false;
+        }
+
+        ( (NotificationEmitter) ManagementFactory.getMemoryMXBean() ).addNotificationListener( this, null, null );
+        return true;
+    }
+
+    /**
+     * Stops listening and puts back the thresholds the pools had before we set ours. The pools
+     * are shared by the whole JVM.
+     */
+    public synchronized void dispose()
+    {
+        if ( pools.isEmpty() )
+        {
+            return;
+        }
+
+        try
+        {
+            ( (NotificationEmitter) ManagementFactory.getMemoryMXBean() ).removeNotificationListener( this );
+        }
+        catch ( final ListenerNotFoundException e )
+        {
+            log.debug( "Memory governor was not listening" );
+        }
+
+        for ( final Map.Entry<MemoryPoolMXBean, Long> entry : pools.entrySet() )
+        {
+            final MemoryPoolMXBean pool = entry.getKey();
+            if ( pool.isCollectionUsageThresholdSupported() )
+            {
+                pool.setCollectionUsageThreshold( entry.getValue().longValue() );
+            }
+            else
+            {
+                pool.setUsageThreshold( entry.getValue().longValue() );
+            }
+        }
+        pools.clear();
+    }
+
+    /**
+     * Schedules a relief when a usage threshold is exceeded. A relief is not scheduled twice.
+     * <p>
+     * @param notification the notification of the memory MXBean
+     * @param handback not used
+     */
+    @Override
+    public void handleNotification( final Notification notification, final Object handback )
+    {
+        final String type = notification.getType();
+        if ( !MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals( type )
+            && !MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals( type ) )
+        {
+            return;
+        }
+
+        thresholdCount.incrementAndGet();
+        if ( relieving.compareAndSet( false, true ) )
+        {
+            executor.execute( () -> {
+                try
+                {
+                    relieve();
+                }
+                finally
+                {
+                    relieving.set( false );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Frees the configured percentage of the elements in memory across the regions.
+     * <p>
+     * @return the number of elements freed
+     */
+    public int relieve()
+    {
+        final List<CompositeCache<?, ?>> candidates = new ArrayList<>();
+        long total = 0;
+        double totalShare = 0;
+        for ( final CompositeCache<?, ?> region : regions.get() )
+        {
+            final int size = region.getMemoryCache().getSize();
+            if ( size > 0 )
+            {
+                candidates.add( region );
+                total += size;
+                totalShare += share( region, size );
+            }
+        }
+
+        final long toFree = total * freePercent / 100;
+        if ( toFree <= 0 )
+        {
+            return 0;
+        }
+
+        int freed = 0;
+        for ( final CompositeCache<?, ?> region : candidates )
+        {
+            final int size = region.getMemoryCache().getSize();
+            final int numToFree = (int) Math.min( size, Math.ceil( toFree * share( region, size ) / totalShare ) );
+            try
+            {
+                freed += region.getMemoryCache().freeElements( numToFree );
+            }
+            catch ( final IOException e )
+            {
+                log.warn( "Failed to free elements of region [{0}]", region.getCacheName(), e );
+            }
+        }
+
+        freedCount.addAndGet( freed );
+        log.info( "Heap usage threshold exceeded, freed {0} of {1} elements in memory", freed, total );
+        return freed;
+    }
+
+    /**
+     * The weight of a region in the relief: its size, halved if all its gets hit the memory.
+     * <p>
+     * @param region the region
+     * @param size its size in memory
+     * @return the unnormalized share of the elements to free
+     */
+    protected double share( final CompositeCache<?, ?> region, final int size )
+    {
+        final long hits = region.getHitCountRam();
+        final long gets = hits + region.getHitCountAux() + region.getMissCountNotFound()
+            + region.getMissCountExpired();
+        final double hitRatio = gets > 0 ? (double) hits / gets : 0;
+        return size * ( 1 - hitRatio / 2 );
+    }
+
+    /**
+     * @return how many times the usage threshold was exceeded
+     */
+    public long getThresholdCount()
+    {
+        return thresholdCount.get();
+    }
+
+    /**
+     * @return how many elements were freed in total
+     */
+    public long getFreedCount()
+    {
+        return freedCount.get();
+    }
+}
@@ -23,16 +23,20 @@ import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.control.CompositeCache;
 import org.apache.commons.jcs3.engine.control.group.GroupAttrName;
+import org.apache.commons.jcs3.engine.memory.behavior.IWeigher;
 import org.apache.commons.jcs3.engine.memory.util.MemoryElementDescriptor;
+import org.apache.commons.jcs3.engine.memory.util.SerializedSizeWeigher;
 import org.apache.commons.jcs3.engine.stats.StatElement;
 import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
 import org.apache.commons.jcs3.engine.stats.behavior.IStats;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.config.OptionConverter;
 import org.apache.commons.jcs3.utils.struct.DoubleLinkedList;
 
 /**
@@ -42,6 +46,9 @@ import org.apache.commons.jcs3.utils.struct.DoubleLinkedList;
  * Children can control the expiration algorithm by controlling the update and get. The last item in the list will be the one
  * removed when the list fills. For instance LRU should more items to the front as they are used. FIFO should simply add new items
  * to the front of the list.
+ * <p>
+ * If the region sets MaxMemorySizeMB, the elements are weighed when they are put and the list is
+ * also spooled until their total weight fits, in addition to the MaxObjects bound.
  */
 public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends AbstractMemoryCache<K, V>
 {
@@ -51,6 +58,15 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     /** thread-safe double linked list for lru */
     protected DoubleLinkedList<MemoryElementDescriptor<K, V>> list; // TODO privatise
 
+    /** Sizes the elements, null if the memory cache is bounded by count only */
+    private IWeigher<K, V> weigher;
+
+    /** The maximum total weight in bytes */
+    private long maxWeight;
+
+    /** The total weight of the elements in memory, changed under the lock */
+    private final AtomicLong weight = new AtomicLong();
+
     /**
      * For post reflection creation initialization.
      * <p>
@@ -62,6 +78,16 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     {
         super.initialize(hub);
         list = new DoubleLinkedList<>();
+
+        final int maxMemorySizeMB = getCacheAttributes().getMaxMemorySizeMB();
+        if (maxMemorySizeMB > 0)
+        {
+            maxWeight = maxMemorySizeMB * 1024L * 1024L;
+            weigher = OptionConverter.instantiateByClassName(getCacheAttributes().getWeigherClassName(),
+                    new SerializedSizeWeigher<>());
+            log.info("{0}: bounding memory to {1} MB with {2}", getCacheName(), maxMemorySizeMB,
+                    weigher.getClass().getName());
+        }
         log.info("initialized MemoryCache for {0}", this::getCacheName);
     }
 
@@ -93,12 +119,17 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     @Override
     public final void update(final ICacheElement<K, V> ce) throws IOException
     {
-        putCnt.incrementAndGet();
+        getPutCounter().increment();
+
+        // weigh outside of the lock, this may serialize the value
+        final long elementWeight = weigher != null ? Math.max(0, weigher.weigh(ce)) : 0;
 
         lock.lock();
         try
         {
             final MemoryElementDescriptor<K, V> newNode = adjustListForUpdate(ce);
+            newNode.setWeight(elementWeight);
+            weight.addAndGet(elementWeight);
 
             // this should be synchronized if we were not using a ConcurrentHashMap
             final K key = newNode.getCacheElement().getKey();
@@ -108,6 +139,7 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
             if (oldNode != null && key.equals(oldNode.getCacheElement().getKey()))
             {
                 list.remove(oldNode);
+                weight.addAndGet(-oldNode.getWeight());
             }
         }
         finally
@@ -140,7 +172,8 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
         final int size = map.size();
         // If the element limit is reached, we need to spool
 
-        if (size <= this.getCacheAttributes().getMaxObjects())
+        final boolean overCount = size > this.getCacheAttributes().getMaxObjects();
+        if (!overCount && !isOverWeight())
         {
             return;
         }
@@ -162,7 +195,7 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
 
         try
         {
-            for (int i = 0; i < chunkSizeCorrected; i++)
+            for (int i = 0; overCount && i < chunkSizeCorrected; i++)
             {
                 final ICacheElement<K, V> lastElement = spoolLastElement();
                 if (lastElement == null)
@@ -171,6 +204,15 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
                 }
             }
 
+            // then as many as needed to fit in the size bound
+            while (isOverWeight())
+            {
+                if (spoolLastElement() == null)
+                {
+                    break;
+                }
+            }
+
             // If this is out of the sync block it can detect a mismatch
             // where there is none.
             if (log.isDebugEnabled() && map.size() != list.size())
@@ -226,7 +268,8 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     }
 
     /**
-     * This spools the last element in the LRU, if one exists.
+     * This spools the last element in the LRU, if one exists. The keys pinned by the region are
+     * skipped.
      * <p>
      *
      * @return ICacheElement&lt;K, V&gt; if there was a last element, else null.
@@ -236,7 +279,17 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     {
         ICacheElement<K, V> toSpool = null;
 
-        final MemoryElementDescriptor<K, V> last = list.getLast();
+        MemoryElementDescriptor<K, V> last = list.getLast();
+
+        // pinned hot keys go back to the head and the next element is spooled instead, the
+        // number skipped is bounded so that a memory cache holding only pinned keys still spools
+        final int maxSkipped = Math.min(getCacheAttributes().getHotKeyTrackerSize(), list.size() - 1);
+        for (int skipped = 0; skipped < maxSkipped
+                && getCompositeCache().isPinned(last.getCacheElement().getKey()); skipped++)
+        {
+            list.makeFirst(last);
+            last = list.getLast();
+        }
         if (last != null)
         {
             toSpool = last.getCacheElement();
@@ -259,6 +312,7 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
             }
 
             list.remove(last);
+            weight.addAndGet(-last.getWeight());
         }
 
         return toSpool;
@@ -310,6 +364,7 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     protected void lockedRemoveElement(final MemoryElementDescriptor<K, V> me)
     {
         list.remove(me);
+        weight.addAndGet(-me.getWeight());
     }
 
     /**
@@ -320,6 +375,26 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
     protected void lockedRemoveAll()
     {
         list.removeAll();
+        weight.set(0);
+    }
+
+    /**
+     * @return whether the memory cache is bounded by size and holds more than its maximum weight
+     */
+    private boolean isOverWeight()
+    {
+        return weigher != null && weight.get() > maxWeight;
+    }
+
+    /**
+     * Gets the total weight of the elements in memory.
+     * <p>
+     *
+     * @return the weight in bytes, 0 if the memory cache is bounded by count only
+     */
+    public long getWeight()
+    {
+        return weight.get();
     }
 
     // --------------------------- internal methods (linked list implementation)
@@ -520,6 +595,10 @@ public abstract class AbstractDoubleLinkedListMemoryCache<K, V> extends Abstract
         final List<IStatElement<?>> elems = stats.getStatElements();
 
         elems.add(new StatElement<>("List Size", Integer.valueOf(list.size())));
+        if (weigher != null)
+        {
+            elems.add(new StatElement<>("Weight", Long.valueOf(getWeight())));
+        }
 
         return stats;
     }
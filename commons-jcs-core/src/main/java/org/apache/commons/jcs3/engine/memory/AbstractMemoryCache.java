@@ -38,6 +38,7 @@ import org.apache.commons.jcs3.engine.control.group.GroupAttrName;
 import org.apache.commons.jcs3.engine.control.group.GroupId;
 import org.apache.commons.jcs3.engine.memory.behavior.IMemoryCache;
 import org.apache.commons.jcs3.engine.memory.util.MemoryElementDescriptor;
+import org.apache.commons.jcs3.engine.stats.StatCounter;
 import org.apache.commons.jcs3.engine.stats.StatElement;
 import org.apache.commons.jcs3.engine.stats.Stats;
 import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
@@ -69,12 +70,33 @@ public abstract class AbstractMemoryCache<K, V>
     protected Map<K, MemoryElementDescriptor<K, V>> map;// TODO privatise
 
     /** number of hits */
-    protected AtomicLong hitCnt;
+    private StatCounter hits;
 
     /** number of misses */
-    protected AtomicLong missCnt;
+    private StatCounter misses;
 
     /** number of puts */
+    private StatCounter puts;
+
+    /**
+     * number of hits counted by subclasses written for earlier versions, added to the statistics
+     * @deprecated use {@link #getHitCounter()}
+     */
+    @Deprecated
+    protected AtomicLong hitCnt;
+
+    /**
+     * number of misses counted by subclasses written for earlier versions, added to the statistics
+     * @deprecated use {@link #getMissCounter()}
+     */
+    @Deprecated
+    protected AtomicLong missCnt;
+
+    /**
+     * number of puts counted by subclasses written for earlier versions, added to the statistics
+     * @deprecated use {@link #getPutCounter()}
+     */
+    @Deprecated
     protected AtomicLong putCnt;
 
     /**
@@ -85,6 +107,9 @@ public abstract class AbstractMemoryCache<K, V>
     @Override
     public void initialize( final CompositeCache<K, V> hub )
     {
+        hits = new StatCounter();
+        misses = new StatCounter();
+        puts = new StatCounter();
         hitCnt = new AtomicLong(0);
         missCnt = new AtomicLong(0);
         putCnt = new AtomicLong(0);
@@ -205,6 +230,30 @@ public abstract class AbstractMemoryCache<K, V>
      */
     protected abstract void lockedRemoveAll();
 
+    /**
+     * @return the counter of the hits
+     */
+    protected StatCounter getHitCounter()
+    {
+        return hits;
+    }
+
+    /**
+     * @return the counter of the misses
+     */
+    protected StatCounter getMissCounter()
+    {
+        return misses;
+    }
+
+    /**
+     * @return the counter of the puts, to be incremented by the subclasses
+     */
+    protected StatCounter getPutCounter()
+    {
+        return puts;
+    }
+
     /**
      * Prepares for shutdown. Reset statistics
      * <p>
@@ -215,6 +264,9 @@ public abstract class AbstractMemoryCache<K, V>
         throws IOException
     {
         removeAll();
+        hits.reset();
+        misses.reset();
+        puts.reset();
         hitCnt.set(0);
         missCnt.set(0);
         putCnt.set(0);
@@ -233,9 +285,9 @@ public abstract class AbstractMemoryCache<K, V>
         final ArrayList<IStatElement<?>> elems = new ArrayList<>();
         stats.setStatElements(elems);
 
-        elems.add(new StatElement<>("Put Count", putCnt));
-        elems.add(new StatElement<>("Hit Count", hitCnt));
-        elems.add(new StatElement<>("Miss Count", missCnt));
+        elems.add(new StatElement<>("Put Count", Long.valueOf(puts.get() + putCnt.get())));
+        elems.add(new StatElement<>("Hit Count", Long.valueOf(hits.get() + hitCnt.get())));
+        elems.add(new StatElement<>("Miss Count", Long.valueOf(misses.get() + missCnt.get())));
         elems.add(new StatElement<>( "Map Size", Integer.valueOf(getSize()) ) );
 
         return stats;
@@ -469,14 +521,16 @@ public abstract class AbstractMemoryCache<K, V>
     {
         ICacheElement<K, V> ce = null;
 
-        log.debug("{0}: getting item for key {1}", () -> getCacheName(),
-                () -> key);
+        if (log.isDebugEnabled())
+        {
+            log.debug("{0}: getting item for key {1}", getCacheName(), key);
+        }
 
         final MemoryElementDescriptor<K, V> me = map.get(key);
 
         if (me != null)
         {
-            hitCnt.incrementAndGet();
+            hits.increment();
             ce = me.getCacheElement();
 
             lock.lock();
@@ -489,12 +543,14 @@ public abstract class AbstractMemoryCache<K, V>
                 lock.unlock();
             }
 
-            log.debug("{0}: MemoryCache hit for {1}", () -> getCacheName(),
-                    () -> key);
+            if (log.isDebugEnabled())
+            {
+                log.debug("{0}: MemoryCache hit for {1}", getCacheName(), key);
+            }
         }
         else
         {
-            missCnt.incrementAndGet();
+            misses.increment();
 
             log.debug("{0}: MemoryCache miss for {1}", () -> getCacheName(),
                     () -> key);
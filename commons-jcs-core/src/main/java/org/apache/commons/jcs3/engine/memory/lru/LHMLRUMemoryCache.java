@@ -49,6 +49,11 @@ public class LHMLRUMemoryCache<K, V>
     public void initialize( final CompositeCache<K, V> hub )
     {
         super.initialize( hub );
+        if ( getCacheAttributes().getMaxMemorySizeMB() > 0 )
+        {
+            log.warn( "{0}: MaxMemorySizeMB is not supported by the LHMLRUMemoryCache, only MaxObjects bounds it",
+                    getCacheName() );
+        }
         log.info( "initialized LHMLRUMemoryCache for {0}", this::getCacheName );
     }
 
@@ -73,7 +78,7 @@ public class LHMLRUMemoryCache<K, V>
     public void update( final ICacheElement<K, V> ce )
         throws IOException
     {
-        putCnt.incrementAndGet();
+        getPutCounter().increment();
         map.put( ce.getKey(), new MemoryElementDescriptor<>(ce) );
     }
 
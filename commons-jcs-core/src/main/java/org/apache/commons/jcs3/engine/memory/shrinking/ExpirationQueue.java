@@ -0,0 +1,276 @@
+package org.apache.commons.jcs3.engine.memory.shrinking;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
+
+/**
+ * Bucketed queue of the keys of a region ordered by the time they have to be looked at by the
+ * shrinker: the earliest of the max life, the idle time and the memory idle time of the element.
+ * <p>
+ * Keys are registered when they are put in memory. Accesses don't reschedule them, an element
+ * accessed since it was queued is simply found alive when its bucket is due and queued again with
+ * its new deadline. This way the shrinker only looks at the elements which may have expired instead
+ * of the whole region.
+ * <p>
+ * A key is queued at most once for its earliest known deadline. The region takes the key out of
+ * the queue when it removes, spools or evicts the element, so that the queue never holds more keys
+ * than the memory cache.
+ */
+public class ExpirationQueue<K, V>
+{
+    /** Default bucket width */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    /** Width of a bucket in milliseconds */
+    private final long tickMillis;
+
+    /** Maximum memory idle time for the whole region, -1 for none */
+    private final long maxMemoryIdleTime;
+
+    /** The keys by bucket, guarded by this */
+    private final TreeMap<Long, Set<K>> buckets = new TreeMap<>();
+
+    /** The bucket of each queued key */
+    private final ConcurrentMap<K, Long> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the ExpirationQueue object
+     * <p>
+     * @param tickMillis width of a bucket in milliseconds
+     * @param maxMemoryIdleTime maximum memory idle time of the region in milliseconds, -1 for none
+     */
+    public ExpirationQueue( final long tickMillis, final long maxMemoryIdleTime )
+    {
+        this.tickMillis = tickMillis;
+        this.maxMemoryIdleTime = maxMemoryIdleTime;
+    }
+
+    /**
+     * Queues the key of the element for its next deadline. Eternal elements of a region without
+     * memory idle time are not queued.
+     * <p>
+     * @param element the element put in memory
+     */
+    public void schedule( final ICacheElement<K, V> element )
+    {
+        final long deadline = getDeadline( element.getElementAttributes() );
+        if ( deadline != -1 )
+        {
+            schedule( element.getKey(), deadline );
+        }
+    }
+
+    /**
+     * Queues the key for the given time, unless it is already queued for an earlier one.
+     * <p>
+     * @param key the key
+     * @param deadline when the key has to be looked at
+     */
+    public void schedule( final K key, final long deadline )
+    {
+        final long bucket = bucketOf( deadline );
+
+        // common case of an update of a queued key, the new deadline can only be later
+        final Long current = scheduled.get( key );
+        if ( current != null && current.longValue() <= bucket )
+        {
+            return;
+        }
+
+        synchronized ( this )
+        {
+            final Long queued = scheduled.get( key );
+            if ( queued != null && queued.longValue() <= bucket )
+            {
+                return;
+            }
+            if ( queued != null )
+            {
+                final Set<K> keys = buckets.get( queued );
+                if ( keys != null && keys.remove( key ) && keys.isEmpty() )
+                {
+                    buckets.remove( queued );
+                }
+            }
+            buckets.computeIfAbsent( Long.valueOf( bucket ), b -> new LinkedHashSet<>() ).add( key );
+            scheduled.put( key, Long.valueOf( bucket ) );
+        }
+    }
+
+    /**
+     * Removes and returns the keys which are due.
+     * <p>
+     * @param now the current time
+     * @return the keys to look at, the caller has to queue again the ones which are still alive
+     */
+    public synchronized List<K> poll( final long now )
+    {
+        final List<K> due = new ArrayList<>();
+        final Iterator<Map.Entry<Long, Set<K>>> it = buckets.headMap( Long.valueOf( now / tickMillis ), true )
+            .entrySet().iterator();
+        while ( it.hasNext() )
+        {
+            final Map.Entry<Long, Set<K>> entry = it.next();
+            for ( final K key : entry.getValue() )
+            {
+                scheduled.remove( key, entry.getKey() );
+                due.add( key );
+            }
+            it.remove();
+        }
+        return due;
+    }
+
+    /**
+     * Takes the key out of the queue, after its element left memory.
+     * <p>
+     * @param key the key
+     */
+    public void remove( final K key )
+    {
+        if ( !scheduled.containsKey( key ) )
+        {
+            return;
+        }
+
+        synchronized ( this )
+        {
+            final Long queued = scheduled.remove( key );
+            if ( queued != null )
+            {
+                final Set<K> keys = buckets.get( queued );
+                if ( keys != null && keys.remove( key ) && keys.isEmpty() )
+                {
+                    buckets.remove( queued );
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the matching keys out of the queue, after a hierarchical or group removal.
+     * <p>
+     * @param filter selects the keys to take out
+     */
+    public void removeIf( final Predicate<? super K> filter )
+    {
+        for ( final K key : scheduled.keySet() )
+        {
+            if ( filter.test( key ) )
+            {
+                remove( key );
+            }
+        }
+    }
+
+    /**
+     * Empties the queue.
+     */
+    public synchronized void clear()
+    {
+        buckets.clear();
+        scheduled.clear();
+    }
+
+    /**
+     * @return the number of queued keys
+     */
+    public int size()
+    {
+        return scheduled.size();
+    }
+
+    /**
+     * Gets the first time the element may have to be removed or spooled, following the rules of
+     * CompositeCache.isExpired and the shrinker.
+     * <p>
+     * @param attributes the element attributes
+     * @return the deadline in milliseconds or -1 if there is none
+     */
+    protected long getDeadline( final IElementAttributes attributes )
+    {
+        long deadline = getExpiryDeadline( attributes );
+        if ( deadline == -1 )
+        {
+            deadline = Long.MAX_VALUE;
+        }
+
+        if ( maxMemoryIdleTime != -1 )
+        {
+            deadline = Math.min( deadline, attributes.getLastAccessTime() + maxMemoryIdleTime + 1 );
+        }
+
+        return deadline == Long.MAX_VALUE ? -1 : deadline;
+    }
+
+    /**
+     * Gets the first time the element may expire, from its max life and idle time only.
+     * <p>
+     * @param attributes the element attributes
+     * @return the deadline in milliseconds or -1 if the element does not expire
+     */
+    protected long getExpiryDeadline( final IElementAttributes attributes )
+    {
+        long deadline = Long.MAX_VALUE;
+
+        if ( !attributes.getIsEternal() )
+        {
+            final long timeFactorForMilliseconds = attributes.getTimeFactorForMilliseconds();
+            final long maxLifeSeconds = attributes.getMaxLife();
+            if ( maxLifeSeconds != -1 )
+            {
+                deadline = Math.min( deadline,
+                        attributes.getCreateTime() + maxLifeSeconds * timeFactorForMilliseconds + 1 );
+            }
+            final long idleTime = attributes.getIdleTime();
+            if ( idleTime != -1 )
+            {
+                deadline = Math.min( deadline,
+                        attributes.getLastAccessTime() + idleTime * timeFactorForMilliseconds + 1 );
+            }
+        }
+
+        return deadline == Long.MAX_VALUE ? -1 : deadline;
+    }
+
+    /**
+     * The bucket of a deadline, a bucket is due once its end is reached.
+     * <p>
+     * @param deadline the time in milliseconds
+     * @return the bucket
+     */
+    private long bucketOf( final long deadline )
+    {
+        return ( deadline + tickMillis - 1 ) / tickMillis;
+    }
+}
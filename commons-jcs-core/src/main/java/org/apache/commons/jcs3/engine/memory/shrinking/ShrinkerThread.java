@@ -19,7 +19,7 @@ package org.apache.commons.jcs3.engine.memory.shrinking;
  * under the License.
  */
 
-import java.util.Set;
+import java.util.Collection;
 
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
@@ -32,6 +32,10 @@ import org.apache.commons.jcs3.log.LogManager;
 /**
  * A background memory shrinker. Memory problems and concurrent modification exception caused by
  * acting directly on an iterator of the underlying memory cache should have been solved.
+ * <p>
+ * When the region maintains an {@link ExpirationQueue}, only the keys which are due are looked at,
+ * the cost of a run is then proportional to the number of expiring elements, not to the size of
+ * the region.
  * @version $Id$
  */
 public class ShrinkerThread<K, V>
@@ -52,6 +56,9 @@ public class ShrinkerThread<K, V>
     /** Should we limit the number spooled per run. If so, the maxSpoolPerRun will be used. */
     private boolean spoolLimit;
 
+    /** Whether the expiration queue of the region got all the keys already in memory */
+    private boolean seeded;
+
     /**
      * Constructor for the ShrinkerThread object.
      * <p>
@@ -90,10 +97,11 @@ public class ShrinkerThread<K, V>
     }
 
     /**
-     * This method is called when the thread wakes up. First the method obtains an array of keys for
-     * the cache region. It iterates through the keys and tries to get the item from the cache
-     * without affecting the last access or position of the item. The item is checked for
-     * expiration, the expiration check has 3 parts:
+     * This method is called when the thread wakes up. First the method obtains the keys to look
+     * at: the keys which are due in the expiration queue of the region, or all the keys of the
+     * region on the first run or if the region doesn't maintain such a queue. It iterates through
+     * the keys and tries to get the item from the cache without affecting the last access or
+     * position of the item. The item is checked for expiration, the expiration check has 3 parts:
      * <ol>
      * <li>Has the cacheattributes.MaxMemoryIdleTimeSeconds defined for the region been exceeded? If
      * so, the item should be move to disk.</li> <li>Has the item exceeded MaxLifeSeconds defined in
@@ -101,6 +109,8 @@ public class ShrinkerThread<K, V>
      * the element attributes? If so, remove it. If there are event listeners registered for the
      * cache element, they will be called.</li>
      * </ol>
+     * The keys pinned by the region are not spooled when idle, but they still expire.
+     * The items which stay in memory are queued again for their next deadline.
      * TODO Change element event handling to use the queue, then move the queue to the region and
      *       access via the Cache.
      */
@@ -109,10 +119,21 @@ public class ShrinkerThread<K, V>
         log.debug( "Shrinking memory cache for: {0}", () -> this.cache.getCacheName() );
 
         final IMemoryCache<K, V> memCache = cache.getMemoryCache();
+        final ExpirationQueue<K, V> queue = cache.getExpirationQueue();
 
         try
         {
-            final Set<K> keys = memCache.getKeySet();
+            final Collection<K> keys;
+            if ( queue == null || !seeded )
+            {
+                // the first run also queues what was put in memory before the queue
+                keys = memCache.getKeySet();
+                seeded = true;
+            }
+            else
+            {
+                keys = queue.poll( System.currentTimeMillis() );
+            }
             final int size = keys.size();
             log.debug( "Keys size: {0}", size );
 
@@ -144,19 +165,33 @@ public class ShrinkerThread<K, V>
                     if ( remove )
                     {
                         memCache.remove( key );
+                        continue;
                     }
                 }
 
                 // If the item is not removed, check is it has been idle
                 // long enough to be spooled.
 
-                if ( !remove && maxMemoryIdleTime != -1 )
+                if ( maxMemoryIdleTime != -1 )
                 {
-                    if ( !spoolLimit || spoolCount < this.maxSpoolPerRun )
+                    final long lastAccessTime = attributes.getLastAccessTime();
+
+                    if ( lastAccessTime + maxMemoryIdleTime < now && cache.isPinned( key ) )
                     {
-                        final long lastAccessTime = attributes.getLastAccessTime();
+                        // hot keys stay in memory, look again when they could have cooled down or
+                        // when they expire, whichever comes first
+                        if ( queue != null )
+                        {
+                            final long expiry = queue.getExpiryDeadline( attributes );
+                            queue.schedule( key, expiry == -1 ? now + maxMemoryIdleTime
+                                    : Math.min( expiry, now + maxMemoryIdleTime ) );
+                        }
+                        continue;
+                    }
 
-                        if ( lastAccessTime + maxMemoryIdleTime < now )
+                    if ( lastAccessTime + maxMemoryIdleTime < now )
+                    {
+                        if ( !spoolLimit || spoolCount < this.maxSpoolPerRun )
                         {
                             log.debug( "Exceeded memory idle time: {0}", key );
 
@@ -170,20 +205,25 @@ public class ShrinkerThread<K, V>
 
                             memCache.remove( key );
                             memCache.waterfal( cacheElement );
+                            continue;
                         }
-                    }
-                    else
-                    {
+
                         log.debug( "spoolCount = \"{0}\"; maxSpoolPerRun = \"{1}\"",
                                 spoolCount, maxSpoolPerRun );
 
-                        // stop processing if limit has been reached.
-                        if ( spoolLimit && spoolCount >= this.maxSpoolPerRun )
+                        // limit reached, leave it for the next run
+                        if ( queue != null )
                         {
-                            return;
+                            queue.schedule( key, now );
                         }
+                        continue;
                     }
                 }
+
+                if ( queue != null )
+                {
+                    queue.schedule( cacheElement );
+                }
             }
         }
         catch ( final Throwable t )
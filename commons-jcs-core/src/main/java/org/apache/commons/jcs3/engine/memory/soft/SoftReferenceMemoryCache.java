@@ -75,6 +75,11 @@ public class SoftReferenceMemoryCache<K, V> extends AbstractMemoryCache<K, V>
     {
         super.initialize( hub );
         strongReferences = new LinkedBlockingQueue<>();
+        if ( getCacheAttributes().getMaxMemorySizeMB() > 0 )
+        {
+            log.warn( "{0}: MaxMemorySizeMB is not supported by the SoftReferenceMemoryCache, only MaxObjects bounds it",
+                    getCacheName() );
+        }
         log.info( "initialized Soft Reference Memory Cache for {0}",
                 this::getCacheName );
     }
@@ -192,7 +197,7 @@ public class SoftReferenceMemoryCache<K, V> extends AbstractMemoryCache<K, V>
     @Override
     public void update(final ICacheElement<K, V> ce) throws IOException
     {
-        putCnt.incrementAndGet();
+        getPutCounter().increment();
         ce.getElementAttributes().setLastAccessTimeNow();
 
         lock.lock();
@@ -31,6 +31,9 @@ public class MemoryElementDescriptor<K, V>
     /** Don't change */
     private static final long serialVersionUID = -1905161209035522460L;
 
+    /** The weight of the element, if the memory cache is bounded by size */
+    private long weight;
+
     /**
      * Constructs a usable MemoryElementDescriptor.
      * <p>
@@ -50,4 +53,20 @@ public class MemoryElementDescriptor<K, V>
     {
         return getPayload();
     }
+
+    /**
+     * @return the weight of the element, 0 if the memory cache doesn't weigh its elements
+     */
+    public long getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * @param weight the weight of the element
+     */
+    public void setWeight( final long weight )
+    {
+        this.weight = weight;
+    }
 }
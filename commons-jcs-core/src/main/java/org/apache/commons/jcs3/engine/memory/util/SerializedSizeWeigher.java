@@ -0,0 +1,137 @@
+package org.apache.commons.jcs3.engine.memory.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.memory.behavior.IWeigher;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+
+/**
+ * The default weigher. Strings, arrays of primitives and boxed primitives are sized directly, other
+ * values by the length of their serialized form. A fixed overhead accounts for the element, its
+ * attributes and the memory cache structures.
+ * <p>
+ * A value that cannot be serialized is given the average serialized size seen so far, or
+ * DEFAULT_UNSERIALIZABLE_SIZE before any, so that it still counts against the bound.
+ */
+public class SerializedSizeWeigher<K, V>
+    implements IWeigher<K, V>
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( SerializedSizeWeigher.class );
+
+    /** Approximate size of the element, attributes and descriptor */
+    public static final long ELEMENT_OVERHEAD = 200;
+
+    /** The size of an unserializable value when no value was serialized yet */
+    public static final long DEFAULT_UNSERIALIZABLE_SIZE = 1024;
+
+    /** Used for the values without a direct size */
+    private final StandardSerializer serializer = new StandardSerializer();
+
+    /** The number of values serialized */
+    private final LongAdder serializedCount = new LongAdder();
+
+    /** The total length of the values serialized */
+    private final LongAdder serializedBytes = new LongAdder();
+
+    /** The unserializable classes already warned about */
+    private final Set<Class<?>> unserializable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @see org.apache.commons.jcs3.engine.memory.behavior.IWeigher#weigh(org.apache.commons.jcs3.engine.behavior.ICacheElement)
+     */
+    @Override
+    public long weigh( final ICacheElement<K, V> element )
+    {
+        return ELEMENT_OVERHEAD + sizeOf( element.getKey() ) + sizeOf( element.getVal() );
+    }
+
+    /**
+     * Gets the approximate size of an object.
+     * <p>
+     * @param value the object
+     * @return its size in bytes
+     */
+    protected long sizeOf( final Object value )
+    {
+        if ( value == null )
+        {
+            return 0;
+        }
+        if ( value instanceof String )
+        {
+            return 40 + 2L * ( (String) value ).length();
+        }
+        if ( value instanceof byte[] )
+        {
+            return 16 + ( (byte[]) value ).length;
+        }
+        if ( value instanceof char[] )
+        {
+            return 16 + 2L * ( (char[]) value ).length;
+        }
+        if ( value instanceof int[] )
+        {
+            return 16 + 4L * ( (int[]) value ).length;
+        }
+        if ( value instanceof long[] )
+        {
+            return 16 + 8L * ( (long[]) value ).length;
+        }
+        if ( value instanceof Number || value instanceof Boolean || value instanceof Character )
+        {
+            return 24;
+        }
+
+        try
+        {
+            final int length = serializer.serialize( value ).length;
+            serializedCount.increment();
+            serializedBytes.add( length );
+            return length;
+        }
+        catch ( final IOException e )
+        {
+            final long fallback = averageSize();
+            if ( unserializable.add( value.getClass() ) )
+            {
+                log.warn( "Could not serialize {0} to weigh it, weighing it {1} bytes", value.getClass(), fallback, e );
+            }
+            return fallback;
+        }
+    }
+
+    /**
+     * @return the average length of the values serialized, or DEFAULT_UNSERIALIZABLE_SIZE if none were
+     */
+    protected long averageSize()
+    {
+        final long count = serializedCount.sum();
+        return count == 0 ? DEFAULT_UNSERIALIZABLE_SIZE : Math.max( 1, serializedBytes.sum() / count );
+    }
+}
@@ -0,0 +1,312 @@
+package org.apache.commons.jcs3.engine.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
+import org.apache.commons.jcs3.engine.metrics.behavior.CacheOperation;
+import org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics;
+import org.apache.commons.jcs3.engine.stats.StatElement;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * Keeps a {@link LatencyHistogram} per region, tier and operation, and reports their percentiles
+ * with the statistics of the region.
+ * <p>
+ * Operations slower than the SlowOperationThresholdMillis are counted, and recorded as
+ * flight recorder events when the runtime supports it. Configure it in the cache.ccf:
+ * <pre>
+ * jcs.metrics=org.apache.commons.jcs3.engine.metrics.HistogramCacheMetrics
+ * jcs.metrics.SlowOperationThresholdMillis=100
+ * </pre>
+ */
+public class HistogramCacheMetrics
+    implements ICacheMetrics
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( HistogramCacheMetrics.class );
+
+    /** Whether the runtime has the flight recorder API */
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    /** The percentiles reported */
+    private static final double[] PERCENTILES = { 50, 99, 99.9 };
+
+    /** Their names */
+    private static final String[] PERCENTILE_NAMES = { "p50", "p99", "p999" };
+
+    /** The metrics of the regions */
+    private final ConcurrentMap<String, RegionMetrics> regions = new ConcurrentHashMap<>();
+
+    /** Operations slower than this are reported, off if negative */
+    private long slowOperationThresholdMillis = -1;
+
+    /** The threshold in nanoseconds */
+    private volatile long slowOperationThresholdNanos = -1;
+
+    /**
+     * @see org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics#recordLatency(String, CacheType, CacheOperation, long)
+     */
+    @Override
+    public void recordLatency( final String cacheName, final CacheType tier, final CacheOperation operation,
+            final long nanos )
+    {
+        final RegionMetrics region = region( cacheName );
+        region.histogram( tier, operation ).recordValue( nanos );
+
+        final long thresholdNanos = slowOperationThresholdNanos;
+        if ( thresholdNanos >= 0 && nanos >= thresholdNanos )
+        {
+            region.slowOperations.increment();
+            if ( JFR_AVAILABLE )
+            {
+                SlowOperationEvent.emit( cacheName, tier, operation, nanos );
+            }
+        }
+    }
+
+    /**
+     * @see org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics#recordEvictions(String, int)
+     */
+    @Override
+    public void recordEvictions( final String cacheName, final int count )
+    {
+        region( cacheName ).evictions.add( count );
+    }
+
+    /**
+     * @see org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics#registerGauge(String, String, LongSupplier)
+     */
+    @Override
+    public void registerGauge( final String cacheName, final String name, final LongSupplier gauge )
+    {
+        region( cacheName ).gauges.put( name, gauge );
+    }
+
+    /**
+     * @see org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics#unregister(String)
+     */
+    @Override
+    public void unregister( final String cacheName )
+    {
+        regions.remove( cacheName );
+    }
+
+    /**
+     * Reports the count, mean, percentiles and maximum of each latency recorded, the evictions, the
+     * slow operations and the gauges.
+     * <p>
+     * @see org.apache.commons.jcs3.engine.metrics.behavior.ICacheMetrics#getStatElements(String)
+     */
+    @Override
+    public List<IStatElement<?>> getStatElements( final String cacheName )
+    {
+        final RegionMetrics region = regions.get( cacheName );
+        if ( region == null )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<IStatElement<?>> elems = new ArrayList<>();
+        for ( final CacheType tier : CacheType.values() )
+        {
+            for ( final CacheOperation operation : CacheOperation.values() )
+            {
+                final LatencyHistogram histogram = region.histograms.get( RegionMetrics.index( tier, operation ) );
+                if ( histogram == null || histogram.getTotalCount() == 0 )
+                {
+                    continue;
+                }
+
+                final String prefix = operation + " " + tier;
+                elems.add( new StatElement<>( prefix + " Count", Long.valueOf( histogram.getTotalCount() ) ) );
+                elems.add( new StatElement<>( prefix + " Mean (ns)", Long.valueOf( Math.round( histogram.getMean() ) ) ) );
+                for ( int i = 0; i < PERCENTILES.length; i++ )
+                {
+                    elems.add( new StatElement<>( prefix + " " + PERCENTILE_NAMES[i] + " (ns)",
+                            Long.valueOf( histogram.getValueAtPercentile( PERCENTILES[i] ) ) ) );
+                }
+                elems.add( new StatElement<>( prefix + " Max (ns)", Long.valueOf( histogram.getMaxValue() ) ) );
+            }
+        }
+
+        final long evictions = region.evictions.sum();
+        final long elapsedMillis = Math.max( 1, System.currentTimeMillis() - region.createTime );
+        elems.add( new StatElement<>( "Evictions", Long.valueOf( evictions ) ) );
+        elems.add( new StatElement<>( "Evictions Per Second", Double.valueOf( evictions * 1000.0 / elapsedMillis ) ) );
+        elems.add( new StatElement<>( "Slow Operations", Long.valueOf( region.slowOperations.sum() ) ) );
+
+        for ( final Map.Entry<String, LongSupplier> gauge : region.gauges.entrySet() )
+        {
+            elems.add( new StatElement<>( gauge.getKey(), Long.valueOf( gauge.getValue().getAsLong() ) ) );
+        }
+
+        return elems;
+    }
+
+    /**
+     * Gets the histogram of an operation.
+     * <p>
+     * @param cacheName the region
+     * @param tier the type of the cache that served the operation
+     * @param operation the operation
+     * @return the histogram, null if nothing was recorded
+     */
+    public LatencyHistogram getHistogram( final String cacheName, final CacheType tier,
+            final CacheOperation operation )
+    {
+        final RegionMetrics region = regions.get( cacheName );
+        return region == null ? null : region.histograms.get( RegionMetrics.index( tier, operation ) );
+    }
+
+    /**
+     * @param cacheName the region
+     * @return the number of evictions recorded
+     */
+    public long getEvictionCount( final String cacheName )
+    {
+        final RegionMetrics region = regions.get( cacheName );
+        return region == null ? 0 : region.evictions.sum();
+    }
+
+    /**
+     * @param cacheName the region
+     * @return the number of operations slower than the threshold
+     */
+    public long getSlowOperationCount( final String cacheName )
+    {
+        final RegionMetrics region = regions.get( cacheName );
+        return region == null ? 0 : region.slowOperations.sum();
+    }
+
+    /**
+     * @param slowOperationThresholdMillis operations slower than this are reported, off if negative
+     */
+    public void setSlowOperationThresholdMillis( final long slowOperationThresholdMillis )
+    {
+        this.slowOperationThresholdMillis = slowOperationThresholdMillis;
+        this.slowOperationThresholdNanos = slowOperationThresholdMillis < 0 ? -1
+                : TimeUnit.MILLISECONDS.toNanos( slowOperationThresholdMillis );
+    }
+
+    /**
+     * @return the threshold of the slow operations, negative if off
+     */
+    public long getSlowOperationThresholdMillis()
+    {
+        return slowOperationThresholdMillis;
+    }
+
+    /**
+     * Gets the metrics of a region, creating them on first use.
+     * <p>
+     * @param cacheName the region
+     * @return the metrics of the region
+     */
+    private RegionMetrics region( final String cacheName )
+    {
+        final RegionMetrics region = regions.get( cacheName );
+        return region != null ? region : regions.computeIfAbsent( cacheName, name -> new RegionMetrics() );
+    }
+
+    /**
+     * @return whether the jdk.jfr classes can be loaded
+     */
+    private static boolean isJfrAvailable()
+    {
+        try
+        {
+            Class.forName( "jdk.jfr.Event" );
+            return true;
+        }
+        catch ( final ClassNotFoundException | LinkageError e )
+        {
+            log.info( "No flight recorder in this runtime, slow operations will only be counted" );
+            return false;
+        }
+    }
+
+    /**
+     * The metrics of a region. The histograms are created on first use, a region has only a few
+     * tiers.
+     */
+    private static final class RegionMetrics
+    {
+        /** Number of operations */
+        private static final int OPERATION_COUNT = CacheOperation.values().length;
+
+        /** The histograms, indexed by tier and operation */
+        final AtomicReferenceArray<LatencyHistogram> histograms =
+                new AtomicReferenceArray<>( CacheType.values().length * OPERATION_COUNT );
+
+        /** Number of elements evicted from memory */
+        final LongAdder evictions = new LongAdder();
+
+        /** Number of operations slower than the threshold */
+        final LongAdder slowOperations = new LongAdder();
+
+        /** The gauges, sorted by name */
+        final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+        /** When the region was first seen */
+        final long createTime = System.currentTimeMillis();
+
+        /**
+         * @param tier the tier
+         * @param operation the operation
+         * @return the histogram, created if needed
+         */
+        LatencyHistogram histogram( final CacheType tier, final CacheOperation operation )
+        {
+            final int index = index( tier, operation );
+            final LatencyHistogram histogram = histograms.get( index );
+            if ( histogram != null )
+            {
+                return histogram;
+            }
+
+            histograms.compareAndSet( index, null, new LatencyHistogram() );
+            return histograms.get( index );
+        }
+
+        /**
+         * @param tier the tier
+         * @param operation the operation
+         * @return the index of their histogram
+         */
+        static int index( final CacheType tier, final CacheOperation operation )
+        {
+            return tier.ordinal() * OPERATION_COUNT + operation.ordinal();
+        }
+    }
+}
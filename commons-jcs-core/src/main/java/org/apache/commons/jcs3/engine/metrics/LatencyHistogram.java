@@ -0,0 +1,180 @@
+package org.apache.commons.jcs3.engine.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies in nanoseconds.
+ * <p>
+ * The buckets are log-linear, as in HdrHistogram: each power of two is split in 32 buckets, so a
+ * percentile is reported within about 3% of the recorded value, whatever its magnitude. Recording
+ * a value is a few atomic increments and does not allocate.
+ */
+public class LatencyHistogram
+{
+    /** Bits of a value kept by its bucket */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /** Values below this are recorded exactly */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Number of buckets for each power of two */
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;
+
+    /** The largest value tracked, about 18 minutes. Larger values are recorded as this one. */
+    public static final long MAX_VALUE = ( 1L << 40 ) - 1;
+
+    /** The counts of the buckets */
+    private final AtomicLongArray counts = new AtomicLongArray( bucketIndex( MAX_VALUE ) + 1 );
+
+    /** Number of values recorded */
+    private final LongAdder totalCount = new LongAdder();
+
+    /** Sum of the values recorded */
+    private final LongAdder totalSum = new LongAdder();
+
+    /** Largest value recorded */
+    private final LongAccumulator maxValue = new LongAccumulator( Math::max, 0 );
+
+    /**
+     * Records a latency.
+     * <p>
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0
+     */
+    public void recordValue( final long nanos )
+    {
+        final long value = Math.max( 0, Math.min( nanos, MAX_VALUE ) );
+        counts.incrementAndGet( bucketIndex( value ) );
+        totalCount.increment();
+        totalSum.add( value );
+        maxValue.accumulate( value );
+    }
+
+    /**
+     * Gets the value below which the given percentage of the recorded values fall.
+     * <p>
+     * @param percentile between 0 and 100, e.g. 99.9
+     * @return the highest value of the bucket holding the percentile, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile( final double percentile )
+    {
+        final long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for ( int i = 0; i < snapshot.length; i++ )
+        {
+            snapshot[i] = counts.get( i );
+            total += snapshot[i];
+        }
+
+        if ( total == 0 )
+        {
+            return 0;
+        }
+
+        final long target = Math.max( 1, (long) Math.ceil( Math.min( percentile, 100 ) / 100 * total ) );
+        long cumulative = 0;
+        for ( int i = 0; i < snapshot.length; i++ )
+        {
+            cumulative += snapshot[i];
+            if ( cumulative >= target )
+            {
+                return Math.min( highestEquivalentValue( i ), getMaxValue() );
+            }
+        }
+
+        return getMaxValue();
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getTotalCount()
+    {
+        return totalCount.sum();
+    }
+
+    /**
+     * @return the mean of the values recorded, 0 if nothing was recorded
+     */
+    public double getMean()
+    {
+        final long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalSum.sum() / count;
+    }
+
+    /**
+     * @return the largest value recorded
+     */
+    public long getMaxValue()
+    {
+        return maxValue.get();
+    }
+
+    /**
+     * Forgets the values recorded. Values recorded concurrently may be partly kept.
+     */
+    public void reset()
+    {
+        for ( int i = 0; i < counts.length(); i++ )
+        {
+            counts.set( i, 0 );
+        }
+        totalCount.reset();
+        totalSum.reset();
+        maxValue.reset();
+    }
+
+    /**
+     * Gets the bucket of a value: the values below SUB_BUCKET_COUNT have their own bucket, the
+     * others share it with the values having the same SUB_BUCKET_BITS highest bits.
+     * <p>
+     * @param value a value between 0 and MAX_VALUE
+     * @return the index of its bucket
+     */
+    static int bucketIndex( final long value )
+    {
+        if ( value < SUB_BUCKET_COUNT )
+        {
+            return (int) value;
+        }
+
+        final int shift = 64 - Long.numberOfLeadingZeros( value ) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF + (int) ( value >>> shift );
+    }
+
+    /**
+     * @param index the index of a bucket
+     * @return the highest value recorded in this bucket
+     */
+    static long highestEquivalentValue( final int index )
+    {
+        if ( index < SUB_BUCKET_COUNT )
+        {
+            return index;
+        }
+
+        final int shift = index / SUB_BUCKET_HALF - 1;
+        final long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ( ( subBucket + 1 ) << shift ) - 1;
+    }
+}
@@ -0,0 +1,83 @@
+package org.apache.commons.jcs3.engine.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
+import org.apache.commons.jcs3.engine.metrics.behavior.CacheOperation;
+
+/**
+ * Flight recorder event for a cache operation slower than the threshold of the
+ * {@link HistogramCacheMetrics}. The stack trace of the event shows the caller.
+ * <p>
+ * This class is only loaded when the runtime has the flight recorder API.
+ */
+@Name( "org.apache.commons.jcs3.SlowOperation" )
+@Label( "Slow Cache Operation" )
+@Category( "Apache Commons JCS" )
+@Description( "A cache operation that took longer than the configured threshold" )
+public class SlowOperationEvent
+    extends Event
+{
+    /** The region */
+    @Label( "Region" )
+    String region;
+
+    /** The type of the cache that served the operation */
+    @Label( "Tier" )
+    String tier;
+
+    /** The operation */
+    @Label( "Operation" )
+    String operation;
+
+    /** How long it took */
+    @Label( "Latency" )
+    @Timespan( Timespan.NANOSECONDS )
+    long latency;
+
+    /**
+     * Commits an event if the flight recorder is recording them.
+     * <p>
+     * @param cacheName the region
+     * @param tier the type of the cache that served the operation
+     * @param operation the operation
+     * @param nanos how long it took
+     */
+    static void emit( final String cacheName, final CacheType tier, final CacheOperation operation,
+            final long nanos )
+    {
+        final SlowOperationEvent event = new SlowOperationEvent();
+        if ( event.isEnabled() )
+        {
+            event.region = cacheName;
+            event.tier = tier.name();
+            event.operation = operation.name();
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+}
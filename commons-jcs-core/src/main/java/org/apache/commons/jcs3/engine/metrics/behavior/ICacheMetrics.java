@@ -0,0 +1,81 @@
+package org.apache.commons.jcs3.engine.metrics.behavior;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+
+/**
+ * Receives the measurements of the regions. An implementation can keep them itself or hand them
+ * to a metrics library.
+ * <p>
+ * The tier of a measurement is the type of the cache that served it: CACHE_HUB for the region as
+ * a whole, as seen by the caller, and the type of the auxiliary for the calls to an auxiliary.
+ * <p>
+ * The record methods are called on the hot path of the caches, concurrently. They should be cheap
+ * and must not block.
+ */
+public interface ICacheMetrics
+{
+    /**
+     * Records the latency of an operation.
+     * <p>
+     * @param cacheName the region
+     * @param tier the type of the cache that served the operation
+     * @param operation the operation
+     * @param nanos how long it took in nanoseconds
+     */
+    void recordLatency( String cacheName, CacheType tier, CacheOperation operation, long nanos );
+
+    /**
+     * Records elements evicted from the memory cache of a region.
+     * <p>
+     * @param cacheName the region
+     * @param count the number of elements evicted
+     */
+    void recordEvictions( String cacheName, int count );
+
+    /**
+     * Registers a value sampled when the metrics are read, like the depth of a queue.
+     * <p>
+     * @param cacheName the region
+     * @param name the name of the value
+     * @param gauge gives the current value
+     */
+    void registerGauge( String cacheName, String name, LongSupplier gauge );
+
+    /**
+     * Forgets everything about a region. Called when the region is disposed.
+     * <p>
+     * @param cacheName the region
+     */
+    void unregister( String cacheName );
+
+    /**
+     * Gets the metrics of a region, to be shown with its statistics.
+     * <p>
+     * @param cacheName the region
+     * @return the metrics, may be empty
+     */
+    List<IStatElement<?>> getStatElements( String cacheName );
+}
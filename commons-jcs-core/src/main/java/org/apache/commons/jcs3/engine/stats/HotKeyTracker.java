@@ -0,0 +1,584 @@
+package org.apache.commons.jcs3.engine.stats;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.memory.behavior.IWeigher;
+
+/**
+ * Finds the keys of a region taking most of the gets and puts, and the largest values put.
+ * <p>
+ * The accesses are counted with the space-saving algorithm: a fixed number of counters is kept,
+ * and a key without a counter takes over the smallest one, inheriting its count as the possible
+ * overestimate of its own. Any key taking more than one in that number of accesses is sure to have
+ * a counter. Four counters are kept per reported key, so that the keys reported have been counted
+ * for long enough.
+ * <p>
+ * The counters are kept in a stream summary: a list of buckets ordered by count, each holding the
+ * counters with that count. Counting an access moves the counter to the next bucket and finding
+ * the smallest counter takes the first bucket, so neither depends on the number of counters. The
+ * hottest keys are read from the last buckets, without sorting.
+ * <p>
+ * Only one in the sample rate of the accesses is looked at, the others return after drawing a
+ * random number. The counts reported are scaled back up by the rate. The puts looked at are also
+ * weighed, the largest of them being reported with the last size put under their key.
+ * <p>
+ * The hottest keys are also kept in a set refreshed every few sampled accesses, so that the region
+ * can cheaply check whether a key is hot before spooling it.
+ */
+public class HotKeyTracker<K, V>
+{
+    /** Counters kept for each key reported */
+    private static final int COUNTERS_PER_REPORTED_KEY = 4;
+
+    /** Sampled accesses between two refreshes of the hottest keys */
+    private static final int REFRESH_INTERVAL = 64;
+
+    /** The number of keys reported */
+    private final int size;
+
+    /** Look at one in this number of accesses */
+    private final int sampleRate;
+
+    /** Sizes the values put */
+    private final IWeigher<K, V> weigher;
+
+    /** The space-saving counters, at most size * COUNTERS_PER_REPORTED_KEY of them */
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+
+    /** The bucket of the smallest count, null if there are no counters */
+    private Bucket<K> lowest;
+
+    /** The bucket of the highest count, null if there are no counters */
+    private Bucket<K> highest;
+
+    /** The largest values put, at most size of them */
+    private final Map<K, Long> sizes = new HashMap<>();
+
+    /** The keys with the highest counts, at most size of them, replaced on each refresh */
+    private volatile Set<K> hottest = Collections.emptySet();
+
+    /** Sampled accesses since the last refresh of the hottest keys */
+    private int sinceRefresh;
+
+    /**
+     * A counter of the accesses to a key, linked to the other counters of its bucket.
+     */
+    private static class Counter<K>
+    {
+        /** The key counted */
+        K key;
+
+        /** The accesses looked at, including the inherited ones */
+        long count;
+
+        /** The accesses inherited from the key the counter was taken from */
+        long error;
+
+        /** The bucket of the count */
+        Bucket<K> bucket;
+
+        /** The previous counter in the bucket */
+        Counter<K> previous;
+
+        /** The next counter in the bucket */
+        Counter<K> next;
+    }
+
+    /**
+     * The counters with the same count, linked to the buckets of the nearest counts.
+     */
+    private static class Bucket<K>
+    {
+        /** The count of the counters */
+        final long count;
+
+        /** The first counter, never null while the bucket is linked */
+        Counter<K> first;
+
+        /** The bucket of the next lower count */
+        Bucket<K> lower;
+
+        /** The bucket of the next higher count */
+        Bucket<K> higher;
+
+        /**
+         * @param count the count of the counters
+         */
+        Bucket( final long count )
+        {
+            this.count = count;
+        }
+    }
+
+    /**
+     * Constructor for the HotKeyTracker object
+     * <p>
+     * @param size the number of keys and values reported
+     * @param sampleRate look at one in this number of accesses, 1 to look at all of them
+     * @param weigher sizes the values put
+     */
+    public HotKeyTracker( final int size, final int sampleRate, final IWeigher<K, V> weigher )
+    {
+        this.size = Math.max( 1, size );
+        this.sampleRate = Math.max( 1, sampleRate );
+        this.weigher = weigher;
+    }
+
+    /**
+     * Counts a get, if it is sampled.
+     * <p>
+     * @param key the key got
+     */
+    public void recordGet( final K key )
+    {
+        if ( isSampled() )
+        {
+            synchronized ( this )
+            {
+                count( key );
+            }
+        }
+    }
+
+    /**
+     * Counts a put and weighs its value, if it is sampled. The value is weighed outside the lock.
+     * <p>
+     * @param element the element put
+     */
+    public void recordUpdate( final ICacheElement<K, V> element )
+    {
+        if ( isSampled() )
+        {
+            final long weight = weigher.weigh( element );
+            synchronized ( this )
+            {
+                count( element.getKey() );
+                recordSize( element.getKey(), weight );
+            }
+        }
+    }
+
+    /**
+     * Forgets the size of a removed value. Its accesses remain counted.
+     * <p>
+     * @param key the key removed
+     */
+    public synchronized void recordRemove( final K key )
+    {
+        sizes.remove( key );
+    }
+
+    /**
+     * Forgets the sizes of all the values, after the region was cleared.
+     */
+    public synchronized void recordRemoveAll()
+    {
+        sizes.clear();
+    }
+
+    /**
+     * Forgets everything tracked.
+     */
+    public synchronized void reset()
+    {
+        counters.clear();
+        lowest = null;
+        highest = null;
+        sizes.clear();
+        hottest = Collections.emptySet();
+        sinceRefresh = 0;
+    }
+
+    /**
+     * Checks whether a key is among the hottest, as of the last refresh. This does not lock.
+     * <p>
+     * @param key the key
+     * @return true if the key is one of the size hottest keys
+     */
+    public boolean isHot( final K key )
+    {
+        return hottest.contains( key );
+    }
+
+    /**
+     * Gets the keys taking most of the accesses, the most accessed first.
+     * <p>
+     * @return at most size keys with their estimated number of accesses
+     */
+    public List<HotKey<K>> getHotKeys()
+    {
+        final List<HotKey<K>> hotKeys = new ArrayList<>();
+        synchronized ( this )
+        {
+            for ( Bucket<K> bucket = highest; bucket != null && hotKeys.size() < size; bucket = bucket.lower )
+            {
+                for ( Counter<K> counter = bucket.first; counter != null && hotKeys.size() < size; counter = counter.next )
+                {
+                    hotKeys.add( new HotKey<>( counter.key, counter.count * sampleRate, counter.error * sampleRate ) );
+                }
+            }
+        }
+        return hotKeys;
+    }
+
+    /**
+     * Gets the largest values put and not removed since, the largest first.
+     * <p>
+     * @return at most size keys with the size of their value
+     */
+    public List<LargeValue<K>> getLargestValues()
+    {
+        final List<LargeValue<K>> largest = new ArrayList<>();
+        synchronized ( this )
+        {
+            for ( final Map.Entry<K, Long> entry : sizes.entrySet() )
+            {
+                largest.add( new LargeValue<>( entry.getKey(), entry.getValue().longValue() ) );
+            }
+        }
+        largest.sort( ( a, b ) -> Long.compare( b.getSize(), a.getSize() ) );
+        return largest;
+    }
+
+    /**
+     * @return the number of keys and values reported
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @return one in this number of accesses is looked at
+     */
+    public int getSampleRate()
+    {
+        return sampleRate;
+    }
+
+    /**
+     * @return whether to look at this access
+     */
+    private boolean isSampled()
+    {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt( sampleRate ) == 0;
+    }
+
+    /**
+     * Counts an access, taking over the smallest counter if the key has none and all are used.
+     * Called with the lock held.
+     * <p>
+     * @param key the key accessed
+     */
+    private void count( final K key )
+    {
+        Counter<K> counter = counters.get( key );
+        if ( counter == null && counters.size() < size * COUNTERS_PER_REPORTED_KEY )
+        {
+            counter = new Counter<>();
+            counter.key = key;
+            counter.count = 1;
+            counters.put( key, counter );
+            link( counter, null );
+        }
+        else
+        {
+            if ( counter == null )
+            {
+                counter = lowest.first;
+                counters.remove( counter.key );
+                counter.key = key;
+                counter.error = counter.count;
+                counters.put( key, counter );
+            }
+            increment( counter );
+        }
+
+        if ( ++sinceRefresh >= REFRESH_INTERVAL )
+        {
+            sinceRefresh = 0;
+            refreshHottest();
+        }
+    }
+
+    /**
+     * Replaces the set of the hottest keys. A key is left out until it was counted more than once
+     * since it took its counter, so that a region without hot keys does not report cold ones.
+     * Called with the lock held.
+     */
+    private void refreshHottest()
+    {
+        final Set<K> keys = new HashSet<>();
+        int taken = 0;
+        for ( Bucket<K> bucket = highest; bucket != null && taken < size; bucket = bucket.lower )
+        {
+            for ( Counter<K> counter = bucket.first; counter != null && taken < size; counter = counter.next )
+            {
+                taken++;
+                if ( counter.count - counter.error > 1 )
+                {
+                    keys.add( counter.key );
+                }
+            }
+        }
+        hottest = keys;
+    }
+
+    /**
+     * Moves a counter to the bucket of the next count. Called with the lock held.
+     * <p>
+     * @param counter a linked counter
+     */
+    private void increment( final Counter<K> counter )
+    {
+        final Bucket<K> from = counter.bucket;
+        if ( counter.previous == null )
+        {
+            from.first = counter.next;
+        }
+        else
+        {
+            counter.previous.next = counter.next;
+        }
+        if ( counter.next != null )
+        {
+            counter.next.previous = counter.previous;
+        }
+
+        Bucket<K> lower = from;
+        if ( from.first == null )
+        {
+            lower = from.lower;
+            if ( lower == null )
+            {
+                lowest = from.higher;
+            }
+            else
+            {
+                lower.higher = from.higher;
+            }
+            if ( from.higher == null )
+            {
+                highest = lower;
+            }
+            else
+            {
+                from.higher.lower = lower;
+            }
+        }
+
+        counter.count++;
+        link( counter, lower );
+    }
+
+    /**
+     * Adds a counter to the bucket of its count, which is the bucket after the given one or a new
+     * bucket inserted there. Called with the lock held.
+     * <p>
+     * @param counter an unlinked counter
+     * @param lower the bucket of a lower count before the bucket of the counter, null for the first
+     */
+    private void link( final Counter<K> counter, final Bucket<K> lower )
+    {
+        Bucket<K> bucket = lower == null ? lowest : lower.higher;
+        if ( bucket == null || bucket.count != counter.count )
+        {
+            final Bucket<K> inserted = new Bucket<>( counter.count );
+            inserted.lower = lower;
+            inserted.higher = bucket;
+            if ( lower == null )
+            {
+                lowest = inserted;
+            }
+            else
+            {
+                lower.higher = inserted;
+            }
+            if ( bucket == null )
+            {
+                highest = inserted;
+            }
+            else
+            {
+                bucket.lower = inserted;
+            }
+            bucket = inserted;
+        }
+
+        counter.bucket = bucket;
+        counter.previous = null;
+        counter.next = bucket.first;
+        if ( bucket.first != null )
+        {
+            bucket.first.previous = counter;
+        }
+        bucket.first = counter;
+    }
+
+    /**
+     * Keeps the size of a value if it is among the largest. Called with the lock held.
+     * <p>
+     * @param key the key put
+     * @param weight the size of its value
+     */
+    private void recordSize( final K key, final long weight )
+    {
+        if ( sizes.containsKey( key ) || sizes.size() < size )
+        {
+            sizes.put( key, Long.valueOf( weight ) );
+            return;
+        }
+
+        Map.Entry<K, Long> smallest = null;
+        for ( final Map.Entry<K, Long> entry : sizes.entrySet() )
+        {
+            if ( smallest == null || entry.getValue().longValue() < smallest.getValue().longValue() )
+            {
+                smallest = entry;
+            }
+        }
+        if ( smallest != null && smallest.getValue().longValue() < weight )
+        {
+            sizes.remove( smallest.getKey() );
+            sizes.put( key, Long.valueOf( weight ) );
+        }
+    }
+
+    /**
+     * A key with its estimated number of accesses.
+     */
+    public static class HotKey<K>
+    {
+        /** The key */
+        private final K key;
+
+        /** The estimated accesses */
+        private final long count;
+
+        /** By how much the estimate may exceed the real number */
+        private final long error;
+
+        /**
+         * Constructor for the HotKey object
+         * <p>
+         * @param key the key
+         * @param count the estimated accesses
+         * @param error by how much the estimate may exceed the real number
+         */
+        public HotKey( final K key, final long count, final long error )
+        {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * @return the key
+         */
+        public K getKey()
+        {
+            return key;
+        }
+
+        /**
+         * @return the estimated number of accesses
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return by how much the count may exceed the real number of accesses
+         */
+        public long getError()
+        {
+            return error;
+        }
+
+        /**
+         * @return key=count
+         */
+        @Override
+        public String toString()
+        {
+            return key + "=" + count;
+        }
+    }
+
+    /**
+     * A key with the size of its value.
+     */
+    public static class LargeValue<K>
+    {
+        /** The key */
+        private final K key;
+
+        /** The size of the value */
+        private final long size;
+
+        /**
+         * Constructor for the LargeValue object
+         * <p>
+         * @param key the key
+         * @param size the size of the value in bytes
+         */
+        public LargeValue( final K key, final long size )
+        {
+            this.key = key;
+            this.size = size;
+        }
+
+        /**
+         * @return the key
+         */
+        public K getKey()
+        {
+            return key;
+        }
+
+        /**
+         * @return the estimated size of the value in bytes
+         */
+        public long getSize()
+        {
+            return size;
+        }
+
+        /**
+         * @return key=size
+         */
+        @Override
+        public String toString()
+        {
+            return key + "=" + size;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.apache.commons.jcs3.engine.stats;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A statistics counter incremented on the hot paths of the caches, such as the hit and miss
+ * counts.
+ * <p>
+ * The count is striped over a {@link LongAdder}, so that threads incrementing it concurrently do
+ * not contend on a single cache line. It is only summed when it is read.
+ * <p>
+ * The system property <code>jcs.stats.sampleRate</code> turns on sampling: with a rate of N, an
+ * increment is counted once in N times, as N. The counts are then estimates, but most increments
+ * do not write at all. The default rate of 1 counts every increment.
+ */
+public class StatCounter
+{
+    /** The system property setting the sample rate */
+    public static final String SAMPLE_RATE_PROPERTY = "jcs.stats.sampleRate";
+
+    /** The sample rate of the counters */
+    private static final int SAMPLE_RATE = Math.max( 1, Integer.getInteger( SAMPLE_RATE_PROPERTY, 1 ).intValue() );
+
+    /** The striped count */
+    private final LongAdder count = new LongAdder();
+
+    /** Count once in this number of increments */
+    private final int sampleRate;
+
+    /**
+     * Constructor for the StatCounter object, with the sample rate of the system property
+     */
+    public StatCounter()
+    {
+        this( SAMPLE_RATE );
+    }
+
+    /**
+     * Constructor for the StatCounter object
+     * <p>
+     * @param sampleRate count once in this number of increments, 1 to count all of them
+     */
+    public StatCounter( final int sampleRate )
+    {
+        this.sampleRate = Math.max( 1, sampleRate );
+    }
+
+    /**
+     * Adds one, or the sample rate once in that number of calls.
+     */
+    public void increment()
+    {
+        if ( sampleRate == 1 )
+        {
+            count.increment();
+        }
+        else if ( ThreadLocalRandom.current().nextInt( sampleRate ) == 0 )
+        {
+            count.add( sampleRate );
+        }
+    }
+
+    /**
+     * Adds a number of events counted at once, such as the misses of a bulk get. They are not
+     * sampled.
+     * <p>
+     * @param n the number to add
+     */
+    public void add( final long n )
+    {
+        count.add( n );
+    }
+
+    /**
+     * @return the count, summed now
+     */
+    public long get()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Sets the count back to 0.
+     */
+    public void reset()
+    {
+        count.reset();
+    }
+
+    /**
+     * @return the sample rate, 1 if every increment is counted
+     */
+    public int getSampleRate()
+    {
+        return sampleRate;
+    }
+
+    /**
+     * @return the count
+     */
+    @Override
+    public String toString()
+    {
+        return Long.toString( get() );
+    }
+}
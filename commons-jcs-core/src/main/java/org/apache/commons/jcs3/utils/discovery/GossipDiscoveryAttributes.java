@@ -0,0 +1,226 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Configuration properties for the gossip discovery service.
+ */
+public final class GossipDiscoveryAttributes
+    implements Cloneable
+{
+    /** default time between two probes */
+    private static final int DEFAULT_PROBE_INTERVAL_MILLIS = 1000;
+
+    /** default time to wait for a direct ack */
+    private static final int DEFAULT_PROBE_TIMEOUT_MILLIS = 300;
+
+    /** default number of members asked to probe indirectly */
+    private static final int DEFAULT_INDIRECT_PROBES = 3;
+
+    /** default number of probe intervals a member stays suspected */
+    private static final int DEFAULT_SUSPICION_PERIODS = 5;
+
+    /** service address */
+    private String serviceAddress;
+
+    /** service port */
+    private int servicePort;
+
+    /** the udp port the gossip runs on */
+    private int gossipPort;
+
+    /** comma separated host:port list of members to join through */
+    private String seeds = "";
+
+    /** time between two probes */
+    private int probeIntervalMillis = DEFAULT_PROBE_INTERVAL_MILLIS;
+
+    /** time to wait for a direct ack before asking others to probe */
+    private int probeTimeoutMillis = DEFAULT_PROBE_TIMEOUT_MILLIS;
+
+    /** number of members asked to probe indirectly */
+    private int indirectProbes = DEFAULT_INDIRECT_PROBES;
+
+    /** number of probe intervals a member stays suspected before it is declared dead */
+    private int suspicionPeriods = DEFAULT_SUSPICION_PERIODS;
+
+    /**
+     * @param serviceAddress The serviceAddress to set.
+     */
+    public void setServiceAddress( final String serviceAddress )
+    {
+        this.serviceAddress = serviceAddress;
+    }
+
+    /**
+     * @return Returns the serviceAddress.
+     */
+    public String getServiceAddress()
+    {
+        return serviceAddress;
+    }
+
+    /**
+     * @param servicePort The servicePort to set.
+     */
+    public void setServicePort( final int servicePort )
+    {
+        this.servicePort = servicePort;
+    }
+
+    /**
+     * @return Returns the servicePort.
+     */
+    public int getServicePort()
+    {
+        return servicePort;
+    }
+
+    /**
+     * @param gossipPort The udp port the gossip runs on.
+     */
+    public void setGossipPort( final int gossipPort )
+    {
+        this.gossipPort = gossipPort;
+    }
+
+    /**
+     * @return Returns the udp port the gossip runs on.
+     */
+    public int getGossipPort()
+    {
+        return gossipPort;
+    }
+
+    /**
+     * @param seeds comma separated host:port list of members to join through
+     */
+    public void setSeeds( final String seeds )
+    {
+        this.seeds = seeds;
+    }
+
+    /**
+     * @return comma separated host:port list of members to join through
+     */
+    public String getSeeds()
+    {
+        return seeds;
+    }
+
+    /**
+     * @param probeIntervalMillis The time between two probes.
+     */
+    public void setProbeIntervalMillis( final int probeIntervalMillis )
+    {
+        this.probeIntervalMillis = probeIntervalMillis;
+    }
+
+    /**
+     * @return Returns the time between two probes.
+     */
+    public int getProbeIntervalMillis()
+    {
+        return probeIntervalMillis;
+    }
+
+    /**
+     * @param probeTimeoutMillis The time to wait for a direct ack.
+     */
+    public void setProbeTimeoutMillis( final int probeTimeoutMillis )
+    {
+        this.probeTimeoutMillis = probeTimeoutMillis;
+    }
+
+    /**
+     * @return Returns the time to wait for a direct ack.
+     */
+    public int getProbeTimeoutMillis()
+    {
+        return probeTimeoutMillis;
+    }
+
+    /**
+     * @param indirectProbes The number of members asked to probe indirectly.
+     */
+    public void setIndirectProbes( final int indirectProbes )
+    {
+        this.indirectProbes = indirectProbes;
+    }
+
+    /**
+     * @return Returns the number of members asked to probe indirectly.
+     */
+    public int getIndirectProbes()
+    {
+        return indirectProbes;
+    }
+
+    /**
+     * @param suspicionPeriods The number of probe intervals a member stays suspected.
+     */
+    public void setSuspicionPeriods( final int suspicionPeriods )
+    {
+        this.suspicionPeriods = suspicionPeriods;
+    }
+
+    /**
+     * @return Returns the number of probe intervals a member stays suspected.
+     */
+    public int getSuspicionPeriods()
+    {
+        return suspicionPeriods;
+    }
+
+    /** @return a clone of this object */
+    @Override
+    public GossipDiscoveryAttributes clone()
+    {
+        final GossipDiscoveryAttributes attributes = new GossipDiscoveryAttributes();
+        attributes.setServiceAddress( this.getServiceAddress() );
+        attributes.setServicePort( this.getServicePort() );
+        attributes.setGossipPort( this.getGossipPort() );
+        attributes.setSeeds( this.getSeeds() );
+        attributes.setProbeIntervalMillis( this.getProbeIntervalMillis() );
+        attributes.setProbeTimeoutMillis( this.getProbeTimeoutMillis() );
+        attributes.setIndirectProbes( this.getIndirectProbes() );
+        attributes.setSuspicionPeriods( this.getSuspicionPeriods() );
+        return attributes;
+    }
+
+    /**
+     * @return string for debugging purposes.
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder buf = new StringBuilder();
+        buf.append( "\n GossipDiscoveryAttributes" );
+        buf.append( "\n ServiceAddress = [" + getServiceAddress() + "]" );
+        buf.append( "\n ServicePort = [" + getServicePort() + "]" );
+        buf.append( "\n GossipPort = [" + getGossipPort() + "]" );
+        buf.append( "\n Seeds = [" + getSeeds() + "]" );
+        buf.append( "\n ProbeIntervalMillis = [" + getProbeIntervalMillis() + "]" );
+        buf.append( "\n ProbeTimeoutMillis = [" + getProbeTimeoutMillis() + "]" );
+        buf.append( "\n IndirectProbes = [" + getIndirectProbes() + "]" );
+        buf.append( "\n SuspicionPeriods = [" + getSuspicionPeriods() + "]" );
+        return buf.toString();
+    }
+}
@@ -0,0 +1,845 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.jcs3.engine.behavior.IRequireScheduler;
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.discovery.GossipMember.Status;
+import org.apache.commons.jcs3.utils.discovery.GossipMessage.Type;
+import org.apache.commons.jcs3.utils.discovery.behavior.IDiscoveryListener;
+import org.apache.commons.jcs3.utils.discovery.behavior.IDiscoveryService;
+import org.apache.commons.jcs3.utils.net.HostNameUtil;
+
+/**
+ * Finds the other caches of a cluster with a SWIM style gossip protocol over unicast UDP. It
+ * works where multicast is not available, and its load per member does not grow with the size of
+ * the cluster.
+ * <p>
+ * A new member joins by pinging the configured seeds. Once per probe interval each member pings
+ * the next member of a shuffled list. If no ack comes back within the probe timeout, a few other
+ * members are asked to ping it too. If still no ack arrives before the next probe, the member is
+ * suspected. A suspected member that does not refute within the suspicion periods is declared
+ * dead and removed.
+ * <p>
+ * Membership changes are not sent separately, but piggybacked on the pings and acks, each a
+ * limited number of times.
+ */
+public class GossipDiscoveryService
+    implements IDiscoveryService, IRequireScheduler
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( GossipDiscoveryService.class );
+
+    /** Most updates piggybacked on one message */
+    private static final int MAX_PIGGYBACK = 6;
+
+    /** Each update is sent this many times the log of the cluster size */
+    private static final int DISSEMINATION_FACTOR = 3;
+
+    /** Probe intervals a dead member is remembered, so that old news does not revive it */
+    private static final int DEAD_RETENTION_PERIODS = 60;
+
+    /** Largest UDP payload */
+    private static final int MAX_PACKET_SIZE = 65507;
+
+    /** An outstanding ping of ours. */
+    private static class Probe
+    {
+        /** The probed member */
+        final GossipMember target;
+
+        /** The sequence number of the ping */
+        final long sequence;
+
+        /** Set when an ack arrived */
+        volatile boolean acked;
+
+        /**
+         * @param target the probed member
+         * @param sequence the sequence number of the ping
+         */
+        Probe( final GossipMember target, final long sequence )
+        {
+            this.target = target;
+            this.sequence = sequence;
+        }
+    }
+
+    /** A ping we send for another member. */
+    private static class Relay
+    {
+        /** Who asked */
+        final InetSocketAddress requester;
+
+        /** The sequence number of its probe */
+        final long sequence;
+
+        /** When it asked */
+        final long time;
+
+        /**
+         * @param requester who asked
+         * @param sequence the sequence number of its probe
+         * @param time when it asked
+         */
+        Relay( final InetSocketAddress requester, final long sequence, final long time )
+        {
+            this.requester = requester;
+            this.sequence = sequence;
+            this.time = time;
+        }
+    }
+
+    /** attributes */
+    private final GossipDiscoveryAttributes attributes;
+
+    /** is this shut down? */
+    private final AtomicBoolean shutdown = new AtomicBoolean( false );
+
+    /** This a list of regions that are configured to use discovery. */
+    private final Set<String> cacheNames = new CopyOnWriteArraySet<>();
+
+    /** This is a set of services that have been discovered. */
+    private final Set<DiscoveredService> discoveredServices = new CopyOnWriteArraySet<>();
+
+    /** Set of listeners. */
+    private final Set<IDiscoveryListener> discoveryListeners = new CopyOnWriteArraySet<>();
+
+    /** What we tell the others about ourselves, guarded by this */
+    private GossipMember self;
+
+    /** The other members by id, guarded by this */
+    private final Map<String, GossipMember> members = new HashMap<>();
+
+    /** When the status of each member last changed, guarded by this */
+    private final Map<String, Long> statusTimes = new HashMap<>();
+
+    /** Member ids whose news is still to be piggybacked, with the number of sends left, guarded by this */
+    private final Map<String, Integer> disseminations = new LinkedHashMap<>();
+
+    /** The members in probe order, guarded by this */
+    private final List<String> probeOrder = new ArrayList<>();
+
+    /** The next member to probe, guarded by this */
+    private int probeIndex;
+
+    /** The probe of the current interval, guarded by this */
+    private Probe currentProbe;
+
+    /** Our outstanding pings by sequence number */
+    private final Map<Long, Probe> probes = new ConcurrentHashMap<>();
+
+    /** The pings we send for others by sequence number */
+    private final Map<Long, Relay> relays = new ConcurrentHashMap<>();
+
+    /** The last sequence number */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** The socket */
+    private DatagramSocket socket;
+
+    /** thread that listens for messages */
+    private Thread receiverThread;
+
+    /** Used to time out the direct pings */
+    private ScheduledExecutorService scheduler;
+
+    /** Handle to cancel the scheduled probe task */
+    private ScheduledFuture<?> probeTaskFuture;
+
+    /**
+     * @param attributes the configuration
+     */
+    public GossipDiscoveryService( final GossipDiscoveryAttributes attributes )
+    {
+        this.attributes = attributes.clone();
+
+        if ( this.attributes.getServiceAddress() == null )
+        {
+            try
+            {
+                this.attributes.setServiceAddress( HostNameUtil.getLocalHostAddress() );
+            }
+            catch ( final UnknownHostException e )
+            {
+                log.error( "Couldn't get localhost address", e );
+            }
+        }
+
+        this.self = new GossipMember( this.attributes.getServiceAddress(), this.attributes.getGossipPort(),
+                this.attributes.getServicePort(), System.currentTimeMillis(), Status.ALIVE, new ArrayList<>() );
+    }
+
+    /**
+     * @see org.apache.commons.jcs3.engine.behavior.IRequireScheduler#setScheduledExecutorService(java.util.concurrent.ScheduledExecutorService)
+     */
+    @Override
+    public void setScheduledExecutorService( final ScheduledExecutorService scheduledExecutor )
+    {
+        this.scheduler = scheduledExecutor;
+        this.probeTaskFuture = scheduledExecutor.scheduleAtFixedRate( this::probe,
+                attributes.getProbeIntervalMillis(), attributes.getProbeIntervalMillis(), TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Opens the socket, starts the receiver thread and pings the seeds.
+     */
+    @Override
+    public void startup()
+    {
+        try
+        {
+            socket = new DatagramSocket( attributes.getGossipPort() );
+        }
+        catch ( final IOException e )
+        {
+            log.error( "Could not bind gossip discovery to port [{0}], we won't be able to find any other caches",
+                    attributes.getGossipPort(), e );
+            return;
+        }
+
+        synchronized ( this )
+        {
+            // an ephemeral port is only known now
+            self = new GossipMember( self.host, socket.getLocalPort(), self.servicePort, self.incarnation,
+                    self.status, self.cacheNames );
+        }
+        log.info( "Gossip discovery started as {0}", self );
+
+        receiverThread = new Thread( this::receive, "JCS-GossipDiscoveryReceiver-" + socket.getLocalPort() );
+        receiverThread.setDaemon( true );
+        receiverThread.start();
+
+        join();
+    }
+
+    /**
+     * Adds a region to the list that is participating in discovery. The others learn about it
+     * through the gossip.
+     * <p>
+     * @param cacheName
+     */
+    @Override
+    public void addParticipatingCacheName( final String cacheName )
+    {
+        if ( cacheNames.add( cacheName ) )
+        {
+            synchronized ( this )
+            {
+                self = new GossipMember( self.host, self.gossipPort, self.servicePort, self.incarnation + 1,
+                        Status.ALIVE, new ArrayList<>( cacheNames ) );
+                disseminate( self.getId() );
+            }
+        }
+    }
+
+    /**
+     * @return the udp port the gossip runs on
+     */
+    public synchronized int getGossipPort()
+    {
+        return self.gossipPort;
+    }
+
+    /**
+     * Leaves the cluster and closes the socket.
+     */
+    @Override
+    public void shutdown()
+    {
+        stop( true );
+    }
+
+    /**
+     * Stops the service.
+     * <p>
+     * @param leave if the others should be told that we leave, else they find out by probing
+     */
+    void stop( final boolean leave )
+    {
+        if ( shutdown.compareAndSet( false, true ) )
+        {
+            if ( probeTaskFuture != null )
+            {
+                probeTaskFuture.cancel( false );
+            }
+
+            if ( socket == null )
+            {
+                return;
+            }
+
+            if ( leave )
+            {
+                final List<GossipMember> others;
+                final GossipMessage message;
+                synchronized ( this )
+                {
+                    self = self.with( Status.DEAD, self.incarnation );
+                    message = createMessage( Type.ACK, -1, null, 0 );
+                    others = new ArrayList<>( members.values() );
+                }
+                for ( final GossipMember member : others )
+                {
+                    if ( member.status != Status.DEAD )
+                    {
+                        send( member.host, member.gossipPort, message );
+                    }
+                }
+            }
+
+            log.info( "Shutting down gossip discovery service {0}", self );
+            socket.close();
+            receiverThread.interrupt();
+        }
+        else
+        {
+            log.debug( "Shutdown already called." );
+        }
+    }
+
+    /**
+     * @return Returns the discoveredServices.
+     */
+    @Override
+    public Set<DiscoveredService> getDiscoveredServices()
+    {
+        return discoveredServices;
+    }
+
+    /**
+     * Adds a listener. The listener is told about the services known so far, also if it was
+     * already in the set, so that regions configured later get them too.
+     * <p>
+     * @param listener
+     * @return true if it wasn't already in the set
+     */
+    @Override
+    public boolean addDiscoveryListener( final IDiscoveryListener listener )
+    {
+        final boolean added = discoveryListeners.add( listener );
+        for ( final DiscoveredService service : discoveredServices )
+        {
+            listener.addDiscoveredService( service );
+        }
+        return added;
+    }
+
+    /**
+     * Removes a listener.
+     * <p>
+     * @param listener
+     * @return true if it was in the set
+     */
+    @Override
+    public boolean removeDiscoveryListener( final IDiscoveryListener listener )
+    {
+        return discoveryListeners.remove( listener );
+    }
+
+    /**
+     * Pings the seeds, so that they add us and tell us about the others.
+     */
+    protected void join()
+    {
+        final String seeds = attributes.getSeeds();
+        if ( seeds == null || seeds.trim().isEmpty() )
+        {
+            return;
+        }
+
+        final GossipMessage message;
+        synchronized ( this )
+        {
+            message = createMessage( Type.PING, 0, null, 0 );
+        }
+        for ( final String seed : seeds.split( "\\s*,\\s*" ) )
+        {
+            final int colon = seed.lastIndexOf( ':' );
+            if ( colon <= 0 )
+            {
+                log.warn( "Ignoring seed [{0}], expected host:port", seed );
+                continue;
+            }
+            final String host = seed.substring( 0, colon ).trim();
+            final int port = Integer.parseInt( seed.substring( colon + 1 ).trim() );
+            if ( port != getGossipPort() || !host.equals( message.sender.host ) )
+            {
+                send( host, port, message );
+            }
+        }
+    }
+
+    /**
+     * Runs once per probe interval. Suspects the member that did not answer the last probe,
+     * declares expired suspects dead, and probes the next member.
+     */
+    protected void probe()
+    {
+        if ( shutdown.get() || socket == null )
+        {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        final List<DiscoveredService> removed = new ArrayList<>();
+        final Probe probe;
+        final GossipMessage ping;
+        synchronized ( this )
+        {
+            if ( currentProbe != null )
+            {
+                probes.remove( Long.valueOf( currentProbe.sequence ) );
+                if ( !currentProbe.acked )
+                {
+                    suspect( currentProbe.target.getId(), now );
+                }
+                currentProbe = null;
+            }
+
+            expire( now, removed );
+
+            final GossipMember target = nextTarget();
+            if ( target == null )
+            {
+                probe = null;
+                ping = null;
+            }
+            else
+            {
+                probe = new Probe( target, sequence.incrementAndGet() );
+                probes.put( Long.valueOf( probe.sequence ), probe );
+                currentProbe = probe;
+                ping = createMessage( Type.PING, probe.sequence, null, 0 );
+            }
+        }
+
+        notifyListeners( Collections.emptyList(), removed );
+
+        if ( probe == null )
+        {
+            // alone, try the seeds again
+            join();
+            return;
+        }
+
+        send( probe.target.host, probe.target.gossipPort, ping );
+        scheduler.schedule( () -> probeIndirectly( probe ), attributes.getProbeTimeoutMillis(),
+                TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Asks some other members to ping the target of a probe that was not answered in time.
+     * <p>
+     * @param probe the probe
+     */
+    private void probeIndirectly( final Probe probe )
+    {
+        if ( probe.acked || shutdown.get() )
+        {
+            return;
+        }
+
+        final List<GossipMember> helpers = new ArrayList<>();
+        final GossipMessage request;
+        synchronized ( this )
+        {
+            for ( final GossipMember member : members.values() )
+            {
+                if ( member.status != Status.DEAD && !member.getId().equals( probe.target.getId() ) )
+                {
+                    helpers.add( member );
+                }
+            }
+            request = createMessage( Type.PING_REQ, probe.sequence, probe.target.host, probe.target.gossipPort );
+        }
+
+        Collections.shuffle( helpers, ThreadLocalRandom.current() );
+        log.debug( "No ack from {0}, asking {1} members to probe",
+                probe.target, Math.min( helpers.size(), attributes.getIndirectProbes() ) );
+        for ( int i = 0; i < helpers.size() && i < attributes.getIndirectProbes(); i++ )
+        {
+            send( helpers.get( i ).host, helpers.get( i ).gossipPort, request );
+        }
+    }
+
+    /** Receives messages until the service is shut down. */
+    private void receive()
+    {
+        final byte[] buffer = new byte[MAX_PACKET_SIZE];
+        while ( !shutdown.get() )
+        {
+            final DatagramPacket packet = new DatagramPacket( buffer, buffer.length );
+            try
+            {
+                socket.receive( packet );
+            }
+            catch ( final IOException e )
+            {
+                if ( !shutdown.get() )
+                {
+                    log.error( "Error receiving gossip packet", e );
+                }
+                continue;
+            }
+
+            try
+            {
+                final GossipMessage message =
+                    GossipMessage.fromByteArray( buffer, packet.getOffset(), packet.getLength() );
+                handleMessage( message, (InetSocketAddress) packet.getSocketAddress() );
+            }
+            catch ( final IOException e )
+            {
+                log.warn( "Ignoring packet from address [{0}]: {1}", packet.getSocketAddress(), e.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * Applies the news of a message and answers it.
+     * <p>
+     * @param message the message
+     * @param from where it came from
+     */
+    protected void handleMessage( final GossipMessage message, final InetSocketAddress from )
+    {
+        final List<DiscoveredService> added = new ArrayList<>();
+        final List<DiscoveredService> removed = new ArrayList<>();
+        GossipMessage reply = null;
+        InetSocketAddress replyTo = from;
+
+        synchronized ( this )
+        {
+            final GossipMember known = members.get( message.sender.getId() );
+            apply( message.sender, added, removed );
+            if ( message.sender.status == Status.ALIVE && ( known == null || known.status == Status.DEAD ) )
+            {
+                // a newcomer, tell it about everybody
+                log.info( "Member joined: {0}", message.sender );
+                for ( final Map.Entry<String, GossipMember> entry : members.entrySet() )
+                {
+                    if ( entry.getValue().status != Status.DEAD )
+                    {
+                        disseminate( entry.getKey() );
+                    }
+                }
+                disseminate( self.getId() );
+            }
+            for ( final GossipMember update : message.updates )
+            {
+                apply( update, added, removed );
+            }
+
+            switch ( message.type )
+            {
+                case PING:
+                    reply = createMessage( Type.ACK, message.sequence, null, 0 );
+                    break;
+                case PING_REQ:
+                    final long relaySequence = sequence.incrementAndGet();
+                    relays.put( Long.valueOf( relaySequence ),
+                            new Relay( from, message.sequence, System.currentTimeMillis() ) );
+                    reply = createMessage( Type.PING, relaySequence, null, 0 );
+                    replyTo = new InetSocketAddress( message.targetHost, message.targetPort );
+                    break;
+                default:
+                    final Probe probe = probes.get( Long.valueOf( message.sequence ) );
+                    if ( probe != null )
+                    {
+                        probe.acked = true;
+                    }
+                    final Relay relay = relays.remove( Long.valueOf( message.sequence ) );
+                    if ( relay != null )
+                    {
+                        reply = createMessage( Type.ACK, relay.sequence, null, 0 );
+                        replyTo = relay.requester;
+                    }
+                    break;
+            }
+        }
+
+        notifyListeners( added, removed );
+
+        if ( reply != null && !shutdown.get() )
+        {
+            send( replyTo, reply );
+        }
+    }
+
+    /**
+     * Applies news about a member. Must be called while holding the lock.
+     * <p>
+     * @param update the news
+     * @param added collects the services to add
+     * @param removed collects the services to remove
+     */
+    private void apply( final GossipMember update, final List<DiscoveredService> added,
+                        final List<DiscoveredService> removed )
+    {
+        final String id = update.getId();
+        if ( id.equals( self.getId() ) )
+        {
+            if ( update.status != Status.ALIVE && update.incarnation >= self.incarnation && !shutdown.get() )
+            {
+                log.info( "Refuting {0}", update );
+                self = self.with( Status.ALIVE, update.incarnation + 1 );
+                disseminate( id );
+            }
+            return;
+        }
+
+        final GossipMember known = members.get( id );
+        if ( !update.overrides( known ) )
+        {
+            return;
+        }
+
+        members.put( id, update );
+        statusTimes.put( id, Long.valueOf( System.currentTimeMillis() ) );
+        disseminate( id );
+
+        if ( update.status == Status.DEAD )
+        {
+            if ( known != null && known.status != Status.DEAD )
+            {
+                log.info( "Member left or died: {0}", update );
+                removed.add( known.toDiscoveredService() );
+            }
+        }
+        else if ( known == null || known.status == Status.DEAD || known.servicePort != update.servicePort
+            || !known.cacheNames.equals( update.cacheNames ) )
+        {
+            added.add( update.toDiscoveredService() );
+        }
+    }
+
+    /**
+     * Suspects a member that did not answer. Must be called while holding the lock.
+     * <p>
+     * @param id the member id
+     * @param now the time
+     */
+    private void suspect( final String id, final long now )
+    {
+        final GossipMember known = members.get( id );
+        if ( known != null && known.status == Status.ALIVE )
+        {
+            log.info( "Suspecting {0}", known );
+            members.put( id, known.with( Status.SUSPECT, known.incarnation ) );
+            statusTimes.put( id, Long.valueOf( now ) );
+            disseminate( id );
+        }
+    }
+
+    /**
+     * Declares expired suspects dead and forgets old dead members and relays. Must be called while
+     * holding the lock.
+     * <p>
+     * @param now the time
+     * @param removed collects the services to remove
+     */
+    private void expire( final long now, final List<DiscoveredService> removed )
+    {
+        final long suspicionMillis = (long) attributes.getSuspicionPeriods() * attributes.getProbeIntervalMillis();
+        final long retentionMillis = (long) DEAD_RETENTION_PERIODS * attributes.getProbeIntervalMillis();
+
+        for ( final Iterator<Map.Entry<String, GossipMember>> it = members.entrySet().iterator(); it.hasNext(); )
+        {
+            final Map.Entry<String, GossipMember> entry = it.next();
+            final GossipMember member = entry.getValue();
+            final long since = now - statusTimes.get( entry.getKey() ).longValue();
+            if ( member.status == Status.SUSPECT && since > suspicionMillis )
+            {
+                log.info( "Declaring dead {0}", member );
+                entry.setValue( member.with( Status.DEAD, member.incarnation ) );
+                statusTimes.put( entry.getKey(), Long.valueOf( now ) );
+                disseminate( entry.getKey() );
+                removed.add( member.toDiscoveredService() );
+            }
+            else if ( member.status == Status.DEAD && since > retentionMillis )
+            {
+                it.remove();
+                statusTimes.remove( entry.getKey() );
+                disseminations.remove( entry.getKey() );
+            }
+        }
+
+        relays.values().removeIf( relay -> now - relay.time > 2L * attributes.getProbeIntervalMillis() );
+    }
+
+    /**
+     * Picks the next member to probe, going round a shuffled list. Must be called while holding
+     * the lock.
+     * <p>
+     * @return the member, or null if we know no live member
+     */
+    private GossipMember nextTarget()
+    {
+        for ( int round = 0; round < 2; round++ )
+        {
+            while ( probeIndex < probeOrder.size() )
+            {
+                final GossipMember member = members.get( probeOrder.get( probeIndex++ ) );
+                if ( member != null && member.status != Status.DEAD )
+                {
+                    return member;
+                }
+            }
+
+            probeOrder.clear();
+            probeOrder.addAll( members.keySet() );
+            Collections.shuffle( probeOrder, ThreadLocalRandom.current() );
+            probeIndex = 0;
+        }
+        return null;
+    }
+
+    /**
+     * Queues the news about a member for piggybacking. Must be called while holding the lock.
+     * <p>
+     * @param id the member id
+     */
+    private void disseminate( final String id )
+    {
+        final int clusterSize = members.size() + 1;
+        final int log2 = 32 - Integer.numberOfLeadingZeros( clusterSize );
+        disseminations.put( id, Integer.valueOf( DISSEMINATION_FACTOR * log2 ) );
+    }
+
+    /**
+     * Creates a message with our own state and the news to piggyback. Must be called while holding
+     * the lock.
+     * <p>
+     * @param type the kind of message
+     * @param sequenceNumber the sequence number
+     * @param targetHost the host to ping for a PING_REQ
+     * @param targetPort the gossip port to ping for a PING_REQ
+     * @return the message
+     */
+    private GossipMessage createMessage( final Type type, final long sequenceNumber, final String targetHost,
+                                         final int targetPort )
+    {
+        final List<GossipMember> updates = new ArrayList<>();
+        final Set<String> sent = new HashSet<>();
+        for ( final Iterator<Map.Entry<String, Integer>> it = disseminations.entrySet().iterator();
+              it.hasNext() && updates.size() < MAX_PIGGYBACK; )
+        {
+            final Map.Entry<String, Integer> entry = it.next();
+            final GossipMember member = entry.getKey().equals( self.getId() ) ? self : members.get( entry.getKey() );
+            if ( member != null && sent.add( entry.getKey() ) )
+            {
+                updates.add( member );
+            }
+
+            final int left = entry.getValue().intValue() - 1;
+            if ( left <= 0 || member == null )
+            {
+                it.remove();
+            }
+            else
+            {
+                entry.setValue( Integer.valueOf( left ) );
+            }
+        }
+
+        return new GossipMessage( type, sequenceNumber, self, targetHost, targetPort, updates );
+    }
+
+    /**
+     * @param host the host
+     * @param port the gossip port
+     * @param message the message
+     */
+    private void send( final String host, final int port, final GossipMessage message )
+    {
+        send( new InetSocketAddress( host, port ), message );
+    }
+
+    /**
+     * @param address where to send it
+     * @param message the message
+     */
+    private void send( final InetSocketAddress address, final GossipMessage message )
+    {
+        try
+        {
+            final byte[] bytes = message.toByteArray();
+            socket.send( new DatagramPacket( bytes, bytes.length, address ) );
+        }
+        catch ( final IOException e )
+        {
+            log.debug( "Problem sending gossip {0} to {1}: {2}", message.type, address, e.getMessage() );
+        }
+    }
+
+    /**
+     * Updates the discovered services and tells the listeners.
+     * <p>
+     * @param added the services that joined or changed
+     * @param removed the services that left
+     */
+    private void notifyListeners( final List<DiscoveredService> added, final List<DiscoveredService> removed )
+    {
+        for ( final DiscoveredService service : added )
+        {
+            // replace it, the cache names may have changed
+            discoveredServices.remove( service );
+            discoveredServices.add( service );
+            for ( final IDiscoveryListener listener : discoveryListeners )
+            {
+                listener.addDiscoveredService( service );
+            }
+        }
+
+        for ( final DiscoveredService service : removed )
+        {
+            discoveredServices.remove( service );
+            for ( final IDiscoveryListener listener : discoveryListeners )
+            {
+                listener.removeDiscoveredService( service );
+            }
+        }
+    }
+}
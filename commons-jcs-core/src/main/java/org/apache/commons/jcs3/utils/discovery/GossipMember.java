@@ -0,0 +1,197 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * What a gossip member knows about another member, or about itself. Members are identified by
+ * their host and gossip port.
+ * <p>
+ * The incarnation is raised by the member itself when it refutes a suspicion or changes its cache
+ * names. It starts at the time the member started, so a restarted member overrides what the
+ * others remember about its previous life.
+ */
+class GossipMember
+{
+    /** The state of a member */
+    enum Status
+    {
+        /** Answers probes */
+        ALIVE,
+
+        /** Did not answer a probe, may still refute */
+        SUSPECT,
+
+        /** Left or did not refute in time */
+        DEAD
+    }
+
+    /** The host the member runs on */
+    final String host;
+
+    /** The udp port of its gossip */
+    final int gossipPort;
+
+    /** The port of the service it offers */
+    final int servicePort;
+
+    /** Raised by the member to override older news about it */
+    final long incarnation;
+
+    /** The state */
+    final Status status;
+
+    /** The regions of the member */
+    final ArrayList<String> cacheNames;
+
+    /**
+     * @param host the host the member runs on
+     * @param gossipPort the udp port of its gossip
+     * @param servicePort the port of the service it offers
+     * @param incarnation raised by the member to override older news about it
+     * @param status the state
+     * @param cacheNames the regions of the member
+     */
+    GossipMember( final String host, final int gossipPort, final int servicePort, final long incarnation,
+                  final Status status, final ArrayList<String> cacheNames )
+    {
+        this.host = host;
+        this.gossipPort = gossipPort;
+        this.servicePort = servicePort;
+        this.incarnation = incarnation;
+        this.status = status;
+        this.cacheNames = cacheNames;
+    }
+
+    /**
+     * @return the id of the member
+     */
+    String getId()
+    {
+        return host + ":" + gossipPort;
+    }
+
+    /**
+     * @param newStatus the new state
+     * @param newIncarnation the new incarnation
+     * @return a copy with the state and incarnation changed
+     */
+    GossipMember with( final Status newStatus, final long newIncarnation )
+    {
+        return new GossipMember( host, gossipPort, servicePort, newIncarnation, newStatus, cacheNames );
+    }
+
+    /**
+     * Decides if this news about a member replaces what is known.
+     * <p>
+     * @param known what is known about the member, may be null
+     * @return true if this news is newer
+     */
+    boolean overrides( final GossipMember known )
+    {
+        if ( known == null )
+        {
+            return true;
+        }
+
+        switch ( status )
+        {
+            case ALIVE:
+                return incarnation > known.incarnation;
+            case SUSPECT:
+                return known.status == Status.ALIVE ? incarnation >= known.incarnation
+                    : incarnation > known.incarnation;
+            default:
+                return known.status != Status.DEAD && incarnation >= known.incarnation;
+        }
+    }
+
+    /**
+     * @return the member as a discovered service
+     */
+    DiscoveredService toDiscoveredService()
+    {
+        final DiscoveredService service = new DiscoveredService();
+        service.setServiceAddress( host );
+        service.setServicePort( servicePort );
+        service.setCacheNames( cacheNames );
+        service.setLastHearFromTime( System.currentTimeMillis() );
+        return service;
+    }
+
+    /**
+     * @param out the stream
+     * @throws IOException
+     */
+    void writeTo( final DataOutputStream out )
+        throws IOException
+    {
+        out.writeUTF( host );
+        out.writeInt( gossipPort );
+        out.writeInt( servicePort );
+        out.writeLong( incarnation );
+        out.writeByte( status.ordinal() );
+        out.writeShort( cacheNames.size() );
+        for ( final String name : cacheNames )
+        {
+            out.writeUTF( name );
+        }
+    }
+
+    /**
+     * @param in the stream
+     * @return the member
+     * @throws IOException
+     */
+    static GossipMember readFrom( final DataInputStream in )
+        throws IOException
+    {
+        final String host = in.readUTF();
+        final int gossipPort = in.readInt();
+        final int servicePort = in.readInt();
+        final long incarnation = in.readLong();
+        final int status = in.readByte();
+        if ( status < 0 || status >= Status.values().length )
+        {
+            throw new IOException( "Unknown member status " + status );
+        }
+        final int count = in.readUnsignedShort();
+        final ArrayList<String> cacheNames = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            cacheNames.add( in.readUTF() );
+        }
+        return new GossipMember( host, gossipPort, servicePort, incarnation, Status.values()[status], cacheNames );
+    }
+
+    /**
+     * @return string for debugging purposes.
+     */
+    @Override
+    public String toString()
+    {
+        return "GossipMember " + getId() + " servicePort = [" + servicePort + "] status = [" + status
+            + "] incarnation = [" + incarnation + "] cacheNames = " + cacheNames;
+    }
+}
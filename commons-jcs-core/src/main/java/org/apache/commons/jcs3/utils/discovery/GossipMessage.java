@@ -0,0 +1,158 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message of the gossip discovery protocol. Every message carries its sender and a few
+ * membership updates.
+ */
+class GossipMessage
+{
+    /** Marks a gossip packet, "JCSG" */
+    private static final int MAGIC = 0x4A435347;
+
+    /** Version of the binary form */
+    private static final byte VERSION = 1;
+
+    /** The kind of message */
+    enum Type
+    {
+        /** Are you alive? */
+        PING,
+
+        /** Please ping the target for me */
+        PING_REQ,
+
+        /** I am alive */
+        ACK
+    }
+
+    /** The kind of message */
+    final Type type;
+
+    /** Matches an ack to its ping */
+    final long sequence;
+
+    /** The sender, as it sees itself */
+    final GossipMember sender;
+
+    /** The host to ping for a PING_REQ, else empty */
+    final String targetHost;
+
+    /** The gossip port to ping for a PING_REQ, else 0 */
+    final int targetPort;
+
+    /** The piggybacked membership updates */
+    final List<GossipMember> updates;
+
+    /**
+     * @param type the kind of message
+     * @param sequence matches an ack to its ping
+     * @param sender the sender
+     * @param targetHost the host to ping for a PING_REQ
+     * @param targetPort the gossip port to ping for a PING_REQ
+     * @param updates the piggybacked membership updates
+     */
+    GossipMessage( final Type type, final long sequence, final GossipMember sender, final String targetHost,
+                   final int targetPort, final List<GossipMember> updates )
+    {
+        this.type = type;
+        this.sequence = sequence;
+        this.sender = sender;
+        this.targetHost = targetHost == null ? "" : targetHost;
+        this.targetPort = targetPort;
+        this.updates = updates;
+    }
+
+    /**
+     * @return the bytes to send
+     * @throws IOException
+     */
+    byte[] toByteArray()
+        throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 256 );
+        try (DataOutputStream out = new DataOutputStream( bytes ))
+        {
+            out.writeInt( MAGIC );
+            out.writeByte( VERSION );
+            out.writeByte( type.ordinal() );
+            out.writeLong( sequence );
+            sender.writeTo( out );
+            out.writeUTF( targetHost );
+            out.writeInt( targetPort );
+            out.writeByte( updates.size() );
+            for ( final GossipMember update : updates )
+            {
+                update.writeTo( out );
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param buf the buffer
+     * @param offset where the message starts
+     * @param length the length of the message
+     * @return the message
+     * @throws IOException if the bytes are not a gossip message
+     */
+    static GossipMessage fromByteArray( final byte[] buf, final int offset, final int length )
+        throws IOException
+    {
+        try (DataInputStream in = new DataInputStream( new ByteArrayInputStream( buf, offset, length ) ))
+        {
+            if ( in.readInt() != MAGIC )
+            {
+                throw new IOException( "Not a gossip message" );
+            }
+            final byte version = in.readByte();
+            if ( version != VERSION )
+            {
+                throw new IOException( "Unsupported gossip message version " + version );
+            }
+            final int type = in.readByte();
+            if ( type < 0 || type >= Type.values().length )
+            {
+                throw new IOException( "Unknown gossip message type " + type );
+            }
+
+            final long sequence = in.readLong();
+            final GossipMember sender = GossipMember.readFrom( in );
+            final String targetHost = in.readUTF();
+            final int targetPort = in.readInt();
+            final int count = in.readUnsignedByte();
+            final List<GossipMember> updates = new ArrayList<>( count );
+            for ( int i = 0; i < count; i++ )
+            {
+                updates.add( GossipMember.readFrom( in ) );
+            }
+            return new GossipMessage( Type.values()[type], sequence, sender, targetHost, targetPort, updates );
+        }
+    }
+}
@@ -44,6 +44,9 @@ public class UDPDiscoveryManager
     /** Known services */
     private final ConcurrentMap<String, UDPDiscoveryService> services = new ConcurrentHashMap<>();
 
+    /** Known gossip services */
+    private final ConcurrentMap<String, GossipDiscoveryService> gossipServices = new ConcurrentHashMap<>();
+
     /** private for singleton */
     private UDPDiscoveryManager()
     {
@@ -105,4 +108,48 @@ public class UDPDiscoveryManager
 
         return service;
     }
+
+    /**
+     * Creates a gossip service for the gossip port and service port if one doesn't exist already.
+     * <p>
+     * @param gossipPort the udp port the gossip runs on
+     * @param seeds comma separated host:port list of members to join through
+     * @param servicePort
+     * @param cacheMgr
+     * @return GossipDiscoveryService
+     */
+    public GossipDiscoveryService getGossipService( final int gossipPort, final String seeds, final int servicePort,
+                                                    final ICompositeCacheManager cacheMgr )
+    {
+        final String key = gossipPort + ":" + servicePort;
+
+        final GossipDiscoveryService service = gossipServices.computeIfAbsent(key, k -> {
+            log.info( "Creating gossip service for gossipPort:servicePort [{0}]", key );
+
+            final GossipDiscoveryAttributes attributes = new GossipDiscoveryAttributes();
+            attributes.setGossipPort( gossipPort );
+            attributes.setSeeds( seeds );
+            attributes.setServicePort( servicePort );
+
+            final GossipDiscoveryService newService = new GossipDiscoveryService( attributes );
+
+            // register for shutdown notification
+            cacheMgr.registerShutdownObserver( newService );
+
+            newService.startup();
+
+            // inject scheduler
+            if ( cacheMgr instanceof IProvideScheduler)
+            {
+                newService.setScheduledExecutorService(((IProvideScheduler)cacheMgr)
+                        .getScheduledExecutorService());
+            }
+
+            return newService;
+        });
+
+        log.debug( "Returning gossip service [{0}] for key [{1}]", service, key );
+
+        return service;
+    }
 }
@@ -19,11 +19,23 @@ package org.apache.commons.jcs3.utils.discovery;
  * under the License.
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.TreeSet;
 
 /**
  * The message sent by the discovery mechanism.
+ * <p>
+ * Messages are sent in a compact binary form, see toByteArray. A passive broadcast either holds
+ * the names of the regions, or only the hash of the names. The receiver keeps the names it
+ * knows, and only needs the full list when the hash changes.
  */
 public class UDPDiscoveryMessage
     implements Serializable
@@ -31,6 +43,15 @@ public class UDPDiscoveryMessage
     /** Don't change */
     private static final long serialVersionUID = -5332377899560951793L;
 
+    /** Marks a discovery packet, "JCSD" */
+    private static final int MAGIC = 0x4A435344;
+
+    /** Version of the binary form */
+    private static final byte VERSION = 1;
+
+    /** Count written when the names are left out */
+    private static final int NAMES_OMITTED = -1;
+
     public enum BroadcastType
     {
         /**
@@ -62,9 +83,12 @@ public class UDPDiscoveryMessage
     /** Id of the requester, allows self-filtration */
     private long requesterId;
 
-    /** Names of regions */
+    /** Names of regions, null if only the hash is sent */
     private ArrayList<String> cacheNames = new ArrayList<>();
 
+    /** Hash of the names of the regions */
+    private long cacheNamesHash;
+
     /**
      * @param port The port to set.
      */
@@ -145,6 +169,138 @@ public class UDPDiscoveryMessage
         return cacheNames;
     }
 
+    /**
+     * @param cacheNamesHash The hash of the cache names, see hashCacheNames.
+     */
+    public void setCacheNamesHash( final long cacheNamesHash )
+    {
+        this.cacheNamesHash = cacheNamesHash;
+    }
+
+    /**
+     * @return Returns the hash of the cache names.
+     */
+    public long getCacheNamesHash()
+    {
+        return cacheNamesHash;
+    }
+
+    /**
+     * Hashes a set of region names. The order of the names does not matter.
+     * <p>
+     * @param names the names of the regions
+     * @return the 64 bit FNV-1a hash of the sorted names, never 0
+     */
+    public static long hashCacheNames( final Collection<String> names )
+    {
+        long hash = 0xcbf29ce484222325L;
+        for ( final String name : new TreeSet<>( names ) )
+        {
+            for ( final byte b : name.getBytes( StandardCharsets.UTF_8 ) )
+            {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            // separator, so that [ab] and [a, b] differ
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Writes the message in its binary form: a marker, the version, the type, the requester id,
+     * the host, the port, the hash of the cache names, and the names if they are included.
+     * <p>
+     * @return the bytes to send
+     * @throws IOException
+     */
+    public byte[] toByteArray()
+        throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream( 64 );
+        try (DataOutputStream out = new DataOutputStream( bytes ))
+        {
+            out.writeInt( MAGIC );
+            out.writeByte( VERSION );
+            out.writeByte( messageType.ordinal() );
+            out.writeLong( requesterId );
+            out.writeUTF( host == null ? "" : host );
+            out.writeInt( port );
+            out.writeLong( cacheNamesHash );
+            if ( cacheNames == null )
+            {
+                out.writeInt( NAMES_OMITTED );
+            }
+            else
+            {
+                out.writeInt( cacheNames.size() );
+                for ( final String name : cacheNames )
+                {
+                    out.writeUTF( name );
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a message written by toByteArray.
+     * <p>
+     * @param buf the buffer
+     * @param offset where the message starts
+     * @param length the length of the message
+     * @return the message
+     * @throws IOException if the bytes are not a discovery message
+     */
+    public static UDPDiscoveryMessage fromByteArray( final byte[] buf, final int offset, final int length )
+        throws IOException
+    {
+        try (DataInputStream in = new DataInputStream( new ByteArrayInputStream( buf, offset, length ) ))
+        {
+            if ( in.readInt() != MAGIC )
+            {
+                throw new IOException( "Not a discovery message" );
+            }
+            final byte version = in.readByte();
+            if ( version != VERSION )
+            {
+                throw new IOException( "Unsupported discovery message version " + version );
+            }
+            final int type = in.readByte();
+            if ( type < 0 || type >= BroadcastType.values().length )
+            {
+                throw new IOException( "Unknown discovery message type " + type );
+            }
+
+            final UDPDiscoveryMessage message = new UDPDiscoveryMessage();
+            message.setMessageType( BroadcastType.values()[type] );
+            message.setRequesterId( in.readLong() );
+            message.setHost( in.readUTF() );
+            message.setPort( in.readInt() );
+            message.setCacheNamesHash( in.readLong() );
+
+            final int count = in.readInt();
+            if ( count == NAMES_OMITTED )
+            {
+                message.setCacheNames( null );
+            }
+            else
+            {
+                if ( count < 0 || count > length )
+                {
+                    throw new IOException( "Invalid cache name count " + count );
+                }
+                final ArrayList<String> names = new ArrayList<>( count );
+                for ( int i = 0; i < count; i++ )
+                {
+                    names.add( in.readUTF() );
+                }
+                message.setCacheNames( names );
+            }
+            return message;
+        }
+    }
+
     /**
      * @return debugging string
      */
@@ -156,10 +312,14 @@ public class UDPDiscoveryMessage
         buf.append( "\n port = [" + port + "]" );
         buf.append( "\n requesterId = [" + requesterId + "]" );
         buf.append( "\n messageType = [" + messageType + "]" );
+        buf.append( "\n cacheNamesHash = [" + cacheNamesHash + "]" );
         buf.append( "\n Cache Names" );
-        for (final String name : cacheNames)
+        if ( cacheNames != null )
         {
-            buf.append( " cacheName = [" + name + "]" );
+            for (final String name : cacheNames)
+            {
+                buf.append( " cacheName = [" + name + "]" );
+            }
         }
         return buf.toString();
     }
@@ -19,9 +19,7 @@ package org.apache.commons.jcs3.utils.discovery;
  * under the License.
  */
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.MulticastSocket;
@@ -32,9 +30,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.jcs3.engine.CacheInfo;
 import org.apache.commons.jcs3.engine.behavior.IShutdownObserver;
-import org.apache.commons.jcs3.io.ObjectInputStreamClassLoaderAware;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
+import org.apache.commons.jcs3.utils.discovery.UDPDiscoveryMessage.BroadcastType;
 import org.apache.commons.jcs3.utils.net.HostNameUtil;
 import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration;
 import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration.WhenBlockedPolicy;
@@ -170,10 +168,15 @@ public class UDPDiscoveryReceiver
             log.debug( "Received packet from address [{0}]",
                     () -> packet.getSocketAddress() );
 
-            try (ByteArrayInputStream byteStream = new ByteArrayInputStream(mBuffer, 0, packet.getLength());
-                 ObjectInputStream objectStream = new ObjectInputStreamClassLoaderAware(byteStream, null))
+            try
             {
-                obj = objectStream.readObject();
+                obj = UDPDiscoveryMessage.fromByteArray( mBuffer, packet.getOffset(), packet.getLength() );
+            }
+            catch ( final IOException e )
+            {
+                log.warn( "Ignoring packet from address [{0}]: {1}",
+                        packet.getSocketAddress(), e.getMessage() );
+                return null;
             }
 
             if ( obj instanceof UDPDiscoveryMessage )
@@ -307,10 +310,18 @@ public class UDPDiscoveryReceiver
             log.debug( "Process message sent from another" );
             log.debug( "Message = {0}", message );
 
-            if ( message.getHost() == null || message.getCacheNames() == null || message.getCacheNames().isEmpty() )
+            if ( message.getMessageType() == BroadcastType.REQUEST )
+            {
+                processMessage(message);
+            }
+            else if ( message.getHost() == null || message.getCacheNames() != null && message.getCacheNames().isEmpty() )
             {
                 log.debug( "Ignoring invalid message: {0}", message );
             }
+            else if ( message.getCacheNames() == null )
+            {
+                processHeartbeat(message);
+            }
             else
             {
                 processMessage(message);
@@ -318,6 +329,19 @@ public class UDPDiscoveryReceiver
         }
     }
 
+    /**
+     * Process an incoming passive broadcast that only holds the hash of the cache names.
+     */
+    private void processHeartbeat( final UDPDiscoveryMessage message )
+    {
+        final DiscoveredService discoveredService = new DiscoveredService();
+        discoveredService.setServiceAddress( message.getHost() );
+        discoveredService.setServicePort( message.getPort() );
+        discoveredService.setLastHearFromTime( System.currentTimeMillis() );
+
+        service.processHeartbeat( discoveredService, message.getCacheNamesHash() );
+    }
+
     /**
      * Process the incoming message.
      */
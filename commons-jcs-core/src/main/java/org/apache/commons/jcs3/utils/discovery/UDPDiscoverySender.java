@@ -30,7 +30,6 @@ import org.apache.commons.jcs3.engine.CacheInfo;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
 import org.apache.commons.jcs3.utils.discovery.UDPDiscoveryMessage.BroadcastType;
-import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
 
 /**
  * This is a generic sender for the UDPDiscovery process.
@@ -51,9 +50,6 @@ public class UDPDiscoverySender implements AutoCloseable
     /** The port */
     private final int multicastPort;
 
-    /** Used to serialize messages */
-    private final StandardSerializer serializer = new StandardSerializer();
-
     /**
      * Constructor for the UDPDiscoverySender object
      * <p>
@@ -125,7 +121,7 @@ public class UDPDiscoverySender implements AutoCloseable
         log.debug( "sending UDPDiscoveryMessage, address [{0}], port [{1}], "
                 + "message = {2}", multicastAddress, multicastPort, message );
 
-        final byte[] bytes = serializer.serialize( message );
+        final byte[] bytes = message.toByteArray();
 
         // put the byte array in a packet
         final DatagramPacket packet = new DatagramPacket( bytes, bytes.length, multicastAddress, multicastPort );
@@ -186,6 +182,47 @@ public class UDPDiscoverySender implements AutoCloseable
         message.setHost( host );
         message.setPort( port );
         message.setCacheNames( cacheNames );
+        message.setCacheNamesHash( UDPDiscoveryMessage.hashCacheNames( cacheNames ) );
+        message.setRequesterId( listenerId );
+        message.setMessageType( BroadcastType.PASSIVE );
+        send( message );
+    }
+
+    /**
+     * This sends a passive broadcast that only holds the hash of the cache names. Receivers that
+     * know the names for the hash treat it like a full passive broadcast.
+     * <p>
+     * It uses the vmid as the requesterId
+     * @param host
+     * @param port
+     * @param cacheNamesHash hash of the names of the cache regions
+     * @throws IOException
+     */
+    public void heartbeatBroadcast( final String host, final int port, final long cacheNamesHash )
+        throws IOException
+    {
+        heartbeatBroadcast( host, port, cacheNamesHash, CacheInfo.listenerId );
+    }
+
+    /**
+     * This allows you to set the sender id. This is mainly for testing.
+     * <p>
+     * @param host
+     * @param port
+     * @param cacheNamesHash hash of the names of the cache regions
+     * @param listenerId
+     * @throws IOException
+     */
+    protected void heartbeatBroadcast( final String host, final int port, final long cacheNamesHash, final long listenerId )
+        throws IOException
+    {
+        log.debug( "sending heartbeatBroadcast" );
+
+        final UDPDiscoveryMessage message = new UDPDiscoveryMessage();
+        message.setHost( host );
+        message.setPort( port );
+        message.setCacheNames( null );
+        message.setCacheNamesHash( cacheNamesHash );
         message.setRequesterId( listenerId );
         message.setMessageType( BroadcastType.PASSIVE );
         send( message );
@@ -225,6 +262,7 @@ public class UDPDiscoverySender implements AutoCloseable
         message.setHost( host );
         message.setPort( port );
         message.setCacheNames( cacheNames );
+        message.setCacheNamesHash( UDPDiscoveryMessage.hashCacheNames( cacheNames ) );
         message.setRequesterId( listenerId );
         message.setMessageType( BroadcastType.REMOVE );
         send( message );
@@ -29,12 +29,13 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.jcs3.engine.behavior.IRequireScheduler;
-import org.apache.commons.jcs3.engine.behavior.IShutdownObserver;
 import org.apache.commons.jcs3.log.Log;
 import org.apache.commons.jcs3.log.LogManager;
 import org.apache.commons.jcs3.utils.discovery.behavior.IDiscoveryListener;
+import org.apache.commons.jcs3.utils.discovery.behavior.IDiscoveryService;
 import org.apache.commons.jcs3.utils.net.HostNameUtil;
 
 /**
@@ -47,11 +48,14 @@ import org.apache.commons.jcs3.utils.net.HostNameUtil;
  * @author Aaron Smuts
  */
 public class UDPDiscoveryService
-    implements IShutdownObserver, IRequireScheduler
+    implements IDiscoveryService, IRequireScheduler
 {
     /** The logger */
     private static final Log log = LogManager.getLog( UDPDiscoveryService.class );
 
+    /** Least time between two requests for the cache names of other services */
+    private static final long NAMES_REQUEST_INTERVAL_MILLIS = 1000;
+
     /** thread that listens for messages */
     private Thread udpReceiverThread;
 
@@ -73,6 +77,12 @@ public class UDPDiscoveryService
     /** Set of listeners. */
     private final Set<IDiscoveryListener> discoveryListeners = new CopyOnWriteArraySet<>();
 
+    /** Hash of the cache names we last sent in full, 0 if none were sent */
+    private volatile long advertisedNamesHash;
+
+    /** When we last asked the others for their cache names */
+    private final AtomicLong lastNamesRequestTime = new AtomicLong();
+
     /** Handle to cancel the scheduled broadcast task */
     private ScheduledFuture<?> broadcastTaskFuture = null;
 
@@ -123,7 +133,7 @@ public class UDPDiscoveryService
     public void setScheduledExecutorService(final ScheduledExecutorService scheduledExecutor)
     {
         this.broadcastTaskFuture = scheduledExecutor.scheduleAtFixedRate(
-                () -> serviceRequestBroadcast(), 0, 15, TimeUnit.SECONDS);
+                () -> heartbeatBroadcast(), 0, 15, TimeUnit.SECONDS);
 
         /** removes things that have been idle for too long */
         // I'm going to use this as both, but it could happen
@@ -202,10 +212,12 @@ public class UDPDiscoveryService
                 getUdpDiscoveryAttributes().getUdpDiscoveryPort(),
                 getUdpDiscoveryAttributes().getUdpTTL()))
         {
+            final ArrayList<String> names = this.getCacheNames();
             sender.passiveBroadcast(
                     getUdpDiscoveryAttributes().getServiceAddress(),
                     getUdpDiscoveryAttributes().getServicePort(),
-                    this.getCacheNames() );
+                    names );
+            advertisedNamesHash = UDPDiscoveryMessage.hashCacheNames( names );
 
             log.debug( "Called sender to issue a passive broadcast" );
         }
@@ -218,6 +230,40 @@ public class UDPDiscoveryService
         }
     }
 
+    /**
+     * Send the periodic passive broadcast. The cache names are only sent in full if they changed
+     * since they were last sent, else only their hash is sent.
+     */
+    protected void heartbeatBroadcast()
+    {
+        final long namesHash = UDPDiscoveryMessage.hashCacheNames( this.getCacheNames() );
+        if ( namesHash != advertisedNamesHash )
+        {
+            serviceRequestBroadcast();
+            return;
+        }
+
+        try (UDPDiscoverySender sender = new UDPDiscoverySender(
+                getUdpDiscoveryAttributes().getUdpDiscoveryAddr(),
+                getUdpDiscoveryAttributes().getUdpDiscoveryPort(),
+                getUdpDiscoveryAttributes().getUdpTTL()))
+        {
+            sender.heartbeatBroadcast(
+                    getUdpDiscoveryAttributes().getServiceAddress(),
+                    getUdpDiscoveryAttributes().getServicePort(),
+                    namesHash );
+
+            log.debug( "Called sender to issue a heartbeat broadcast" );
+        }
+        catch ( final IOException e )
+        {
+            log.error( "Problem calling the UDP Discovery Sender, address [{0}] "
+                    + "port [{1}]",
+                    getUdpDiscoveryAttributes().getUdpDiscoveryAddr(),
+                    getUdpDiscoveryAttributes().getUdpDiscoveryPort(), e );
+        }
+    }
+
     /**
      * Issues a remove broadcast to the others.
      */
@@ -248,6 +294,7 @@ public class UDPDiscoveryService
      * <p>
      * @param cacheName
      */
+    @Override
     public void addParticipatingCacheName( final String cacheName )
     {
         cacheNames.add( cacheName );
@@ -331,6 +378,37 @@ public class UDPDiscoveryService
         }
     }
 
+    /**
+     * Handles a passive broadcast that only holds the hash of the cache names. If we know the
+     * service with the same names, it is updated. Otherwise we ask the others to send their names.
+     * <p>
+     * @param discoveredService discovered service, without cache names
+     * @param cacheNamesHash hash of the cache names of the service
+     */
+    protected void processHeartbeat( final DiscoveredService discoveredService, final long cacheNamesHash )
+    {
+        final DiscoveredService known = getDiscoveredServices().stream()
+            .filter( discoveredService::equals )
+            .findFirst()
+            .orElse( null );
+
+        if ( known != null && known.getCacheNames() != null
+                && UDPDiscoveryMessage.hashCacheNames( known.getCacheNames() ) == cacheNamesHash )
+        {
+            discoveredService.setCacheNames( known.getCacheNames() );
+            addOrUpdateService( discoveredService );
+            return;
+        }
+
+        log.debug( "Cache names of {0} unknown, requesting a broadcast", discoveredService );
+        final long now = System.currentTimeMillis();
+        final long last = lastNamesRequestTime.get();
+        if ( now - last >= NAMES_REQUEST_INTERVAL_MILLIS && lastNamesRequestTime.compareAndSet( last, now ) )
+        {
+            initiateBroadcast();
+        }
+    }
+
     /**
      * Get all the cache names we have facades for.
      * <p>
@@ -361,6 +439,7 @@ public class UDPDiscoveryService
     /**
      * Start necessary receiver thread
      */
+    @Override
     public void startup()
     {
         udpReceiverThread = new Thread(receiver);
@@ -409,6 +488,7 @@ public class UDPDiscoveryService
     /**
      * @return Returns the discoveredServices.
      */
+    @Override
     public Set<DiscoveredService> getDiscoveredServices()
     {
         return discoveredServices;
@@ -436,6 +516,7 @@ public class UDPDiscoveryService
      * @param listener
      * @return true if it wasn't already in the set
      */
+    @Override
     public boolean addDiscoveryListener( final IDiscoveryListener listener )
     {
         return getDiscoveryListeners().add( listener );
@@ -447,6 +528,7 @@ public class UDPDiscoveryService
      * @param listener
      * @return true if it was in the set
      */
+    @Override
     public boolean removeDiscoveryListener( final IDiscoveryListener listener )
     {
         return getDiscoveryListeners().remove( listener );
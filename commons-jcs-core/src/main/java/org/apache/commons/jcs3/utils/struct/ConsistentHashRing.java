@@ -0,0 +1,173 @@
+package org.apache.commons.jcs3.utils.struct;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An immutable consistent hash ring. Each member is placed on the ring at a number of virtual
+ * nodes derived from its name. A key belongs to the first member found clockwise from the hash
+ * of the key.
+ * <p>
+ * Adding or removing a member only moves the keys of that member. Lookups can skip members that
+ * are currently unusable, in which case their keys spread over the remaining members.
+ * <p>
+ * @param <T> the type of the members
+ */
+public class ConsistentHashRing<T>
+{
+    /** The sorted hashes of the virtual nodes */
+    private final int[] hashes;
+
+    /** The member of each virtual node, in the order of the hashes */
+    private final Object[] owners;
+
+    /** The distinct members */
+    private final List<T> members;
+
+    /**
+     * Creates the ring.
+     * <p>
+     * @param members the members, each needs a unique name
+     * @param virtualNodes the number of virtual nodes per member
+     * @param nameFunction returns the name of a member
+     */
+    public ConsistentHashRing( final List<T> members, final int virtualNodes, final Function<T, String> nameFunction )
+    {
+        this.members = Collections.unmodifiableList( new ArrayList<>( members ) );
+
+        final int replicas = Math.max( 1, virtualNodes );
+        final long[] points = new long[this.members.size() * replicas];
+        int p = 0;
+        for ( int m = 0; m < this.members.size(); m++ )
+        {
+            final String name = nameFunction.apply( this.members.get( m ) );
+            for ( int i = 0; i < replicas; i++ )
+            {
+                // hash in the upper half, member index in the lower half, so that sorting keeps both
+                final long hash = hash( ( name + "#" + i ).hashCode() );
+                points[p++] = hash << 32 | m;
+            }
+        }
+        Arrays.sort( points );
+
+        this.hashes = new int[points.length];
+        this.owners = new Object[points.length];
+        for ( int i = 0; i < points.length; i++ )
+        {
+            hashes[i] = (int) ( points[i] >> 32 );
+            owners[i] = this.members.get( (int) ( points[i] & 0xFFFFFFFFL ) );
+        }
+    }
+
+    /**
+     * @return the members of the ring
+     */
+    public List<T> getMembers()
+    {
+        return members;
+    }
+
+    /**
+     * Gets the member that owns the key.
+     * <p>
+     * @param key the key
+     * @return the member, or null if the ring is empty
+     */
+    public T get( final Object key )
+    {
+        return get( key, null );
+    }
+
+    /**
+     * Gets the first usable member clockwise from the key.
+     * <p>
+     * @param key the key
+     * @param usable tells whether a member can be used, null accepts all members
+     * @return the member, or null if no member is usable
+     */
+    @SuppressWarnings("unchecked") // owners only holds members
+    public T get( final Object key, final Predicate<? super T> usable )
+    {
+        if ( hashes.length == 0 )
+        {
+            return null;
+        }
+
+        final int start = indexOf( hash( key == null ? 0 : key.hashCode() ) );
+        for ( int i = 0; i < owners.length; i++ )
+        {
+            final T owner = (T) owners[( start + i ) % owners.length];
+            if ( usable == null || usable.test( owner ) )
+            {
+                return owner;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the first virtual node at or after the hash, wrapping around the ring.
+     * <p>
+     * @param hash the hash
+     * @return the index of the virtual node
+     */
+    private int indexOf( final int hash )
+    {
+        int index = Arrays.binarySearch( hashes, hash );
+        if ( index < 0 )
+        {
+            index = -index - 1;
+        }
+        else
+        {
+            // several virtual nodes may share a hash, take the first one
+            while ( index > 0 && hashes[index - 1] == hash )
+            {
+                index--;
+            }
+        }
+
+        return index == hashes.length ? 0 : index;
+    }
+
+    /**
+     * Spreads the bits of a hash code, see the MurmurHash3 finalizer.
+     * <p>
+     * @param h the hash code
+     * @return the spread hash
+     */
+    static int hash( final int h )
+    {
+        int x = h;
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+}
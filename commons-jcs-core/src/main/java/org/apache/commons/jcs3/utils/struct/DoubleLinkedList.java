@@ -164,13 +164,11 @@ public class DoubleLinkedList<T extends DoubleLinkedListNode>
         else
         {
             // first
-            first = last;
+            first = (T) ln.next;
         }
+        ln.next.prev = ln.prev;
 
-        if ( last != null )
-        {
-            last.next = ln;
-        }
+        last.next = ln;
         ln.prev = last;
         ln.next = null;
         last = ln;
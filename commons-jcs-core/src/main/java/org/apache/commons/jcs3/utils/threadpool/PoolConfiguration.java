@@ -50,6 +50,9 @@ public final class PoolConfiguration
     /** Default startup size */
     private static final int DEFAULT_STARTUP_SIZE = DEFAULT_MINIMUM_POOL_SIZE;
 
+    /** Default use of virtual threads */
+    private static final boolean DEFAULT_USE_VIRTUAL_THREADS = false;
+
     /** Should we bound the queue */
     private boolean useBoundary = DEFAULT_USE_BOUNDARY;
 
@@ -91,6 +94,12 @@ public final class PoolConfiguration
     /** The number of threads to create on startup */
     private int startUpSize = DEFAULT_MINIMUM_POOL_SIZE;
 
+    /**
+     * Run each task on its own virtual thread instead of a pool of platform threads. The maximum
+     * pool size still limits the number of tasks running at the same time.
+     */
+    private boolean useVirtualThreads = DEFAULT_USE_VIRTUAL_THREADS;
+
     /**
      * @param useBoundary The useBoundary to set.
      */
@@ -261,6 +270,22 @@ public final class PoolConfiguration
         return startUpSize;
     }
 
+    /**
+     * @param useVirtualThreads The useVirtualThreads to set.
+     */
+    public void setUseVirtualThreads( final boolean useVirtualThreads )
+    {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    /**
+     * @return Returns the useVirtualThreads.
+     */
+    public boolean isUseVirtualThreads()
+    {
+        return useVirtualThreads;
+    }
+
     /**
      * To string for debugging purposes.
      * @return String
@@ -275,7 +300,8 @@ public final class PoolConfiguration
         buf.append( "minimumPoolSize = [" + minimumPoolSize + "] " );
         buf.append( "keepAliveTime = [" + keepAliveTime + "] " );
         buf.append( "whenBlockedPolicy = [" + getWhenBlockedPolicy() + "] " );
-        buf.append( "startUpSize = [" + startUpSize + "]" );
+        buf.append( "startUpSize = [" + startUpSize + "] " );
+        buf.append( "useVirtualThreads = [" + useVirtualThreads + "]" );
         return buf.toString();
     }
 
@@ -287,7 +313,9 @@ public final class PoolConfiguration
     @Override
     public PoolConfiguration clone()
     {
-        return new PoolConfiguration( isUseBoundary(), boundarySize, maximumPoolSize, minimumPoolSize, keepAliveTime,
-                                      getWhenBlockedPolicy(), startUpSize );
+        final PoolConfiguration copy = new PoolConfiguration( isUseBoundary(), boundarySize, maximumPoolSize,
+                                      minimumPoolSize, keepAliveTime, getWhenBlockedPolicy(), startUpSize );
+        copy.setUseVirtualThreads( isUseVirtualThreads() );
+        return copy;
     }
 }
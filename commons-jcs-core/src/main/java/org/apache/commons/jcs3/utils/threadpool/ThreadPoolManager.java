@@ -51,6 +51,10 @@ import org.apache.commons.jcs3.utils.config.PropertySetter;
  * If a value is not set for a particular pool, the hard coded defaults in <code>PoolConfiguration</code> will be used.
  * You can configure default settings by specifying <code>thread_pool.default</code> in the properties, ie "cache.ccf"
  * <p>
+ * A pool configured with <code>useVirtualThreads=true</code> runs each task on its own virtual thread and
+ * limits the number of running tasks to the maximum pool size. On runtimes without virtual threads a
+ * regular pool is created instead.
+ * <p>
  * @author Aaron Smuts
  */
 public class ThreadPoolManager
@@ -128,6 +132,19 @@ public class ThreadPoolManager
      */
     public ExecutorService createPool( final PoolConfiguration config, final String threadNamePrefix, final int threadPriority )
     {
+        if ( config.isUseVirtualThreads() )
+        {
+            final ExecutorService virtualPool = VirtualThreadExecutor.create( config, threadNamePrefix );
+            if ( virtualPool != null )
+            {
+                log.debug( "Creating a virtual thread pool for [{0}]", threadNamePrefix );
+                return virtualPool;
+            }
+
+            log.warn( "Virtual threads are not supported by this runtime, using platform threads for [{0}]",
+                    threadNamePrefix );
+        }
+
         BlockingQueue<Runnable> queue = null;
         if ( config.isUseBoundary() )
         {
@@ -280,6 +297,20 @@ public class ThreadPoolManager
         return pool;
     }
 
+    /**
+     * Returns the configuration of a pool by name without creating the pool. Settings missing from
+     * the configuration file or properties are taken from the given defaults rather than from
+     * thread_pool.default, so that callers needing a particular pool shape keep it.
+     * <p>
+     * @param name the pool name, configured under thread_pool.&lt;name&gt;
+     * @param defaults the configuration used for the missing settings
+     * @return a copy of the configuration for the name
+     */
+    public PoolConfiguration getPoolConfiguration( final String name, final PoolConfiguration defaults )
+    {
+        return loadConfig( PROP_NAME_ROOT + "." + name, defaults );
+    }
+
     /**
      * Returns the names of all configured pools.
      * <p>
@@ -0,0 +1,361 @@
+package org.apache.commons.jcs3.utils.threadpool;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.jcs3.log.Log;
+import org.apache.commons.jcs3.log.LogManager;
+
+/**
+ * An executor that runs each task on its own thread, usually a virtual thread, while a semaphore
+ * keeps the number of running tasks at the maximum pool size of the configuration. Tasks that
+ * cannot run yet wait in a queue, and a thread is only started for them once a permit is free.
+ * Tasks start in the order they were submitted, so one permit processes them one after another.
+ * <p>
+ * If the configuration uses a boundary, at most <code>boundarySize</code> tasks may wait.
+ * Additional tasks are handled like the platform pools of {@link ThreadPoolManager} handle them:
+ * RUN runs the task in the calling thread, DISCARDOLDEST discards the oldest waiting task to make
+ * room for it, and the other policies reject it. WAIT is not supported, as for the platform pools.
+ * <p>
+ * Virtual threads are only available on Java 21 and later. They are looked up by reflection so
+ * that this class still loads on older runtimes, see {@link #create(PoolConfiguration, String)}.
+ */
+final class VirtualThreadExecutor
+    extends AbstractExecutorService
+{
+    /** The logger */
+    private static final Log log = LogManager.getLog( VirtualThreadExecutor.class );
+
+    /** The executor creating one thread per task */
+    private final ExecutorService delegate;
+
+    /** Limits the number of running tasks */
+    private final Semaphore permits;
+
+    /** The tasks waiting for a permit, oldest first. Guarded by itself. */
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+
+    /** Number of tasks submitted but not yet finished */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /** Maximum number of waiting tasks, or Integer.MAX_VALUE if unbounded */
+    private final int maxWaiting;
+
+    /** What to do when too many tasks are waiting */
+    private final PoolConfiguration.WhenBlockedPolicy whenBlockedPolicy;
+
+    /** Set by shutdown, the delegate is shut down once the pending tasks are done */
+    private volatile boolean shutdown;
+
+    /**
+     * Constructor for the VirtualThreadExecutor object
+     * <p>
+     * @param delegate the executor starting one thread per task
+     * @param config the pool configuration
+     */
+    VirtualThreadExecutor( final ExecutorService delegate, final PoolConfiguration config )
+    {
+        this.delegate = delegate;
+        this.permits = new Semaphore( Math.max( 1, config.getMaximumPoolSize() ) );
+        this.whenBlockedPolicy = config.getWhenBlockedPolicy();
+        this.maxWaiting = config.isUseBoundary() ? Math.max( 0, config.getBoundarySize() ) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates a virtual thread executor for the configuration.
+     * <p>
+     * @param config the pool configuration
+     * @param threadNamePrefix prefix for the thread names
+     * @return the executor, or null if this runtime does not support virtual threads
+     * @throws RuntimeException if the configuration uses the unsupported WAIT policy
+     */
+    static ExecutorService create( final PoolConfiguration config, final String threadNamePrefix )
+    {
+        if ( config.getWhenBlockedPolicy() == PoolConfiguration.WhenBlockedPolicy.WAIT )
+        {
+            throw new RuntimeException( "POLICY_WAIT no longer supported" );
+        }
+
+        final ExecutorService delegate;
+        try
+        {
+            final Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+            final Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+            final Object namedBuilder = builderClass.getMethod( "name", String.class, long.class )
+                    .invoke( builder, threadNamePrefix, Long.valueOf( 0 ) );
+            final ThreadFactory factory = (ThreadFactory) builderClass.getMethod( "factory" ).invoke( namedBuilder );
+            delegate = (ExecutorService) Executors.class
+                    .getMethod( "newThreadPerTaskExecutor", ThreadFactory.class ).invoke( null, factory );
+        }
+        catch ( final ReflectiveOperationException | RuntimeException | LinkageError e )
+        {
+            log.debug( "Virtual threads are not available", e );
+            return null;
+        }
+
+        return new VirtualThreadExecutor( delegate, config );
+    }
+
+    /**
+     * Runs the command on a new thread if a permit is available, else queues it.
+     * <p>
+     * @param command the task
+     */
+    @Override
+    public void execute( final Runnable command )
+    {
+        if ( command == null )
+        {
+            throw new NullPointerException( "command" );
+        }
+        if ( shutdown )
+        {
+            throw new RejectedExecutionException( "Executor is shut down" );
+        }
+
+        synchronized ( waiting )
+        {
+            // only run at once if nothing waits, so that tasks start in the order submitted
+            if ( waiting.isEmpty() && permits.tryAcquire() )
+            {
+                pending.incrementAndGet();
+                start( command );
+                return;
+            }
+
+            if ( waiting.size() >= maxWaiting )
+            {
+                if ( whenBlockedPolicy != PoolConfiguration.WhenBlockedPolicy.DISCARDOLDEST || waiting.isEmpty() )
+                {
+                    handleBlocked( command );
+                    return;
+                }
+
+                final Runnable oldest = waiting.pollFirst();
+                pending.decrementAndGet();
+                log.debug( "Too many waiting tasks, discarding the oldest {0}", oldest );
+            }
+            pending.incrementAndGet();
+            waiting.addLast( command );
+        }
+
+        // a permit may have been released while queuing
+        startWaiting();
+    }
+
+    /**
+     * Starts a thread for a task holding a permit. The permit is released and the next waiting
+     * task started when it is done.
+     * <p>
+     * @param command the task
+     */
+    private void start( final Runnable command )
+    {
+        try
+        {
+            delegate.execute( () -> {
+                try
+                {
+                    command.run();
+                }
+                finally
+                {
+                    finished();
+                }
+            } );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            permits.release();
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the permit of a finished task and hands it to the next waiting task.
+     */
+    private void finished()
+    {
+        permits.release();
+        if ( pending.decrementAndGet() == 0 && shutdown )
+        {
+            delegate.shutdown();
+        }
+        startWaiting();
+    }
+
+    /**
+     * Starts waiting tasks while permits are available.
+     */
+    private void startWaiting()
+    {
+        while ( permits.tryAcquire() )
+        {
+            final Runnable next;
+            synchronized ( waiting )
+            {
+                next = waiting.pollFirst();
+            }
+            if ( next == null )
+            {
+                permits.release();
+                // a task may have been queued after the poll, before the release
+                synchronized ( waiting )
+                {
+                    if ( waiting.isEmpty() )
+                    {
+                        return;
+                    }
+                }
+                continue;
+            }
+
+            try
+            {
+                start( next );
+            }
+            catch ( final RejectedExecutionException e )
+            {
+                log.warn( "Could not start a waiting task", e );
+            }
+        }
+    }
+
+    /**
+     * Handles a task that exceeds the boundary, as the platform pools do.
+     * <p>
+     * @param command the task
+     */
+    private void handleBlocked( final Runnable command )
+    {
+        if ( whenBlockedPolicy == PoolConfiguration.WhenBlockedPolicy.RUN )
+        {
+            if ( !isShutdown() )
+            {
+                command.run();
+            }
+            return;
+        }
+
+        // the waiting queue is empty, a DISCARDOLDEST pool discards the task itself
+        if ( whenBlockedPolicy == PoolConfiguration.WhenBlockedPolicy.DISCARDOLDEST )
+        {
+            log.debug( "Too many pending tasks, discarding {0}", command );
+            return;
+        }
+
+        throw new RejectedExecutionException( "Too many pending tasks: " + maxWaiting + " waiting" );
+    }
+
+    /**
+     * @return the number of tasks submitted but not finished
+     */
+    int getPendingCount()
+    {
+        return pending.get();
+    }
+
+    /**
+     * @return the number of tasks that may run at the same time
+     */
+    int getAvailablePermits()
+    {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Refuses new tasks. The delegate is shut down once the running and waiting tasks are done.
+     */
+    @Override
+    public void shutdown()
+    {
+        shutdown = true;
+        if ( pending.get() == 0 )
+        {
+            delegate.shutdown();
+        }
+    }
+
+    /**
+     * Shuts down the delegate and interrupts running tasks
+     * <p>
+     * @return the tasks that never started
+     */
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        shutdown = true;
+        final List<Runnable> neverStarted;
+        synchronized ( waiting )
+        {
+            neverStarted = new ArrayList<>( waiting );
+            pending.addAndGet( -waiting.size() );
+            waiting.clear();
+        }
+        neverStarted.addAll( delegate.shutdownNow() );
+        return neverStarted;
+    }
+
+    /**
+     * @return whether shutdown was called
+     */
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    /**
+     * @return whether all tasks finished after shutdown
+     */
+    @Override
+    public boolean isTerminated()
+    {
+        return delegate.isTerminated();
+    }
+
+    /**
+     * Waits for the tasks to finish after shutdown.
+     * <p>
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the executor terminated
+     * @throws InterruptedException
+     */
+    @Override
+    public boolean awaitTermination( final long timeout, final TimeUnit unit )
+        throws InterruptedException
+    {
+        return delegate.awaitTermination( timeout, unit );
+    }
+}
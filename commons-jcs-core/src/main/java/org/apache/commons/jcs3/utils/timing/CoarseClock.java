@@ -0,0 +1,123 @@
+package org.apache.commons.jcs3.utils.timing;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.utils.threadpool.DaemonThreadFactory;
+
+/**
+ * A clock read from a field instead of the system, for the hot paths that only need to know the
+ * time to a few milliseconds, such as the last access time of an element on each get.
+ * <p>
+ * The clock has its own daemon thread, which refreshes the time every tick. It is shared by the
+ * cache managers: each one starts the clock when it initializes and stops it when it shuts down,
+ * the thread ends when the last one does. While the clock is not running, reads go to the system
+ * clock. The tick is 10 ms by default, it can be changed with the system property
+ * <code>jcs.clock.tickMillis</code>. A tick of 0 or less turns the cached clock off.
+ */
+public final class CoarseClock
+{
+    /** The system property setting the tick */
+    public static final String TICK_MILLIS_PROPERTY = "jcs.clock.tickMillis";
+
+    /** The default tick */
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    /** How often the time is refreshed */
+    private static final long TICK_MILLIS = Long.getLong( TICK_MILLIS_PROPERTY, DEFAULT_TICK_MILLIS ).longValue();
+
+    /** The time at the last tick */
+    private static volatile long now = System.currentTimeMillis();
+
+    /** Runs the refresh, null while the clock is not running */
+    private static volatile ScheduledExecutorService ticker;
+
+    /** The number of starts not stopped yet */
+    private static int users;
+
+    /** Static access only */
+    private CoarseClock()
+    {
+        // empty
+    }
+
+    /**
+     * Starts refreshing the time, unless the clock is already running or turned off. Each call has
+     * to be matched by a call to {@link #stop()}.
+     */
+    public static synchronized void start()
+    {
+        if ( TICK_MILLIS <= 0 || users++ > 0 )
+        {
+            return;
+        }
+        now = System.currentTimeMillis();
+        final ScheduledExecutorService scheduler =
+                Executors.newSingleThreadScheduledExecutor( new DaemonThreadFactory( "JCS-CoarseClock-" ) );
+        scheduler.scheduleAtFixedRate( () -> now = System.currentTimeMillis(),
+                TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS );
+        ticker = scheduler;
+    }
+
+    /**
+     * Stops refreshing the time once every start was stopped. Reads go to the system clock again.
+     */
+    public static synchronized void stop()
+    {
+        if ( users == 0 || --users > 0 )
+        {
+            return;
+        }
+        if ( ticker != null )
+        {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * @return whether the time is read from the field
+     */
+    public static boolean isRunning()
+    {
+        return ticker != null;
+    }
+
+    /**
+     * Gets the current time, at most a tick behind the system clock while the clock is running.
+     * <p>
+     * @return the time in milliseconds
+     */
+    public static long currentTimeMillis()
+    {
+        return ticker != null ? now : System.currentTimeMillis();
+    }
+
+    /**
+     * @return the tick in milliseconds, 0 or less if the clock is not cached
+     */
+    public static long getTickMillis()
+    {
+        return TICK_MILLIS;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.apache.commons.jcs3.JCS;
 import org.apache.commons.jcs3.access.CacheAccess;
+import org.apache.commons.jcs3.engine.CompositeCacheAttributes;
 
 
 /*
@@ -171,4 +172,40 @@ public class AdminBeanUnitTest
         final List<CacheElementInfo> elements2 = admin.buildElementInfo( regionName );
         assertEquals( "Wrong number of elements in the region after remove.", 0, elements2.size() );
     }
+
+    /**
+     * Get one key more than the others and verify that it is reported first.
+     *
+     * @throws Exception
+     */
+    public void testHotKeyInfo()
+        throws Exception
+    {
+        final CompositeCacheAttributes cattr = new CompositeCacheAttributes();
+        cattr.setHotKeyTrackerSize( 2 );
+        cattr.setHotKeySampleRate( 1 );
+        final String regionName = "hotRegion";
+        final CacheAccess<String, String> cache = JCS.getInstance( regionName, cattr );
+
+        cache.put( "hot", "value" );
+        cache.put( "large", "a much larger value than the others" );
+        cache.put( "cold", "v" );
+        for ( int i = 0; i < 10; i++ )
+        {
+            cache.get( "hot" );
+        }
+
+        final JCSAdminBean admin = new JCSAdminBean();
+
+        final List<HotKeyInfo> hotKeys = admin.buildHotKeyInfo( regionName );
+        assertEquals( "Should report the configured number of keys.", 2, hotKeys.size() );
+        assertEquals( "Wrong hottest key.", "hot", hotKeys.get( 0 ).getKey() );
+        assertEquals( "Wrong count.", 11, hotKeys.get( 0 ).getCount() );
+
+        final List<LargeValueInfo> values = admin.buildLargestValueInfo( regionName );
+        assertEquals( "Should report the configured number of values.", 2, values.size() );
+        assertEquals( "Wrong largest value.", "large", values.get( 0 ).getKey() );
+
+        assertTrue( "Regions without tracking report nothing.", admin.buildHotKeyInfo( "myRegion" ).isEmpty() );
+    }
 }
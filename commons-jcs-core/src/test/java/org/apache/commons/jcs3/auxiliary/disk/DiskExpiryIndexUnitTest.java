@@ -0,0 +1,113 @@
+package org.apache.commons.jcs3.auxiliary.disk;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.jcs3.engine.ElementAttributes;
+
+/**
+ * Tests the index of the disk keys by expiration.
+ */
+public class DiskExpiryIndexUnitTest
+    extends TestCase
+{
+    /**
+     * Creates attributes expiring at the given time.
+     * <p>
+     * @param deadline the time the element expires after
+     * @return the attributes
+     */
+    private static ElementAttributes expiringAt( final long deadline )
+    {
+        final ElementAttributes attributes = new ElementAttributes();
+        attributes.setIsEternal( false );
+        attributes.setMaxLife( ( deadline - attributes.getCreateTime() ) / 1000 );
+        return attributes;
+    }
+
+    /**
+     * Verify that the expired keys come earliest first, in batches.
+     */
+    public void testPollExpired()
+    {
+        // SETUP
+        final DiskExpiryIndex<String> index = new DiskExpiryIndex<>( new File( "target/test-sandbox/expiry-poll.exp" ) );
+        final long now = System.currentTimeMillis();
+        index.put( "late", expiringAt( now + 30000 ) );
+        index.put( "second", expiringAt( now + 20000 ) );
+        index.put( "first", expiringAt( now + 10000 ) );
+        index.put( "eternal", new ElementAttributes() );
+
+        // DO WORK & VERIFY
+        assertEquals( "eternal elements are not indexed", 3, index.size() );
+        assertTrue( "nothing expired yet", index.pollExpired( now, 10 ).isEmpty() );
+        assertEquals( "wrong first batch", Arrays.asList( "first" ), index.pollExpired( now + 25000, 1 ) );
+        assertEquals( "wrong second batch", Arrays.asList( "second" ), index.pollExpired( now + 25000, 1 ) );
+        assertTrue( "the batches are done", index.pollExpired( now + 25000, 1 ).isEmpty() );
+        assertEquals( "wrong size", 1, index.size() );
+    }
+
+    /**
+     * Verify that a new write replaces the deadline and a removal forgets it.
+     */
+    public void testPutReplacesAndRemoveForgets()
+    {
+        // SETUP
+        final DiskExpiryIndex<String> index = new DiskExpiryIndex<>( new File( "target/test-sandbox/expiry-put.exp" ) );
+        final long now = System.currentTimeMillis();
+        index.put( "key", expiringAt( now + 10000 ) );
+        index.put( "removed", expiringAt( now + 10000 ) );
+
+        // DO WORK
+        index.put( "key", expiringAt( now + 60000 ) );
+        index.remove( "removed" );
+
+        // VERIFY
+        assertTrue( "the old deadline should be gone", index.pollExpired( now + 20000, 10 ).isEmpty() );
+        assertEquals( "wrong expired keys", Arrays.asList( "key" ), index.pollExpired( now + 70000, 10 ) );
+    }
+
+    /**
+     * Verify that the index survives a save and load, without the keys gone from the key store.
+     */
+    public void testSaveAndLoad()
+    {
+        // SETUP
+        final File file = new File( "target/test-sandbox/expiry-save.exp" );
+        file.getParentFile().mkdirs();
+        final DiskExpiryIndex<String> index = new DiskExpiryIndex<>( file );
+        final long now = System.currentTimeMillis();
+        index.put( "kept", expiringAt( now + 10000 ) );
+        index.put( "gone", expiringAt( now + 10000 ) );
+
+        // DO WORK
+        index.save();
+        final DiskExpiryIndex<String> loaded = new DiskExpiryIndex<>( file );
+        loaded.load( key -> !"gone".equals( key ) );
+
+        // VERIFY
+        assertEquals( "wrong size", 1, loaded.size() );
+        assertEquals( "wrong expired keys", Arrays.asList( "kept" ), loaded.pollExpired( now + 20000, 10 ) );
+    }
+}
@@ -1,5 +1,8 @@
 package org.apache.commons.jcs3.auxiliary.disk.block;
 
+import org.apache.commons.jcs3.engine.ElementAttributesUtils;
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.CacheElement;
 import org.apache.commons.jcs3.auxiliary.disk.behavior.IDiskCacheAttributes.DiskLimitType;
 
 
@@ -189,4 +192,52 @@ public class BlockDiskCacheKeyStoreUnitTest
         assertNull(keyStore.get("1"));
         assertNotNull(keyStore.get("2"));
     }
+
+    /**
+     * Add some expired and some eternal elements, verify that the sweep removes the expired ones
+     * and frees their blocks.
+     */
+    public void testRemoveExpired()
+    {
+        final BlockDiskCacheAttributes attributes = new BlockDiskCacheAttributes();
+        attributes.setCacheName("testRemoveExpired");
+        attributes.setDiskPath(rootDirName);
+        attributes.setMaxKeySize(1000);
+        attributes.setBlockSizeBytes(2000);
+        attributes.setExpirySweepIntervalSeconds(60);
+        attributes.setExpirySweepBatchSize(2);
+        final BlockDiskCache<String, String> blockDiskCache = new BlockDiskCache<>(attributes);
+        blockDiskCache.processRemoveAll();
+
+        final int numElements = 10;
+        for (int i = 0; i < numElements; i++)
+        {
+            final ElementAttributes elementAttributes = new ElementAttributes();
+            if (i % 2 == 0)
+            {
+                elementAttributes.setIsEternal(false);
+                elementAttributes.setIdleTime(1);
+                ElementAttributesUtils.setLastAccessTime(elementAttributes, System.currentTimeMillis() - 2000);
+            }
+            final CacheElement<String, String> element = new CacheElement<>(attributes.getCacheName(), "key" + i, "value" + i);
+            element.setElementAttributes(elementAttributes);
+            blockDiskCache.processUpdate(element);
+        }
+        final int emptyBlocks = getEmptyBlocks(blockDiskCache);
+
+        assertEquals("Wrong number of expired elements removed.", numElements / 2, blockDiskCache.removeExpired());
+        assertEquals("The disk is the wrong size.", numElements / 2, blockDiskCache.getSize());
+        assertEquals("The blocks should be freed.", emptyBlocks + numElements / 2, getEmptyBlocks(blockDiskCache));
+        assertNull("The expired element should be gone.", blockDiskCache.processGet("key0"));
+        assertNotNull("The eternal element should remain.", blockDiskCache.processGet("key1"));
+    }
+
+    private static int getEmptyBlocks(final BlockDiskCache<?, ?> blockDiskCache)
+    {
+        return blockDiskCache.getStatistics().getStatElements().stream()
+            .filter(element -> element.getName().equals("Empty Blocks"))
+            .map(element -> (Integer) element.getData())
+            .findFirst()
+            .orElse(Integer.valueOf(-1)).intValue();
+    }
 }
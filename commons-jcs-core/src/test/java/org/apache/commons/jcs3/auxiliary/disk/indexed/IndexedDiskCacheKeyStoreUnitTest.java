@@ -1,5 +1,6 @@
 package org.apache.commons.jcs3.auxiliary.disk.indexed;
 
+import org.apache.commons.jcs3.engine.ElementAttributesUtils;
 import org.apache.commons.jcs3.engine.CacheElement;
 import org.apache.commons.jcs3.engine.ElementAttributes;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
@@ -147,4 +148,61 @@ public class IndexedDiskCacheKeyStoreUnitTest
             assertEquals( "postsave, element is wrong.", "data:" + i, element.getVal() );
         }
     }
+
+    /**
+     * Add some expired and some eternal elements, verify that the sweep removes the expired ones
+     * and recycles their slots, and that the index survives a restart.
+     *
+     * @throws Exception
+     */
+    public void testRemoveExpired()
+        throws Exception
+    {
+        final IndexedDiskCacheAttributes cattr = new IndexedDiskCacheAttributes();
+        cattr.setCacheName( "testRemoveExpired" );
+        cattr.setMaxKeySize( 100 );
+        cattr.setDiskPath( "target/test-sandbox/KeyStoreUnitTest" );
+        cattr.setExpirySweepIntervalSeconds( 60 );
+        cattr.setExpirySweepBatchSize( 2 );
+        final IndexedDiskCache<String, String> disk = new IndexedDiskCache<>( cattr );
+
+        disk.processRemoveAll();
+
+        final int cnt = 10;
+        for ( int i = 0; i < cnt; i++ )
+        {
+            final ElementAttributes eAttr = new ElementAttributes();
+            if ( i % 2 == 0 )
+            {
+                eAttr.setIsEternal( false );
+                eAttr.setIdleTime( 1 );
+                ElementAttributesUtils.setLastAccessTime( eAttr, System.currentTimeMillis() - 2000 );
+            }
+            final ICacheElement<String, String> element = new CacheElement<>( cattr.getCacheName(), "key:" + i, "data:" + i );
+            element.setElementAttributes( eAttr );
+            disk.processUpdate( element );
+        }
+
+        assertEquals( "Wrong number of expired elements removed.", cnt / 2, disk.removeExpired() );
+        assertEquals( "The disk is the wrong size.", cnt / 2, disk.getSize() );
+        assertEquals( "The slots should be recycled.", cnt / 2, disk.getRecyleBinSize() );
+        assertNull( "The expired element should be gone.", disk.processGet( "key:0" ) );
+        assertNotNull( "The eternal element should remain.", disk.processGet( "key:1" ) );
+
+        // about to expire, the index has to come back from disk
+        final ElementAttributes eAttr = new ElementAttributes();
+        eAttr.setIsEternal( false );
+        eAttr.setIdleTime( 1 );
+        ElementAttributesUtils.setLastAccessTime( eAttr, System.currentTimeMillis() - 900 );
+        final ICacheElement<String, String> element = new CacheElement<>( cattr.getCacheName(), "key:0", "data:0" );
+        element.setElementAttributes( eAttr );
+        disk.processUpdate( element );
+        disk.processDispose();
+
+        final IndexedDiskCache<String, String> reloaded = new IndexedDiskCache<>( cattr );
+        Thread.sleep( 200 );
+        assertEquals( "The reloaded index should find the expired element.", 1, reloaded.removeExpired() );
+        assertEquals( "The disk is the wrong size.", cnt / 2, reloaded.getSize() );
+        reloaded.processDispose();
+    }
 }
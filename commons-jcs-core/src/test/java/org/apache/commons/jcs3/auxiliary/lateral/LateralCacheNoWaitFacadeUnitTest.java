@@ -1,6 +1,9 @@
 package org.apache.commons.jcs3.auxiliary.lateral;
 
 import org.apache.commons.jcs3.auxiliary.lateral.behavior.ILateralCacheAttributes;
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.MockCacheServiceNonLocal;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -145,4 +148,71 @@ public class LateralCacheNoWaitFacadeUnitTest
         // VERIFY
         assertFalse( "Should not be in the list.", facade.containsNoWait( noWait ) );
     }
+
+    /**
+     * Verify that a parallel get returns the element found by any of the laterals.
+     */
+    public void testGet_Parallel()
+    {
+        // SETUP
+        final ILateralCacheAttributes cattr = new LateralCacheAttributes();
+        cattr.setCacheName( "testCache1" );
+        cattr.setPutOnlyMode( false );
+        cattr.setParallelGet( true );
+
+        final MockCacheServiceNonLocal<String, String> emptyService = new MockCacheServiceNonLocal<>();
+        final MockCacheServiceNonLocal<String, String> fullService = new MockCacheServiceNonLocal<String, String>()
+        {
+            @Override
+            public ICacheElement<String, String> get( final String cacheName, final String key, final long requesterId )
+            {
+                super.get( cacheName, key, requesterId );
+                return new CacheElement<>( cacheName, key, "value" );
+            }
+        };
+
+        @SuppressWarnings("unchecked")
+        final
+        LateralCacheNoWait<String, String>[] noWaits = new LateralCacheNoWait[] {
+            new LateralCacheNoWait<>( new LateralCache<>( cattr, emptyService, null ) ),
+            new LateralCacheNoWait<>( new LateralCache<>( cattr, fullService, null ) )
+        };
+
+        final LateralCacheNoWaitFacade<String, String> facade = new LateralCacheNoWaitFacade<>( null, noWaits, cattr );
+
+        // DO WORK
+        final ICacheElement<String, String> result = facade.get( "key" );
+
+        // VERIFY
+        assertNotNull( "Should have found the element.", result );
+        assertEquals( "Wrong value", "value", result.getVal() );
+        assertEquals( "Wrong key requested", "key", fullService.lastGetKey );
+    }
+
+    /**
+     * Verify that a parallel get returns null if no lateral has the element.
+     */
+    public void testGet_ParallelMiss()
+    {
+        // SETUP
+        final ILateralCacheAttributes cattr = new LateralCacheAttributes();
+        cattr.setCacheName( "testCache1" );
+        cattr.setPutOnlyMode( false );
+        cattr.setParallelGet( true );
+
+        @SuppressWarnings("unchecked")
+        final
+        LateralCacheNoWait<String, String>[] noWaits = new LateralCacheNoWait[] {
+            new LateralCacheNoWait<>( new LateralCache<>( cattr, new MockCacheServiceNonLocal<>(), null ) ),
+            new LateralCacheNoWait<>( new LateralCache<>( cattr, new MockCacheServiceNonLocal<>(), null ) )
+        };
+
+        final LateralCacheNoWaitFacade<String, String> facade = new LateralCacheNoWaitFacade<>( null, noWaits, cattr );
+
+        // DO WORK
+        final ICacheElement<String, String> result = facade.get( "key" );
+
+        // VERIFY
+        assertNull( "Should not have found anything.", result );
+    }
 }
@@ -1,5 +1,6 @@
 package org.apache.commons.jcs3.auxiliary.lateral.socket.tcp;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 
@@ -270,6 +271,65 @@ public class TestTCPLateralUnitTest
         assertEquals( "Didn't get the correct object", element.getVal(), result.getVal() );
     }
 
+    /**
+     * Create a listener. Add an element to the listeners cache. Setup a service with a connection
+     * pool. Make sure hits and misses both come back over the pooled connections.
+     * <p>
+     * @throws Exception
+     */
+    public void testGet_ConnectionPool()
+        throws Exception
+    {
+        // SETUP
+        // setup a listener
+        final TCPLateralCacheAttributes lattr = new TCPLateralCacheAttributes();
+        lattr.setTcpListenerPort( 1160 );
+        final MockCompositeCacheManager cacheMgr = new MockCompositeCacheManager();
+        final CompositeCache<String, String> cache = cacheMgr.getCache( "test" );
+
+        // get the listener started
+        // give it our mock cache manager
+        LateralTCPListener.getInstance( lattr, cacheMgr );
+
+        // add the item to the listeners cache
+        final ICacheElement<String, String> element = new CacheElement<>( "test", "key", "value1" );
+        cache.update( element );
+
+        // setup a service to talk to the listener started above.
+        final TCPLateralCacheAttributes lattr2 = new TCPLateralCacheAttributes();
+        lattr2.setTcpListenerPort( 1161 );
+        lattr2.setTcpServer( "localhost:1160" );
+        lattr2.setConnectionPoolSize( 2 );
+
+        final LateralTCPService<String, String> service = new LateralTCPService<>( lattr2 );
+        service.setListenerId( 123457 );
+
+        SleepUtil.sleepAtLeast( 300 );
+
+        // DO WORK
+        final ICacheElement<String, String> result1 = service.get( "test", "key" );
+        final ICacheElement<String, String> miss = service.get( "test", "nokey" );
+        final ICacheElement<String, String> result2 = service.get( "test", "key" );
+
+        // VERIFY
+        assertNotNull( "Result should not be null.", result1 );
+        assertEquals( "Didn't get the correct object", element.getVal(), result1.getVal() );
+        assertNull( "Should not have found anything.", miss );
+        assertNotNull( "Result should not be null after reusing the connection.", result2 );
+        assertEquals( "Didn't get the correct object", element.getVal(), result2.getVal() );
+
+        service.dispose( "test" );
+        try
+        {
+            service.get( "test", "key" );
+            fail( "A disposed service should not open connections." );
+        }
+        catch ( final IOException e )
+        {
+            // expected
+        }
+    }
+
     /**
      * Create a listener. Add an element to the listeners cache. Setup a service. Try to get keys from
      * the service.
@@ -0,0 +1,201 @@
+package org.apache.commons.jcs3.auxiliary.remote;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.jcs3.auxiliary.AuxiliaryCache;
+import org.apache.commons.jcs3.auxiliary.MockAuxiliaryCache;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.RegionDigest;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
+import org.apache.commons.jcs3.utils.timing.SleepUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the resync of a reconnected region.
+ */
+public class RemoteCacheManagerUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that only the local elements that are missing or different on the server are removed.
+     * <p>
+     * @throws Exception
+     */
+    public void testResync_RemovesChangedElements()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheManager cacheMgr = CompositeCacheManager.getInstance();
+        final CompositeCache<String, String> serverCopy = cacheMgr.getCache( "testResyncServer" );
+        final CompositeCache<String, String> local = cacheMgr.getCache( "testResyncLocal" );
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            final ICacheElement<String, String> element = new CacheElement<>( "testResyncLocal", "key" + i, "value" + i );
+            serverCopy.localUpdate( element );
+            local.localUpdate( element );
+        }
+
+        // changed on the server while we were away
+        SleepUtil.sleepAtLeast( 5 );
+        serverCopy.localUpdate( new CacheElement<>( "testResyncLocal", "key5", "changed" ) );
+        // removed on the server while we were away
+        serverCopy.localRemove( "key7" );
+
+        final MockRemoteCacheService<String, String> remote = new MockRemoteCacheService<String, String>()
+        {
+            @Override
+            public RegionDigest<String> getRegionDigest( final String cacheName, final int buckets,
+                                                         final int[] listBuckets, final long requesterId )
+                throws IOException
+            {
+                return RegionDigest.create( serverCopy, buckets, listBuckets );
+            }
+        };
+
+        // DO WORK
+        final int removed = RemoteCacheManager.resync( local, remote, 16 );
+
+        // VERIFY
+        assertEquals( "Wrong number removed.", 2, removed );
+        assertNull( "Changed element should be removed.", local.localGet( "key5" ) );
+        assertNull( "Removed element should be removed.", local.localGet( "key7" ) );
+        assertEquals( "Other elements should stay.", 98, local.getMemoryCache().getKeySet().size() );
+    }
+
+    /**
+     * A disk cache keeping its elements in a map.
+     */
+    private static class MapDiskCache
+        extends MockAuxiliaryCache<String, String>
+    {
+        /** The elements on disk */
+        final Map<String, ICacheElement<String, String>> elements = new HashMap<>();
+
+        @Override
+        public void update( final ICacheElement<String, String> ce )
+        {
+            elements.put( ce.getKey(), ce );
+        }
+
+        @Override
+        public ICacheElement<String, String> get( final String key )
+        {
+            return elements.get( key );
+        }
+
+        @Override
+        public boolean remove( final String key )
+        {
+            return elements.remove( key ) != null;
+        }
+
+        @Override
+        public Set<String> getKeySet()
+        {
+            return new HashSet<>( elements.keySet() );
+        }
+    }
+
+    /**
+     * Verify that elements only on the local disk cache are part of the digests on both sides.
+     * <p>
+     * @throws Exception
+     */
+    @SuppressWarnings("unchecked")
+    public void testResync_DiskOnlyElements()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheManager cacheMgr = CompositeCacheManager.getInstance();
+        final CompositeCache<String, String> serverCopy = cacheMgr.getCache( "testResyncDiskServer" );
+        final CompositeCache<String, String> local = cacheMgr.getCache( "testResyncDiskLocal" );
+        final MapDiskCache serverDisk = new MapDiskCache();
+        final MapDiskCache localDisk = new MapDiskCache();
+        serverCopy.setAuxCaches( new AuxiliaryCache[] { serverDisk } );
+        local.setAuxCaches( new AuxiliaryCache[] { localDisk } );
+
+        final ICacheElement<String, String> same = new CacheElement<>( "testResyncDiskLocal", "same", "value" );
+        final ICacheElement<String, String> stale = new CacheElement<>( "testResyncDiskLocal", "stale", "value" );
+        same.setElementAttributes( new ElementAttributes() );
+        stale.setElementAttributes( new ElementAttributes() );
+        serverDisk.update( same );
+        localDisk.update( same );
+        serverDisk.update( stale );
+        localDisk.update( stale );
+
+        // changed on the server while we were away
+        SleepUtil.sleepAtLeast( 5 );
+        final ICacheElement<String, String> changed = new CacheElement<>( "testResyncDiskLocal", "stale", "changed" );
+        changed.setElementAttributes( new ElementAttributes() );
+        serverDisk.update( changed );
+
+        final MockRemoteCacheService<String, String> remote = new MockRemoteCacheService<String, String>()
+        {
+            @Override
+            public RegionDigest<String> getRegionDigest( final String cacheName, final int buckets,
+                                                         final int[] listBuckets, final long requesterId )
+                throws IOException
+            {
+                return RegionDigest.create( serverCopy, buckets, listBuckets );
+            }
+        };
+
+        // DO WORK
+        final int removed = RemoteCacheManager.resync( local, remote, 16 );
+
+        // VERIFY
+        assertEquals( "Wrong number removed.", 1, removed );
+        assertFalse( "Changed disk element should be removed.", localDisk.elements.containsKey( "stale" ) );
+        assertTrue( "Unchanged disk element should stay.", localDisk.elements.containsKey( "same" ) );
+        assertEquals( "Disk elements should not move to memory.", 0, local.getMemoryCache().getSize() );
+    }
+
+    /**
+     * Verify that nothing is removed if the server does not support digests.
+     * <p>
+     * @throws Exception
+     */
+    public void testResync_NotSupported()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCache<String, String> local = CompositeCacheManager.getInstance().getCache( "testResyncUnsupported" );
+        local.localUpdate( new CacheElement<>( "testResyncUnsupported", "key", "value" ) );
+
+        // DO WORK
+        final int removed = RemoteCacheManager.resync( local, new MockRemoteCacheService<String, String>(), 16 );
+
+        // VERIFY
+        assertEquals( "Should not resync.", -1, removed );
+        assertNotNull( "Element should stay.", local.localGet( "key" ) );
+    }
+}
@@ -0,0 +1,315 @@
+package org.apache.commons.jcs3.auxiliary.remote;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.CacheStatus;
+import org.apache.commons.jcs3.engine.ZombieCacheServiceNonLocal;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.utils.timing.SleepUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the sharded remote cache facade.
+ */
+public class ShardedRemoteCacheNoWaitFacadeUnitTest
+    extends TestCase
+{
+    /** The mock services, one per shard */
+    private List<ShardService> services;
+
+    /** The remote caches, one per shard */
+    private List<RemoteCache<String, String>> caches;
+
+    /** The facade under test */
+    private ShardedRemoteCacheNoWaitFacade<String, String> facade;
+
+    /**
+     * A mock service that serves the elements set up for it or put on it, or fails.
+     */
+    private static class ShardService
+        extends MockRemoteCacheService<String, String>
+    {
+        /** The elements returned by get */
+        final Map<String, ICacheElement<String, String>> getSetupMap = new HashMap<>();
+
+        /** Whether get throws */
+        volatile boolean failing;
+
+        /**
+         * @param cacheName
+         * @param key
+         * @param requesterId
+         * @return the element set up for the key
+         */
+        @Override
+        public ICacheElement<String, String> get( final String cacheName, final String key, final long requesterId )
+        {
+            super.get( cacheName, key, requesterId );
+            if ( failing )
+            {
+                throw new IllegalStateException( "Shard is down" );
+            }
+            return getSetupMap.get( key );
+        }
+
+        /**
+         * @param item
+         * @param requesterId
+         */
+        @Override
+        public void update( final ICacheElement<String, String> item, final long requesterId )
+        {
+            super.update( item, requesterId );
+            getSetupMap.put( item.getKey(), item );
+        }
+
+        /**
+         * @param cacheName
+         * @param key
+         * @param requesterId
+         */
+        @Override
+        public void remove( final String cacheName, final String key, final long requesterId )
+        {
+            super.remove( cacheName, key, requesterId );
+            getSetupMap.remove( key );
+        }
+    }
+
+    /**
+     * Creates a facade over three mock shards.
+     */
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+
+        services = new ArrayList<>();
+        caches = new ArrayList<>();
+        final List<RemoteCacheNoWait<String, String>> noWaits = new ArrayList<>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            final RemoteCacheAttributes attributes = new RemoteCacheAttributes();
+            attributes.setCacheName( "testCache" );
+            attributes.setRemoteLocation( "localhost", 1101 + i );
+            final ShardService service = new ShardService();
+            final RemoteCache<String, String> cache = new RemoteCache<>( attributes, service, null, new RemoteCacheMonitor() );
+            services.add( service );
+            caches.add( cache );
+            noWaits.add( new RemoteCacheNoWait<>( cache ) );
+        }
+
+        final RemoteCacheAttributes rca = new RemoteCacheAttributes();
+        rca.setCacheName( "testCache" );
+        facade = new ShardedRemoteCacheNoWaitFacade<>( noWaits, rca, null, null );
+    }
+
+    /**
+     * Verify that each update goes to exactly one shard.
+     * <p>
+     * @throws Exception
+     */
+    public void testUpdate_OneShardPerKey()
+        throws Exception
+    {
+        // DO WORK
+        for ( int i = 0; i < 60; i++ )
+        {
+            facade.update( new CacheElement<>( "testCache", "key" + i, "value" + i ) );
+        }
+        SleepUtil.sleepAtLeast( 100 );
+
+        // VERIFY
+        int total = 0;
+        for ( final ShardService service : services )
+        {
+            assertFalse( "Every shard should get keys", service.updateRequestList.isEmpty() );
+            total += service.updateRequestList.size();
+        }
+        assertEquals( "Each key should be sent once", 60, total );
+    }
+
+    /**
+     * Verify that a get is routed to the shard of the key.
+     * <p>
+     * @throws Exception
+     */
+    public void testGet_RoutedToShard()
+        throws Exception
+    {
+        // SETUP
+        final String key = "myKey";
+        final ICacheElement<String, String> element = new CacheElement<>( "testCache", key, "value" );
+        final int owner = facade.noWaits.indexOf( facade.getShard( key ) );
+        services.get( owner ).getSetupMap.put( key, element );
+
+        // DO WORK
+        final ICacheElement<String, String> result = facade.get( key );
+
+        // VERIFY
+        assertEquals( "Wrong element", element, result );
+    }
+
+    /**
+     * Verify that a get failing on the shard of the key puts the shard in error and reads the key
+     * from the next live shard.
+     * <p>
+     * @throws Exception
+     */
+    public void testGet_ShardFails()
+        throws Exception
+    {
+        // SETUP
+        final String key = "myKey";
+        final RemoteCacheNoWait<String, String> ownerShard = facade.getShard( key );
+        final int owner = facade.noWaits.indexOf( ownerShard );
+        services.get( owner ).failing = true;
+
+        final ICacheElement<String, String> element = new CacheElement<>( "testCache", key, "value" );
+        for ( int i = 0; i < services.size(); i++ )
+        {
+            if ( i != owner )
+            {
+                services.get( i ).getSetupMap.put( key, element );
+            }
+        }
+
+        // DO WORK
+        final ICacheElement<String, String> result = facade.get( key );
+
+        // VERIFY
+        assertEquals( "Should read from the next live shard", element, result );
+        assertEquals( "The failed shard should be in error", CacheStatus.ERROR, ownerShard.getStatus() );
+        assertNotSame( "The key should move", ownerShard, facade.getShard( key ) );
+    }
+
+    /**
+     * Verify that only the keys of a shard in error move, and that they move back when it is restored.
+     * <p>
+     * @throws Exception
+     */
+    public void testShardInError_Rebalance()
+        throws Exception
+    {
+        // SETUP
+        final Map<String, RemoteCacheNoWait<String, String>> owners = new HashMap<>();
+        for ( int i = 0; i < 300; i++ )
+        {
+            owners.put( "key" + i, facade.getShard( "key" + i ) );
+        }
+        final RemoteCacheNoWait<String, String> failed = facade.noWaits.get( 0 );
+
+        // DO WORK
+        caches.get( 0 ).fixCache( new ZombieCacheServiceNonLocal<>() );
+
+        // VERIFY
+        for ( final Map.Entry<String, RemoteCacheNoWait<String, String>> entry : owners.entrySet() )
+        {
+            final RemoteCacheNoWait<String, String> shard = facade.getShard( entry.getKey() );
+            assertNotSame( "Should not route to the shard in error", failed, shard );
+            if ( entry.getValue() != failed )
+            {
+                assertSame( "Key should not move", entry.getValue(), shard );
+            }
+        }
+
+        // DO WORK
+        caches.get( 0 ).fixCache( services.get( 0 ) );
+
+        // VERIFY
+        for ( final Map.Entry<String, RemoteCacheNoWait<String, String>> entry : owners.entrySet() )
+        {
+            assertSame( "Key should move back", entry.getValue(), facade.getShard( entry.getKey() ) );
+        }
+    }
+
+    /**
+     * Verify that a key put on another shard while its owner was in error is not read from the
+     * owner with its old value once the owner is restored.
+     * <p>
+     * @throws Exception
+     */
+    public void testShardRestored_PutWhileInError()
+        throws Exception
+    {
+        // SETUP
+        final String key = "myKey";
+        final int owner = facade.noWaits.indexOf( facade.getShard( key ) );
+        facade.update( new CacheElement<>( "testCache", key, "old" ) );
+        SleepUtil.sleepAtLeast( 100 );
+        caches.get( owner ).fixCache( new ZombieCacheServiceNonLocal<>() );
+        final int fallback = facade.noWaits.indexOf( facade.getShard( key ) );
+
+        // DO WORK
+        facade.update( new CacheElement<>( "testCache", key, "new" ) );
+        SleepUtil.sleepAtLeast( 100 );
+        caches.get( owner ).fixCache( services.get( owner ) );
+        final ICacheElement<String, String> result = facade.get( key );
+        SleepUtil.sleepAtLeast( 100 );
+
+        // VERIFY
+        assertNull( "Should not read the old value from the owner", result );
+        assertFalse( "The owner should no longer hold the key", services.get( owner ).getSetupMap.containsKey( key ) );
+        assertFalse( "The other shard should no longer hold the key",
+                     services.get( fallback ).getSetupMap.containsKey( key ) );
+    }
+
+    /**
+     * Verify that a key removed while its owner was in error does not come back once the owner is
+     * restored.
+     * <p>
+     * @throws Exception
+     */
+    public void testShardRestored_RemoveWhileInError()
+        throws Exception
+    {
+        // SETUP
+        final String key = "myKey";
+        final int owner = facade.noWaits.indexOf( facade.getShard( key ) );
+        facade.update( new CacheElement<>( "testCache", key, "old" ) );
+        SleepUtil.sleepAtLeast( 100 );
+        caches.get( owner ).fixCache( new ZombieCacheServiceNonLocal<>() );
+
+        // DO WORK
+        facade.remove( key );
+        SleepUtil.sleepAtLeast( 100 );
+        caches.get( owner ).fixCache( services.get( owner ) );
+        final ICacheElement<String, String> result = facade.get( key );
+
+        // VERIFY
+        assertNull( "The removed key should not come back", result );
+
+        // DO WORK
+        facade.update( new CacheElement<>( "testCache", key, "new" ) );
+        SleepUtil.sleepAtLeast( 100 );
+
+        // VERIFY
+        assertEquals( "Writes should go to the owner again", "new", facade.get( key ).getVal() );
+        assertTrue( "The owner should hold the key", services.get( owner ).getSetupMap.containsKey( key ) );
+    }
+}
@@ -0,0 +1,219 @@
+package org.apache.commons.jcs3.auxiliary.remote.http.client;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.jcs3.auxiliary.remote.behavior.IRemoteCacheDispatcher;
+import org.apache.commons.jcs3.auxiliary.remote.util.RemoteCacheRequestFactory;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheRequest;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteRequestType;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the batching dispatcher. */
+public class BatchingRemoteCacheDispatcherUnitTest
+    extends TestCase
+{
+    /** Answers each get with its key, and each batch with the answers of its parts. */
+    private static class EchoDispatcher
+        implements IRemoteCacheDispatcher
+    {
+        /** The requests sent */
+        final List<RemoteCacheRequest<?, ?>> requests = new CopyOnWriteArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <K, V, T> RemoteCacheResponse<T> dispatchRequest( final RemoteCacheRequest<K, V> remoteCacheRequest )
+            throws IOException
+        {
+            requests.add( remoteCacheRequest );
+            final RemoteCacheResponse<Object> response = new RemoteCacheResponse<>();
+            if ( remoteCacheRequest.getRequestType() == RemoteRequestType.BATCH )
+            {
+                final List<RemoteCacheResponse<Object>> responses = new ArrayList<>();
+                for ( final RemoteCacheRequest<K, V> part : remoteCacheRequest.getRequests() )
+                {
+                    final RemoteCacheResponse<Object> partResponse = new RemoteCacheResponse<>();
+                    partResponse.setPayload( part.getKey() );
+                    responses.add( partResponse );
+                }
+                response.setPayload( responses );
+            }
+            else
+            {
+                response.setPayload( remoteCacheRequest.getKey() );
+            }
+            return (RemoteCacheResponse<T>) response;
+        }
+    }
+
+    /**
+     * Verify that gets made within the window are sent as one batch, and that each get receives
+     * its own response.
+     * <p>
+     * @throws Exception
+     */
+    public void testDispatchRequestAsync_Batched()
+        throws Exception
+    {
+        // SETUP
+        final RemoteHttpCacheAttributes attributes = new RemoteHttpCacheAttributes();
+        attributes.setBatchSize( 10 );
+        attributes.setBatchWindowMillis( 50 );
+        final EchoDispatcher delegate = new EchoDispatcher();
+        final BatchingRemoteCacheDispatcher dispatcher = new BatchingRemoteCacheDispatcher( delegate, attributes );
+
+        // DO WORK
+        final List<CompletableFuture<RemoteCacheResponse<String>>> futures = new ArrayList<>();
+        for ( int i = 0; i < 5; i++ )
+        {
+            final RemoteCacheRequest<String, String> request = RemoteCacheRequestFactory.createGetRequest( "test", "key" + i, 0 );
+            futures.add( dispatcher.<String, String, String>dispatchRequestAsync( request ) );
+        }
+
+        // VERIFY
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertEquals( "Wrong response.", "key" + i, futures.get( i ).get().getPayload() );
+        }
+        assertEquals( "Should be sent as one request.", 1, delegate.requests.size() );
+        assertEquals( "Should be a batch.", RemoteRequestType.BATCH, delegate.requests.get( 0 ).getRequestType() );
+    }
+
+    /**
+     * Verify that a full batch is sent without waiting for the window.
+     * <p>
+     * @throws Exception
+     */
+    public void testDispatchRequest_FullBatch()
+        throws Exception
+    {
+        // SETUP
+        final RemoteHttpCacheAttributes attributes = new RemoteHttpCacheAttributes();
+        attributes.setBatchSize( 2 );
+        attributes.setBatchWindowMillis( 60000 );
+        final EchoDispatcher delegate = new EchoDispatcher();
+        final BatchingRemoteCacheDispatcher dispatcher = new BatchingRemoteCacheDispatcher( delegate, attributes );
+
+        // DO WORK
+        final CompletableFuture<RemoteCacheResponse<String>> first =
+            dispatcher.dispatchRequestAsync( RemoteCacheRequestFactory.createGetRequest( "test", "a", 0 ) );
+        final RemoteCacheResponse<String> second =
+            dispatcher.dispatchRequest( RemoteCacheRequestFactory.createGetRequest( "test", "b", 0 ) );
+
+        // VERIFY
+        assertEquals( "Wrong first response.", "a", first.get().getPayload() );
+        assertEquals( "Wrong second response.", "b", second.getPayload() );
+        assertEquals( "Should be sent as one request.", 1, delegate.requests.size() );
+    }
+
+    /**
+     * Verify that a request that cannot be batched is sent after the pending batch.
+     * <p>
+     * @throws Exception
+     */
+    public void testDispatchRequest_NotBatchable()
+        throws Exception
+    {
+        // SETUP
+        final RemoteHttpCacheAttributes attributes = new RemoteHttpCacheAttributes();
+        attributes.setBatchSize( 10 );
+        attributes.setBatchWindowMillis( 60000 );
+        final EchoDispatcher delegate = new EchoDispatcher();
+        final BatchingRemoteCacheDispatcher dispatcher = new BatchingRemoteCacheDispatcher( delegate, attributes );
+        final CompletableFuture<RemoteCacheResponse<String>> pending =
+            dispatcher.dispatchRequestAsync( RemoteCacheRequestFactory.createGetRequest( "test", "a", 0 ) );
+
+        // DO WORK
+        dispatcher.dispatchRequest( RemoteCacheRequestFactory.createRemoveAllRequest( "test", 0 ) );
+
+        // VERIFY
+        assertEquals( "Wrong response.", "a", pending.get().getPayload() );
+        assertEquals( "Wrong number of requests.", 2, delegate.requests.size() );
+        assertEquals( "Pending get should go first.", RemoteRequestType.GET, delegate.requests.get( 0 ).getRequestType() );
+        assertEquals( "Then the remove all.", RemoteRequestType.REMOVE_ALL, delegate.requests.get( 1 ).getRequestType() );
+    }
+
+    /**
+     * Verify that two requests are on the wire at the same time, rather than one after the other.
+     * <p>
+     * @throws Exception
+     */
+    public void testDispatchRequest_SendsOverlap()
+        throws Exception
+    {
+        // SETUP
+        final RemoteHttpCacheAttributes attributes = new RemoteHttpCacheAttributes();
+        attributes.setBatchSize( 10 );
+        attributes.setBatchWindowMillis( 60000 );
+        final CountDownLatch bothSending = new CountDownLatch( 2 );
+        final AtomicInteger overlapping = new AtomicInteger();
+        final EchoDispatcher delegate = new EchoDispatcher()
+        {
+            @Override
+            public <K, V, T> RemoteCacheResponse<T> dispatchRequest( final RemoteCacheRequest<K, V> remoteCacheRequest )
+                throws IOException
+            {
+                bothSending.countDown();
+                try
+                {
+                    if ( bothSending.await( 5, TimeUnit.SECONDS ) )
+                    {
+                        overlapping.incrementAndGet();
+                    }
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return super.dispatchRequest( remoteCacheRequest );
+            }
+        };
+        final BatchingRemoteCacheDispatcher dispatcher = new BatchingRemoteCacheDispatcher( delegate, attributes );
+
+        // DO WORK
+        final Thread other = new Thread( () -> {
+            try
+            {
+                dispatcher.dispatchRequest( RemoteCacheRequestFactory.createRemoveAllRequest( "test", 0 ) );
+            }
+            catch ( final IOException e )
+            {
+                // counted as not overlapping
+            }
+        } );
+        other.start();
+        dispatcher.dispatchRequest( RemoteCacheRequestFactory.createRemoveAllRequest( "test", 0 ) );
+        other.join( 10000 );
+
+        // VERIFY
+        assertEquals( "Both sends should overlap.", 2, overlapping.get() );
+        assertEquals( "Wrong number of requests.", 2, delegate.requests.size() );
+    }
+}
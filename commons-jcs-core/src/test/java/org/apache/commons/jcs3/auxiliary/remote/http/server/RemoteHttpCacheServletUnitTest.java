@@ -20,7 +20,9 @@ package org.apache.commons.jcs3.auxiliary.remote.http.server;
  */
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import junit.framework.TestCase;
@@ -174,4 +176,26 @@ public class RemoteHttpCacheServletUnitTest
         assertNotNull( "Should have a result.", result );
         assertEquals( "Wrong cacheName.", cacheName, remoteHttpCacheService.lastRemoveAllCacheName );
     }
+
+    /** Verify that each part of a batch is processed, and that the responses are in order. */
+    @SuppressWarnings("unchecked")
+    public void testProcessRequest_Batch()
+    {
+        final String cacheName = "test";
+        final long requesterId = 2;
+        final RemoteCacheRequest<Serializable, Serializable> get = RemoteCacheRequestFactory.createGetRequest( cacheName, "getKey", requesterId );
+        final RemoteCacheRequest<Serializable, Serializable> remove = RemoteCacheRequestFactory.createRemoveRequest( cacheName, "removeKey", requesterId );
+        final RemoteCacheRequest<Serializable, Serializable> request =
+            RemoteCacheRequestFactory.createBatchRequest( Arrays.asList( get, remove ), requesterId );
+
+        // DO WORK
+        final RemoteCacheResponse<Object> result = servlet.processRequest( request );
+
+        // VERIFY
+        assertTrue( "Should be a success.", result.isSuccess() );
+        final List<RemoteCacheResponse<Object>> responses = (List<RemoteCacheResponse<Object>>) result.getPayload();
+        assertEquals( "Wrong number of responses.", 2, responses.size() );
+        assertEquals( "Wrong get key.", "getKey", remoteHttpCacheService.lastGetKey );
+        assertEquals( "Wrong remove key.", "removeKey", remoteHttpCacheService.lastRemoveKey );
+    }
 }
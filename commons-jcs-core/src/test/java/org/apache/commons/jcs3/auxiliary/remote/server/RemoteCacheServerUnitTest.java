@@ -19,9 +19,12 @@ package org.apache.commons.jcs3.auxiliary.remote.server;
  * under the License.
  */
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.jcs3.auxiliary.MockCacheEventLogger;
@@ -31,7 +34,9 @@ import org.apache.commons.jcs3.auxiliary.remote.RemoteUtils;
 import org.apache.commons.jcs3.auxiliary.remote.server.behavior.IRemoteCacheServerAttributes;
 import org.apache.commons.jcs3.auxiliary.remote.server.behavior.RemoteType;
 import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.CacheEventQueue;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
 
 import junit.framework.TestCase;
 
@@ -462,4 +467,311 @@ public class RemoteCacheServerUnitTest
         assertEquals( "Start should have been called.", 1, cacheEventLogger.startICacheEventCalls );
         assertEquals( "End should have been called.", 1, cacheEventLogger.endICacheEventCalls );
     }
+
+    /**
+     * Put the same keys from several threads. Verify that every put reaches the listener and that
+     * the last event of each key carries the value that is in the cache.
+     * <p>
+     * @throws Exception
+     */
+    public void testConcurrentPut_OrderedPerKey()
+        throws Exception
+    {
+        final IRemoteCacheServerAttributes rcsa = new RemoteCacheServerAttributes();
+        rcsa.setConfigFileName( "/TestRemoteCacheServer.ccf" );
+
+        final Properties config = RemoteUtils.loadProps(rcsa.getConfigFileName());
+        final MockRemoteCacheListener<String, Long> mockListener = new MockRemoteCacheListener<>();
+        final RemoteCacheServer<String, Long> server = new RemoteCacheServer<>( rcsa, config );
+
+        final String cacheName = "testConcurrentPut_OrderedPerKey";
+        server.addCacheListener( cacheName, mockListener );
+
+        // DO WORK
+        final int numThreads = 4;
+        final int numPerThread = 50;
+        final Thread[] threads = new Thread[numThreads];
+        for ( int t = 0; t < numThreads; t++ )
+        {
+            final int base = t * 1000;
+            threads[t] = new Thread( () -> {
+                for ( int i = 0; i < numPerThread; i++ )
+                {
+                    try
+                    {
+                        server.update( new CacheElement<>( cacheName, "key" + i % 5, Long.valueOf( base + i ) ), 9999 );
+                    }
+                    catch ( final Exception e )
+                    {
+                        fail( e.getMessage() );
+                    }
+                }
+            } );
+            threads[t].start();
+        }
+        for ( final Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        Thread.sleep( 100 );
+        Thread.yield();
+        Thread.sleep( 100 );
+
+        // VERIFY
+        assertEquals( "Wrong number of items put to listener.", numThreads * numPerThread, mockListener.putItems.size() );
+
+        final Map<String, Long> lastEvent = new HashMap<>();
+        for ( final ICacheElement<String, Long> item : mockListener.putItems )
+        {
+            lastEvent.put( item.getKey(), item.getVal() );
+        }
+        for ( int k = 0; k < 5; k++ )
+        {
+            final String key = "key" + k;
+            assertEquals( "Last event should match the cache for " + key,
+                          server.get( cacheName, key ).getVal(), lastEvent.get( key ) );
+        }
+
+        server.shutdown();
+    }
+
+    /**
+     * Register a listener, drop its event queue and put more items. When the listener registers
+     * again under the same id, the server should replay the puts it missed.
+     * <p>
+     * @throws Exception
+     */
+    public void testEventJournal_ReplayAfterReconnect()
+        throws Exception
+    {
+        // SETUP
+        final IRemoteCacheServerAttributes rcsa = new RemoteCacheServerAttributes();
+        rcsa.setConfigFileName( "/TestRemoteCacheServer.ccf" );
+        rcsa.setEventJournalSize( 100 );
+        final Properties config = RemoteUtils.loadProps(rcsa.getConfigFileName());
+        final RemoteCacheServer<String, Long> server = new RemoteCacheServer<>( rcsa, config );
+
+        final String cacheName = "testEventJournal_ReplayAfterReconnect";
+        final MockRemoteCacheListener<String, Long> mockListener = new MockRemoteCacheListener<>();
+        server.addCacheListener( cacheName, mockListener );
+        final long id = mockListener.getListenerId();
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            server.update( new CacheElement<>( cacheName, String.valueOf( i ), Long.valueOf( i ) ), 9999 );
+        }
+        SleepUtil.sleepAtLeast( 200 );
+
+        // the client can no longer be reached
+        server.getCacheListeners( cacheName ).eventQMap.remove( Long.valueOf( id ) ).destroy();
+        for ( int i = 3; i < 8; i++ )
+        {
+            server.update( new CacheElement<>( cacheName, String.valueOf( i ), Long.valueOf( i ) ), 9999 );
+        }
+
+        // DO WORK
+        final MockRemoteCacheListener<String, Long> reconnected = new MockRemoteCacheListener<>();
+        reconnected.setListenerId( id );
+        server.addCacheListener( cacheName, reconnected );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertEquals( "Wrong number of items before the drop.", 3, mockListener.putItems.size() );
+        assertEquals( "Wrong number of items replayed.", 5, reconnected.putItems.size() );
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertEquals( "Wrong item.", String.valueOf( i + 3 ), reconnected.putItems.get( i ).getKey() );
+        }
+        assertEquals( "Wrong delivered sequence.", 8, server.getEventJournal( cacheName ).getDeliveredSequence( id ) );
+
+        server.shutdown();
+    }
+
+    /**
+     * If the listener missed more events than the journal holds, it should get a remove all.
+     * <p>
+     * @throws Exception
+     */
+    public void testEventJournal_RemoveAllOnGap()
+        throws Exception
+    {
+        // SETUP
+        final IRemoteCacheServerAttributes rcsa = new RemoteCacheServerAttributes();
+        rcsa.setConfigFileName( "/TestRemoteCacheServer.ccf" );
+        rcsa.setEventJournalSize( 2 );
+        final Properties config = RemoteUtils.loadProps(rcsa.getConfigFileName());
+        final RemoteCacheServer<String, Long> server = new RemoteCacheServer<>( rcsa, config );
+
+        final String cacheName = "testEventJournal_RemoveAllOnGap";
+        final MockRemoteCacheListener<String, Long> mockListener = new MockRemoteCacheListener<>();
+        server.addCacheListener( cacheName, mockListener );
+        final long id = mockListener.getListenerId();
+
+        server.getCacheListeners( cacheName ).eventQMap.remove( Long.valueOf( id ) ).destroy();
+        for ( int i = 0; i < 5; i++ )
+        {
+            server.update( new CacheElement<>( cacheName, String.valueOf( i ), Long.valueOf( i ) ), 9999 );
+        }
+
+        // DO WORK
+        final MockRemoteCacheListener<String, Long> reconnected = new MockRemoteCacheListener<>();
+        reconnected.setListenerId( id );
+        server.addCacheListener( cacheName, reconnected );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertEquals( "Should not replay a partial history.", 0, reconnected.putItems.size() );
+        assertEquals( "Should get a remove all.", 1, reconnected.removeAllCount );
+
+        server.shutdown();
+    }
+
+    /**
+     * An event is handed to the queues after the journal lock is released, after the earlier
+     * events of its key. A delivery waiting for its turn does not hold the journal lock.
+     * <p>
+     * @throws Exception
+     */
+    public void testEventJournal_DeliverInSequenceOutsideLock()
+        throws Exception
+    {
+        // SETUP
+        final String cacheName = "testEventJournal_DeliverInSequenceOutsideLock";
+        final RemoteCacheEventJournal<String, Long> journal = new RemoteCacheEventJournal<>( cacheName, 10 );
+        final MockRemoteCacheListener<String, Long> listener = new MockRemoteCacheListener<>();
+        final ICacheEventQueue<String, Long> q = new CacheEventQueue<>( journal.track( 1, listener ), 1, cacheName );
+        final List<ICacheEventQueue<String, Long>> queues = Collections.singletonList( q );
+
+        final RemoteCacheEventJournal.JournalEntry<String, Long> first = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "key", Long.valueOf( 1 ) ), null );
+        final RemoteCacheEventJournal.JournalEntry<String, Long> second = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "key", Long.valueOf( 2 ) ), null );
+        journal.append( first );
+        journal.append( second );
+
+        // DO WORK
+        final Thread secondDelivery = new Thread( () -> {
+            try
+            {
+                journal.deliver( second, queues );
+            }
+            catch ( final Exception e )
+            {
+                // verified below
+            }
+        } );
+        secondDelivery.start();
+        SleepUtil.sleepAtLeast( 100 );
+
+        // VERIFY
+        assertTrue( "The second event should wait for the first.", secondDelivery.isAlive() );
+        assertEquals( "The journal lock should be free.", 0, journal.replay( 2, q ) );
+
+        journal.deliver( first, queues );
+        secondDelivery.join( 5000 );
+        SleepUtil.sleepAtLeast( 200 );
+        assertEquals( "Wrong number of items.", 2, listener.putItems.size() );
+        assertEquals( "Wrong order.", Long.valueOf( 1 ), listener.putItems.get( 0 ).getVal() );
+        assertEquals( "Wrong order.", Long.valueOf( 2 ), listener.putItems.get( 1 ).getVal() );
+        assertEquals( "Wrong delivered sequence.", 2, journal.getDeliveredSequence( 1 ) );
+        q.destroy();
+    }
+
+    /**
+     * An event of another key does not wait for a delivery that has not been made yet. The
+     * listener has delivered all events only once both are delivered.
+     * <p>
+     * @throws Exception
+     */
+    public void testEventJournal_OtherKeyNotHeldUp()
+        throws Exception
+    {
+        // SETUP
+        final String cacheName = "testEventJournal_OtherKeyNotHeldUp";
+        final RemoteCacheEventJournal<String, Long> journal = new RemoteCacheEventJournal<>( cacheName, 10 );
+        final MockRemoteCacheListener<String, Long> listener = new MockRemoteCacheListener<>();
+        final ICacheEventQueue<String, Long> q = new CacheEventQueue<>( journal.track( 1, listener ), 1, cacheName );
+        final List<ICacheEventQueue<String, Long>> queues = Collections.singletonList( q );
+
+        final RemoteCacheEventJournal.JournalEntry<String, Long> first = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "a", Long.valueOf( 1 ) ), null );
+        final RemoteCacheEventJournal.JournalEntry<String, Long> second = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "b", Long.valueOf( 2 ) ), null );
+        journal.append( first );
+        journal.append( second );
+
+        // DO WORK
+        final Thread secondDelivery = new Thread( () -> {
+            try
+            {
+                journal.deliver( second, queues );
+            }
+            catch ( final Exception e )
+            {
+                // verified below
+            }
+        } );
+        secondDelivery.start();
+        secondDelivery.join( 5000 );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertFalse( "The second event should not wait for the first.", secondDelivery.isAlive() );
+        assertEquals( "Wrong number of items.", 1, listener.putItems.size() );
+        assertEquals( "The first event is not delivered yet.", 0, journal.getDeliveredSequence( 1 ) );
+
+        // DO WORK
+        journal.deliver( first, queues );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertEquals( "Wrong number of items.", 2, listener.putItems.size() );
+        assertEquals( "Wrong delivered sequence.", 2, journal.getDeliveredSequence( 1 ) );
+        q.destroy();
+    }
+
+    /**
+     * The events delivered to the queue of a listener before its missed events are replayed are
+     * held back, and queued after them.
+     * <p>
+     * @throws Exception
+     */
+    public void testEventJournal_ReplayBeforeLaterEvents()
+        throws Exception
+    {
+        // SETUP
+        final String cacheName = "testEventJournal_ReplayBeforeLaterEvents";
+        final RemoteCacheEventJournal<String, Long> journal = new RemoteCacheEventJournal<>( cacheName, 10 );
+        final RemoteCacheEventJournal.JournalEntry<String, Long> missed = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "key", Long.valueOf( 1 ) ), null );
+        journal.append( missed );
+
+        final MockRemoteCacheListener<String, Long> listener = new MockRemoteCacheListener<>();
+        final ICacheEventQueue<String, Long> q = new CacheEventQueue<>( journal.track( 1, listener ), 1, cacheName );
+        journal.deliver( missed, Collections.<ICacheEventQueue<String, Long>>emptyList() );
+
+        final RemoteCacheEventJournal.JournalEntry<String, Long> later = new RemoteCacheEventJournal.JournalEntry<>(
+            RemoteCacheEventJournal.EventType.PUT, 0, new CacheElement<>( cacheName, "key", Long.valueOf( 2 ) ), null );
+        journal.append( later );
+
+        // DO WORK
+        journal.deliver( later, Collections.singletonList( q ) );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertEquals( "The later event should wait for the replay.", 0, listener.putItems.size() );
+
+        // DO WORK
+        final int replayed = journal.replay( 1, q );
+        SleepUtil.sleepAtLeast( 200 );
+
+        // VERIFY
+        assertEquals( "Wrong number of items replayed.", 1, replayed );
+        assertEquals( "Wrong number of items.", 2, listener.putItems.size() );
+        assertEquals( "Wrong order.", Long.valueOf( 1 ), listener.putItems.get( 0 ).getVal() );
+        assertEquals( "Wrong order.", Long.valueOf( 2 ), listener.putItems.get( 1 ).getVal() );
+        assertEquals( "Wrong delivered sequence.", 2, journal.getDeliveredSequence( 1 ) );
+        q.destroy();
+    }
 }
@@ -0,0 +1,157 @@
+package org.apache.commons.jcs3.auxiliary.remote.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.jcs3.auxiliary.remote.http.client.RemoteHttpCacheAttributes;
+import org.apache.commons.jcs3.auxiliary.remote.value.RemoteCacheResponse;
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.utils.serialization.CompressingSerializer;
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the response streamer. */
+public class RemoteCacheResponseStreamerUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that a map payload is written entry by entry and read back.
+     * <p>
+     * @throws Exception
+     */
+    public void testMapPayload_RoundTrip()
+        throws Exception
+    {
+        // SETUP
+        final Map<String, ICacheElement<String, String>> elements = new HashMap<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            elements.put( "key" + i, new CacheElement<>( "test", "key" + i, "value" + i ) );
+        }
+        final RemoteCacheResponse<Object> response = new RemoteCacheResponse<>();
+        response.setPayload( elements );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CompressingSerializer serializer = new CompressingSerializer();
+
+        // DO WORK
+        RemoteCacheResponseStreamer.writeResponse( response, out, serializer );
+        final RemoteCacheResponse<Map<String, ICacheElement<String, String>>> result =
+            RemoteCacheResponseStreamer.readResponse( new ByteArrayInputStream( out.toByteArray() ), serializer, null,
+                    RemoteHttpCacheAttributes.DEFAULT_MAX_STREAM_FRAME_BYTES );
+
+        // VERIFY
+        assertTrue( "Should be a success.", result.isSuccess() );
+        assertEquals( "Wrong number of entries.", 100, result.getPayload().size() );
+        assertEquals( "Wrong value.", "value42", result.getPayload().get( "key42" ).getVal() );
+    }
+
+    /**
+     * Verify that other payloads and errors are read back.
+     * <p>
+     * @throws Exception
+     */
+    public void testSimplePayload_RoundTrip()
+        throws Exception
+    {
+        // SETUP
+        final RemoteCacheResponse<Object> response = new RemoteCacheResponse<>();
+        response.setSuccess( false );
+        response.setErrorMessage( "error" );
+        response.setPayload( "payload" );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final StandardSerializer serializer = new StandardSerializer();
+
+        // DO WORK
+        RemoteCacheResponseStreamer.writeResponse( response, out, serializer );
+        final RemoteCacheResponse<String> result =
+            RemoteCacheResponseStreamer.readResponse( new ByteArrayInputStream( out.toByteArray() ), serializer, null,
+                    RemoteHttpCacheAttributes.DEFAULT_MAX_STREAM_FRAME_BYTES );
+
+        // VERIFY
+        assertFalse( "Should not be a success.", result.isSuccess() );
+        assertEquals( "Wrong error message.", "error", result.getErrorMessage() );
+        assertEquals( "Wrong payload.", "payload", result.getPayload() );
+    }
+
+    /**
+     * Verify that a frame longer than the maximum is refused.
+     * <p>
+     * @throws Exception
+     */
+    public void testFrameTooLong()
+        throws Exception
+    {
+        // SETUP
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream( out );
+        dos.writeInt( 1000 );
+        dos.write( new byte[1000] );
+        dos.flush();
+
+        // DO WORK
+        try
+        {
+            RemoteCacheResponseStreamer.readResponse( new ByteArrayInputStream( out.toByteArray() ),
+                    new StandardSerializer(), null, 100 );
+            fail( "Should refuse a frame over the maximum." );
+        }
+        catch ( final IOException e )
+        {
+            // VERIFY
+            assertTrue( "Wrong message: " + e.getMessage(), e.getMessage().contains( "exceeds the maximum" ) );
+        }
+    }
+
+    /**
+     * Verify that a negative frame length is refused.
+     * <p>
+     * @throws Exception
+     */
+    public void testFrameNegativeLength()
+        throws Exception
+    {
+        // SETUP
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream( out );
+        dos.writeInt( -5 );
+        dos.flush();
+
+        // DO WORK
+        try
+        {
+            RemoteCacheResponseStreamer.readResponse( new ByteArrayInputStream( out.toByteArray() ),
+                    new StandardSerializer(), null, 100 );
+            fail( "Should refuse a negative frame length." );
+        }
+        catch ( final IOException e )
+        {
+            // VERIFY
+            assertTrue( "Wrong message: " + e.getMessage(), e.getMessage().contains( "Invalid frame length" ) );
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package org.apache.commons.jcs3.engine;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue.OverflowPolicy;
+import org.apache.commons.jcs3.engine.behavior.ICacheListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the bounded cache event queue.
+ */
+public class BoundedCacheEventQueueUnitTest
+    extends TestCase
+{
+    /**
+     * A listener that records the keys it gets and waits for a latch on the first put.
+     */
+    private static class BlockingListener
+        implements ICacheListener<String, String>
+    {
+        /** Released by the test */
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        /** Counted down when the first event arrived */
+        final CountDownLatch started = new CountDownLatch( 1 );
+
+        /** Keys and values in the order they arrived */
+        final List<String> received = Collections.synchronizedList( new ArrayList<>() );
+
+        /** Counted down for each event */
+        final CountDownLatch done;
+
+        BlockingListener( final int expected )
+        {
+            done = new CountDownLatch( expected );
+        }
+
+        @Override
+        public void handlePut( final ICacheElement<String, String> item )
+        {
+            started.countDown();
+            try
+            {
+                release.await( 5, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            received.add( item.getKey() + "=" + item.getVal() );
+            done.countDown();
+        }
+
+        @Override
+        public void handleRemove( final String cacheName, final String key )
+        {
+            received.add( "-" + key );
+            done.countDown();
+        }
+
+        @Override
+        public void handleRemoveAll( final String cacheName )
+        {
+            received.add( "*" );
+            done.countDown();
+        }
+
+        @Override
+        public void handleDispose( final String cacheName )
+        {
+            // nothing
+        }
+
+        @Override
+        public void setListenerId( final long id )
+        {
+            // nothing
+        }
+
+        @Override
+        public long getListenerId()
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Fills a queue while its listener is blocked on the first event.
+     * <p>
+     * @param queue
+     * @param listener
+     * @param keys
+     * @throws Exception
+     */
+    private void fill( final BoundedCacheEventQueue<String, String> queue, final BlockingListener listener,
+                       final String... keys )
+        throws Exception
+    {
+        queue.addPutEvent( new CacheElement<>( "testCache", "first", "0" ) );
+        assertTrue( "Worker should have started", listener.started.await( 5, TimeUnit.SECONDS ) );
+
+        for ( int i = 0; i < keys.length; i++ )
+        {
+            queue.addPutEvent( new CacheElement<>( "testCache", keys[i], String.valueOf( i + 1 ) ) );
+        }
+    }
+
+    /**
+     * Verify that the oldest events are dropped when the queue is full.
+     * <p>
+     * @throws Exception
+     */
+    public void testDropOldest()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 3 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 2, OverflowPolicy.DROP_OLDEST );
+
+        // DO WORK
+        fill( queue, listener, "a", "b", "c" );
+
+        // VERIFY
+        assertEquals( "Wrong size", 2, queue.size() );
+        assertEquals( "Wrong drop count", 1, queue.getDropCount() );
+
+        listener.release.countDown();
+        assertTrue( "Events should be processed", listener.done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong events", "[first=0, b=2, c=3]", listener.received.toString() );
+        queue.destroy();
+    }
+
+    /**
+     * Verify that events for the same key are merged when the queue is full.
+     * <p>
+     * @throws Exception
+     */
+    public void testCoalesce()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 3 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 2, OverflowPolicy.COALESCE );
+
+        // DO WORK
+        fill( queue, listener, "a", "b", "a", "b", "a" );
+
+        // VERIFY
+        assertEquals( "Wrong size", 2, queue.size() );
+        assertEquals( "Wrong coalesce count", 3, queue.getCoalesceCount() );
+        assertEquals( "Wrong drop count", 0, queue.getDropCount() );
+
+        listener.release.countDown();
+        assertTrue( "Events should be processed", listener.done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong events", "[first=0, a=5, b=4]", listener.received.toString() );
+        queue.destroy();
+    }
+
+    /**
+     * Verify that events for the same key are not merged while there is room in the queue.
+     * <p>
+     * @throws Exception
+     */
+    public void testCoalesce_NotFull()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 4 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 10, OverflowPolicy.COALESCE );
+
+        // DO WORK
+        fill( queue, listener, "a", "a", "a" );
+
+        // VERIFY
+        assertEquals( "Wrong size", 3, queue.size() );
+        assertEquals( "Wrong coalesce count", 0, queue.getCoalesceCount() );
+
+        listener.release.countDown();
+        assertTrue( "Events should be processed", listener.done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong events", "[first=0, a=1, a=2, a=3]", listener.received.toString() );
+        queue.destroy();
+    }
+
+    /**
+     * Verify that events are not merged across a remove all.
+     * <p>
+     * @throws Exception
+     */
+    public void testCoalesce_RemoveAll()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 4 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 10, OverflowPolicy.COALESCE );
+
+        // DO WORK
+        fill( queue, listener, "a" );
+        queue.addRemoveAllEvent();
+        queue.addPutEvent( new CacheElement<>( "testCache", "a", "2" ) );
+
+        // VERIFY
+        listener.release.countDown();
+        assertTrue( "Events should be processed", listener.done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong events", "[first=0, a=1, *, a=2]", listener.received.toString() );
+        queue.destroy();
+    }
+
+    /**
+     * Verify that a full queue marks itself as non-functional with the zombie policy.
+     * <p>
+     * @throws Exception
+     */
+    public void testZombie()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 1 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 2, OverflowPolicy.ZOMBIE );
+
+        // DO WORK
+        fill( queue, listener, "a", "b" );
+        assertTrue( "Should still be working", queue.isWorking() );
+        queue.addPutEvent( new CacheElement<>( "testCache", "c", "3" ) );
+
+        // VERIFY
+        assertFalse( "Should not be working", queue.isWorking() );
+        assertEquals( "Should be empty", 0, queue.size() );
+        listener.release.countDown();
+    }
+
+    /**
+     * Verify that a caller waits for room in the queue with the block policy.
+     * <p>
+     * @throws Exception
+     */
+    public void testBlock()
+        throws Exception
+    {
+        // SETUP
+        final BlockingListener listener = new BlockingListener( 4 );
+        final BoundedCacheEventQueue<String, String> queue =
+            new BoundedCacheEventQueue<>( listener, 1, "testCache", 2, OverflowPolicy.BLOCK );
+        fill( queue, listener, "a", "b" );
+
+        // DO WORK
+        final Thread producer = new Thread( () -> queue.addPutEvent( new CacheElement<>( "testCache", "c", "3" ) ) );
+        producer.start();
+        producer.join( 200 );
+
+        // VERIFY
+        assertTrue( "Producer should be blocked", producer.isAlive() );
+
+        listener.release.countDown();
+        producer.join( 5000 );
+        assertFalse( "Producer should be done", producer.isAlive() );
+        assertTrue( "Events should be processed", listener.done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong events", "[first=0, a=1, b=2, c=3]", listener.received.toString() );
+        queue.destroy();
+    }
+}
@@ -2,6 +2,7 @@ package org.apache.commons.jcs3.engine;
 
 import org.apache.commons.jcs3.auxiliary.remote.MockRemoteCacheListener;
 import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue;
+import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue.OverflowPolicy;
 import org.apache.commons.jcs3.engine.behavior.ICacheListener;
 import org.apache.commons.jcs3.engine.behavior.ICacheEventQueue.QueueType;
 
@@ -65,4 +66,26 @@ public class CacheEventQueueFactoryUnitTest
         assertNotNull( "Should have a result", result );
         assertTrue( "Wrong type", result.getQueueType() == QueueType.POOLED );
     }
+
+    /** Test create */
+    public void testCreateCacheEventQueue_Bounded()
+    {
+        // SETUP
+        final QueueType eventQueueType = QueueType.BOUNDED;
+        final ICacheListener<String, String> listener = new MockRemoteCacheListener<>();
+        final long listenerId = 1;
+
+        final CacheEventQueueFactory<String, String> factory = new CacheEventQueueFactory<>();
+
+        // DO WORK
+        final ICacheEventQueue<String, String> result = factory.createCacheEventQueue( listener, listenerId, "cacheName", "threadPoolName",
+                eventQueueType, 100, OverflowPolicy.COALESCE );
+
+        // VERIFY
+        assertNotNull( "Should have a result", result );
+        assertTrue( "Wrong type", result.getQueueType() == QueueType.BOUNDED );
+        assertEquals( "Wrong capacity", 100, ((BoundedCacheEventQueue<String, String>) result).getCapacity() );
+        assertEquals( "Wrong policy", OverflowPolicy.COALESCE, ((BoundedCacheEventQueue<String, String>) result).getOverflowPolicy() );
+        result.destroy();
+    }
 }
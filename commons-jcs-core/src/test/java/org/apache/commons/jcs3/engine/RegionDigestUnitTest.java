@@ -0,0 +1,77 @@
+package org.apache.commons.jcs3.engine;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the region digest.
+ */
+public class RegionDigestUnitTest
+    extends TestCase
+{
+    /** A key without its own hashCode */
+    private static class PlainKey
+        implements Serializable
+    {
+        /** Don't change */
+        private static final long serialVersionUID = 1L;
+
+        /** The value */
+        private final String value;
+
+        /**
+         * @param value the value
+         */
+        PlainKey( final String value )
+        {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Verify that an enum key is hashed by its class and name, not by its identity hash.
+     */
+    public void testGetKeyHash_Enum()
+    {
+        // DO WORK
+        final int hash = RegionDigest.getKeyHash( TimeUnit.SECONDS );
+
+        // VERIFY
+        assertEquals( "Wrong hash", TimeUnit.class.getName().hashCode() * 31 + "SECONDS".hashCode(), hash );
+    }
+
+    /**
+     * Verify that keys without their own hashCode are hashed by value.
+     */
+    public void testGetKeyHash_IdentityHashCode()
+    {
+        // DO WORK
+        final int hash1 = RegionDigest.getKeyHash( new PlainKey( "a" ) );
+        final int hash2 = RegionDigest.getKeyHash( new PlainKey( "a" ) );
+
+        // VERIFY
+        assertEquals( "Equal keys should hash the same", hash1, hash2 );
+        assertEquals( "A String should keep its hashCode", "key".hashCode(), RegionDigest.getKeyHash( "key" ) );
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.commons.jcs3.engine.behavior.ICompositeCacheAttributes;
 import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
 import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Map;
 
 /**
@@ -247,4 +248,92 @@ public class CompositeCacheUnitTest
         // VERIFY
         assertEquals( "Wrong number of calls", 1, diskMock.getMatchingCallCount );
     }
+
+    /**
+     * Verify that a memory hit allocates nothing, once the path is warm.
+     * <p>
+     * @throws IOException
+     */
+    public void testMemoryHitDoesNotAllocate()
+        throws IOException
+    {
+        if ( !( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean ) )
+        {
+            return; // allocations can't be measured on this VM
+        }
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if ( !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled() )
+        {
+            return;
+        }
+
+        // SETUP
+        final ICompositeCacheAttributes cattr = new CompositeCacheAttributes();
+        cattr.setCacheName( "testMemoryHitDoesNotAllocate" );
+        final IElementAttributes attr = new ElementAttributes();
+        attr.setIsEternal( false );
+        attr.setMaxLife( 3600 );
+        final CompositeCache<String, String> cache = new CompositeCache<>( cattr, attr );
+        final String key = "key";
+        cache.update( new CacheElement<>( "testMemoryHitDoesNotAllocate", key, "value", cache.getElementAttributes() ) );
+        final int hits = 100000;
+        for ( int i = 0; i < hits; i++ )
+        {
+            cache.get( key );
+        }
+
+        // DO WORK
+        final long threadId = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes( threadId );
+        for ( int i = 0; i < hits; i++ )
+        {
+            cache.get( key );
+        }
+        final long allocated = threads.getThreadAllocatedBytes( threadId ) - before;
+
+        // VERIFY
+        assertTrue( "Allocated " + allocated + " bytes for " + hits + " hits", allocated < hits );
+    }
+
+    /**
+     * Verify that a pinned hot key is not spooled when the memory cache is full, but is still
+     * removed.
+     * <p>
+     * @throws IOException
+     */
+    public void testPinnedKeyIsNotSpooled()
+        throws IOException
+    {
+        // SETUP
+        final ICompositeCacheAttributes cattr = new CompositeCacheAttributes();
+        cattr.setCacheName( "testPinnedKeyIsNotSpooled" );
+        cattr.setMaxObjects( 5 );
+        cattr.setHotKeyTrackerSize( 1 );
+        cattr.setHotKeySampleRate( 1 );
+        cattr.setPinHotKeys( true );
+        final CompositeCache<String, String> cache = new CompositeCache<>( cattr, new ElementAttributes() );
+        cache.update( new CacheElement<>( "testPinnedKeyIsNotSpooled", "hot", "value" ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            cache.get( "hot" );
+        }
+        assertTrue( "The key should be pinned", cache.isPinned( "hot" ) );
+
+        // DO WORK
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.update( new CacheElement<>( "testPinnedKeyIsNotSpooled", "cold" + i, "value" ) );
+        }
+
+        // VERIFY
+        assertEquals( "The memory cache should stay bounded", 5, cache.getMemoryCache().getSize() );
+        assertNotNull( "The pinned key should stay in memory", cache.getMemoryCache().getQuiet( "hot" ) );
+        assertNull( "The cold keys should be spooled", cache.getMemoryCache().getQuiet( "cold0" ) );
+
+        // DO WORK
+        cache.remove( "hot" );
+
+        // VERIFY
+        assertNull( "The pinned key should still be removed", cache.getMemoryCache().getQuiet( "hot" ) );
+    }
 }
@@ -0,0 +1,189 @@
+package org.apache.commons.jcs3.engine.control;
+
+import org.apache.commons.jcs3.engine.CacheStatus;
+import org.apache.commons.jcs3.engine.CompositeCacheAttributes;
+
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.management.Notification;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.CompositeCacheAttributes;
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.behavior.ICompositeCacheAttributes;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the memory governor */
+public class MemoryGovernorUnitTest
+    extends TestCase
+{
+    /**
+     * Creates a region holding some elements.
+     * <p>
+     * @param cacheName the region name
+     * @param count the number of elements
+     * @return the region
+     * @throws IOException
+     */
+    private static CompositeCache<String, String> createRegion( final String cacheName, final int count )
+        throws IOException
+    {
+        final ICompositeCacheAttributes cattr = new CompositeCacheAttributes();
+        cattr.setCacheName( cacheName );
+        cattr.setMaxObjects( 1000 );
+        final CompositeCache<String, String> region = new CompositeCache<>( cattr, new ElementAttributes() );
+        for ( int i = 0; i < count; i++ )
+        {
+            region.update( new CacheElement<>( cacheName, "key" + i, "value" + i ) );
+        }
+        return region;
+    }
+
+    /**
+     * Verify that the cold regions give up more elements than the hot ones.
+     * <p>
+     * @throws IOException
+     */
+    public void testRelieveFavorsHotRegions()
+        throws IOException
+    {
+        // SETUP
+        final CompositeCache<String, String> cold = createRegion( "cold", 100 );
+        final CompositeCache<String, String> hot = createRegion( "hot", 100 );
+        for ( int i = 0; i < 100; i++ )
+        {
+            hot.get( "key" + i );
+        }
+        final List<CompositeCache<?, ?>> regions = Arrays.asList( cold, hot );
+        final MemoryGovernor governor = new MemoryGovernor( () -> regions, Runnable::run, 30 );
+
+        // DO WORK
+        final int freed = governor.relieve();
+
+        // VERIFY
+        assertEquals( "30% of the elements should be freed", 60, freed );
+        assertEquals( "The cold region should give up two thirds", 60, cold.getMemoryCache().getSize() );
+        assertEquals( "The hot region should give up one third", 80, hot.getMemoryCache().getSize() );
+        assertEquals( 60, governor.getFreedCount() );
+    }
+
+    /**
+     * Verify that a threshold notification triggers a relief.
+     * <p>
+     * @throws IOException
+     */
+    public void testHandleNotification()
+        throws IOException
+    {
+        // SETUP
+        final CompositeCache<String, String> region = createRegion( "notified", 100 );
+        final List<CompositeCache<?, ?>> regions = Arrays.asList( region );
+        final MemoryGovernor governor = new MemoryGovernor( () -> regions, Runnable::run, 10 );
+
+        // DO WORK
+        governor.handleNotification( new Notification( "jmx.attribute.change", this, 1 ), null );
+        governor.handleNotification(
+                new Notification( MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED, this, 2 ), null );
+
+        // VERIFY
+        assertEquals( "Only the threshold notification counts", 1, governor.getThresholdCount() );
+        assertEquals( "10% of the elements should be freed", 90, region.getMemoryCache().getSize() );
+    }
+
+    /**
+     * Verify that the thresholds the pools had before are put back on dispose.
+     */
+    public void testDisposeRestoresThresholds()
+    {
+        // SETUP
+        MemoryPoolMXBean watched = null;
+        for ( final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+        {
+            if ( pool.getType() == MemoryType.HEAP && pool.getUsage().getMax() > 0
+                && pool.isCollectionUsageThresholdSupported() )
+            {
+                watched = pool;
+                break;
+            }
+        }
+        if ( watched == null )
+        {
+            return; // nothing to watch on this JVM
+        }
+        final long before = watched.getCollectionUsageThreshold();
+        final long previous = watched.getUsage().getMax() / 2;
+        watched.setCollectionUsageThreshold( previous );
+        final List<CompositeCache<?, ?>> regions = Arrays.asList();
+        final MemoryGovernor governor = new MemoryGovernor( () -> regions, Runnable::run, 10 );
+
+        try
+        {
+            // DO WORK
+            assertTrue( "The governor should start", governor.start( 95 ) );
+            final long set = watched.getCollectionUsageThreshold();
+            governor.dispose();
+
+            // VERIFY
+            assertTrue( "The governor should have set its threshold", set != previous );
+            assertEquals( "The previous threshold should be back", previous, watched.getCollectionUsageThreshold() );
+        }
+        finally
+        {
+            watched.setCollectionUsageThreshold( before );
+        }
+    }
+
+    /**
+     * Verify that the manager starts and stops the governor from the configuration.
+     */
+    public void testConfiguredByManager()
+    {
+        // SETUP
+        final Properties props = new Properties();
+        props.put( "jcs.default", "" );
+        props.put( MemoryGovernor.HEAP_USAGE_THRESHOLD_PERCENT, "95" );
+
+        // DO WORK
+        final CompositeCacheManager manager = CompositeCacheManager.getUnconfiguredInstance();
+        manager.configure( props, false, true );
+
+        // VERIFY
+        try
+        {
+            assertNotNull( "The governor should be started", manager.getMemoryGovernor() );
+        }
+        finally
+        {
+            manager.shutDown();
+        }
+        assertNull( "The governor should be stopped", manager.getMemoryGovernor() );
+    }
+}
@@ -274,6 +274,23 @@ public class SimpleEventHandlingUnitTest
     	assertFalse("Creation times should be different", ctime1 == ctime2);
     }
 
+    /**
+     * Test that adding a handler to a clone doesn't change the attributes it was cloned from.
+     */
+    public void testElementAttributesCloneSharesHandlersUntilWrite()
+    {
+        final ElementAttributes defaults = new ElementAttributes();
+        defaults.addElementEventHandler( new MyEventHandler() );
+
+        final IElementAttributes elem = defaults.clone();
+        assertSame( "The clone should share the handlers", defaults.getElementEventHandlers(),
+                elem.getElementEventHandlers() );
+
+        elem.addElementEventHandler( new MyEventHandler() );
+        assertEquals( "The defaults should not change", 1, defaults.getElementEventHandlers().size() );
+        assertEquals( "The clone should have both", 2, elem.getElementEventHandlers().size() );
+    }
+
     /**
      * Simple event counter used to verify test results.
      */
@@ -0,0 +1,167 @@
+package org.apache.commons.jcs3.engine.memory.lru;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.CompositeCacheAttributes;
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICompositeCacheAttributes;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.engine.memory.behavior.IWeigher;
+import org.apache.commons.jcs3.engine.memory.util.SerializedSizeWeigher;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the memory caches bounded by size. */
+public class LRUMemoryCacheWeightUnitTest
+    extends TestCase
+{
+    /** One kB */
+    private static final int KB = 1024;
+
+    /**
+     * Creates a memory cache bounded to 1 MB.
+     * <p>
+     * @param cacheName the region name
+     * @param weigherClassName the weigher, null for the default
+     * @return the initialized memory cache
+     */
+    private static LRUMemoryCache<String, byte[]> createCache( final String cacheName, final String weigherClassName )
+    {
+        final ICompositeCacheAttributes attributes = new CompositeCacheAttributes();
+        attributes.setCacheName( cacheName );
+        attributes.setMaxObjects( 10000 );
+        attributes.setMaxMemorySizeMB( 1 );
+        attributes.setWeigherClassName( weigherClassName );
+
+        final LRUMemoryCache<String, byte[]> cache = new LRUMemoryCache<>();
+        cache.initialize( new CompositeCache<>( attributes, new ElementAttributes() ) );
+        return cache;
+    }
+
+    /**
+     * Verify that the least recently used elements are spooled until the total weight fits.
+     * <p>
+     * @throws IOException
+     */
+    public void testSpoolBySize()
+        throws IOException
+    {
+        // SETUP
+        final LRUMemoryCache<String, byte[]> cache = createCache( "testSpoolBySize", null );
+
+        // DO WORK
+        for ( int i = 0; i < 10; i++ )
+        {
+            cache.update( new CacheElement<>( "testSpoolBySize", "key" + i, new byte[200 * KB] ) );
+        }
+
+        // VERIFY
+        assertEquals( "Only 5 values of 200 kB fit in 1 MB", 5, cache.getSize() );
+        assertTrue( "The weight should fit", cache.getWeight() <= KB * KB );
+        assertNull( "The oldest should be spooled", cache.getQuiet( "key4" ) );
+        assertNotNull( "The newest should remain", cache.getQuiet( "key9" ) );
+    }
+
+    /**
+     * Verify that replacing and removing elements keeps the weight right.
+     * <p>
+     * @throws IOException
+     */
+    public void testWeightFollowsUpdatesAndRemovals()
+        throws IOException
+    {
+        // SETUP
+        final LRUMemoryCache<String, byte[]> cache = createCache( "testWeight", null );
+        cache.update( new CacheElement<>( "testWeight", "key", new byte[100 * KB] ) );
+        final long big = cache.getWeight();
+
+        // DO WORK & VERIFY
+        cache.update( new CacheElement<>( "testWeight", "key", new byte[10 * KB] ) );
+        assertEquals( "The replaced value should not count", big - 90 * KB, cache.getWeight() );
+
+        cache.update( new CacheElement<>( "testWeight", "yek", new byte[10 * KB] ) );
+        cache.remove( "key" );
+        assertEquals( "The removed value should not count", big - 90 * KB, cache.getWeight() );
+
+        cache.removeAll();
+        assertEquals( "Nothing left", 0, cache.getWeight() );
+    }
+
+    /**
+     * Verify that the weigher can be configured.
+     * <p>
+     * @throws IOException
+     */
+    public void testCustomWeigher()
+        throws IOException
+    {
+        // SETUP
+        final LRUMemoryCache<String, byte[]> cache = createCache( "testCustomWeigher", HalfMegabyteWeigher.class.getName() );
+
+        // DO WORK
+        for ( int i = 0; i < 5; i++ )
+        {
+            cache.update( new CacheElement<>( "testCustomWeigher", "key" + i, new byte[1] ) );
+        }
+
+        // VERIFY
+        assertEquals( "Only 2 elements of 512 kB fit in 1 MB", 2, cache.getSize() );
+    }
+
+    /**
+     * Verify that an unserializable value is given the average serialized size rather than nothing.
+     */
+    public void testUnserializableValueWeighed()
+    {
+        // SETUP
+        final SerializedSizeWeigher<String, Object> weigher = new SerializedSizeWeigher<>();
+        final Object unserializable = new Object();
+
+        // DO WORK
+        final long before = weigher.weigh( new CacheElement<>( "test", "a", unserializable ) );
+        final long serialized = weigher.weigh( new CacheElement<>( "test", "b", new ArrayList<>() ) );
+        final long after = weigher.weigh( new CacheElement<>( "test", "c", unserializable ) );
+
+        // VERIFY
+        final long overhead = SerializedSizeWeigher.ELEMENT_OVERHEAD + 40 + 2;
+        assertEquals( "Wrong weight before any value was serialized",
+                overhead + SerializedSizeWeigher.DEFAULT_UNSERIALIZABLE_SIZE, before );
+        assertEquals( "Wrong weight after a value was serialized", serialized, after );
+    }
+
+    /** Weighs every element 512 kB. */
+    public static class HalfMegabyteWeigher
+        implements IWeigher<String, byte[]>
+    {
+        /**
+         * @see org.apache.commons.jcs3.engine.memory.behavior.IWeigher#weigh(org.apache.commons.jcs3.engine.behavior.ICacheElement)
+         */
+        @Override
+        public long weigh( final ICacheElement<String, byte[]> element )
+        {
+            return 512 * KB;
+        }
+    }
+}
@@ -279,7 +279,7 @@ public class MRUMemoryCacheUnitTest
     public void testRemovePartialThroughHub()
         throws CacheException
     {
-        final CacheAccess<String, String> cache = JCS.getInstance( "testGetStatsThroughHub" );
+        final CacheAccess<String, String> cache = JCS.getInstance( "testRemovePartialThroughHub" );
 
         final int max = cache.getCacheAttributes().getMaxObjects();
         final int items = max / 2;
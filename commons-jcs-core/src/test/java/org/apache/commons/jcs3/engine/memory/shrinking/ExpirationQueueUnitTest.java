@@ -0,0 +1,129 @@
+package org.apache.commons.jcs3.engine.memory.shrinking;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.jcs3.engine.ElementAttributes;
+import org.apache.commons.jcs3.engine.ElementAttributesUtils;
+
+/**
+ * Tests the expiration queue used by the shrinker.
+ */
+public class ExpirationQueueUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that only the due keys are returned, and only once.
+     */
+    public void testPollOnlyDue()
+    {
+        // SETUP
+        final ExpirationQueue<String, String> queue = new ExpirationQueue<>( 1000, -1 );
+        queue.schedule( "a", 1500 );
+        queue.schedule( "b", 5000 );
+
+        // DO WORK & VERIFY
+        assertEquals( "nothing is due yet", Collections.emptyList(), queue.poll( 1999 ) );
+        assertEquals( "wrong due keys", Arrays.asList( "a" ), queue.poll( 2000 ) );
+        assertEquals( "wrong size", 1, queue.size() );
+        assertEquals( "a should be gone", Collections.emptyList(), queue.poll( 4999 ) );
+        assertEquals( "wrong due keys", Arrays.asList( "b" ), queue.poll( 5000 ) );
+        assertEquals( "wrong size", 0, queue.size() );
+    }
+
+    /**
+     * Verify that a key is only queued once, for its earliest deadline.
+     */
+    public void testEarliestDeadlineWins()
+    {
+        // SETUP
+        final ExpirationQueue<String, String> queue = new ExpirationQueue<>( 1000, -1 );
+
+        // DO WORK
+        queue.schedule( "later", 5000 );
+        queue.schedule( "later", 9000 );
+        queue.schedule( "sooner", 9000 );
+        queue.schedule( "sooner", 3000 );
+
+        // VERIFY
+        assertEquals( "wrong size", 2, queue.size() );
+        assertEquals( "wrong due keys", Arrays.asList( "sooner" ), queue.poll( 3000 ) );
+        assertEquals( "wrong due keys", Arrays.asList( "later" ), queue.poll( 5000 ) );
+        assertEquals( "keys are queued once", Collections.emptyList(), queue.poll( 9000 ) );
+    }
+
+    /**
+     * Verify that removed keys are not polled any more.
+     */
+    public void testRemove()
+    {
+        // SETUP
+        final ExpirationQueue<String, String> queue = new ExpirationQueue<>( 1000, -1 );
+        queue.schedule( "a", 1000 );
+        queue.schedule( "b", 1000 );
+        queue.schedule( "c:1", 2000 );
+        queue.schedule( "c:2", 3000 );
+        queue.schedule( "d", 4000 );
+
+        // DO WORK
+        queue.remove( "a" );
+        queue.remove( "unknown" );
+        queue.removeIf( key -> key.startsWith( "c:" ) );
+
+        // VERIFY
+        assertEquals( "wrong size", 2, queue.size() );
+        assertEquals( "wrong due keys", Arrays.asList( "b", "d" ), queue.poll( 4000 ) );
+
+        queue.schedule( "e", 5000 );
+        queue.clear();
+        assertEquals( "wrong size", 0, queue.size() );
+        assertEquals( "nothing should be due", Collections.emptyList(), queue.poll( 5000 ) );
+    }
+
+    /**
+     * Verify the deadline is the earliest of the max life, idle time and memory idle time.
+     */
+    public void testGetDeadline()
+    {
+        // SETUP
+        final ElementAttributes attributes = new ElementAttributes();
+        attributes.setIsEternal( false );
+        attributes.setMaxLife( 10 );
+        attributes.setIdleTime( 5 );
+        ElementAttributesUtils.setLastAccessTime( attributes, attributes.getCreateTime() );
+        final long start = attributes.getCreateTime();
+
+        // VERIFY
+        assertEquals( "idle time should win", start + 5001,
+                new ExpirationQueue<String, String>( 1000, -1 ).getDeadline( attributes ) );
+        assertEquals( "memory idle time should win", start + 2001,
+                new ExpirationQueue<String, String>( 1000, 2000 ).getDeadline( attributes ) );
+
+        attributes.setIsEternal( true );
+        assertEquals( "eternal elements have no deadline", -1,
+                new ExpirationQueue<String, String>( 1000, -1 ).getDeadline( attributes ) );
+        assertEquals( "but can be spooled", start + 2001,
+                new ExpirationQueue<String, String>( 1000, 2000 ).getDeadline( attributes ) );
+    }
+}
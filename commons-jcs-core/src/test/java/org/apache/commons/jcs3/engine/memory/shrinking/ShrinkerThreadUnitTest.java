@@ -31,6 +31,7 @@ import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.control.CompositeCache;
 import org.apache.commons.jcs3.engine.control.event.behavior.ElementEventType;
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * This tests the functionality of the shrinker thread.
@@ -333,4 +334,167 @@ public class ShrinkerThreadUnitTest
         //assertEquals( "Event handler ExceededIdleTimeBackground called the wrong number of times.", 3, handler.getExceededIdleTimeBackgroundCount() );
         assertEquals( "Wrong number of elements remain.", 7, memory.getSize() );
     }
+
+    /**
+     * Verify that with the memory shrinker enabled only the due elements are looked at, through
+     * the expiration queue of the region.
+     * <p>
+     * @throws Exception
+     */
+    public void testShrinkWithExpirationQueue()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheAttributes cacheAttr = new CompositeCacheAttributes();
+        cacheAttr.setCacheName("testRegion");
+        cacheAttr.setMemoryCacheName("org.apache.commons.jcs3.engine.memory.MockMemoryCache");
+        cacheAttr.setUseMemoryShrinker( true );
+        cacheAttr.setMaxMemoryIdleTimeSeconds( -1 );
+
+        final CompositeCache<String, String> cache = new CompositeCache<>(cacheAttr, new ElementAttributes());
+        final MockMemoryCache<String, String> memory = (MockMemoryCache<String, String>)cache.getMemoryCache();
+        final ShrinkerThread<String, String> shrinker = new ShrinkerThread<>( cache );
+        shrinker.run();
+
+        final ICacheElement<String, String> expiring = new CacheElement<>( "testRegion", "expiring", "value" );
+        final ElementAttributes elementAttr = new ElementAttributes();
+        elementAttr.setIsEternal( false );
+        elementAttr.setMaxLife( 1 );
+        expiring.setElementAttributes( elementAttr );
+        cache.update( expiring );
+
+        final ICacheElement<String, String> eternal = new CacheElement<>( "testRegion", "eternal", "value" );
+        eternal.setElementAttributes( new ElementAttributes() );
+        cache.update( eternal );
+
+        assertEquals( "only the expiring element should be queued", 1, cache.getExpirationQueue().size() );
+
+        // DO WORK
+        shrinker.run();
+
+        // VERIFY
+        assertEquals( "Nothing should have expired yet.", 2, memory.getSize() );
+
+        Thread.sleep( 2100 );
+        shrinker.run();
+
+        assertNull( "The element should have expired.", memory.getQuiet( "expiring" ) );
+        assertNotNull( "The eternal element should remain.", memory.getQuiet( "eternal" ) );
+        assertEquals( "The queue should be empty.", 0, cache.getExpirationQueue().size() );
+    }
+
+    /**
+     * Verify that the keys spooled, removed or cleared from memory leave the expiration queue, so
+     * that it never holds more keys than the memory cache.
+     * <p>
+     * @throws Exception
+     */
+    public void testExpirationQueueBoundedByMemory()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheAttributes cacheAttr = new CompositeCacheAttributes();
+        cacheAttr.setCacheName("testRegion");
+        cacheAttr.setUseMemoryShrinker( true );
+        cacheAttr.setMaxObjects( 10 );
+
+        final CompositeCache<String, String> cache = new CompositeCache<>(cacheAttr, new ElementAttributes());
+
+        // DO WORK
+        for ( int i = 0; i < 100; i++ )
+        {
+            cache.update( new CacheElement<>( "testRegion", "key" + i, "value", new ElementAttributes() ) );
+        }
+
+        // VERIFY
+        assertEquals( "Wrong number of elements in memory.", 10, cache.getMemoryCache().getSize() );
+        assertEquals( "The spooled keys should have left the queue.", 10, cache.getExpirationQueue().size() );
+        cache.remove( "key99" );
+        assertEquals( "The removed key should have left the queue.", 9, cache.getExpirationQueue().size() );
+        cache.removeAll();
+        assertEquals( "The queue should be empty.", 0, cache.getExpirationQueue().size() );
+    }
+
+    /**
+     * Verify that an idle pinned hot key is not spooled, while an idle cold key is.
+     * <p>
+     * @throws Exception
+     */
+    public void testPinnedKeyIsNotSpooledWhenIdle()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheAttributes cacheAttr = new CompositeCacheAttributes();
+        cacheAttr.setCacheName("testRegion");
+        cacheAttr.setMemoryCacheName("org.apache.commons.jcs3.engine.memory.MockMemoryCache");
+        cacheAttr.setMaxMemoryIdleTimeSeconds( 1 );
+        cacheAttr.setHotKeyTrackerSize( 1 );
+        cacheAttr.setHotKeySampleRate( 1 );
+        cacheAttr.setPinHotKeys( true );
+
+        final CompositeCache<String, String> cache = new CompositeCache<>(cacheAttr, new ElementAttributes());
+        final MockMemoryCache<String, String> memory = (MockMemoryCache<String, String>)cache.getMemoryCache();
+
+        final ElementAttributes hotAttr = new ElementAttributes();
+        cache.update( new CacheElement<>( "testRegion", "hot", "value", hotAttr ) );
+        final ElementAttributes coldAttr = new ElementAttributes();
+        cache.update( new CacheElement<>( "testRegion", "cold", "value", coldAttr ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            cache.get( "hot" );
+        }
+
+        // set both to 2 seconds ago.
+        ElementAttributesUtils.setLastAccessTime( hotAttr, System.currentTimeMillis() - 2000 );
+        ElementAttributesUtils.setLastAccessTime( coldAttr, System.currentTimeMillis() - 2000 );
+
+        // DO WORK
+        final ShrinkerThread<String, String> shrinker = new ShrinkerThread<>( cache );
+        shrinker.run();
+
+        // VERIFY
+        assertNotNull( "The pinned key should stay in memory.", memory.getQuiet( "hot" ) );
+        assertNull( "The cold key should have been spooled.", memory.getQuiet( "cold" ) );
+    }
+
+    /**
+     * Verify that an idle pinned hot key is looked at again when it expires, if that comes before
+     * the end of the next memory idle time.
+     * <p>
+     * @throws Exception
+     */
+    public void testPinnedKeyRequeuedForExpiry()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCacheAttributes cacheAttr = new CompositeCacheAttributes();
+        cacheAttr.setCacheName("testRegion");
+        cacheAttr.setMemoryCacheName("org.apache.commons.jcs3.engine.memory.MockMemoryCache");
+        cacheAttr.setUseMemoryShrinker( true );
+        cacheAttr.setMaxMemoryIdleTimeSeconds( 100 );
+        cacheAttr.setHotKeyTrackerSize( 1 );
+        cacheAttr.setHotKeySampleRate( 1 );
+        cacheAttr.setPinHotKeys( true );
+
+        final CompositeCache<String, String> cache = new CompositeCache<>(cacheAttr, new ElementAttributes());
+
+        final ElementAttributes hotAttr = new ElementAttributes();
+        hotAttr.setIsEternal( false );
+        hotAttr.setMaxLife( 5 );
+        cache.update( new CacheElement<>( "testRegion", "hot", "value", hotAttr ) );
+        for ( int i = 0; i < 100; i++ )
+        {
+            cache.get( "hot" );
+        }
+        final long now = System.currentTimeMillis();
+        ElementAttributesUtils.setLastAccessTime( hotAttr, now - 200 * 1000 );
+
+        // DO WORK
+        final ShrinkerThread<String, String> shrinker = new ShrinkerThread<>( cache );
+        shrinker.run();
+
+        // VERIFY
+        assertEquals( "The pinned key should be queued for its max life",
+                Collections.singletonList( "hot" ), cache.getExpirationQueue().poll( now + 7000 ) );
+    }
 }
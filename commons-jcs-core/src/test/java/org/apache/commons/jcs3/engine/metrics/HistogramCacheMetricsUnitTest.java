@@ -0,0 +1,155 @@
+package org.apache.commons.jcs3.engine.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Properties;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.behavior.ICacheType.CacheType;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
+import org.apache.commons.jcs3.engine.metrics.behavior.CacheOperation;
+import org.apache.commons.jcs3.engine.stats.behavior.IStatElement;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the histogram metrics */
+public class HistogramCacheMetricsUnitTest
+    extends TestCase
+{
+    /** The manager */
+    private CompositeCacheManager manager;
+
+    /**
+     * Configures a manager whose regions hold 10 elements in memory and overflow to disk.
+     */
+    @Override
+    public void setUp()
+    {
+        final Properties props = new Properties();
+        props.put( "jcs.default", "DC" );
+        props.put( "jcs.default.cacheattributes.MaxObjects", "10" );
+        props.put( "jcs.auxiliary.DC", "org.apache.commons.jcs3.auxiliary.disk.indexed.IndexedDiskCacheFactory" );
+        props.put( "jcs.auxiliary.DC.attributes",
+                "org.apache.commons.jcs3.auxiliary.disk.indexed.IndexedDiskCacheAttributes" );
+        props.put( "jcs.auxiliary.DC.attributes.DiskPath", "target/test-sandbox/metrics" );
+        props.put( CompositeCacheManager.METRICS_PREFIX, HistogramCacheMetrics.class.getName() );
+        props.put( CompositeCacheManager.METRICS_PREFIX + ".SlowOperationThresholdMillis", "0" );
+
+        manager = CompositeCacheManager.getUnconfiguredInstance();
+        manager.configure( props, false, true );
+    }
+
+    /**
+     * Shuts the manager down.
+     */
+    @Override
+    public void tearDown()
+    {
+        manager.shutDown();
+    }
+
+    /**
+     * Verify that the region records the latencies of each tier, the evictions and the gauges.
+     * <p>
+     * @throws Exception
+     */
+    public void testRegionMetrics()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCache<String, String> cache = manager.getCache( "testRegionMetrics" );
+        cache.removeAll();
+        final HistogramCacheMetrics metrics = (HistogramCacheMetrics) manager.getCacheMetrics();
+        assertSame( metrics, cache.getCacheMetrics() );
+        assertEquals( "The threshold should be configured", 0, metrics.getSlowOperationThresholdMillis() );
+
+        // DO WORK
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.update( new CacheElement<>( "testRegionMetrics", "key" + i, "value" + i ) );
+        }
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.get( "key" + i );
+        }
+        cache.remove( "key0" );
+
+        // VERIFY
+        assertEquals( 20, metrics.getHistogram( "testRegionMetrics", CacheType.CACHE_HUB, CacheOperation.PUT )
+                .getTotalCount() );
+        assertEquals( 20, metrics.getHistogram( "testRegionMetrics", CacheType.CACHE_HUB, CacheOperation.GET )
+                .getTotalCount() );
+        assertEquals( 1, metrics.getHistogram( "testRegionMetrics", CacheType.CACHE_HUB, CacheOperation.REMOVE )
+                .getTotalCount() );
+        assertNotNull( "The spooled elements should go to disk",
+                metrics.getHistogram( "testRegionMetrics", CacheType.DISK_CACHE, CacheOperation.PUT ) );
+        assertNotNull( "The gets missing memory should go to disk",
+                metrics.getHistogram( "testRegionMetrics", CacheType.DISK_CACHE, CacheOperation.GET ) );
+        assertTrue( "The overflow should be counted", metrics.getEvictionCount( "testRegionMetrics" ) >= 10 );
+        assertTrue( "Every operation is slow with a 0 threshold",
+                metrics.getSlowOperationCount( "testRegionMetrics" ) >= 41 );
+
+        final String stats = cache.getStats();
+        assertTrue( stats, stats.contains( "GET CACHE_HUB p99 (ns)" ) );
+        assertTrue( stats, stats.contains( "PUT DISK_CACHE p999 (ns)" ) );
+        assertTrue( stats, stats.contains( "Event Queue Size DC" ) );
+        assertEquals( Long.valueOf( cache.getMemoryCache().getSize() ), find( cache, "Memory Size" ) );
+    }
+
+    /**
+     * Verify that a disposed region is forgotten.
+     * <p>
+     * @throws Exception
+     */
+    public void testDisposeUnregisters()
+        throws Exception
+    {
+        // SETUP
+        final CompositeCache<String, String> cache = manager.getCache( "testDisposeUnregisters" );
+        cache.update( new CacheElement<>( "testDisposeUnregisters", "key", "value" ) );
+        final HistogramCacheMetrics metrics = (HistogramCacheMetrics) manager.getCacheMetrics();
+        assertFalse( metrics.getStatElements( "testDisposeUnregisters" ).isEmpty() );
+
+        // DO WORK
+        manager.freeCache( "testDisposeUnregisters" );
+
+        // VERIFY
+        assertTrue( metrics.getStatElements( "testDisposeUnregisters" ).isEmpty() );
+        assertNull( metrics.getHistogram( "testDisposeUnregisters", CacheType.CACHE_HUB, CacheOperation.PUT ) );
+    }
+
+    /**
+     * @param cache the region
+     * @param name the name of a stat element
+     * @return its data
+     */
+    private static Object find( final CompositeCache<?, ?> cache, final String name )
+    {
+        for ( final IStatElement<?> elem : cache.getStatistics().getStatElements() )
+        {
+            if ( name.equals( elem.getName() ) )
+            {
+                return elem.getData();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package org.apache.commons.jcs3.engine.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/** Unit tests for the latency histogram */
+public class LatencyHistogramUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that the buckets follow each other and that each holds the values it reports.
+     */
+    public void testBucketsAreContiguous()
+    {
+        int previous = -1;
+        for ( long value = 0; value < 100000; value++ )
+        {
+            final int index = LatencyHistogram.bucketIndex( value );
+            assertTrue( "Bucket of " + value + " should follow " + previous,
+                    index == previous || index == previous + 1 );
+            assertTrue( "Bucket " + index + " should hold " + value,
+                    LatencyHistogram.highestEquivalentValue( index ) >= value );
+            previous = index;
+        }
+        assertEquals( "The largest value should have the last bucket", LatencyHistogram.MAX_VALUE,
+                LatencyHistogram.highestEquivalentValue( LatencyHistogram.bucketIndex( LatencyHistogram.MAX_VALUE ) ) );
+    }
+
+    /**
+     * Verify the percentiles of uniformly distributed values.
+     */
+    public void testPercentiles()
+    {
+        // SETUP
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // DO WORK
+        for ( long value = 1; value <= 100000; value++ )
+        {
+            histogram.recordValue( value );
+        }
+
+        // VERIFY
+        assertEquals( 100000, histogram.getTotalCount() );
+        assertEquals( 50000.5, histogram.getMean(), 0.001 );
+        assertEquals( 100000, histogram.getMaxValue() );
+        assertWithin( 50000, histogram.getValueAtPercentile( 50 ) );
+        assertWithin( 99000, histogram.getValueAtPercentile( 99 ) );
+        assertWithin( 99900, histogram.getValueAtPercentile( 99.9 ) );
+        assertEquals( "The 100th percentile is the maximum", 100000, histogram.getValueAtPercentile( 100 ) );
+    }
+
+    /**
+     * Verify that small values are exact, large ones clamped, and that reset forgets them.
+     */
+    public void testSmallLargeAndReset()
+    {
+        // SETUP
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // DO WORK
+        histogram.recordValue( 7 );
+        histogram.recordValue( Long.MAX_VALUE );
+
+        // VERIFY
+        assertEquals( "Small values are exact", 7, histogram.getValueAtPercentile( 50 ) );
+        assertEquals( "Large values are clamped", LatencyHistogram.MAX_VALUE, histogram.getMaxValue() );
+
+        // DO WORK
+        histogram.reset();
+
+        // VERIFY
+        assertEquals( 0, histogram.getTotalCount() );
+        assertEquals( 0, histogram.getValueAtPercentile( 99 ) );
+    }
+
+    /**
+     * @param expected the exact percentile
+     * @param actual the reported percentile
+     */
+    private static void assertWithin( final long expected, final long actual )
+    {
+        assertTrue( "Expected about " + expected + " but got " + actual,
+                actual >= expected && actual <= expected + expected / 32 );
+    }
+}
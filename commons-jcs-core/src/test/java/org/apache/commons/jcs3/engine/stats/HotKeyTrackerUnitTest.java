@@ -0,0 +1,169 @@
+package org.apache.commons.jcs3.engine.stats;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.memory.util.SerializedSizeWeigher;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the hot key tracker */
+public class HotKeyTrackerUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that the keys taking most of the gets are found among many cold ones.
+     */
+    public void testHotKeysAmongColdOnes()
+    {
+        // SETUP
+        final HotKeyTracker<String, String> tracker = new HotKeyTracker<>( 3, 1, new SerializedSizeWeigher<>() );
+
+        // DO WORK
+        for ( int i = 0; i < 10000; i++ )
+        {
+            tracker.recordGet( "cold" + i );
+            if ( i % 4 == 0 )
+            {
+                tracker.recordGet( "hot1" );
+            }
+            if ( i % 8 == 0 )
+            {
+                tracker.recordGet( "hot2" );
+            }
+        }
+
+        // VERIFY
+        assertTrue( tracker.isHot( "hot1" ) );
+        assertTrue( tracker.isHot( "hot2" ) );
+        assertFalse( tracker.isHot( "cold1" ) );
+        final List<HotKeyTracker.HotKey<String>> hotKeys = tracker.getHotKeys();
+        assertEquals( 3, hotKeys.size() );
+        assertEquals( "hot1", hotKeys.get( 0 ).getKey() );
+        assertEquals( "hot2", hotKeys.get( 1 ).getKey() );
+        final HotKeyTracker.HotKey<String> hot1 = hotKeys.get( 0 );
+        assertTrue( "The count should bound the real 2500 from above, got " + hot1,
+                hot1.getCount() >= 2500 && hot1.getCount() - hot1.getError() <= 2500 );
+    }
+
+    /**
+     * Verify that the counts are exact and reported in order while every key has a counter, and
+     * that they stay in order once the smallest counters are taken over.
+     */
+    public void testCountsInOrder()
+    {
+        // SETUP
+        final HotKeyTracker<String, String> tracker = new HotKeyTracker<>( 5, 1, new SerializedSizeWeigher<>() );
+
+        // DO WORK
+        for ( int round = 0; round < 20; round++ )
+        {
+            for ( int k = round; k < 20; k++ )
+            {
+                tracker.recordGet( "key" + k );
+            }
+        }
+
+        // VERIFY
+        List<HotKeyTracker.HotKey<String>> hotKeys = tracker.getHotKeys();
+        assertEquals( 5, hotKeys.size() );
+        for ( int i = 0; i < 5; i++ )
+        {
+            assertEquals( "Wrong key at " + i, "key" + ( 19 - i ), hotKeys.get( i ).getKey() );
+            assertEquals( "Wrong count at " + i, 20 - i, hotKeys.get( i ).getCount() );
+            assertEquals( "Wrong error at " + i, 0, hotKeys.get( i ).getError() );
+        }
+
+        // DO WORK
+        for ( int i = 0; i < 1000; i++ )
+        {
+            tracker.recordGet( "other" + i );
+        }
+
+        // VERIFY
+        hotKeys = tracker.getHotKeys();
+        assertEquals( 5, hotKeys.size() );
+        for ( int i = 1; i < 5; i++ )
+        {
+            assertTrue( "Should be sorted " + hotKeys, hotKeys.get( i - 1 ).getCount() >= hotKeys.get( i ).getCount() );
+        }
+    }
+
+    /**
+     * Verify that the largest values are kept, with the size of their last put, until removed.
+     */
+    public void testLargestValues()
+    {
+        // SETUP
+        final HotKeyTracker<String, String> tracker = new HotKeyTracker<>( 2, 1, new SerializedSizeWeigher<>() );
+
+        // DO WORK
+        tracker.recordUpdate( new CacheElement<>( "region", "small", "x" ) );
+        tracker.recordUpdate( new CacheElement<>( "region", "medium", "xxxxxxxxxx" ) );
+        tracker.recordUpdate( new CacheElement<>( "region", "large", "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx" ) );
+
+        // VERIFY
+        List<HotKeyTracker.LargeValue<String>> largest = tracker.getLargestValues();
+        assertEquals( 2, largest.size() );
+        assertEquals( "large", largest.get( 0 ).getKey() );
+        assertEquals( "medium", largest.get( 1 ).getKey() );
+
+        // DO WORK
+        tracker.recordRemove( "large" );
+        tracker.recordUpdate( new CacheElement<>( "region", "medium", "x" ) );
+
+        // VERIFY
+        largest = tracker.getLargestValues();
+        assertEquals( 1, largest.size() );
+        assertEquals( "medium", largest.get( 0 ).getKey() );
+        assertEquals( "The last size put is kept", SerializedSizeWeigher.ELEMENT_OVERHEAD + 40 + 2 * 6 + 40 + 2,
+                largest.get( 0 ).getSize() );
+        assertEquals( "The puts are counted", "medium", tracker.getHotKeys().get( 0 ).getKey() );
+        assertEquals( "The puts are counted", 2, tracker.getHotKeys().get( 0 ).getCount() );
+    }
+
+    /**
+     * Verify that the sampled counts are scaled back up.
+     */
+    public void testSampling()
+    {
+        // SETUP
+        final HotKeyTracker<String, String> tracker = new HotKeyTracker<>( 1, 10, new SerializedSizeWeigher<>() );
+
+        // DO WORK
+        for ( int i = 0; i < 100000; i++ )
+        {
+            tracker.recordGet( "key" );
+        }
+
+        // VERIFY
+        final long count = tracker.getHotKeys().get( 0 ).getCount();
+        assertTrue( "The estimate should be close, got " + count, count > 90000 && count < 110000 );
+
+        // DO WORK
+        tracker.reset();
+
+        // VERIFY
+        assertTrue( tracker.getHotKeys().isEmpty() );
+        assertFalse( tracker.isHot( "key" ) );
+    }
+}
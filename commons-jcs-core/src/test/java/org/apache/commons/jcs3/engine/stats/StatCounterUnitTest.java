@@ -0,0 +1,102 @@
+package org.apache.commons.jcs3.engine.stats;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/** Unit tests for the statistics counter */
+public class StatCounterUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that no increment is lost when threads count concurrently.
+     * <p>
+     * @throws InterruptedException
+     */
+    public void testConcurrentIncrements()
+        throws InterruptedException
+    {
+        // SETUP
+        final StatCounter counter = new StatCounter( 1 );
+        final Thread[] threads = new Thread[8];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread( () -> {
+                for ( int j = 0; j < 10000; j++ )
+                {
+                    counter.increment();
+                }
+            } );
+        }
+
+        // DO WORK
+        for ( final Thread thread : threads )
+        {
+            thread.start();
+        }
+        for ( final Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        // VERIFY
+        assertEquals( 80000, counter.get() );
+        assertEquals( "80000", counter.toString() );
+    }
+
+    /**
+     * Verify that a sampled counter estimates the count, and counts bulk additions exactly.
+     */
+    public void testSampling()
+    {
+        // SETUP
+        final StatCounter counter = new StatCounter( 10 );
+
+        // DO WORK
+        for ( int i = 0; i < 100000; i++ )
+        {
+            counter.increment();
+        }
+
+        // VERIFY
+        assertEquals( 10, counter.getSampleRate() );
+        assertEquals( "Sampled counts are multiples of the rate", 0, counter.get() % 10 );
+        assertTrue( "The estimate should be close, got " + counter.get(),
+                counter.get() > 90000 && counter.get() < 110000 );
+
+        // DO WORK
+        counter.reset();
+        counter.add( 3 );
+
+        // VERIFY
+        assertEquals( 3, counter.get() );
+    }
+
+    /**
+     * Verify that the default counter counts every increment.
+     */
+    public void testDefaultIsExact()
+    {
+        final StatCounter counter = new StatCounter();
+        counter.increment();
+        assertEquals( 1, counter.getSampleRate() );
+        assertEquals( 1, counter.get() );
+    }
+}
@@ -0,0 +1,235 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.commons.jcs3.utils.discovery.GossipMember.Status;
+import org.apache.commons.jcs3.utils.discovery.GossipMessage.Type;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the gossip discovery, with several members on the loopback interface. */
+public class GossipDiscoveryServiceUnitTest
+    extends TestCase
+{
+    /** How long to wait for the members to agree */
+    private static final long MAX_WAIT_MILLIS = 10000;
+
+    /** Scheduler shared by the members */
+    private ScheduledExecutorService scheduler;
+
+    /** The started members */
+    private final List<GossipDiscoveryService> services = new ArrayList<>();
+
+    /** Set up the scheduler. */
+    @Override
+    protected void setUp()
+    {
+        scheduler = Executors.newScheduledThreadPool( 2 );
+    }
+
+    /** Stop the members. */
+    @Override
+    protected void tearDown()
+    {
+        for ( final GossipDiscoveryService service : services )
+        {
+            service.shutdown();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts a member on an ephemeral port.
+     * <p>
+     * @param servicePort the service port to announce
+     * @param seed the gossip port of the seed, 0 for none
+     * @return the member
+     */
+    private GossipDiscoveryService startMember( final int servicePort, final int seed )
+    {
+        final GossipDiscoveryAttributes attributes = new GossipDiscoveryAttributes();
+        attributes.setServiceAddress( "127.0.0.1" );
+        attributes.setServicePort( servicePort );
+        attributes.setSeeds( seed > 0 ? "127.0.0.1:" + seed : "" );
+        attributes.setProbeIntervalMillis( 100 );
+        attributes.setProbeTimeoutMillis( 30 );
+        attributes.setSuspicionPeriods( 3 );
+
+        final GossipDiscoveryService service = new GossipDiscoveryService( attributes );
+        service.addParticipatingCacheName( "testRegion" + servicePort );
+        service.startup();
+        service.setScheduledExecutorService( scheduler );
+        services.add( service );
+        return service;
+    }
+
+    /**
+     * Waits until the member knows the expected number of services.
+     * <p>
+     * @param service the member
+     * @param expected the number of services
+     * @throws InterruptedException
+     */
+    private static void awaitServices( final GossipDiscoveryService service, final int expected )
+        throws InterruptedException
+    {
+        final long end = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while ( service.getDiscoveredServices().size() != expected && System.currentTimeMillis() < end )
+        {
+            Thread.sleep( 20 );
+        }
+        assertEquals( "wrong number of services", expected, service.getDiscoveredServices().size() );
+    }
+
+    /**
+     * Verify that members joining through one seed learn about each other and their regions.
+     * <p>
+     * @throws Exception
+     */
+    public void testJoinThroughSeed()
+        throws Exception
+    {
+        // SETUP
+        final GossipDiscoveryService seed = startMember( 1001, 0 );
+        final GossipDiscoveryService second = startMember( 1002, seed.getGossipPort() );
+
+        // DO WORK
+        final GossipDiscoveryService third = startMember( 1003, seed.getGossipPort() );
+
+        // VERIFY
+        awaitServices( seed, 2 );
+        awaitServices( second, 2 );
+        awaitServices( third, 2 );
+
+        DiscoveredService found = null;
+        for ( final DiscoveredService service : second.getDiscoveredServices() )
+        {
+            if ( service.getServicePort() == 1003 )
+            {
+                found = service;
+            }
+        }
+        assertNotNull( "second should know third", found );
+        assertEquals( "wrong names", Arrays.asList( "testRegion1003" ), found.getCacheNames() );
+
+        final MockDiscoveryListener listener = new MockDiscoveryListener();
+        third.addDiscoveryListener( listener );
+        assertEquals( "listener should get the known services", 2, listener.discoveredServices.size() );
+    }
+
+    /**
+     * Verify that a member that stops answering is removed by the others.
+     * <p>
+     * @throws Exception
+     */
+    public void testCrashedMemberRemoved()
+        throws Exception
+    {
+        // SETUP
+        final GossipDiscoveryService seed = startMember( 2001, 0 );
+        final GossipDiscoveryService second = startMember( 2002, seed.getGossipPort() );
+        final GossipDiscoveryService third = startMember( 2003, seed.getGossipPort() );
+        awaitServices( seed, 2 );
+        awaitServices( second, 2 );
+
+        // DO WORK
+        third.stop( false );
+
+        // VERIFY
+        awaitServices( seed, 1 );
+        awaitServices( second, 1 );
+        assertEquals( "wrong remaining service", 2002,
+                seed.getDiscoveredServices().iterator().next().getServicePort() );
+    }
+
+    /**
+     * Verify that a member that shuts down is removed right away.
+     * <p>
+     * @throws Exception
+     */
+    public void testLeave()
+        throws Exception
+    {
+        // SETUP
+        final GossipDiscoveryService seed = startMember( 3001, 0 );
+        final GossipDiscoveryService second = startMember( 3002, seed.getGossipPort() );
+        awaitServices( seed, 1 );
+        awaitServices( second, 1 );
+
+        // DO WORK
+        second.shutdown();
+
+        // VERIFY
+        awaitServices( seed, 0 );
+    }
+
+    /**
+     * Verify that a message survives the round trip through its binary form.
+     * <p>
+     * @throws Exception
+     */
+    public void testMessageToByteArray()
+        throws Exception
+    {
+        // SETUP
+        final GossipMember sender = new GossipMember( "localhost", 5000, 6000, 12, Status.ALIVE,
+                new ArrayList<>( Arrays.asList( "region1", "region2" ) ) );
+        final GossipMember update = new GossipMember( "otherhost", 5001, 6001, 3, Status.SUSPECT,
+                new ArrayList<>() );
+        final GossipMessage message =
+            new GossipMessage( Type.PING_REQ, 42, sender, "otherhost", 5001, Arrays.asList( update ) );
+
+        // DO WORK
+        final byte[] bytes = message.toByteArray();
+        final GossipMessage result = GossipMessage.fromByteArray( bytes, 0, bytes.length );
+
+        // VERIFY
+        assertEquals( "wrong type", Type.PING_REQ, result.type );
+        assertEquals( "wrong sequence", 42, result.sequence );
+        assertEquals( "wrong sender", sender.getId(), result.sender.getId() );
+        assertEquals( "wrong names", sender.cacheNames, result.sender.cacheNames );
+        assertEquals( "wrong target", 5001, result.targetPort );
+        assertEquals( "wrong update count", 1, result.updates.size() );
+        assertEquals( "wrong update status", Status.SUSPECT, result.updates.get( 0 ).status );
+        assertEquals( "wrong update incarnation", 3, result.updates.get( 0 ).incarnation );
+    }
+
+    /**
+     * Verify that newer news override older news.
+     */
+    public void testOverrides()
+    {
+        // SETUP
+        final GossipMember alive = new GossipMember( "localhost", 5000, 6000, 5, Status.ALIVE, new ArrayList<>() );
+
+        // VERIFY
+        assertTrue( "suspect of same incarnation wins", alive.with( Status.SUSPECT, 5 ).overrides( alive ) );
+        assertFalse( "alive of same incarnation loses", alive.overrides( alive.with( Status.SUSPECT, 5 ) ) );
+        assertTrue( "refutation wins", alive.with( Status.ALIVE, 6 ).overrides( alive.with( Status.SUSPECT, 5 ) ) );
+        assertTrue( "dead wins", alive.with( Status.DEAD, 5 ).overrides( alive ) );
+        assertFalse( "old news lose", alive.with( Status.SUSPECT, 4 ).overrides( alive ) );
+    }
+}
@@ -0,0 +1,117 @@
+package org.apache.commons.jcs3.utils.discovery;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.jcs3.utils.discovery.UDPDiscoveryMessage.BroadcastType;
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the binary form of the message. */
+public class UDPDiscoveryMessageUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that a message with cache names survives the round trip.
+     * <p>
+     * @throws Exception
+     */
+    public void testToByteArray_WithNames()
+        throws Exception
+    {
+        // SETUP
+        final ArrayList<String> cacheNames = new ArrayList<>( Arrays.asList( "region1", "region2" ) );
+        final UDPDiscoveryMessage message = new UDPDiscoveryMessage();
+        message.setHost( "localhost" );
+        message.setPort( 1234 );
+        message.setRequesterId( 77 );
+        message.setMessageType( BroadcastType.REMOVE );
+        message.setCacheNames( cacheNames );
+        message.setCacheNamesHash( UDPDiscoveryMessage.hashCacheNames( cacheNames ) );
+
+        // DO WORK
+        final byte[] bytes = message.toByteArray();
+        final UDPDiscoveryMessage result = UDPDiscoveryMessage.fromByteArray( bytes, 0, bytes.length );
+
+        // VERIFY
+        assertEquals( "wrong host", "localhost", result.getHost() );
+        assertEquals( "wrong port", 1234, result.getPort() );
+        assertEquals( "wrong requester", 77, result.getRequesterId() );
+        assertEquals( "wrong type", BroadcastType.REMOVE, result.getMessageType() );
+        assertEquals( "wrong names", cacheNames, result.getCacheNames() );
+        assertEquals( "wrong hash", message.getCacheNamesHash(), result.getCacheNamesHash() );
+    }
+
+    /**
+     * Verify that a heartbeat leaves out the names and is smaller than the serialized message.
+     * <p>
+     * @throws Exception
+     */
+    public void testToByteArray_Heartbeat()
+        throws Exception
+    {
+        // SETUP
+        final UDPDiscoveryMessage message = new UDPDiscoveryMessage();
+        message.setHost( "localhost" );
+        message.setPort( 1234 );
+        message.setCacheNames( null );
+        message.setCacheNamesHash( 99 );
+
+        // DO WORK
+        final byte[] bytes = message.toByteArray();
+        final UDPDiscoveryMessage result = UDPDiscoveryMessage.fromByteArray( bytes, 0, bytes.length );
+
+        // VERIFY
+        assertNull( "names should be left out", result.getCacheNames() );
+        assertEquals( "wrong hash", 99, result.getCacheNamesHash() );
+        assertTrue( "binary form should be smaller",
+                bytes.length < new StandardSerializer().serialize( message ).length );
+    }
+
+    /** Verify that other packets are rejected. */
+    public void testFromByteArray_NotAMessage()
+    {
+        final byte[] bytes = new byte[] { (byte) 0xAC, (byte) 0xED, 0, 5, 1, 2, 3, 4 };
+        try
+        {
+            UDPDiscoveryMessage.fromByteArray( bytes, 0, bytes.length );
+            fail( "Should have thrown an IOException" );
+        }
+        catch ( final IOException e )
+        {
+            // expected
+        }
+    }
+
+    /** Verify that the hash does not depend on the order of the names. */
+    public void testHashCacheNames()
+    {
+        assertEquals( "order should not matter",
+                UDPDiscoveryMessage.hashCacheNames( Arrays.asList( "a", "b", "c" ) ),
+                UDPDiscoveryMessage.hashCacheNames( Arrays.asList( "c", "a", "b" ) ) );
+        assertFalse( "names should not run together",
+                UDPDiscoveryMessage.hashCacheNames( Arrays.asList( "ab" ) )
+                == UDPDiscoveryMessage.hashCacheNames( Arrays.asList( "a", "b" ) ) );
+    }
+}
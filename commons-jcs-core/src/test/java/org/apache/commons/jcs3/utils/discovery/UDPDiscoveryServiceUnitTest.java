@@ -223,4 +223,80 @@ public class UDPDiscoveryServiceUnitTest
         assertFalse( "Service should not be in the listener list.", discoveryListener.discoveredServices
             .contains( discoveredService ) );
     }
+
+    /** Verify that a heartbeat with a known hash updates the service with the known names. */
+    public void testProcessHeartbeat_KnownNames()
+    {
+        // SETUP
+        final String host = "228.5.6.7";
+        final int port = 6789;
+        final UDPDiscoveryAttributes attributes = new UDPDiscoveryAttributes();
+        attributes.setUdpDiscoveryAddr( host );
+        attributes.setUdpDiscoveryPort( port );
+        attributes.setServicePort( 1000 );
+
+        final UDPDiscoveryService service = new UDPDiscoveryService( attributes );
+        service.startup();
+        final MockDiscoveryListener discoveryListener = new MockDiscoveryListener();
+        service.addDiscoveryListener( discoveryListener );
+
+        final ArrayList<String> cacheNames = new ArrayList<>();
+        cacheNames.add( "name1" );
+        cacheNames.add( "name2" );
+
+        final DiscoveredService discoveredService = new DiscoveredService();
+        discoveredService.setServiceAddress( host );
+        discoveredService.setCacheNames( cacheNames );
+        discoveredService.setServicePort( 1000 );
+        discoveredService.setLastHearFromTime( 100 );
+        service.addOrUpdateService( discoveredService );
+
+        final DiscoveredService heartbeat = new DiscoveredService();
+        heartbeat.setServiceAddress( host );
+        heartbeat.setServicePort( 1000 );
+        heartbeat.setLastHearFromTime( 500 );
+
+        // DO WORK
+        service.processHeartbeat( heartbeat, UDPDiscoveryMessage.hashCacheNames( cacheNames ) );
+
+        // VERIFY
+        assertEquals( "Should only be one in the set.", 1, service.getDiscoveredServices().size() );
+        final DiscoveredService updated = service.getDiscoveredServices().iterator().next();
+        assertEquals( "Wrong last heard from time.", 500, updated.getLastHearFromTime() );
+        assertEquals( "Wrong cache names.", cacheNames, updated.getCacheNames() );
+        assertEquals( "Mock should have been called twice.", 2, discoveryListener.discoveredServices.size() );
+
+        service.shutdown();
+    }
+
+    /** Verify that a heartbeat with an unknown hash does not add the service. */
+    public void testProcessHeartbeat_UnknownNames()
+    {
+        // SETUP
+        final String host = "228.5.6.7";
+        final int port = 6789;
+        final UDPDiscoveryAttributes attributes = new UDPDiscoveryAttributes();
+        attributes.setUdpDiscoveryAddr( host );
+        attributes.setUdpDiscoveryPort( port );
+        attributes.setServicePort( 1000 );
+
+        final UDPDiscoveryService service = new UDPDiscoveryService( attributes );
+        service.startup();
+        final MockDiscoveryListener discoveryListener = new MockDiscoveryListener();
+        service.addDiscoveryListener( discoveryListener );
+
+        final DiscoveredService heartbeat = new DiscoveredService();
+        heartbeat.setServiceAddress( host );
+        heartbeat.setServicePort( 1000 );
+        heartbeat.setLastHearFromTime( 500 );
+
+        // DO WORK
+        service.processHeartbeat( heartbeat, 42 );
+
+        // VERIFY
+        assertTrue( "Service should not be in the service list.", service.getDiscoveredServices().isEmpty() );
+        assertTrue( "Service should not be in the listener list.", discoveryListener.discoveredServices.isEmpty() );
+
+        service.shutdown();
+    }
 }
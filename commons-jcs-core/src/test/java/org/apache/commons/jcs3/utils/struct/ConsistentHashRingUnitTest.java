@@ -0,0 +1,106 @@
+package org.apache.commons.jcs3.utils.struct;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the consistent hash ring.
+ */
+public class ConsistentHashRingUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that the keys are spread over all members.
+     */
+    public void testDistribution()
+    {
+        // SETUP
+        final ConsistentHashRing<String> ring =
+            new ConsistentHashRing<>( Arrays.asList( "a:1", "b:2", "c:3" ), 100, Function.identity() );
+        final Map<String, Integer> counts = new HashMap<>();
+
+        // DO WORK
+        for ( int i = 0; i < 3000; i++ )
+        {
+            counts.merge( ring.get( "key" + i ), Integer.valueOf( 1 ), Integer::sum );
+        }
+
+        // VERIFY
+        assertEquals( "All members should get keys", 3, counts.size() );
+        for ( final Integer count : counts.values() )
+        {
+            assertTrue( "Uneven distribution: " + counts, count.intValue() > 500 );
+        }
+    }
+
+    /**
+     * Verify that skipping a member only moves the keys of that member.
+     */
+    public void testSkipMember()
+    {
+        // SETUP
+        final ConsistentHashRing<String> ring =
+            new ConsistentHashRing<>( Arrays.asList( "a:1", "b:2", "c:3" ), 100, Function.identity() );
+
+        // DO WORK & VERIFY
+        int moved = 0;
+        for ( int i = 0; i < 1000; i++ )
+        {
+            final String key = "key" + i;
+            final String owner = ring.get( key );
+            final String live = ring.get( key, member -> !"b:2".equals( member ) );
+
+            assertFalse( "Should skip the member", "b:2".equals( live ) );
+            if ( !"b:2".equals( owner ) )
+            {
+                assertEquals( "Key should not move", owner, live );
+            }
+            else
+            {
+                moved++;
+            }
+        }
+        assertTrue( "Some keys should have moved", moved > 0 );
+    }
+
+    /**
+     * Verify the lookups on an empty ring and when no member is usable.
+     */
+    public void testNoMember()
+    {
+        // SETUP
+        final ConsistentHashRing<String> empty =
+            new ConsistentHashRing<>( Collections.<String>emptyList(), 100, Function.identity() );
+        final ConsistentHashRing<String> ring =
+            new ConsistentHashRing<>( Arrays.asList( "a:1" ), 10, Function.identity() );
+
+        // VERIFY
+        assertNull( "Empty ring", empty.get( "key" ) );
+        assertNull( "No usable member", ring.get( "key", member -> false ) );
+        assertEquals( "Single member", "a:1", ring.get( null ) );
+    }
+}
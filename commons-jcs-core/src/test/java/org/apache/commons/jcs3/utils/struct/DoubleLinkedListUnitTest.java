@@ -87,6 +87,33 @@ public class DoubleLinkedListUnitTest
         assertEquals( "Wrong first", node2, list.getFirst() );
     }
 
+    /** verify that the links are kept when the first of several is made last. */
+    public void testMakeLast_wasFirstOfThree()
+    {
+        // SETUP
+        final DoubleLinkedList<DoubleLinkedListNode<String>> list = new DoubleLinkedList<>();
+
+        final DoubleLinkedListNode<String> node1 = new DoubleLinkedListNode<>( "payload1" );
+        final DoubleLinkedListNode<String> node2 = new DoubleLinkedListNode<>( "payload2" );
+        final DoubleLinkedListNode<String> node3 = new DoubleLinkedListNode<>( "payload3" );
+
+        list.addFirst( node3 );
+        list.addFirst( node2 );
+        list.addFirst( node1 );
+
+        // DO WORK
+        list.makeLast( node1 );
+
+        // VERIFY
+        assertEquals( "Wrong first", node2, list.getFirst() );
+        assertEquals( "Wrong last", node1, list.getLast() );
+        assertNull( "First should have no previous", node2.prev );
+        assertEquals( "Wrong previous", node2, node3.prev );
+        assertEquals( "Wrong previous", node3, node1.prev );
+        assertEquals( "Wrong next", node1, node3.next );
+        assertNull( "Last should have no next", node1.next );
+    }
+
     /** verify that it's added last. */
     public void testMakeLast_wasLast()
     {
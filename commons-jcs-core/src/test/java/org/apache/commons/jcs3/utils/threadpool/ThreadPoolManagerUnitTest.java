@@ -22,6 +22,9 @@ package org.apache.commons.jcs3.utils.threadpool;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.jcs3.utils.props.PropertyLoader;
 import junit.framework.TestCase;
@@ -83,4 +86,60 @@ public class ThreadPoolManagerUnitTest
         assertTrue( "Should have name in list.", names.contains( poolName1 ) );
         assertTrue( "Should have name in list.", names.contains( poolName2 ) );
     }
+
+    /**
+     * Verify that a named configuration is read over the given defaults, which is how the event
+     * queues may opt in to virtual threads.
+     */
+    public void testGetPoolConfiguration()
+    {
+        // SETUP
+        final Properties props = PropertyLoader.loadProperties( "thread_pool.properties" );
+        props.setProperty( "thread_pool.cache_event_queue.useVirtualThreads", "true" );
+        ThreadPoolManager.setProps( props );
+        final ThreadPoolManager mgr = ThreadPoolManager.getInstance();
+        final PoolConfiguration defaults = new PoolConfiguration( false, 0, 1, 0, 1234, PoolConfiguration.WhenBlockedPolicy.RUN, 0 );
+
+        // DO WORK
+        final PoolConfiguration config = mgr.getPoolConfiguration( "cache_event_queue", defaults );
+
+        // VERIFY
+        assertTrue( "Should use virtual threads", config.isUseVirtualThreads() );
+        assertEquals( "Should keep the given default", 1234, config.getKeepAliveTime() );
+        assertEquals( "Should keep the given default", 1, config.getMaximumPoolSize() );
+        assertFalse( "Should not change the defaults", defaults.isUseVirtualThreads() );
+
+        ThreadPoolManager.setProps( PropertyLoader.loadProperties( "thread_pool.properties" ) );
+    }
+
+    /**
+     * Verify that a pool configured for virtual threads runs tasks, falling back to platform
+     * threads if the runtime does not support them.
+     * <p>
+     * @throws Exception
+     */
+    public void testVirtualThreadConfig()
+        throws Exception
+    {
+        final Properties props = PropertyLoader.loadProperties( "thread_pool.properties" );
+        ThreadPoolManager.setProps( props );
+        final ThreadPoolManager mgr = ThreadPoolManager.getInstance();
+
+        final ExecutorService pool = mgr.getExecutorService( "virtualtest" );
+        assertNotNull( pool );
+
+        final Future<String> result = pool.submit( () -> "done" );
+        assertEquals( "Wrong result", "done", result.get( 5, TimeUnit.SECONDS ) );
+
+        final ExecutorService probe = VirtualThreadExecutor.create( new PoolConfiguration(), "probe-" );
+        if ( probe != null )
+        {
+            probe.shutdown();
+            assertTrue( "Should be a virtual thread pool", pool instanceof VirtualThreadExecutor );
+        }
+        else
+        {
+            assertTrue( "Should fall back to a platform pool", pool instanceof ThreadPoolExecutor );
+        }
+    }
 }
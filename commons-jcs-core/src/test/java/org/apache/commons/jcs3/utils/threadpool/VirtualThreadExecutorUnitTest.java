@@ -0,0 +1,220 @@
+package org.apache.commons.jcs3.utils.threadpool;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.jcs3.utils.threadpool.PoolConfiguration.WhenBlockedPolicy;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the semaphore limited thread per task executor. A cached platform thread pool
+ * stands in for the virtual thread executor so that these run on every runtime.
+ */
+public class VirtualThreadExecutorUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that no more than the maximum pool size tasks run at the same time.
+     * <p>
+     * @throws Exception
+     */
+    public void testConcurrencyLimit()
+        throws Exception
+    {
+        // SETUP
+        final PoolConfiguration config = new PoolConfiguration( false, 0, 2, 0, 0, WhenBlockedPolicy.ABORT, 0 );
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor( Executors.newCachedThreadPool(), config );
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( 5 );
+
+        // DO WORK
+        for ( int i = 0; i < 5; i++ )
+        {
+            executor.execute( () -> {
+                final int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet( now, Math::max );
+                try
+                {
+                    release.await( 5, TimeUnit.SECONDS );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            } );
+        }
+        Thread.sleep( 100 );
+
+        // VERIFY
+        assertEquals( "Wrong number of running tasks", 2, running.get() );
+        assertEquals( "Wrong number of pending tasks", 5, executor.getPendingCount() );
+
+        release.countDown();
+        assertTrue( "Tasks should finish", done.await( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Limit exceeded", 2, maxRunning.get() );
+        executor.shutdown();
+        assertTrue( "Should terminate", executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+    }
+
+    /**
+     * Verify that tasks beyond the boundary are rejected with the abort policy.
+     * <p>
+     * @throws Exception
+     */
+    public void testBoundary_Abort()
+        throws Exception
+    {
+        // SETUP
+        final PoolConfiguration config = new PoolConfiguration( true, 1, 1, 0, 0, WhenBlockedPolicy.ABORT, 0 );
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor( Executors.newCachedThreadPool(), config );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final Runnable blocked = () -> {
+            try
+            {
+                release.await( 5, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // DO WORK
+        executor.execute( blocked );
+        executor.execute( blocked );
+
+        // VERIFY
+        try
+        {
+            executor.execute( blocked );
+            fail( "Should have been rejected" );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            // expected
+        }
+        release.countDown();
+        executor.shutdown();
+        assertTrue( "Should terminate", executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+    }
+
+    /**
+     * Verify that tasks beyond the boundary run in the caller with the run policy.
+     * <p>
+     * @throws Exception
+     */
+    public void testBoundary_Run()
+        throws Exception
+    {
+        // SETUP
+        final PoolConfiguration config = new PoolConfiguration( true, 0, 1, 0, 0, WhenBlockedPolicy.RUN, 0 );
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor( Executors.newCachedThreadPool(), config );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        executor.execute( () -> {
+            try
+            {
+                release.await( 5, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        } );
+
+        // DO WORK
+        final Thread[] ranOn = new Thread[1];
+        executor.execute( () -> ranOn[0] = Thread.currentThread() );
+
+        // VERIFY
+        assertSame( "Should run in the caller", Thread.currentThread(), ranOn[0] );
+        release.countDown();
+        executor.shutdown();
+        assertTrue( "Should terminate", executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+    }
+
+    /**
+     * Verify that the oldest waiting task is discarded with the discard oldest policy, as the
+     * platform pools do.
+     * <p>
+     * @throws Exception
+     */
+    public void testBoundary_DiscardOldest()
+        throws Exception
+    {
+        // SETUP
+        final PoolConfiguration config = new PoolConfiguration( true, 2, 1, 0, 0, WhenBlockedPolicy.DISCARDOLDEST, 0 );
+        final VirtualThreadExecutor executor = new VirtualThreadExecutor( Executors.newCachedThreadPool(), config );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final List<String> ran = Collections.synchronizedList( new ArrayList<>() );
+        executor.execute( () -> {
+            try
+            {
+                release.await( 5, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+        } );
+
+        // DO WORK
+        executor.execute( () -> ran.add( "oldest" ) );
+        executor.execute( () -> ran.add( "middle" ) );
+        executor.execute( () -> ran.add( "newest" ) );
+
+        // VERIFY
+        assertEquals( "The oldest task should be gone", 3, executor.getPendingCount() );
+        release.countDown();
+        executor.shutdown();
+        assertTrue( "Should terminate", executor.awaitTermination( 5, TimeUnit.SECONDS ) );
+        assertEquals( "Wrong tasks", "[middle, newest]", ran.toString() );
+    }
+
+    /**
+     * Verify that the unsupported wait policy is refused, as the platform pools do.
+     */
+    public void testWaitPolicy()
+    {
+        final PoolConfiguration config = new PoolConfiguration( false, 0, 1, 0, 0, WhenBlockedPolicy.WAIT, 0 );
+        config.setUseVirtualThreads( true );
+        try
+        {
+            ThreadPoolManager.getInstance().createPool( config, "wait-" );
+            fail( "The wait policy should be refused" );
+        }
+        catch ( final RuntimeException e )
+        {
+            assertEquals( "POLICY_WAIT no longer supported", e.getMessage() );
+        }
+    }
+}
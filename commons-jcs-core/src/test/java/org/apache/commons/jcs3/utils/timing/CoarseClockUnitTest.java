@@ -0,0 +1,96 @@
+package org.apache.commons.jcs3.utils.timing;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Properties;
+
+import org.apache.commons.jcs3.engine.control.CompositeCacheManager;
+
+import junit.framework.TestCase;
+
+/** Unit tests for the coarse clock */
+public class CoarseClockUnitTest
+    extends TestCase
+{
+    /**
+     * Verify that the clock runs until every start was stopped.
+     * <p>
+     * @throws Exception
+     */
+    public void testStartStop()
+        throws Exception
+    {
+        // SETUP
+        if ( CoarseClock.isRunning() )
+        {
+            return; // started by a cache manager of another test
+        }
+
+        try
+        {
+            // DO WORK
+            CoarseClock.start();
+            CoarseClock.start();
+            final long before = System.currentTimeMillis();
+            SleepUtil.sleepAtLeast( 5 * CoarseClock.getTickMillis() );
+
+            // VERIFY
+            assertTrue( "The clock should run", CoarseClock.isRunning() );
+            assertTrue( "The clock should tick", CoarseClock.currentTimeMillis() > before );
+            CoarseClock.stop();
+            assertTrue( "The clock should run until the last stop", CoarseClock.isRunning() );
+            CoarseClock.stop();
+            assertFalse( "The clock should be stopped", CoarseClock.isRunning() );
+            final long system = System.currentTimeMillis();
+            assertTrue( "The system clock should be read", CoarseClock.currentTimeMillis() >= system );
+            CoarseClock.stop();
+            CoarseClock.start();
+            assertTrue( "An extra stop should not be counted", CoarseClock.isRunning() );
+        }
+        finally
+        {
+            CoarseClock.stop();
+        }
+    }
+
+    /**
+     * Verify that the cache manager stops the clock when it shuts down.
+     */
+    public void testStoppedByManager()
+    {
+        // SETUP
+        if ( CoarseClock.isRunning() )
+        {
+            return; // started by a cache manager of another test
+        }
+        final Properties props = new Properties();
+        props.put( "jcs.default", "" );
+        final CompositeCacheManager manager = CompositeCacheManager.getUnconfiguredInstance();
+
+        // DO WORK
+        manager.configure( props );
+        final boolean started = CoarseClock.isRunning();
+        manager.shutDown();
+
+        // VERIFY
+        assertTrue( "The manager should start the clock", started );
+        assertFalse( "The manager should stop the clock", CoarseClock.isRunning() );
+    }
+}
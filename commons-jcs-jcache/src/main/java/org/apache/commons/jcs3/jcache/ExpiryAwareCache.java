@@ -18,6 +18,7 @@
  */
 package org.apache.commons.jcs3.jcache;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import javax.cache.configuration.CacheEntryListenerConfiguration;
 import javax.cache.event.CacheEntryEvent;
 import javax.cache.event.EventType;
 
+import org.apache.commons.jcs3.engine.behavior.ICache;
 import org.apache.commons.jcs3.engine.behavior.ICacheElement;
 import org.apache.commons.jcs3.engine.behavior.ICompositeCacheAttributes;
 import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
@@ -36,6 +38,7 @@ public class ExpiryAwareCache<A, B> extends CompositeCache<A, B>
 {
     private Map<CacheEntryListenerConfiguration<A, B>, JCSListener<A, B>> listeners;
     private Cache<A, B> cacheRef;
+    private volatile NearCache<A, B> nearCache;
 
     ExpiryAwareCache(final ICompositeCacheAttributes cattr, final IElementAttributes attr)
     {
@@ -46,6 +49,7 @@ public class ExpiryAwareCache<A, B> extends CompositeCache<A, B>
     protected void doExpires(final ICacheElement<A, B> element)
     {
         super.doExpires(element);
+        invalidate(element.getKey());
         for (final JCSListener<A, B> listener : listeners.values())
         {
             listener.onExpired(Arrays.<CacheEntryEvent<? extends A, ? extends B>> asList(new JCSCacheEntryEvent<>(
@@ -53,9 +57,72 @@ public class ExpiryAwareCache<A, B> extends CompositeCache<A, B>
         }
     }
 
-    void init(final Cache<A, B> cache, final Map<CacheEntryListenerConfiguration<A, B>, JCSListener<A, B>> listeners)
+    // local and lateral/remote changes (localUpdate, localRemove...) all end up there
+    @Override
+    protected void update(final ICacheElement<A, B> cacheElement, final boolean localOnly) throws IOException
+    {
+        try
+        {
+            super.update(cacheElement, localOnly);
+        }
+        finally
+        {
+            invalidate(cacheElement.getKey());
+        }
+    }
+
+    @Override
+    protected boolean remove(final A key, final boolean localOnly)
+    {
+        try
+        {
+            return super.remove(key, localOnly);
+        }
+        finally
+        {
+            invalidate(key);
+        }
+    }
+
+    @Override
+    protected void removeAll(final boolean localOnly) throws IOException
+    {
+        try
+        {
+            super.removeAll(localOnly);
+        }
+        finally
+        {
+            final NearCache<A, B> near = nearCache;
+            if (near != null)
+            {
+                near.invalidateAll();
+            }
+        }
+    }
+
+    private void invalidate(final A key)
+    {
+        final NearCache<A, B> near = nearCache;
+        if (near != null)
+        {
+            if (key instanceof String && ((String) key).endsWith(ICache.NAME_COMPONENT_DELIMITER))
+            {
+                // hierarchical removal
+                near.invalidateAll();
+            }
+            else
+            {
+                near.invalidate(key);
+            }
+        }
+    }
+
+    void init(final Cache<A, B> cache, final Map<CacheEntryListenerConfiguration<A, B>, JCSListener<A, B>> listeners,
+            final NearCache<A, B> nearCache)
     {
         this.cacheRef = cache;
         this.listeners = listeners;
+        this.nearCache = nearCache;
     }
 }
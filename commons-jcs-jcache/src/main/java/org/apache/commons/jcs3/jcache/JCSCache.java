@@ -19,14 +19,19 @@
 package org.apache.commons.jcs3.jcache;
 
 import static org.apache.commons.jcs3.jcache.Asserts.assertNotNull;
-import static org.apache.commons.jcs3.jcache.serialization.Serializations.copy;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -34,6 +39,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.cache.Cache;
 import javax.cache.CacheException;
@@ -65,6 +71,8 @@ import org.apache.commons.jcs3.jcache.jmx.JCSCacheMXBean;
 import org.apache.commons.jcs3.jcache.jmx.JCSCacheStatisticsMXBean;
 import org.apache.commons.jcs3.jcache.jmx.JMXs;
 import org.apache.commons.jcs3.jcache.proxy.ExceptionWrapperHandler;
+import org.apache.commons.jcs3.jcache.serialization.Copier;
+import org.apache.commons.jcs3.jcache.serialization.DefaultCopier;
 import org.apache.commons.jcs3.jcache.thread.DaemonThreadFactory;
 import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
 
@@ -84,7 +92,10 @@ public class JCSCache<K, V> implements Cache<K, V>
     private final Map<CacheEntryListenerConfiguration<K, V>, JCSListener<K, V>> listeners = new ConcurrentHashMap<>();
     private final Statistics statistics = new Statistics();
     private final ExecutorService pool;
+    private final ExecutorService listenerPool; // drains the events of the asynchronous listeners
     private final IElementSerializer serializer; // using json/xml should work as well -> don't force Serializable
+    private final Copier copier; // store-by-value copies
+    private final NearCache<K, V> nearCache; // null if disabled
 
 
     public JCSCache(final ClassLoader classLoader, final JCSCachingManager mgr,
@@ -108,6 +119,11 @@ public class JCSCache<K, V> implements Cache<K, V>
         final DaemonThreadFactory threadFactory = new DaemonThreadFactory("JCS-JCache-" + cacheName + "-");
         pool = poolSize > 0 ? Executors.newFixedThreadPool(poolSize, threadFactory) : Executors.newCachedThreadPool(threadFactory);
 
+        final int listenerPoolSize = Integer.parseInt(property(properties, cacheName, "listener.pool.size", "1"));
+        final DaemonThreadFactory listenerThreadFactory = new DaemonThreadFactory("JCS-JCache-" + cacheName + "-listener-");
+        listenerPool = listenerPoolSize > 0 ? Executors.newFixedThreadPool(listenerPoolSize, listenerThreadFactory)
+                : Executors.newCachedThreadPool(listenerThreadFactory);
+
         try
         {
             serializer = IElementSerializer.class.cast(classLoader.loadClass(property(properties, "serializer", cacheName, StandardSerializer.class.getName())).newInstance());
@@ -116,6 +132,7 @@ public class JCSCache<K, V> implements Cache<K, V>
         {
             throw new IllegalArgumentException(e);
         }
+        copier = createCopier(classLoader, property(properties, cacheName, "copier", DefaultCopier.class.getName()));
 
         final Factory<CacheLoader<K, V>> cacheLoaderFactory = configuration.getCacheLoaderFactory();
         if (cacheLoaderFactory == null)
@@ -151,9 +168,21 @@ public class JCSCache<K, V> implements Cache<K, V>
 
         for (final CacheEntryListenerConfiguration<K, V> listener : config.getCacheEntryListenerConfigurations())
         {
-            listeners.put(listener, new JCSListener<>(listener));
+            listeners.put(listener, new JCSListener<>(listener, listenerPool));
         }
-        delegate.init(this, listeners);
+
+        // near cache hits bypass the region so they can't update the expiry on access
+        final int nearCacheSize = Integer.parseInt(property(properties, cacheName, "near-cache.size", "0"));
+        if (nearCacheSize > 0 && expiryPolicy.getExpiryForAccess() == null)
+        {
+            nearCache = new NearCache<>(nearCacheSize,
+                    Long.parseLong(property(properties, cacheName, "near-cache.time-to-live", "60000")));
+        }
+        else
+        {
+            nearCache = null;
+        }
+        delegate.init(this, listeners, nearCache);
 
         statistics.setActive(config.isStatisticsEnabled());
 
@@ -180,6 +209,27 @@ public class JCSCache<K, V> implements Cache<K, V>
         }
     }
 
+    private Copier createCopier(final ClassLoader classLoader, final String copierClass)
+    {
+        try
+        {
+            final Class<?> type = classLoader.loadClass(copierClass);
+            try
+            {
+                return Copier.class.cast(type.getConstructor(IElementSerializer.class, ClassLoader.class)
+                        .newInstance(serializer, classLoader));
+            }
+            catch (final NoSuchMethodException nsme)
+            {
+                return Copier.class.cast(type.getConstructor().newInstance());
+            }
+        }
+        catch (final Exception e)
+        {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     private static String property(final Properties properties, final String cacheName, final String name, final String defaultValue)
     {
         return properties.getProperty(cacheName + "." + name, properties.getProperty(name, defaultValue));
@@ -218,26 +268,60 @@ public class JCSCache<K, V> implements Cache<K, V>
         }
         if (v != null)
         {
-            final Duration duration = update ? expiryPolicy.getExpiryForUpdate() : expiryPolicy.getExpiryForCreation();
-            if (isNotZero(duration))
+            storeLoaded(key, v, update);
+        }
+        return v;
+    }
+
+    private void storeLoaded(final K key, final V v, final boolean update)
+    {
+        final Duration duration = update ? expiryPolicy.getExpiryForUpdate() : expiryPolicy.getExpiryForCreation();
+        if (isNotZero(duration))
+        {
+            final IElementAttributes clone = delegate.getElementAttributes().clone();
+            if (ElementAttributes.class.isInstance(clone))
             {
-                final IElementAttributes clone = delegate.getElementAttributes().clone();
-                if (ElementAttributes.class.isInstance(clone))
-                {
-                    ElementAttributes.class.cast(clone).setCreateTime();
-                }
-                final ICacheElement<K, V> element = updateElement(key, v, duration, clone);
-                try
-                {
-                    delegate.update(element);
-                }
-                catch (final IOException e)
-                {
-                    throw new CacheException(e);
-                }
+                ElementAttributes.class.cast(clone).setCreateTime();
+            }
+            final ICacheElement<K, V> element = updateElement(key, v, duration, clone);
+            try
+            {
+                delegate.update(element);
+            }
+            catch (final IOException e)
+            {
+                throw new CacheException(e);
             }
         }
-        return v;
+    }
+
+    // one loader call for all the misses of a getAll
+    private Map<K, V> loadAll(final Set<K> keys)
+    {
+        final Map<K, V> loaded;
+        try
+        {
+            loaded = loader.loadAll(keys);
+        }
+        catch (final CacheLoaderException e)
+        {
+            return Collections.emptyMap();
+        }
+        if (loaded == null)
+        {
+            return Collections.emptyMap();
+        }
+
+        final Map<K, V> result = new HashMap<>();
+        for (final Map.Entry<K, V> entry : loaded.entrySet())
+        {
+            if (entry.getKey() != null && entry.getValue() != null)
+            {
+                storeLoaded(entry.getKey(), entry.getValue(), false);
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
     }
 
     private ICacheElement<K, V> updateElement(final K key, final V v, final Duration duration, final IElementAttributes attrs)
@@ -262,7 +346,7 @@ public class JCSCache<K, V> implements Cache<K, V>
     {
         if (config.isStoreByValue())
         {
-            final K copy = copy(serializer, manager.getClassLoader(), key);
+            final K copy = copier.copy(key);
             try
             {
                 delegate.update(new CacheElement<>(name, copy, element.getVal(), element.getElementAttributes()));
@@ -283,20 +367,15 @@ public class JCSCache<K, V> implements Cache<K, V>
             assertNotNull(k, "key");
         }
 
-        final long now = Times.now(false);
+        final Map<K, ICacheElement<K, V>> elements = delegate.getMultiple(new HashSet<K>(keys));
         final Map<K, V> result = new HashMap<>();
+        final Set<K> misses = new HashSet<>();
         for (final K key : keys) {
-            assertNotNull(key, "key");
-
-            final ICacheElement<K, V> elt = delegate.get(key);
-            V val = elt != null ? elt.getVal() : null;
+            final ICacheElement<K, V> elt = elements.get(key);
+            final V val = elt != null ? elt.getVal() : null;
             if (val == null && config.isReadThrough())
             {
-                val = doLoad(key, false, now, false);
-                if (val != null)
-                {
-                    result.put(key, val);
-                }
+                misses.add(key);
             }
             else if (elt != null)
             {
@@ -312,6 +391,10 @@ public class JCSCache<K, V> implements Cache<K, V>
                 }
             }
         }
+        if (!misses.isEmpty())
+        {
+            result.putAll(loadAll(misses));
+        }
         return result;
     }
 
@@ -331,10 +414,24 @@ public class JCSCache<K, V> implements Cache<K, V>
         assertNotNull(rawValue, "value");
 
         final ICacheElement<K, V> oldElt = delegate.get(key);
-        final V old = oldElt != null ? oldElt.getVal() : null;
 
         final boolean storeByValue = config.isStoreByValue();
-        final V value = storeByValue ? copy(serializer, manager.getClassLoader(), rawValue) : rawValue;
+        final V value = storeByValue ? copier.copy(rawValue) : rawValue;
+        final K jcsKey = storeByValue ? copier.copy(key) : key;
+
+        final List<CacheEntryEvent<? extends K, ? extends V>> created = new ArrayList<>(1);
+        final List<CacheEntryEvent<? extends K, ? extends V>> updated = new ArrayList<>(1);
+        doPut(key, jcsKey, value, oldElt, true, created, updated);
+        fire(EventType.CREATED, created);
+        fire(EventType.UPDATED, updated);
+    }
+
+    // jcsKey and value are the copies to store, the events are collected to be fired in one batch
+    private void doPut(final K key, final K jcsKey, final V value, final ICacheElement<K, V> oldElt, final boolean write,
+            final List<CacheEntryEvent<? extends K, ? extends V>> createdEvents,
+            final List<CacheEntryEvent<? extends K, ? extends V>> updatedEvents)
+    {
+        final V old = oldElt != null ? oldElt.getVal() : null;
 
         final boolean created = old == null;
         final Duration duration = created ? expiryPolicy.getExpiryForCreation() : expiryPolicy.getExpiryForUpdate();
@@ -343,7 +440,6 @@ public class JCSCache<K, V> implements Cache<K, V>
             final boolean statisticsEnabled = config.isStatisticsEnabled();
             final long start = Times.now(false);
 
-            final K jcsKey = storeByValue ? copy(serializer, manager.getClassLoader(), key) : key;
             final ICacheElement<K, V> element = updateElement( // reuse it to create basic structure
                     jcsKey, value, created ? null : duration,
                     oldElt != null ? oldElt.getElementAttributes() : delegate.getElementAttributes().clone());
@@ -369,7 +465,10 @@ public class JCSCache<K, V> implements Cache<K, V>
                 }
                 element.setElementAttributes(copy);
             }
-            writer.write(new JCSEntry<>(jcsKey, value));
+            if (write)
+            {
+                writer.write(new JCSEntry<>(jcsKey, value));
+            }
             try
             {
                 delegate.update(element);
@@ -378,18 +477,13 @@ public class JCSCache<K, V> implements Cache<K, V>
             {
                 throw new CacheException(e);
             }
-            for (final JCSListener<K, V> listener : listeners.values())
+            if (created)
             {
-                if (created)
-                {
-                    listener.onCreated(Arrays.<CacheEntryEvent<? extends K, ? extends V>> asList(new JCSCacheEntryEvent<>(this,
-                            EventType.CREATED, null, key, value)));
-                }
-                else
-                {
-                    listener.onUpdated(Arrays.<CacheEntryEvent<? extends K, ? extends V>> asList(new JCSCacheEntryEvent<>(this,
-                            EventType.UPDATED, old, key, value)));
-                }
+                createdEvents.add(new JCSCacheEntryEvent<>(this, EventType.CREATED, null, key, value));
+            }
+            else
+            {
+                updatedEvents.add(new JCSCacheEntryEvent<>(this, EventType.UPDATED, old, key, value));
             }
 
             if (statisticsEnabled)
@@ -407,6 +501,30 @@ public class JCSCache<K, V> implements Cache<K, V>
         }
     }
 
+    // one call per listener for all the events of an operation
+    private void fire(final EventType type, final List<CacheEntryEvent<? extends K, ? extends V>> events)
+    {
+        if (events.isEmpty())
+        {
+            return;
+        }
+        for (final JCSListener<K, V> listener : listeners.values())
+        {
+            switch (type)
+            {
+                case CREATED:
+                    listener.onCreated(events);
+                    break;
+                case UPDATED:
+                    listener.onUpdated(events);
+                    break;
+                default:
+                    listener.onRemoved(events);
+                    break;
+            }
+        }
+    }
+
     private static boolean isNotZero(final Duration duration)
     {
         return duration == null || !duration.isZero();
@@ -439,12 +557,55 @@ public class JCSCache<K, V> implements Cache<K, V>
     public void putAll(final Map<? extends K, ? extends V> map)
     {
         assertNotClosed();
-        final TempStateCacheView<K, V> view = new TempStateCacheView<>(this);
+        assertNotNull(map, "map");
         for (final Map.Entry<? extends K, ? extends V> e : map.entrySet())
         {
-            view.put(e.getKey(), e.getValue());
+            assertNotNull(e.getKey(), "key");
+            assertNotNull(e.getValue(), "value");
+        }
+
+        final boolean storeByValue = config.isStoreByValue();
+        final Map<K, JCSEntry<K, V>> entries = new LinkedHashMap<>(map.size());
+        for (final Map.Entry<? extends K, ? extends V> e : map.entrySet())
+        {
+            entries.put(e.getKey(), storeByValue ? new JCSEntry<>(copier.copy(e.getKey()), copier.copy(e.getValue()))
+                    : new JCSEntry<>(e.getKey(), e.getValue()));
+        }
+
+        // the writer removes the entries it wrote, the ones left failed
+        final Collection<Entry<? extends K, ? extends V>> toWrite = new ArrayList<>(entries.values());
+        CacheWriterException failure = null;
+        try
+        {
+            ((CacheWriter<K, V>) writer).writeAll(toWrite);
+        }
+        catch (final CacheWriterException e)
+        {
+            failure = e;
+        }
+        final Set<Entry<? extends K, ? extends V>> notWritten = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (failure != null)
+        {
+            notWritten.addAll(toWrite);
+        }
+
+        final Map<K, ICacheElement<K, V>> oldElements = delegate.getMultiple(new HashSet<>(entries.keySet()));
+        final List<CacheEntryEvent<? extends K, ? extends V>> created = new ArrayList<>();
+        final List<CacheEntryEvent<? extends K, ? extends V>> updated = new ArrayList<>();
+        for (final Map.Entry<K, JCSEntry<K, V>> e : entries.entrySet())
+        {
+            if (!notWritten.contains(e.getValue()))
+            {
+                doPut(e.getKey(), e.getValue().getKey(), e.getValue().getValue(), oldElements.get(e.getKey()), false, created, updated);
+            }
+        }
+        fire(EventType.CREATED, created);
+        fire(EventType.UPDATED, updated);
+
+        if (failure != null)
+        {
+            throw failure;
         }
-        view.merge();
     }
 
     @Override
@@ -524,8 +685,28 @@ public class JCSCache<K, V> implements Cache<K, V>
             final boolean propagateLoadException)
     {
         final boolean statisticsEnabled = config.isStatisticsEnabled();
+        final boolean useNearCache = nearCache != null && updateAcess && !forceDoLoad;
+        if (useNearCache)
+        {
+            final V near = nearCache.get(key);
+            if (near != null)
+            {
+                if (statisticsEnabled)
+                {
+                    statistics.increaseHits(1);
+                    statistics.addGetTime(Times.now(false) - getStart);
+                }
+                return near;
+            }
+        }
+        final long nearCacheVersion = useNearCache ? nearCache.version() : 0;
+
         final ICacheElement<K, V> elt = delegate.get(key);
         V v = elt != null ? elt.getVal() : null;
+        if (useNearCache && v != null)
+        {
+            nearCache.put(key, elt, nearCacheVersion);
+        }
         if (v == null && (config.isReadThrough() || forceDoLoad))
         {
             if (!skipLoad)
@@ -680,7 +861,51 @@ public class JCSCache<K, V> implements Cache<K, V>
         assertNotNull(keys, "keys");
         for (final K k : keys)
         {
-            remove(k);
+            assertNotNull(k, "key");
+        }
+
+        final boolean statisticsEnabled = config.isStatisticsEnabled();
+        final long start = Times.now(!statisticsEnabled);
+
+        // the writer removes the keys it deleted, the ones left failed
+        final Collection<Object> toDelete = new ArrayList<>(keys);
+        CacheWriterException failure = null;
+        try
+        {
+            writer.deleteAll(toDelete);
+        }
+        catch (final CacheWriterException e)
+        {
+            failure = e;
+        }
+
+        final Map<K, ICacheElement<K, V>> oldElements = delegate.getMultiple(new HashSet<K>(keys));
+        final List<CacheEntryEvent<? extends K, ? extends V>> events = new ArrayList<>(keys.size());
+        int removals = 0;
+        for (final K key : keys)
+        {
+            if (failure != null && toDelete.contains(key))
+            {
+                continue;
+            }
+            delegate.remove(key);
+            final ICacheElement<K, V> v = oldElements.get(key);
+            if (v != null)
+            {
+                removals++;
+            }
+            events.add(new JCSCacheEntryEvent<>(this, EventType.REMOVED, null, key, v != null ? v.getVal() : null));
+        }
+        fire(EventType.REMOVED, events);
+
+        if (removals > 0 && statisticsEnabled)
+        {
+            statistics.increaseRemovals(removals);
+            statistics.addRemoveTime(Times.now(false) - start);
+        }
+        if (failure != null)
+        {
+            throw failure;
         }
     }
 
@@ -688,10 +913,7 @@ public class JCSCache<K, V> implements Cache<K, V>
     public void removeAll()
     {
         assertNotClosed();
-        for (final K k : delegate.getKeySet())
-        {
-            remove(k);
-        }
+        removeAll(new HashSet<>(delegate.getKeySet()));
     }
 
     @Override
@@ -811,12 +1033,14 @@ public class JCSCache<K, V> implements Cache<K, V>
     {
         assertNotClosed();
         assertNotNull(entryProcessor, "entryProcessor");
+        // a single view, merged with one putAll and one removeAll
+        final TempStateCacheView<K, V> view = new TempStateCacheView<>(this);
         final Map<K, EntryProcessorResult<T>> results = new HashMap<>();
         for (final K k : keys)
         {
             try
             {
-                final T invoke = invoke(k, entryProcessor, arguments);
+                final T invoke = doInvoke(view, k, entryProcessor, arguments);
                 if (invoke != null)
                 {
                     results.put(k, () -> invoke);
@@ -824,9 +1048,11 @@ public class JCSCache<K, V> implements Cache<K, V>
             }
             catch (final Exception e)
             {
+                view.discard(k);
                 results.put(k, () -> throwEntryProcessorException(e));
             }
         }
+        view.merge();
         return results;
     }
 
@@ -838,7 +1064,7 @@ public class JCSCache<K, V> implements Cache<K, V>
         {
             throw new IllegalArgumentException(cacheEntryListenerConfiguration + " already registered");
         }
-        listeners.put(cacheEntryListenerConfiguration, new JCSListener<>(cacheEntryListenerConfiguration));
+        listeners.put(cacheEntryListenerConfiguration, new JCSListener<>(cacheEntryListenerConfiguration, listenerPool));
         config.addListener(cacheEntryListenerConfiguration);
     }
 
@@ -909,6 +1135,16 @@ public class JCSCache<K, V> implements Cache<K, V>
         for (final Runnable task : pool.shutdownNow()) {
             task.run();
         }
+        listenerPool.shutdown();
+        try
+        {
+            // let the asynchronous listeners get the events already sent
+            listenerPool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
 
         manager.release(getName());
         closed = true;
@@ -966,6 +1202,23 @@ public class JCSCache<K, V> implements Cache<K, V>
         return statistics;
     }
 
+    // the region, for the tests sending region events
+    ExpiryAwareCache<K, V> getRegion()
+    {
+        return delegate;
+    }
+
+    // events waiting for the asynchronous listeners
+    public int getListenerQueueSize()
+    {
+        int size = 0;
+        for (final JCSListener<K, V> listener : listeners.values())
+        {
+            size += listener.getQueueSize();
+        }
+        return size;
+    }
+
     public void enableManagement()
     {
         config.managementEnabled();
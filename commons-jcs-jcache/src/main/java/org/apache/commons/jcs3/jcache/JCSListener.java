@@ -28,12 +28,27 @@ import javax.cache.event.CacheEntryListener;
 import javax.cache.event.CacheEntryListenerException;
 import javax.cache.event.CacheEntryRemovedListener;
 import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.event.EventType;
 import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+// asynchronous listeners get their events from an ordered queue, drained by one task at a time
+// on the executor, consecutive events of the same kind being passed in a single call
 public class JCSListener<K, V> implements Closeable
 {
+    private static final Logger LOGGER = Logger.getLogger(JCSListener.class.getName());
+    private static final int MAX_BATCH_SIZE = 256;
+
     private final boolean oldValue;
     private final boolean synchronous;
     private final CacheEntryEventFilter<? super K, ? super V> filter;
@@ -43,10 +58,23 @@ public class JCSListener<K, V> implements Closeable
     private final boolean update;
     private final boolean create;
 
+    private final Executor executor;
+    private final Queue<QueuedEvent<K, V>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
     public JCSListener(final CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration)
+    {
+        this(cacheEntryListenerConfiguration, null);
+    }
+
+    public JCSListener(final CacheEntryListenerConfiguration<K, V> cacheEntryListenerConfiguration, final Executor executor)
     {
         oldValue = cacheEntryListenerConfiguration.isOldValueRequired();
-        synchronous = cacheEntryListenerConfiguration.isSynchronous();
+        synchronous = cacheEntryListenerConfiguration.isSynchronous() || executor == null;
+        this.executor = executor;
 
         final Factory<CacheEntryEventFilter<? super K, ? super V>> filterFactory = cacheEntryListenerConfiguration
                 .getCacheEntryEventFilterFactory();
@@ -70,7 +98,7 @@ public class JCSListener<K, V> implements Closeable
     {
         if (remove)
         {
-            CacheEntryRemovedListener.class.cast(delegate).onRemoved(filter(events));
+            dispatch(EventType.REMOVED, events);
         }
     }
 
@@ -78,7 +106,7 @@ public class JCSListener<K, V> implements Closeable
     {
         if (expire)
         {
-            CacheEntryExpiredListener.class.cast(delegate).onExpired(filter(events));
+            dispatch(EventType.EXPIRED, events);
         }
     }
 
@@ -86,7 +114,7 @@ public class JCSListener<K, V> implements Closeable
     {
         if (update)
         {
-            CacheEntryUpdatedListener.class.cast(delegate).onUpdated(filter(events));
+            dispatch(EventType.UPDATED, events);
         }
     }
 
@@ -94,7 +122,113 @@ public class JCSListener<K, V> implements Closeable
     {
         if (create)
         {
-            CacheEntryCreatedListener.class.cast(delegate).onCreated(filter(events));
+            dispatch(EventType.CREATED, events);
+        }
+    }
+
+    public boolean isSynchronous()
+    {
+        return synchronous;
+    }
+
+    // events waiting for an asynchronous listener
+    public int getQueueSize()
+    {
+        return queueSize.get();
+    }
+
+    public long getDispatchedEvents()
+    {
+        return dispatchedEvents.get();
+    }
+
+    public long getBatches()
+    {
+        return batches.get();
+    }
+
+    private void dispatch(final EventType type, final List<CacheEntryEvent<? extends K, ? extends V>> events)
+    {
+        if (synchronous)
+        {
+            invoke(type, events);
+            return;
+        }
+
+        for (final CacheEntryEvent<? extends K, ? extends V> event : events)
+        {
+            queue.add(new QueuedEvent<>(type, event));
+            queueSize.incrementAndGet();
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain()
+    {
+        if (draining.compareAndSet(false, true))
+        {
+            try
+            {
+                executor.execute(this::drain);
+            }
+            catch (final RejectedExecutionException ree) // closing, don't lose the events
+            {
+                drain();
+            }
+        }
+    }
+
+    private void drain()
+    {
+        do
+        {
+            QueuedEvent<K, V> next = queue.poll();
+            while (next != null)
+            {
+                final EventType type = next.type;
+                final List<CacheEntryEvent<? extends K, ? extends V>> batch = new ArrayList<>();
+                do
+                {
+                    batch.add(next.event);
+                    next = queue.peek() != null && queue.peek().type == type && batch.size() < MAX_BATCH_SIZE ? queue.poll() : null;
+                }
+                while (next != null);
+                queueSize.addAndGet(-batch.size());
+
+                try
+                {
+                    invoke(type, batch);
+                }
+                catch (final RuntimeException e) // nobody to report it to, keep going with the next events
+                {
+                    LOGGER.log(Level.WARNING, "Asynchronous listener " + delegate + " failed", e);
+                }
+                dispatchedEvents.addAndGet(batch.size());
+                batches.incrementAndGet();
+                next = queue.poll();
+            }
+            draining.set(false);
+        }
+        // an event may have been queued after the last poll but before we released the flag
+        while (!queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    private void invoke(final EventType type, final List<CacheEntryEvent<? extends K, ? extends V>> events)
+    {
+        switch (type)
+        {
+            case CREATED:
+                CacheEntryCreatedListener.class.cast(delegate).onCreated(filter(events));
+                break;
+            case UPDATED:
+                CacheEntryUpdatedListener.class.cast(delegate).onUpdated(filter(events));
+                break;
+            case REMOVED:
+                CacheEntryRemovedListener.class.cast(delegate).onRemoved(filter(events));
+                break;
+            default:
+                CacheEntryExpiredListener.class.cast(delegate).onExpired(filter(events));
+                break;
         }
     }
 
@@ -120,8 +254,25 @@ public class JCSListener<K, V> implements Closeable
     @Override
     public void close()
     {
+        if (!synchronous && draining.compareAndSet(false, true))
+        {
+            drain();
+        }
+
         if (Closeable.class.isInstance(delegate)) {
             Closeable.class.cast(delegate);
         }
     }
+
+    private static final class QueuedEvent<K, V>
+    {
+        private final EventType type;
+        private final CacheEntryEvent<? extends K, ? extends V> event;
+
+        private QueuedEvent(final EventType type, final CacheEntryEvent<? extends K, ? extends V> event)
+        {
+            this.type = type;
+            this.event = event;
+        }
+    }
 }
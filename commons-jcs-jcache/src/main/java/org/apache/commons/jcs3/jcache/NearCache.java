@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.jcs3.jcache;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.jcs3.engine.behavior.ICacheElement;
+import org.apache.commons.jcs3.engine.behavior.IElementAttributes;
+
+// small per JVM map of the values already read, invalidated by every change of the region,
+// local or coming from a lateral or remote auxiliary (see ExpiryAwareCache)
+public class NearCache<K, V>
+{
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long timeToLive;
+
+    // bumped by every invalidation, a read started before an invalidation must not be cached
+    private final AtomicLong version = new AtomicLong();
+
+    public NearCache(final int maxSize, final long timeToLive)
+    {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    public V get(final K key)
+    {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null)
+        {
+            return null;
+        }
+        if (entry.expires <= System.currentTimeMillis())
+        {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public long version()
+    {
+        return version.get();
+    }
+
+    public void put(final K key, final ICacheElement<K, V> element, final long readVersion)
+    {
+        final long now = System.currentTimeMillis();
+        final long expires = expires(element.getElementAttributes(), now);
+        if (expires <= now)
+        {
+            return;
+        }
+
+        if (entries.size() >= maxSize)
+        {
+            evictOne();
+        }
+        entries.put(key, new Entry<>(element.getVal(), expires));
+        if (version.get() != readVersion)
+        {
+            // invalidated while we were reading, the value may be stale
+            entries.remove(key);
+        }
+    }
+
+    public void invalidate(final Object key)
+    {
+        version.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll()
+    {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    private long expires(final IElementAttributes attributes, final long now)
+    {
+        long expires = now + timeToLive;
+        if (attributes != null && !attributes.getIsEternal())
+        {
+            final long factor = attributes.getTimeFactorForMilliseconds();
+            if (attributes.getMaxLife() > 0)
+            {
+                expires = Math.min(expires, attributes.getCreateTime() + attributes.getMaxLife() * factor);
+            }
+            if (attributes.getIdleTime() > 0)
+            {
+                // hits are not seen by the region so they can't extend the idle time
+                expires = Math.min(expires, attributes.getLastAccessTime() + attributes.getIdleTime() * factor);
+            }
+        }
+        return expires;
+    }
+
+    private void evictOne()
+    {
+        final Iterator<K> keys = entries.keySet().iterator();
+        if (keys.hasNext())
+        {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class Entry<V>
+    {
+        private final V value;
+        private final long expires;
+
+        private Entry(final V value, final long expires)
+        {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
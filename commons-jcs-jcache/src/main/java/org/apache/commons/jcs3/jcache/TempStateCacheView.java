@@ -338,15 +338,22 @@ public class TempStateCacheView<K, V> implements Cache<K, V>
             cache.clear();
         }
 
-        for (final Map.Entry<K, V> entry : put.entrySet())
+        if (!put.isEmpty())
         {
-            cache.put(entry.getKey(), entry.getValue());
+            cache.putAll(put);
+            put.clear();
         }
-        put.clear();
-        for (final K entry : remove)
+        if (!remove.isEmpty())
         {
-            cache.remove(entry);
+            cache.removeAll(new HashSet<>(remove));
+            remove.clear();
         }
-        remove.clear();
+    }
+
+    // forgets the changes to a key, when its entry processor failed
+    void discard(final K key)
+    {
+        put.remove(key);
+        remove.remove(key);
     }
 }
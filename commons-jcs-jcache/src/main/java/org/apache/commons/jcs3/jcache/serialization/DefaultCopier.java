@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.jcs3.jcache.serialization;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.jcs3.engine.behavior.IElementSerializer;
+
+// immutable values are shared, arrays and the common collections are copied element by element,
+// anything else goes through the serializer. Each value is copied once per call, so that shared
+// references stay shared and cycles end on the copy under way
+public class DefaultCopier implements Copier
+{
+    private static final Method IS_RECORD = method(Class.class, "isRecord");
+    private static final Method GET_RECORD_COMPONENTS = method(Class.class, "getRecordComponents");
+    private static final Method GET_TYPE = IS_RECORD == null ? null : method(loadRecordComponent(), "getType");
+
+    private final IElementSerializer serializer;
+    private final ClassLoader loader;
+    private final ConcurrentMap<Class<?>, Boolean> immutables = new ConcurrentHashMap<>();
+
+    public DefaultCopier(final IElementSerializer serializer, final ClassLoader loader)
+    {
+        this.serializer = serializer;
+        this.loader = loader;
+    }
+
+    @Override
+    public <T> T copy(final T value)
+    {
+        return copy(value, new IdentityHashMap<>());
+    }
+
+    // copies holds the copy of each mutable value met so far, a container being put there
+    // before its content is copied
+    private <T> T copy(final T value, final Map<Object, Object> copies)
+    {
+        if (value == null || isImmutable(value.getClass()))
+        {
+            return value;
+        }
+        final Object known = copies.get(value);
+        if (known != null)
+        {
+            return (T) known;
+        }
+
+        final Class<?> type = value.getClass();
+        if (type.isArray())
+        {
+            return copyArray(value, copies);
+        }
+        if (type == ArrayList.class)
+        {
+            return (T) copyElements((Collection<?>) value, new ArrayList<>(((Collection<?>) value).size()), copies);
+        }
+        if (type == LinkedList.class)
+        {
+            return (T) copyElements((Collection<?>) value, new LinkedList<>(), copies);
+        }
+        if (type == HashSet.class)
+        {
+            return (T) copyElements((Collection<?>) value, new HashSet<>(), copies);
+        }
+        if (type == LinkedHashSet.class)
+        {
+            return (T) copyElements((Collection<?>) value, new LinkedHashSet<>(), copies);
+        }
+        if (type == TreeSet.class && ((TreeSet<?>) value).comparator() == null)
+        {
+            return (T) copyElements((Collection<?>) value, new TreeSet<>(), copies);
+        }
+        if (type == HashMap.class)
+        {
+            return (T) copyEntries((Map<?, ?>) value, new HashMap<>(), copies);
+        }
+        if (type == LinkedHashMap.class)
+        {
+            return (T) copyEntries((Map<?, ?>) value, new LinkedHashMap<>(), copies);
+        }
+        if (type == TreeMap.class && ((TreeMap<?, ?>) value).comparator() == null)
+        {
+            return (T) copyEntries((Map<?, ?>) value, new TreeMap<>(), copies);
+        }
+        final T copy = Serializations.copy(serializer, loader, value);
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private boolean isImmutable(final Class<?> type)
+    {
+        final Boolean known = immutables.get(type);
+        if (known != null)
+        {
+            return known;
+        }
+        immutables.put(type, false); // a record may hold itself
+        final boolean immutable = computeImmutable(type);
+        immutables.put(type, immutable);
+        return immutable;
+    }
+
+    private boolean computeImmutable(final Class<?> type)
+    {
+        if (type == String.class || type == Boolean.class || type == Character.class
+                || type == Byte.class || type == Short.class || type == Integer.class || type == Long.class
+                || type == Float.class || type == Double.class
+                || type == BigInteger.class || type == BigDecimal.class // subclasses may be mutable
+                || type == UUID.class || type == URI.class || type == Locale.class || type == Class.class
+                || type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum()) // constant with a body
+                || ZoneId.class.isAssignableFrom(type))
+        {
+            return true;
+        }
+        // java.time value classes are final and immutable
+        if (type.getName().startsWith("java.time.") && Modifier.isFinal(type.getModifiers()))
+        {
+            return true;
+        }
+        return isRecordOfImmutables(type);
+    }
+
+    // a record (java 16+) only holding final fields of immutable types
+    private boolean isRecordOfImmutables(final Class<?> type)
+    {
+        if (IS_RECORD == null)
+        {
+            return false;
+        }
+        try
+        {
+            if (!Boolean.TRUE.equals(IS_RECORD.invoke(type)))
+            {
+                return false;
+            }
+            for (final Object component : (Object[]) GET_RECORD_COMPONENTS.invoke(type))
+            {
+                final Class<?> componentType = (Class<?>) GET_TYPE.invoke(component);
+                if (!componentType.isPrimitive() && !isImmutable(componentType))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            return false;
+        }
+    }
+
+    private <T> T copyArray(final T value, final Map<Object, Object> copies)
+    {
+        final Class<?> componentType = value.getClass().getComponentType();
+        if (componentType.isPrimitive())
+        {
+            if (componentType == int.class)
+            {
+                return record(value, (T) ((int[]) value).clone(), copies);
+            }
+            if (componentType == long.class)
+            {
+                return record(value, (T) ((long[]) value).clone(), copies);
+            }
+            if (componentType == byte.class)
+            {
+                return record(value, (T) ((byte[]) value).clone(), copies);
+            }
+            if (componentType == char.class)
+            {
+                return record(value, (T) ((char[]) value).clone(), copies);
+            }
+            if (componentType == double.class)
+            {
+                return record(value, (T) ((double[]) value).clone(), copies);
+            }
+            if (componentType == float.class)
+            {
+                return record(value, (T) ((float[]) value).clone(), copies);
+            }
+            if (componentType == short.class)
+            {
+                return record(value, (T) ((short[]) value).clone(), copies);
+            }
+            return record(value, (T) ((boolean[]) value).clone(), copies);
+        }
+
+        final Object[] copy = ((Object[]) value).clone();
+        copies.put(value, copy);
+        for (int i = 0; i < copy.length; i++)
+        {
+            copy[i] = copy(copy[i], copies);
+        }
+        return (T) copy;
+    }
+
+    private <C extends Collection<Object>> C copyElements(final Collection<?> source, final C target,
+            final Map<Object, Object> copies)
+    {
+        copies.put(source, target);
+        for (final Object element : source)
+        {
+            target.add(copy(element, copies));
+        }
+        return target;
+    }
+
+    private <M extends Map<Object, Object>> M copyEntries(final Map<?, ?> source, final M target,
+            final Map<Object, Object> copies)
+    {
+        copies.put(source, target);
+        for (final Map.Entry<?, ?> entry : source.entrySet())
+        {
+            target.put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+        }
+        return target;
+    }
+
+    private static <T> T record(final T value, final T copy, final Map<Object, Object> copies)
+    {
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private static Class<?> loadRecordComponent()
+    {
+        try
+        {
+            return Class.forName("java.lang.reflect.RecordComponent");
+        }
+        catch (final ClassNotFoundException e)
+        {
+            return null;
+        }
+    }
+
+    private static Method method(final Class<?> type, final String name)
+    {
+        if (type == null)
+        {
+            return null;
+        }
+        try
+        {
+            return type.getMethod(name);
+        }
+        catch (final NoSuchMethodException e) // before java 16
+        {
+            return null;
+        }
+    }
+}
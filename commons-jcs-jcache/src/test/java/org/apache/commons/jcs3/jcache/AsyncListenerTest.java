@@ -0,0 +1,112 @@
+package org.apache.commons.jcs3.jcache;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListenerException;
+import javax.cache.spi.CachingProvider;
+
+import org.junit.Test;
+
+public class AsyncListenerTest
+{
+    @Test
+    public void slowListenerDoesNotBlockPuts() throws Exception
+    {
+        final CachingProvider cachingProvider = Caching.getCachingProvider();
+        final CacheManager cacheManager = cachingProvider.getCacheManager();
+        final BlockingListener listener = new BlockingListener();
+        final Cache<String, String> cache = cacheManager.createCache("async", new MutableConfiguration<String, String>()
+                .addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+                        FactoryBuilder.factoryOf(listener), null, false, false)));
+        try
+        {
+            cache.put("first", "1"); // blocks the listener thread
+            assertTrue(BlockingListener.STARTED.await(1, TimeUnit.MINUTES));
+            for (int i = 0; i < 10; i++)
+            {
+                cache.put("key" + i, "value"); // doesn't wait for the listener
+            }
+            final JCSCache<?, ?> jcsCache = cache.unwrap(JCSCache.class);
+            assertEquals(10, jcsCache.getListenerQueueSize());
+
+            BlockingListener.RELEASE.countDown();
+            final long end = System.currentTimeMillis() + 60000;
+            while (BlockingListener.EVENTS.size() < 11 && System.currentTimeMillis() < end)
+            {
+                Thread.sleep(10);
+            }
+            assertEquals(11, BlockingListener.EVENTS.size());
+            assertEquals("first", BlockingListener.EVENTS.get(0));
+            assertEquals("key9", BlockingListener.EVENTS.get(10));
+            assertEquals("the queued events come in one call", 2, BlockingListener.CALLS.get());
+        }
+        finally
+        {
+            cachingProvider.close();
+        }
+    }
+
+    public static class BlockingListener implements CacheEntryCreatedListener<String, String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private static final CountDownLatch STARTED = new CountDownLatch(1);
+        private static final CountDownLatch RELEASE = new CountDownLatch(1);
+        private static final AtomicInteger CALLS = new AtomicInteger();
+        private static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onCreated(final Iterable<CacheEntryEvent<? extends String, ? extends String>> events)
+                throws CacheEntryListenerException
+        {
+            STARTED.countDown();
+            try
+            {
+                RELEASE.await(1, TimeUnit.MINUTES);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            for (final CacheEntryEvent<? extends String, ? extends String> event : events)
+            {
+                EVENTS.add(event.getKey());
+            }
+            CALLS.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.apache.commons.jcs3.jcache;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.integration.CacheLoader;
+import javax.cache.integration.CacheWriter;
+import javax.cache.spi.CachingProvider;
+
+import org.junit.Test;
+
+public class BulkOperationsTest
+{
+    private static final AtomicInteger LOAD_ALL = new AtomicInteger();
+    private static final AtomicInteger WRITE_ALL = new AtomicInteger();
+    private static final AtomicInteger DELETE_ALL = new AtomicInteger();
+    private static final AtomicInteger CREATED_CALLS = new AtomicInteger();
+
+    @Test
+    public void bulkCallsAreBatched()
+    {
+        final CachingProvider cachingProvider = Caching.getCachingProvider();
+        final CacheManager cacheManager = cachingProvider.getCacheManager();
+        final Cache<String, String> cache = cacheManager.createCache("bulk", new MutableConfiguration<String, String>()
+                .setReadThrough(true)
+                .setWriteThrough(true)
+                .setCacheLoaderFactory(FactoryBuilder.factoryOf(new Loader()))
+                .setCacheWriterFactory(FactoryBuilder.factoryOf(new Writer()))
+                .addCacheEntryListenerConfiguration(new MutableCacheEntryListenerConfiguration<>(
+                        FactoryBuilder.factoryOf(new CreatedListener()), null, false, true)));
+        try
+        {
+            final Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < 5; i++)
+            {
+                values.put("key" + i, "value" + i);
+            }
+            cache.putAll(values);
+            assertEquals(1, WRITE_ALL.get());
+            assertEquals(1, CREATED_CALLS.get());
+
+            final Map<String, String> all = cache.getAll(new HashSet<>(Arrays.asList("key0", "key1", "missing1", "missing2")));
+            assertEquals(4, all.size());
+            assertEquals("value0", all.get("key0"));
+            assertEquals("loaded-missing1", all.get("missing1"));
+            assertEquals(1, LOAD_ALL.get());
+
+            cache.removeAll(new HashSet<>(Arrays.asList("key0", "key1", "key2")));
+            assertEquals(1, DELETE_ALL.get());
+            assertFalse(cache.containsKey("key0"));
+            assertEquals("value3", cache.get("key3"));
+        }
+        finally
+        {
+            cachingProvider.close();
+        }
+    }
+
+    public static class Loader implements CacheLoader<String, String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String load(final String key)
+        {
+            return "loaded-" + key;
+        }
+
+        @Override
+        public Map<String, String> loadAll(final Iterable<? extends String> keys)
+        {
+            LOAD_ALL.incrementAndGet();
+            final Map<String, String> loaded = new HashMap<>();
+            for (final String key : keys)
+            {
+                loaded.put(key, load(key));
+            }
+            return loaded;
+        }
+    }
+
+    public static class Writer implements CacheWriter<String, String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void write(final Cache.Entry<? extends String, ? extends String> entry)
+        {
+            // no-op
+        }
+
+        @Override
+        public void writeAll(final Collection<Cache.Entry<? extends String, ? extends String>> entries)
+        {
+            WRITE_ALL.incrementAndGet();
+            entries.clear();
+        }
+
+        @Override
+        public void delete(final Object key)
+        {
+            // no-op
+        }
+
+        @Override
+        public void deleteAll(final Collection<?> keys)
+        {
+            DELETE_ALL.incrementAndGet();
+            for (final Iterator<?> it = keys.iterator(); it.hasNext();)
+            {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    public static class CreatedListener implements CacheEntryCreatedListener<String, String>, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onCreated(final Iterable<CacheEntryEvent<? extends String, ? extends String>> events)
+        {
+            CREATED_CALLS.incrementAndGet();
+        }
+    }
+}
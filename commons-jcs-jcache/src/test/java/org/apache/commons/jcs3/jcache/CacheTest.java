@@ -40,9 +40,9 @@ import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheLoaderException;
 import javax.cache.integration.CacheWriter;
 import javax.cache.spi.CachingProvider;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
@@ -108,7 +108,7 @@ public class CacheTest
         final CacheManager cacheManager = cachingProvider.getCacheManager();
         cacheManager.createCache("default", new MutableConfiguration<>());
         final Cache<String, String> cache = cacheManager.getCache("default");
-        final Set<String> event = new HashSet<>();
+        final Set<String> event = ConcurrentHashMap.newKeySet();
         cache.registerCacheEntryListener(new CacheEntryListenerConfiguration<String, String>()
         {
             /**
@@ -204,20 +204,41 @@ public class CacheTest
         });
 
         cache.put("foo", "bar");
+        awaitEvents(event, 1);
         assertEquals(1, event.size());
         assertEquals("foo", event.iterator().next());
         event.clear();
         cache.put("foo", "new");
+        awaitEvents(event, 1);
         assertEquals(1, event.size());
         assertEquals("foo", event.iterator().next());
         event.clear();
         cache.remove("foo");
+        awaitEvents(event, 1);
         assertEquals(1, event.size());
         assertEquals("foo", event.iterator().next());
 
         cachingProvider.close();
     }
 
+    // the listeners are asynchronous, wait a bounded time for their events
+    private static void awaitEvents(final Set<String> events, final int expected)
+    {
+        final long end = System.currentTimeMillis() + 5000;
+        while (events.size() < expected && System.currentTimeMillis() < end)
+        {
+            try
+            {
+                Thread.sleep(10);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     @Test
     public void loader()
     {
@@ -0,0 +1,91 @@
+package org.apache.commons.jcs3.jcache;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Properties;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.spi.CachingProvider;
+
+import org.apache.commons.jcs3.engine.CacheElement;
+import org.apache.commons.jcs3.engine.control.CompositeCache;
+import org.junit.Test;
+
+public class NearCacheTest
+{
+    @Test
+    public void invalidatedByRegionEvents() throws Exception
+    {
+        final CachingProvider cachingProvider = Caching.getCachingProvider();
+        final Properties properties = new Properties();
+        properties.setProperty("near-cache.size", "100");
+        // own loader to get a manager with these properties
+        final ClassLoader loader = new URLClassLoader(new URL[0], Thread.currentThread().getContextClassLoader());
+        final CacheManager cacheManager = cachingProvider.getCacheManager(cachingProvider.getDefaultURI(), loader, properties);
+        try
+        {
+            final Cache<String, String> cache = cacheManager.createCache("near",
+                    new MutableConfiguration<String, String>().setTypes(String.class, String.class));
+            cache.put("foo", "bar");
+            assertEquals("bar", cache.get("foo"));
+            assertEquals("bar", cache.get("foo"));
+
+            // what a lateral or remote put does
+            @SuppressWarnings("unchecked")
+            final CompositeCache<String, String> region = (CompositeCache<String, String>) cache.unwrap(JCSCache.class).getRegion();
+            region.localUpdate(new CacheElement<>("near", "foo", "remote"));
+            assertEquals("remote", cache.get("foo"));
+
+            // and a remote remove
+            region.localRemove("foo");
+            assertNull(cache.get("foo"));
+
+            cache.put("foo", "again");
+            assertEquals("again", cache.get("foo"));
+            region.localRemoveAll();
+            assertNull(cache.get("foo"));
+        }
+        finally
+        {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    public void staleReadIsNotCached()
+    {
+        final NearCache<String, String> nearCache = new NearCache<>(10, 60000);
+        final long version = nearCache.version();
+        nearCache.invalidate("foo"); // a change while we read the region
+        nearCache.put("foo", new CacheElement<>("near", "foo", "old"), version);
+        assertNull(nearCache.get("foo"));
+
+        nearCache.put("foo", new CacheElement<>("near", "foo", "new"), nearCache.version());
+        assertEquals("new", nearCache.get("foo"));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.commons.jcs3.jcache.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.jcs3.utils.serialization.StandardSerializer;
+import org.junit.Test;
+
+public class DefaultCopierTest
+{
+    private final DefaultCopier copier = new DefaultCopier(new StandardSerializer(), DefaultCopierTest.class.getClassLoader());
+
+    @Test
+    public void immutablesAreShared()
+    {
+        final String string = new String("foo");
+        assertSame(string, copier.copy(string));
+        final Long number = Long.valueOf(123456789L);
+        assertSame(number, copier.copy(number));
+        final LocalDate date = LocalDate.of(2020, 1, 1);
+        assertSame(date, copier.copy(date));
+        assertSame(TimeUnit.SECONDS, copier.copy(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void arraysAndCollectionsAreCopied()
+    {
+        final int[] ints = { 1, 2, 3 };
+        final int[] intsCopy = copier.copy(ints);
+        assertNotSame(ints, intsCopy);
+        assertArrayEquals(ints, intsCopy);
+
+        final Mutable mutable = new Mutable("a");
+        final List<Object> list = new ArrayList<>(Arrays.asList("x", mutable));
+        final Map<String, List<Object>> map = new HashMap<>();
+        map.put("list", list);
+
+        final Map<String, List<Object>> mapCopy = copier.copy(map);
+        assertNotSame(map, mapCopy);
+        assertNotSame(list, mapCopy.get("list"));
+        assertSame("x", mapCopy.get("list").get(0));
+        final Mutable mutableCopy = (Mutable) mapCopy.get("list").get(1);
+        assertNotSame(mutable, mutableCopy);
+        assertEquals("a", mutableCopy.value);
+    }
+
+    @Test
+    public void sharedReferencesStayShared()
+    {
+        final List<Object> shared = new ArrayList<>(Arrays.asList("x"));
+        final Mutable mutable = new Mutable("a");
+        final Object[] array = { shared, shared, mutable, mutable };
+
+        final Object[] copy = copier.copy(array);
+        assertNotSame(shared, copy[0]);
+        assertSame(copy[0], copy[1]);
+        assertNotSame(mutable, copy[2]);
+        assertSame(copy[2], copy[3]);
+    }
+
+    @Test
+    public void cyclesAreCopied()
+    {
+        final List<Object> list = new ArrayList<>();
+        final Map<String, Object> map = new HashMap<>();
+        list.add(map);
+        map.put("list", list);
+        final Object[] array = new Object[1];
+        array[0] = array;
+
+        final List<Object> listCopy = copier.copy(list);
+        assertNotSame(list, listCopy);
+        final Map<?, ?> mapCopy = (Map<?, ?>) listCopy.get(0);
+        assertNotSame(map, mapCopy);
+        assertSame(listCopy, mapCopy.get("list"));
+
+        final Object[] arrayCopy = copier.copy(array);
+        assertNotSame(array, arrayCopy);
+        assertSame(arrayCopy, arrayCopy[0]);
+    }
+
+    @Test
+    public void othersAreSerialized()
+    {
+        final Mutable mutable = new Mutable("a");
+        final Mutable copy = copier.copy(mutable);
+        assertNotSame(mutable, copy);
+        assertEquals("a", copy.value);
+    }
+
+    public static class Mutable implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private String value;
+
+        public Mutable(final String value)
+        {
+            this.value = value;
+        }
+    }
+}